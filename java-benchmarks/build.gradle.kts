@@ -0,0 +1,66 @@
+// JMH benchmarks of the hot paths of Tai-e. Run all of them by
+//     ./gradlew :java-benchmarks:jmh
+// or the ones matching a regular expression by
+//     ./gradlew :java-benchmarks:jmh -PjmhIncludes=BitSetBenchmark
+// and the results are written to java-benchmarks/build/results/jmh/.
+//
+// The scalability benchmark scans synthetic corpora of the given numbers of methods
+//     ./gradlew :java-benchmarks:scaleBenchmark -PscaleArgs="--methods 10000,100000 --depth 4"
+// and a corpus alone is generated by
+//     ./gradlew :java-benchmarks:generateCorpus -PcorpusArgs="--methods 10000"
+// see pascal.taie.benchmark.corpus.CorpusSpec for the options.
+
+plugins {
+    java
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+repositories {
+    mavenCentral()
+}
+
+java {
+    toolchain {
+        languageVersion.set(javaVersion)
+    }
+}
+
+tasks.withType<JavaCompile> {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    implementation(project(":"))
+    // Generate the class files of synthetic corpora
+    implementation("org.ow2.asm:asm:9.4")
+    jmhImplementation(project(":"))
+}
+
+fun JavaExec.argsOf(property: String, vararg defaults: String) {
+    args(*defaults)
+    providers.gradleProperty(property).orNull?.let { args(it.split(" ").filter(String::isNotEmpty)) }
+}
+
+tasks.register<JavaExec>("generateCorpus") {
+    group = "benchmark"
+    description = "Generates a synthetic gadget-chain corpus with its ground truth"
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("pascal.taie.benchmark.corpus.CorpusGenerator")
+    argsOf("corpusArgs", "--out", layout.buildDirectory.dir("corpus").get().asFile.path)
+}
+
+tasks.register<JavaExec>("scaleBenchmark") {
+    group = "benchmark"
+    description = "Scans synthetic corpora of increasing sizes, and reports time, peak heap and recall"
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("pascal.taie.benchmark.corpus.ScaleBenchmark")
+    argsOf("scaleArgs", "--out", layout.buildDirectory.dir("scale").get().asFile.path)
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    resultFormat.set("JSON")
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.add(it) }
+    // the benchmarks on a world build it from the test classes of Tai-e
+    jvmArgsAppend.addAll("-Xmx4G", "-Dtaie.root=${rootDir}")
+}
@@ -0,0 +1,129 @@
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.ArraySet;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Views;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generated CFG without IR, whose nodes are the integers from 0 (entry)
+ * to n-1 (exit). Each node falls through to the next one, and may also
+ * jump to a node ahead (branch) or behind (loop). Declared in this package
+ * as the constructor of {@link CFGEdge} is package-private.
+ */
+public class SyntheticCFG implements CFG<Integer> {
+
+    private final ArrayList<Integer> nodes = new ArrayList<>();
+
+    private final Set<Integer> nodeSet;
+
+    private final List<Set<CFGEdge<Integer>>> inEdges = new ArrayList<>();
+
+    private final List<Set<CFGEdge<Integer>>> outEdges = new ArrayList<>();
+
+    /**
+     * @param n          number of nodes
+     * @param branchRate probability of a node to have a jump ahead
+     * @param loopRate   probability of a node to have a jump behind
+     * @param seed       seed of the random generator
+     */
+    public SyntheticCFG(int n, double branchRate, double loopRate, long seed) {
+        for (int i = 0; i < n; i++) {
+            nodes.add(i);
+            inEdges.add(Sets.newHybridSet());
+            outEdges.add(Sets.newHybridSet());
+        }
+        Random random = new Random(seed);
+        for (int i = 0; i < n - 1; i++) {
+            boolean branch = random.nextDouble() < branchRate;
+            addEdge(new CFGEdge<>(branch ? CFGEdge.Kind.IF_FALSE : CFGEdge.Kind.FALL_THROUGH, i, i + 1));
+            if (branch && i + 2 < n) {
+                int target = i + 2 + random.nextInt(Math.min(16, n - i - 2));
+                addEdge(new CFGEdge<>(CFGEdge.Kind.IF_TRUE, i, target));
+            }
+            if (i > 0 && random.nextDouble() < loopRate) {
+                int target = Math.max(1, i - 1 - random.nextInt(32));
+                addEdge(new CFGEdge<>(CFGEdge.Kind.GOTO, i, target));
+            }
+        }
+        nodeSet = Collections.unmodifiableSet(new ArraySet<>(nodes, true));
+    }
+
+    private void addEdge(CFGEdge<Integer> edge) {
+        if (outEdges.get(edge.source()).add(edge)) {
+            inEdges.get(edge.target()).add(edge);
+        }
+    }
+
+    @Override
+    public IR getIR() {
+        return null;
+    }
+
+    @Override
+    public JMethod getMethod() {
+        return null;
+    }
+
+    @Override
+    public Integer getEntry() {
+        return 0;
+    }
+
+    @Override
+    public Integer getExit() {
+        return nodes.size() - 1;
+    }
+
+    @Override
+    public boolean isEntry(Integer node) {
+        return node == 0;
+    }
+
+    @Override
+    public boolean isExit(Integer node) {
+        return node == nodes.size() - 1;
+    }
+
+    @Override
+    public int getIndex(Integer node) {
+        return node;
+    }
+
+    @Override
+    public Integer getNode(int index) {
+        return nodes.get(index);
+    }
+
+    @Override
+    public Set<CFGEdge<Integer>> getInEdgesOf(Integer node) {
+        return inEdges.get(node);
+    }
+
+    @Override
+    public Set<CFGEdge<Integer>> getOutEdgesOf(Integer node) {
+        return outEdges.get(node);
+    }
+
+    @Override
+    public Set<Integer> getPredsOf(Integer node) {
+        return Views.toMappedSet(inEdges.get(node), CFGEdge::source);
+    }
+
+    @Override
+    public Set<Integer> getSuccsOf(Integer node) {
+        return Views.toMappedSet(outEdges.get(node), CFGEdge::target);
+    }
+
+    @Override
+    public Set<Integer> getNodes() {
+        return nodeSet;
+    }
+}
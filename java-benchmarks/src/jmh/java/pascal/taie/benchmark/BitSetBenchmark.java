@@ -0,0 +1,112 @@
+package pascal.taie.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.util.collection.IBitSet;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the bit sets of {@code util.collection}, on sets of
+ * {@link #bits} random bits among {@link #range} indexes, where the
+ * sparse sets are the ones used for large and sparse domains.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitSetBenchmark {
+
+    @Param({"false", "true"})
+    public boolean sparse;
+
+    @Param({"1024", "1048576"})
+    public int range;
+
+    @Param({"64", "1024"})
+    public int bits;
+
+    private int[] indexes;
+
+    private IBitSet set1;
+
+    private IBitSet set2;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        indexes = random.ints(bits, 0, range).toArray();
+        set1 = newBitSet(random);
+        set2 = newBitSet(random);
+    }
+
+    private IBitSet newBitSet(Random random) {
+        IBitSet set = IBitSet.newBitSet(sparse);
+        random.ints(bits, 0, range).forEach(set::set);
+        return set;
+    }
+
+    @Benchmark
+    public IBitSet set() {
+        IBitSet set = IBitSet.newBitSet(sparse);
+        for (int i : indexes) {
+            set.set(i);
+        }
+        return set;
+    }
+
+    @Benchmark
+    public int get() {
+        int count = 0;
+        for (int i : indexes) {
+            if (set1.get(i)) ++count;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int iterate() {
+        int sum = 0;
+        for (int i = set1.nextSetBit(0); i >= 0; i = set1.nextSetBit(i + 1)) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public IBitSet or() {
+        IBitSet set = set1.copy();
+        set.or(set2);
+        return set;
+    }
+
+    @Benchmark
+    public IBitSet orDiff() {
+        IBitSet set = set1.copy();
+        return set.orDiff(set2);
+    }
+
+    @Benchmark
+    public IBitSet and() {
+        IBitSet set = set1.copy();
+        set.and(set2);
+        return set;
+    }
+
+    @Benchmark
+    public int cardinality() {
+        return set1.cardinality();
+    }
+}
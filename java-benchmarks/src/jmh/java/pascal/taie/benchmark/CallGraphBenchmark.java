@@ -0,0 +1,110 @@
+package pascal.taie.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.ContrValue;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelectorFactory;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of adding call edges to a callee with many callers,
+ * e.g., a sink, where each edge is checked against the in-edges
+ * of the callee before it is added.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallGraphBenchmark {
+
+    /**
+     * Number of in-edges of the callee.
+     */
+    @Param({"64", "1024"})
+    public int width;
+
+    private List<Invoke> invokes;
+
+    private JMethod callee;
+
+    private CSCallGraph callGraph;
+
+    private List<Edge<CSCallSite, CSMethod>> edges;
+
+    private List<Edge<CSCallSite, CSMethod>> duplicates;
+
+    @Setup(Level.Trial)
+    public void setupInvokes(WorldState world) {
+        invokes = WorldState.concreteMethods()
+                .flatMap(m -> m.getIR().invokes(false))
+                .limit(width)
+                .toList();
+        callee = WorldState.concreteMethods()
+                .filter(m -> m.getName().equals("readObject"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /**
+     * Creates a new call graph and the edges to be added, as the edges
+     * added to a callee cannot be removed.
+     */
+    @Setup(Level.Invocation)
+    public void setupCallGraph() {
+        Context context = ContextSelectorFactory.makeCISelector().getEmptyContext();
+        MapBasedCSManager csManager = new MapBasedCSManager();
+        callGraph = new CSCallGraph(csManager, context);
+        CSMethod csCallee = csManager.getCSMethod(context, callee);
+        edges = new ArrayList<>(invokes.size());
+        duplicates = new ArrayList<>(invokes.size());
+        for (int i = 0; i < invokes.size(); i++) {
+            Invoke invoke = invokes.get(i);
+            CSCallSite csCallSite = csManager.getCSCallSite(context, invoke);
+            List<ContrValue> contr = List.of(ContrValue.of(i % 4 - 1), ContrValue.of(i % 5 - 3));
+            edges.add(new Edge<>(CallGraphs.getCallKind(invoke), csCallSite, csCallee,
+                    contr, invoke.getLineNumber(), List.of()));
+            duplicates.add(new Edge<>(CallGraphs.getCallKind(invoke), csCallSite, csCallee,
+                    contr, invoke.getLineNumber(), List.of()));
+        }
+    }
+
+    /**
+     * Adds the edges to the callee, followed by the same edges again,
+     * which are rejected by the in-edges of the callee.
+     */
+    @Benchmark
+    public int addEdge() {
+        int added = 0;
+        for (Edge<CSCallSite, CSMethod> edge : edges) {
+            if (callGraph.addEdge(edge)) ++added;
+        }
+        for (Edge<CSCallSite, CSMethod> edge : duplicates) {
+            if (callGraph.addEdge(edge)) ++added;
+        }
+        return added;
+    }
+}
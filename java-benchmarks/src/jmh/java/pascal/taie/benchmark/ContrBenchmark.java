@@ -0,0 +1,106 @@
+package pascal.taie.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.Contr;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.ContrValue;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.Utils.ContrUtil;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the contr value operations done for each statement
+ * of the summary analysis, over a mix of typical values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContrBenchmark {
+
+    private static final List<String> VALUES = List.of(
+            "null",
+            "polluted",
+            "this",
+            "param-0",
+            "param-3",
+            "this.map",
+            "param-1.table.key",
+            "this+java.lang.Object",
+            "param-0+java.util.HashMap",
+            "this.map+java.util.Map+param-2",
+            "polluted+java.lang.String",
+            "getOutputProperties",
+            "this.name+getOutputProperties",
+            "new+java.util.ArrayList");
+
+    private String[] strings;
+
+    private ContrValue[] values;
+
+    @Setup
+    public void setup() {
+        strings = VALUES.toArray(String[]::new);
+        values = VALUES.stream().map(ContrValue::of).toArray(ContrValue[]::new);
+    }
+
+    @Benchmark
+    public void string2IntOfString(Blackhole bh) {
+        for (String s : strings) {
+            bh.consume(ContrUtil.string2Int(s));
+        }
+    }
+
+    @Benchmark
+    public void string2IntOfValue(Blackhole bh) {
+        for (ContrValue v : values) {
+            bh.consume(ContrUtil.string2Int(v));
+        }
+    }
+
+    @Benchmark
+    public void needUpdateInMergeOfStrings(Blackhole bh) {
+        for (String oldV : strings) {
+            for (String newV : strings) {
+                bh.consume(ContrUtil.needUpdateInMerge(oldV, newV));
+            }
+        }
+    }
+
+    @Benchmark
+    public void needUpdateInMergeOfValues(Blackhole bh) {
+        for (ContrValue oldV : values) {
+            for (ContrValue newV : values) {
+                bh.consume(ContrUtil.needUpdateInMerge(oldV, newV));
+            }
+        }
+    }
+
+    /**
+     * Updates a contr by each pair of values, which covers the
+     * replacing and concatenating cases of {@link Contr#updateValue}.
+     */
+    @Benchmark
+    public void updateValue(Blackhole bh) {
+        for (ContrValue first : values) {
+            for (ContrValue second : values) {
+                Contr contr = Contr.newInstance(null);
+                contr.updateValue(first);
+                contr.updateValue(second);
+                bh.consume(contr.getValue());
+            }
+        }
+    }
+}
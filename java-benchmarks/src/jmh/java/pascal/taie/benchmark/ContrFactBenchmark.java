@@ -0,0 +1,106 @@
+package pascal.taie.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.Contr;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.ContrFact;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.ContrValue;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelectorFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of copying the contr facts, which happens at each node
+ * of the CFG in the summary analysis.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContrFactBenchmark {
+
+    /**
+     * Number of variables in a fact.
+     */
+    @Param({"16", "256"})
+    public int size;
+
+    /**
+     * Number of variables updated between the facts of two nodes.
+     */
+    @Param({"1", "8"})
+    public int updates;
+
+    private List<CSVar> vars;
+
+    private ContrFact fact;
+
+    private ContrFact updated;
+
+    private Contr contr;
+
+    @Setup
+    public void setup(WorldState world) {
+        Context context = ContextSelectorFactory.makeCISelector().getEmptyContext();
+        MapBasedCSManager csManager = new MapBasedCSManager();
+        vars = WorldState.concreteMethods()
+                .flatMap(m -> m.getIR().getVars().stream())
+                .limit(size)
+                .map(v -> csManager.getCSVar(context, v))
+                .toList();
+        fact = new ContrFact();
+        for (int i = 0; i < vars.size(); i++) {
+            Contr c = Contr.newInstance(vars.get(i));
+            c.setValue(ContrValue.of(i % 3 == 0 ? i % 4 - 1 : -3));
+            fact.update(vars.get(i), c);
+        }
+        updated = fact.copy();
+        for (int i = 0; i < updates; i++) {
+            Contr c = Contr.newInstance(vars.get(i));
+            c.setValue(ContrValue.POLLUTED);
+            updated.update(vars.get(i), c);
+        }
+        contr = Contr.newInstance(vars.get(0));
+        contr.setValue(ContrValue.THIS);
+    }
+
+    @Benchmark
+    public ContrFact copy() {
+        return fact.copy();
+    }
+
+    /**
+     * Copies a fact and updates a variable, as done by a transfer function.
+     */
+    @Benchmark
+    public ContrFact copyAndUpdate() {
+        ContrFact copy = fact.copy();
+        copy.update(vars.get(vars.size() / 2), contr);
+        return copy;
+    }
+
+    /**
+     * Copies the fact of a predecessor into the fact of a node, which
+     * differ in {@link #updates} variables.
+     */
+    @Benchmark
+    public boolean copyFrom() {
+        ContrFact target = fact.copy();
+        return target.copyFrom(updated);
+    }
+}
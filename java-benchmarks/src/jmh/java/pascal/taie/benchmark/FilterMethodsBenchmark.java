@@ -0,0 +1,73 @@
+package pascal.taie.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.World;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the queries of {@link World#filterMethods} done by the
+ * summary analysis for reflective calls, i.e., constructors of a class,
+ * methods matching a name pattern and {@code toString} of a type.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterMethodsBenchmark {
+
+    private World world;
+
+    private Type object;
+
+    private Type map;
+
+    private List<Type> stringArg;
+
+    @Setup
+    public void setup(WorldState state) {
+        world = World.get();
+        TypeSystem typeSystem = world.getTypeSystem();
+        object = typeSystem.getType("java.lang.Object");
+        map = typeSystem.getType("java.util.Map");
+        stringArg = List.of(typeSystem.getType("java.lang.String"));
+    }
+
+    /**
+     * Constructors with a String parameter of any class, as for
+     * {@code Class#getConstructor} on a controllable class.
+     */
+    @Benchmark
+    public Set<JMethod> constructorsOfObject() {
+        return world.filterMethods("<init>", "java.lang.Object", stringArg, true, true, null);
+    }
+
+    /**
+     * Getters of the subtypes of Map, as for reflective calls of getters.
+     */
+    @Benchmark
+    public Set<JMethod> gettersOfMap() {
+        return world.filterMethods("get.*", map, List.of(), false, false, null);
+    }
+
+    @Benchmark
+    public Set<JMethod> toStringOfObject() {
+        return world.filterMethods("toString", object, List.of(), true, false, null);
+    }
+}
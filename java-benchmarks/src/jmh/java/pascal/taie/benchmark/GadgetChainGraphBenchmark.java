@@ -0,0 +1,91 @@
+package pascal.taie.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.GadgetChainGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of collecting the paths to sinks on generated DAGs of
+ * {@link #layers} layers of {@link #width} methods, where each method
+ * calls {@link #fanOut} methods of the next layer, and the methods
+ * of the last layer are sinks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GadgetChainGraphBenchmark {
+
+    @Param({"6", "12"})
+    public int layers;
+
+    @Param({"32"})
+    public int width;
+
+    @Param({"2", "4"})
+    public int fanOut;
+
+    private final List<List<String>> edges = new ArrayList<>();
+
+    private GadgetChainGraph graph;
+
+    @Setup(Level.Trial)
+    public void generate(WorldState world) {
+        Random random = new Random(0);
+        for (int layer = 0; layer + 1 < layers; layer++) {
+            for (int i = 0; i < width; i++) {
+                for (int j = 0; j < fanOut; j++) {
+                    edges.add(List.of(node(layer, i), node(layer + 1, random.nextInt(width))));
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a new graph, as the collected paths are memoized.
+     */
+    @Setup(Level.Invocation)
+    public void buildGraph() {
+        graph = new GadgetChainGraph();
+        edges.forEach(graph::addPath);
+    }
+
+    @Benchmark
+    public Set<List<String>> collectPath() {
+        return graph.collectPath(node(0, 0));
+    }
+
+    /**
+     * Collects the paths of all methods in the first layer.
+     */
+    @Benchmark
+    public int collectPathOfLayer() {
+        int count = 0;
+        for (int i = 0; i < width; i++) {
+            count += graph.collectPath(node(0, i)).size();
+        }
+        return count;
+    }
+
+    private static String node(int layer, int i) {
+        return "<M" + layer + ": void m" + i + "()>";
+    }
+}
@@ -0,0 +1,95 @@
+package pascal.taie.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.SyntheticCFG;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the default solver on generated CFGs, by a reaching
+ * definitions analysis where each node defines one of {@link #VARS}
+ * variables.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkListSolverBenchmark {
+
+    private static final int VARS = 16;
+
+    @Param({"100", "1000"})
+    public int nodes;
+
+    @Param({"0.1", "0.3"})
+    public double branchRate;
+
+    @Param({"0.02"})
+    public double loopRate;
+
+    private ReachingDefinitions analysis;
+
+    @Setup
+    public void setup() {
+        analysis = new ReachingDefinitions(new SyntheticCFG(nodes, branchRate, loopRate, 0));
+    }
+
+    @Benchmark
+    public DataflowResult<Integer, SetFact<Integer>> solve() {
+        return Solver.<Integer, SetFact<Integer>>getSolver().solve(analysis);
+    }
+
+    private static class ReachingDefinitions
+            extends AbstractDataflowAnalysis<Integer, SetFact<Integer>> {
+
+        private ReachingDefinitions(CFG<Integer> cfg) {
+            super(cfg);
+        }
+
+        @Override
+        public boolean isForward() {
+            return true;
+        }
+
+        @Override
+        public SetFact<Integer> newBoundaryFact() {
+            return new SetFact<>();
+        }
+
+        @Override
+        public SetFact<Integer> newInitialFact() {
+            return new SetFact<>();
+        }
+
+        @Override
+        public void meetInto(SetFact<Integer> fact, SetFact<Integer> target) {
+            target.union(fact);
+        }
+
+        @Override
+        public boolean transferNode(Integer node, SetFact<Integer> in, SetFact<Integer> out) {
+            SetFact<Integer> oldOut = out.copy();
+            out.set(in);
+            out.removeIf(def -> def % VARS == node % VARS);
+            out.add(node);
+            return !out.equals(oldOut);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package pascal.taie.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Builds the world once per fork for the benchmarks which need it, from the
+ * JDK and the test classes under {@code src/test/resources/world} of Tai-e.
+ */
+@State(Scope.Benchmark)
+public class WorldState {
+
+    /**
+     * Max length of gadget chains, i.e., {@code -ml}.
+     */
+    public static final int GC_MAX_LEN = 8;
+
+    /**
+     * Max count of collected paths, i.e., {@code -pmc}.
+     */
+    public static final int PATH_MAX_COUNT = 1000;
+
+    @Setup(Level.Trial)
+    public void buildWorld() throws IOException {
+        if (World.get() != null) {
+            return;
+        }
+        String root = System.getProperty("taie.root", "..");
+        File outputDir = Files.createTempDirectory("tai-e-jmh").toFile();
+        Main.buildWorld("-pp",
+                "-cp", new File(root, "src/test/resources/world").getPath(),
+                "--input-classes", "DefaultMethod",
+                "--output-dir", outputDir.getPath(),
+                "-ml", String.valueOf(GC_MAX_LEN),
+                "-pmc", String.valueOf(PATH_MAX_COUNT),
+                "-go", new File(outputDir, "gc.txt").getPath());
+    }
+
+    /**
+     * @return the concrete methods of {@code java.util}, in a fixed order
+     * so that the benchmarks taking a prefix of them are repeatable.
+     */
+    static Stream<JMethod> concreteMethods() {
+        return World.get().getClassHierarchy()
+                .allClasses()
+                .filter(c -> c.getName().startsWith("java.util."))
+                .sorted(Comparator.comparing(JClass::getName))
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract() && !m.isNative());
+    }
+}
@@ -0,0 +1,125 @@
+package pascal.taie.frontend.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.World;
+import pascal.taie.benchmark.WorldState;
+import pascal.taie.config.Options;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of loading the world cache in the binary format of
+ * {@link WorldCacheFormat}, compared with the Java serialization
+ * of {@link World} that it replaces. The sizes of both caches are
+ * printed at the setup.
+ * <p>
+ * This benchmark is in the package of the world cache to access
+ * the reader and the writer of the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+public class WorldCacheBenchmark {
+
+    private World world;
+
+    private Options options;
+
+    private File segment;
+
+    private File binaryCache;
+
+    private File serializedCache;
+
+    @Setup(Level.Trial)
+    public void writeCaches(WorldState state) throws IOException {
+        world = World.get();
+        options = world.getOptions();
+        File dir = Files.createTempDirectory("tai-e-world-cache").toFile();
+        world.getIRBuilder().buildAll(world.getClassHierarchy());
+        // the whole world in a single segment
+        segment = new File(dir, "segment.bin");
+        new WorldCacheWriter(world, world.getClassHierarchy().allClasses().toList(),
+                null).write(segment);
+        binaryCache = new File(dir, "world-cache.bin");
+        new WorldCacheWriter(world, List.of(), List.of(segment.getName()))
+                .write(binaryCache);
+        serializedCache = new File(dir, "world-cache.ser");
+        try (ObjectOutputStream oos = new ObjectOutputStream(
+                new BufferedOutputStream(new FileOutputStream(serializedCache)))) {
+            oos.writeObject(world);
+        }
+        System.out.printf("%nbinary cache: %,d bytes, serialized cache: %,d bytes%n",
+                segment.length() + binaryCache.length(), serializedCache.length());
+    }
+
+    /**
+     * Clears the class-level caches filled by the previous load.
+     */
+    @Setup(Level.Invocation)
+    public void resetWorld() {
+        World.reset();
+    }
+
+    @TearDown(Level.Trial)
+    public void restoreWorld() {
+        segment.delete();
+        binaryCache.delete();
+        serializedCache.delete();
+        World.set(world);
+    }
+
+    /**
+     * Loads the binary cache, where the IRs are decoded on demand.
+     */
+    @Benchmark
+    public World loadBinary() throws IOException {
+        return WorldCacheReader.load(binaryCache, options);
+    }
+
+    /**
+     * Loads the binary cache and decodes the IRs of all methods,
+     * as the Java serialization does.
+     */
+    @Benchmark
+    public World loadBinaryWithAllIRs() throws IOException {
+        World loaded = WorldCacheReader.load(binaryCache, options);
+        loaded.getIRBuilder().buildAll(loaded.getClassHierarchy());
+        return loaded;
+    }
+
+    @Benchmark
+    public World loadSerialized() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new BufferedInputStream(new FileInputStream(serializedCache)))) {
+            World loaded = (World) ois.readObject();
+            World.set(loaded);
+            loaded.setOptions(options);
+            return loaded;
+        }
+    }
+}
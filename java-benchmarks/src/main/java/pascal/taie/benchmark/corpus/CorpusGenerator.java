@@ -0,0 +1,309 @@
+package pascal.taie.benchmark.corpus;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the class files of a synthetic corpus of the given {@link CorpusSpec},
+ * together with the sink configuration for the {@code priori-knowledge} option
+ * and the ground truth of the gadget chains in it.
+ * <p>
+ * The classes of family {@code i} are in package {@code corpus.f<i>}:
+ * <ul>
+ *     <li>{@code L<k>}: interface of level k with {@code Object step<k>(Object)}</li>
+ *     <li>{@code Source}: reads {@code L1 next} and {@code Object payload},
+ *     and calls {@code next.step1(payload)} in {@code readObject}</li>
+ *     <li>{@code N<k>_<j>}: implementations of level k which pass the argument to
+ *     {@code next.step<k+1>} of their field {@code L<k+1> next}, or to the sink
+ *     at the last level</li>
+ *     <li>{@code D<k>_<j>}: implementations of level k which return the argument</li>
+ * </ul>
+ * All classes except the interfaces are serializable, and the sink is
+ * {@code corpus.Sink.exec(Object)}. The ground truth lists each chain in a line,
+ * i.e., the signatures from the source to the sink separated by tabs.
+ */
+public class CorpusGenerator {
+
+    public static final String SINK_CLASS = "corpus/Sink";
+
+    public static final String SINK = "<corpus.Sink: void exec(java.lang.Object)>";
+
+    public static final String CLASSES_DIR = "classes";
+
+    public static final String PRIORI_KNOWLEDGE = "priori-knowledge.yml";
+
+    public static final String GROUND_TRUTH = "ground-truth.txt";
+
+    private static final String OBJECT = "java/lang/Object";
+
+    private static final String OBJECT_DESC = "Ljava/lang/Object;";
+
+    private static final String STEP_DESC = "(Ljava/lang/Object;)Ljava/lang/Object;";
+
+    private static final String[] SERIALIZABLE = {"java/io/Serializable"};
+
+    private final CorpusSpec spec;
+
+    public CorpusGenerator(CorpusSpec spec) {
+        this.spec = spec;
+    }
+
+    /**
+     * The files of a generated corpus.
+     */
+    public record Corpus(CorpusSpec spec, Path classes, Path prioriKnowledge, Path groundTruth) {
+    }
+
+    /**
+     * Generates the corpus in the given directory.
+     */
+    public Corpus generate(Path dir) throws IOException {
+        Path classes = dir.resolve(CLASSES_DIR);
+        writeClass(classes, SINK_CLASS, sink());
+        for (int f = 0; f < spec.families(); f++) {
+            String pkg = "corpus/f" + f + "/";
+            for (int k = 1; k <= spec.depth(); k++) {
+                writeClass(classes, pkg + "L" + k, level(pkg, k));
+                for (int j = 0; j < spec.fanOut(); j++) {
+                    String name = pkg + "N" + k + "_" + j;
+                    writeClass(classes, name, hop(pkg, name, k));
+                }
+                for (int j = 0; j < spec.decoys(); j++) {
+                    String name = pkg + "D" + k + "_" + j;
+                    writeClass(classes, name, decoy(pkg, name, k));
+                }
+            }
+            writeClass(classes, pkg + "Source", source(pkg));
+        }
+        Path prioriKnowledge = dir.resolve(PRIORI_KNOWLEDGE);
+        Files.writeString(prioriKnowledge,
+                "sinks:\n  - { method: \"" + SINK + "\", index: [ \"0\" ] }\n");
+        Path groundTruth = dir.resolve(GROUND_TRUTH);
+        try (PrintWriter pw = new PrintWriter(Files.newBufferedWriter(groundTruth))) {
+            for (int f = 0; f < spec.families(); f++) {
+                writeChains(pw, f);
+            }
+        }
+        return new Corpus(spec, classes, prioriKnowledge, groundTruth);
+    }
+
+    private void writeChains(PrintWriter pw, int family) {
+        String pkg = "corpus.f" + family + ".";
+        String source = "<" + pkg + "Source: void readObject(java.io.ObjectInputStream)>";
+        int[] choice = new int[spec.depth()];
+        while (true) {
+            List<String> chain = new ArrayList<>(spec.depth() + 2);
+            chain.add(source);
+            for (int k = 1; k <= spec.depth(); k++) {
+                chain.add("<" + pkg + "N" + k + "_" + choice[k - 1]
+                        + ": java.lang.Object step" + k + "(java.lang.Object)>");
+            }
+            chain.add(SINK);
+            pw.println(String.join("\t", chain));
+            // next choice of implementations, in lexicographic order
+            int i = spec.depth() - 1;
+            while (i >= 0 && ++choice[i] == spec.fanOut()) {
+                choice[i--] = 0;
+            }
+            if (i < 0) {
+                break;
+            }
+        }
+    }
+
+    private static byte[] sink() {
+        ClassWriter cw = newClass(SINK_CLASS, Opcodes.ACC_PUBLIC, null);
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC,
+                "exec", "(Ljava/lang/Object;)V", null, null);
+        mv.visitCode();
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        return end(cw);
+    }
+
+    private static byte[] level(String pkg, int k) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT,
+                pkg + "L" + k, null, OBJECT, null);
+        cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT,
+                "step" + k, STEP_DESC, null, null).visitEnd();
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private byte[] source(String pkg) {
+        String name = pkg + "Source";
+        ClassWriter cw = newClass(name, Opcodes.ACC_PUBLIC, SERIALIZABLE);
+        cw.visitField(Opcodes.ACC_PRIVATE, "next", "L" + pkg + "L1;", null, null).visitEnd();
+        cw.visitField(Opcodes.ACC_PRIVATE, "payload", OBJECT_DESC, null, null).visitEnd();
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PRIVATE, "readObject",
+                "(Ljava/io/ObjectInputStream;)V", null,
+                new String[]{"java/io/IOException", "java/lang/ClassNotFoundException"});
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/io/ObjectInputStream",
+                "defaultReadObject", "()V", false);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, name, "next", "L" + pkg + "L1;");
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, name, "payload", OBJECT_DESC);
+        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, pkg + "L1", "step1", STEP_DESC, true);
+        mv.visitInsn(Opcodes.POP);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        addFillers(cw);
+        return end(cw);
+    }
+
+    private byte[] hop(String pkg, String name, int k) {
+        ClassWriter cw = newClass(name, Opcodes.ACC_PUBLIC, new String[]{pkg + "L" + k, SERIALIZABLE[0]});
+        MethodVisitor mv;
+        if (k == spec.depth()) {
+            mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "step" + k, STEP_DESC, null, null);
+            mv.visitCode();
+            mv.visitVarInsn(Opcodes.ALOAD, 1);
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, SINK_CLASS, "exec", "(Ljava/lang/Object;)V", false);
+            mv.visitInsn(Opcodes.ACONST_NULL);
+        } else {
+            String nextLevel = pkg + "L" + (k + 1);
+            String nextStep = "step" + (k + 1);
+            cw.visitField(Opcodes.ACC_PRIVATE, "next", "L" + nextLevel + ";", null, null).visitEnd();
+            if (k <= spec.reflectiveHops()) {
+                // next.getClass().getMethod("step<k+1>", Object.class).invoke(next, o)
+                mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "step" + k, STEP_DESC, null,
+                        new String[]{"java/lang/Exception"});
+                mv.visitCode();
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitFieldInsn(Opcodes.GETFIELD, name, "next", "L" + nextLevel + ";");
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, OBJECT, "getClass", "()Ljava/lang/Class;", false);
+                mv.visitLdcInsn(nextStep);
+                mv.visitInsn(Opcodes.ICONST_1);
+                mv.visitTypeInsn(Opcodes.ANEWARRAY, "java/lang/Class");
+                mv.visitInsn(Opcodes.DUP);
+                mv.visitInsn(Opcodes.ICONST_0);
+                mv.visitLdcInsn(Type.getObjectType(OBJECT));
+                mv.visitInsn(Opcodes.AASTORE);
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/Class", "getMethod",
+                        "(Ljava/lang/String;[Ljava/lang/Class;)Ljava/lang/reflect/Method;", false);
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitFieldInsn(Opcodes.GETFIELD, name, "next", "L" + nextLevel + ";");
+                mv.visitInsn(Opcodes.ICONST_1);
+                mv.visitTypeInsn(Opcodes.ANEWARRAY, OBJECT);
+                mv.visitInsn(Opcodes.DUP);
+                mv.visitInsn(Opcodes.ICONST_0);
+                mv.visitVarInsn(Opcodes.ALOAD, 1);
+                mv.visitInsn(Opcodes.AASTORE);
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/reflect/Method", "invoke",
+                        "(Ljava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;", false);
+            } else {
+                mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "step" + k, STEP_DESC, null, null);
+                mv.visitCode();
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitFieldInsn(Opcodes.GETFIELD, name, "next", "L" + nextLevel + ";");
+                mv.visitVarInsn(Opcodes.ALOAD, 1);
+                mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, nextLevel, nextStep, STEP_DESC, true);
+            }
+        }
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        addFillers(cw);
+        return end(cw);
+    }
+
+    private byte[] decoy(String pkg, String name, int k) {
+        ClassWriter cw = newClass(name, Opcodes.ACC_PUBLIC, new String[]{pkg + "L" + k, SERIALIZABLE[0]});
+        addIdentity(cw, "step" + k);
+        addFillers(cw);
+        return end(cw);
+    }
+
+    private void addFillers(ClassWriter cw) {
+        for (int i = 0; i < spec.fillers(); i++) {
+            addIdentity(cw, "filler" + i);
+        }
+    }
+
+    /**
+     * Adds a method which returns its argument.
+     */
+    private static void addIdentity(ClassWriter cw, String name) {
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, name, STEP_DESC, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * Starts a class with a public no-arg constructor. The generated code has
+     * no branches, so no stack map frames are needed.
+     */
+    private static ClassWriter newClass(String name, int access, String[] interfaces) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_8, access | Opcodes.ACC_SUPER, name, null, OBJECT, interfaces);
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        return cw;
+    }
+
+    private static byte[] end(ClassWriter cw) {
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void writeClass(Path classes, String name, byte[] bytes) throws IOException {
+        Path file = classes.resolve(name + ".class");
+        Files.createDirectories(file.getParent());
+        Files.write(file, bytes);
+    }
+
+    /**
+     * Parses {@code --key value} options.
+     */
+    static Map<String, String> parseOptions(String... args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --<key> but found " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    /**
+     * Generates a corpus by {@code --out <dir>} and the options of {@link CorpusSpec#parse},
+     * where {@code --methods <n>} sets the number of families by the number of methods.
+     */
+    public static void main(String... args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        CorpusSpec spec = CorpusSpec.parse(options);
+        if (options.containsKey("methods")) {
+            spec = spec.withMethods(Long.parseLong(options.get("methods")));
+        }
+        Path out = Path.of(options.getOrDefault("out", "corpus"));
+        Corpus corpus = new CorpusGenerator(spec).generate(out);
+        System.out.printf("Generated %d methods and %d chains in %s%n",
+                spec.methodCount(), spec.chainCount(), corpus.classes());
+    }
+}
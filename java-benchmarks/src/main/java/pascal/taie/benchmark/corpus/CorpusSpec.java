@@ -0,0 +1,80 @@
+package pascal.taie.benchmark.corpus;
+
+import java.util.Map;
+
+/**
+ * Shape of a synthetic corpus generated by {@link CorpusGenerator}.
+ * <p>
+ * The corpus consists of independent families. Each family has a source
+ * class whose {@code readObject} calls level 1 of a chain of
+ * {@link #depth} levels through a field of an interface type, and each level
+ * has {@link #fanOut} implementations which call the next level through their
+ * own field, the ones of the last level calling the sink. So each family has
+ * {@code fanOut^depth} gadget chains.
+ *
+ * @param families       number of families, i.e., of {@code readObject} sources
+ * @param depth          number of levels between a source and the sink
+ * @param fanOut         implementations of each level which call the next level
+ * @param decoys         implementations of each level which call nothing, i.e., dead ends
+ * @param reflectiveHops number of levels, from level 1, which call the next level by
+ *                       {@code Method.invoke} instead of an interface call
+ * @param fillers        extra methods of each class, which are never called
+ */
+public record CorpusSpec(int families, int depth, int fanOut, int decoys,
+                         int reflectiveHops, int fillers) {
+
+    public CorpusSpec {
+        if (families < 1 || depth < 1 || fanOut < 1) {
+            throw new IllegalArgumentException("families, depth and fanOut must be positive");
+        }
+        if (decoys < 0 || fillers < 0 || reflectiveHops < 0 || reflectiveHops >= depth) {
+            throw new IllegalArgumentException("decoys and fillers must not be negative, "
+                    + "and reflectiveHops must be in [0, depth)");
+        }
+    }
+
+    /**
+     * Default shape, which is overridden by the given {@code --key value} options,
+     * e.g., {@code --families 100 --depth 4}.
+     */
+    public static CorpusSpec parse(Map<String, String> options) {
+        return new CorpusSpec(
+                Integer.parseInt(options.getOrDefault("families", "10")),
+                Integer.parseInt(options.getOrDefault("depth", "4")),
+                Integer.parseInt(options.getOrDefault("fan-out", "2")),
+                Integer.parseInt(options.getOrDefault("decoys", "2")),
+                Integer.parseInt(options.getOrDefault("reflective-hops", "1")),
+                Integer.parseInt(options.getOrDefault("fillers", "4")));
+    }
+
+    /**
+     * @return the spec with the same shape of families, and as many families
+     * as needed to have about the given number of methods.
+     */
+    public CorpusSpec withMethods(long methods) {
+        int n = (int) Math.max(1, (methods - 2) / methodsPerFamily());
+        return new CorpusSpec(n, depth, fanOut, decoys, reflectiveHops, fillers);
+    }
+
+    /**
+     * @return number of generated methods, including the ones of the sink class.
+     */
+    public long methodCount() {
+        return (long) families * methodsPerFamily() + 2;
+    }
+
+    /**
+     * @return number of gadget chains.
+     */
+    public long chainCount() {
+        return families * (long) Math.pow(fanOut, depth);
+    }
+
+    private long methodsPerFamily() {
+        // each class has <init>, its own method and fillers
+        long perClass = 2 + fillers;
+        long classes = 1 + (long) depth * (fanOut + decoys);
+        // the interface of each level has one method
+        return classes * perClass + depth;
+    }
+}
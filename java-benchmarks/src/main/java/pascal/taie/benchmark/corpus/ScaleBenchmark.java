@@ -0,0 +1,185 @@
+package pascal.taie.benchmark.corpus;
+
+import pascal.taie.Main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs Flash on synthetic corpora of increasing sizes, and reports the wall time,
+ * the peak heap and the recall of the gadget chains of each scan.
+ * <p>
+ * Each scan runs in its own JVM, so that the world and the static states of
+ * the analysis do not leak between scans. The recall is the fraction of the
+ * chains in the ground truth which are found, where the found chains are read
+ * from the JSON Lines output of the gadget chains. The results are also
+ * appended to {@code scale-results.csv} in the output directory.
+ */
+public class ScaleBenchmark {
+
+    private static final String PEAK_HEAP_FILE = "scale.peak-heap-file";
+
+    private static final Pattern DECLARATION = Pattern.compile("^\\{\"id\":(\\d+),\"method\":\"(.*)\"}$");
+
+    private static final Pattern CHAIN_METHOD = Pattern.compile("\"method\":(\\d+)");
+
+    /**
+     * Result of a scan.
+     *
+     * @param methods       number of methods in the corpus
+     * @param seconds       wall time of the scan, including the building of the world
+     * @param peakHeap      sum of the peak usages of the heap memory pools, in bytes
+     * @param found         number of distinct chains found
+     * @param truePositives number of chains found which are in the ground truth
+     * @param expected      number of chains in the ground truth
+     */
+    public record Result(long methods, double seconds, long peakHeap,
+                         int found, int truePositives, int expected) {
+
+        public double recall() {
+            return expected == 0 ? 1 : (double) truePositives / expected;
+        }
+    }
+
+    /**
+     * Scans the corpora by {@code --methods <n1,n2,...>}, {@code --out <dir>},
+     * {@code --heap <max heap of the scans>} and the options of {@link CorpusSpec#parse}.
+     */
+    public static void main(String... args) throws IOException, InterruptedException {
+        Map<String, String> options = CorpusGenerator.parseOptions(args);
+        CorpusSpec base = CorpusSpec.parse(options);
+        long[] sizes = Arrays.stream(options.getOrDefault("methods", "10000,100000,1000000").split(","))
+                .mapToLong(Long::parseLong)
+                .toArray();
+        Path out = Path.of(options.getOrDefault("out", "scale"));
+        String heap = options.getOrDefault("heap", "8g");
+        Path csv = out.resolve("scale-results.csv");
+        Files.createDirectories(out);
+        if (!Files.exists(csv)) {
+            Files.writeString(csv, "methods,families,depth,fanOut,decoys,reflectiveHops,fillers,"
+                    + "seconds,peakHeapMB,found,truePositives,expected,recall\n");
+        }
+        System.out.printf("%10s %10s %12s %8s %8s %8s%n",
+                "methods", "time(s)", "peak-heap(MB)", "found", "expected", "recall");
+        for (long size : sizes) {
+            CorpusSpec spec = base.withMethods(size);
+            CorpusGenerator.Corpus corpus = new CorpusGenerator(spec)
+                    .generate(out.resolve(String.valueOf(size)));
+            Result r = scan(corpus, out.resolve(String.valueOf(size)).resolve("output"), heap);
+            System.out.printf("%10d %10.1f %12d %8d %8d %8.3f%n", r.methods(), r.seconds(),
+                    r.peakHeap() >> 20, r.found(), r.expected(), r.recall());
+            Files.writeString(csv, String.format("%d,%d,%d,%d,%d,%d,%d,%.1f,%d,%d,%d,%d,%.4f%n",
+                            r.methods(), spec.families(), spec.depth(), spec.fanOut(), spec.decoys(),
+                            spec.reflectiveHops(), spec.fillers(), r.seconds(), r.peakHeap() >> 20,
+                            r.found(), r.truePositives(), r.expected(), r.recall()),
+                    StandardOpenOption.APPEND);
+        }
+    }
+
+    /**
+     * Scans the given corpus by Flash in a new JVM.
+     */
+    public static Result scan(CorpusGenerator.Corpus corpus, Path outputDir, String heap)
+            throws IOException, InterruptedException {
+        Files.createDirectories(outputDir);
+        CorpusSpec spec = corpus.spec();
+        Path gcOut = outputDir.resolve("gc.jsonl");
+        Path peakHeapFile = outputDir.resolve("peak-heap.txt");
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx" + heap,
+                "-D" + PEAK_HEAP_FILE + "=" + peakHeapFile,
+                "-cp", System.getProperty("java.class.path"),
+                Scan.class.getName(),
+                "-pp",
+                "-acp", corpus.classes().toString(),
+                "-s", "serializable",
+                "-ml", String.valueOf(spec.depth() + 2),
+                "-pmc", String.valueOf(Math.max(1000, spec.chainCount() / spec.families())),
+                "-go", gcOut.toString(),
+                "-gf", "jsonl",
+                "--output-dir", outputDir.toString(),
+                "-a", "method-summary=priori-knowledge:" + corpus.prioriKnowledge()));
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .inheritIO()
+                .redirectOutput(outputDir.resolve("scan.log").toFile())
+                .start();
+        int exit = process.waitFor();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (exit != 0) {
+            throw new IllegalStateException("Scan of " + corpus.classes() + " exited with " + exit
+                    + ", see " + outputDir.resolve("scan.log"));
+        }
+        long peakHeap = Long.parseLong(Files.readString(peakHeapFile).trim());
+        Set<List<String>> found = readChains(gcOut);
+        int expected = 0;
+        int truePositives = 0;
+        for (String line : Files.readAllLines(corpus.groundTruth())) {
+            ++expected;
+            if (found.contains(List.of(line.split("\t")))) {
+                ++truePositives;
+            }
+        }
+        return new Result(spec.methodCount(), seconds, peakHeap, found.size(), truePositives, expected);
+    }
+
+    /**
+     * @return the chains in the given JSON Lines output of the gadget chains,
+     * as the lists of method signatures from the source to the sink.
+     */
+    static Set<List<String>> readChains(Path gcOut) throws IOException {
+        Map<Integer, String> methods = new HashMap<>();
+        Set<List<String>> chains = new HashSet<>();
+        for (String line : Files.readAllLines(gcOut)) {
+            Matcher declaration = DECLARATION.matcher(line);
+            if (declaration.matches()) {
+                methods.put(Integer.parseInt(declaration.group(1)),
+                        declaration.group(2).replace("\\\"", "\"").replace("\\\\", "\\"));
+            } else if (line.startsWith("{\"chain\":")) {
+                List<String> chain = new ArrayList<>();
+                Matcher method = CHAIN_METHOD.matcher(line);
+                while (method.find()) {
+                    chain.add(methods.get(Integer.parseInt(method.group(1))));
+                }
+                chains.add(chain);
+            }
+        }
+        return chains;
+    }
+
+    /**
+     * Entry of the JVM of a scan, which runs Flash by the given arguments
+     * and writes the peak heap usage to the file given by the system property.
+     */
+    public static class Scan {
+
+        public static void main(String... args) throws IOException {
+            Main.main(args);
+            long peak = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .map(MemoryPoolMXBean::getPeakUsage)
+                    .mapToLong(usage -> usage != null ? usage.getUsed() : 0)
+                    .sum();
+            try (PrintWriter pw = new PrintWriter(new File(System.getProperty(PEAK_HEAP_FILE)))) {
+                pw.println(peak);
+            }
+        }
+    }
+}
@@ -3,4 +3,5 @@
 include(
     ":", // root project
     "docs",
+    "java-benchmarks",
 )
@@ -27,9 +27,9 @@ import pascal.taie.config.Options;
 import pascal.taie.frontend.cache.CachedIRBuilder;
 import pascal.taie.frontend.soot.SootClassLoader;
 import pascal.taie.ir.IRBuilder;
-import pascal.taie.ir.exp.Var;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.MethodIndex;
 import pascal.taie.language.natives.NativeModel;
 import pascal.taie.language.type.ClassType;
 import pascal.taie.language.type.Type;
@@ -44,7 +44,6 @@ import java.io.Serial;
 import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.util.*;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -94,8 +93,15 @@ public final class World extends AbstractResultHolder
 
     private LinkedList<JMethod> GCEntries = new LinkedList<>();
 
+    /**
+     * Set of {@link #GCEntries} for fast deduplication.
+     */
+    private Set<JMethod> GCEntrySet = new HashSet<>();
+
     private Set<JMethod> invocationHandlerMethods = new HashSet<>();
 
+    private transient volatile MethodIndex methodIndex;
+
     /**
      * Sets current world to {@code world}.
      */
@@ -205,8 +211,8 @@ public final class World extends AbstractResultHolder
         setIRBuilder((IRBuilder) s.readObject());
     }
 
-    public void addGCEntry(JMethod m) {
-        if (!GCEntries.contains(m)) {
+    public synchronized void addGCEntry(JMethod m) {
+        if (GCEntrySet.add(m)) {
             GCEntries.add(m);
             if (SootClassLoader.readSubSigList.contains(m.getSubsignature().toString())
                     || getOptions().getSources().contains(m.toString())) m.setSource();
@@ -217,7 +223,7 @@ public final class World extends AbstractResultHolder
         return GCEntries;
     }
 
-    public void addInvocationHandlerMethod(JMethod m) {
+    public synchronized void addInvocationHandlerMethod(JMethod m) {
         invocationHandlerMethods.add(m);
         m.setInvoke();
     }
@@ -242,43 +248,51 @@ public final class World extends AbstractResultHolder
                 .flatMap(j -> j.getDeclaredMethods().stream());
     }
 
-    public Set<JMethod> filterMethods(String name, String clzName, List<Type> argTypes, boolean recSer, boolean paramSer, Type expandArgType) { // TODO 以下两个方法可以优化合并
-        boolean hasStar = clzName.contains("*");
-        Pattern pattern = hasStar ? Pattern.compile(clzName) : null;
-        Type clsType = null;
-        if (!hasStar) {
-            clsType = typeSystem.getType(clzName);
-            if (clsType == null || (clsType instanceof ClassType ct && ct.getJClass() == null)) return Sets.newSet();
+    /**
+     * @return the index of methods for looking up reflective targets,
+     * which is built at the first call.
+     */
+    public MethodIndex getMethodIndex() {
+        MethodIndex index = methodIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = methodIndex;
+                if (index == null) {
+                    methodIndex = index = new MethodIndex(allMethods());
+                }
+            }
         }
+        return index;
+    }
 
-        Type finalClsType = clsType;
-        return allMethods()
-                .filter(m -> hasStar ? pattern.matcher(m.getDeclaringClass().getName()).find() : m.getName().equals(name))
-                .filter(m -> typeSystem.isSubtype(finalClsType, m.getDeclaringClass().getType())
-                        && !m.isAbstract()
-                        && !m.isPrivate()
-                        && (recSer || m.getDeclaringClass().isSerializable())
-                        && (!paramSer || m.getIR().getParams().stream().allMatch(p -> ContrUtil.isSerializableType(p.getType()))))
-                .filter(m -> typeSystem.allSubType(expandArgType, argTypes, m.getIR().getParams().stream()
-                        .map(Var::getType)
-                        .collect(Collectors.toList())))
-                .collect(Collectors.toSet());
+    public Set<JMethod> filterMethods(String name, String clzName, List<Type> argTypes, boolean recSer, boolean paramSer, Type expandArgType) {
+        if (clzName.contains("*")) {
+            // no declaring class is a subtype of the unknown class type
+            return Sets.newSet();
+        }
+        Type clsType = typeSystem.getType(clzName);
+        if (clsType == null || (clsType instanceof ClassType ct && ct.getJClass() == null)) return Sets.newSet();
+        return filterMethods(getMethodIndex().getMethods(name, getParamCount(argTypes, expandArgType), !recSer),
+                clsType, argTypes, paramSer, expandArgType);
     }
 
     public Set<JMethod> filterMethods(String nameReg, Type clsType, List<Type> argTypes, boolean recSer, boolean paramSer, Type expandArgType) {
-        boolean hasStar = nameReg.contains("*");
-        Pattern pattern = Pattern.compile(nameReg);
-
-        return allMethods()
-                .filter(m -> hasStar ? pattern.matcher(m.getName()).find() : m.getName().equals(nameReg))
-                .filter(m -> !m.isAbstract()
-                        && !m.isPrivate()
-                        && typeSystem.isSubtype(clsType, m.getDeclaringClass().getType())
-                        && (recSer || m.getDeclaringClass().isSerializable())
-                        && (!paramSer || m.getIR().getParams().stream().allMatch(p -> ContrUtil.isSerializableType(p.getType()))))
-                .filter(m -> typeSystem.allSubType(expandArgType, argTypes, m.getIR().getParams().stream()
-                        .map(Var::getType)
-                        .collect(Collectors.toList())))
-                .collect(Collectors.toSet());
+        int paramCount = getParamCount(argTypes, expandArgType);
+        Stream<JMethod> candidates = nameReg.contains("*")
+                ? getMethodIndex().getMethodsMatching(nameReg, paramCount, !recSer)
+                : getMethodIndex().getMethods(nameReg, paramCount, !recSer);
+        return filterMethods(candidates, clsType, argTypes, paramSer, expandArgType);
+    }
+
+    private static int getParamCount(List<Type> argTypes, Type expandArgType) {
+        return expandArgType != null ? -1 : argTypes.size();
+    }
+
+    private Set<JMethod> filterMethods(Stream<JMethod> candidates, Type clsType, List<Type> argTypes, boolean paramSer, Type expandArgType) {
+        return candidates
+                .filter(m -> typeSystem.isSubtype(clsType, m.getDeclaringClass().getType())
+                        && (!paramSer || m.getParamTypes().stream().allMatch(ContrUtil::isSerializableType))
+                        && typeSystem.allSubType(expandArgType, argTypes, m.getParamTypes()))
+                .collect(Collectors.toCollection(Sets::newSet));
     }
 }
@@ -71,19 +71,26 @@ public class AnalysisManager {
 
     private List<JMethod> methodScope;
 
-    private static LinkedList<JMethod> workList;
+    private static EntryScheduler workList;
 
     private static List<MethodAnalysis> methodAnalyses;
 
+    private static SummaryAnalysisDriver summaryDriver;
+
+    /**
+     * Methods being analyzed in explicit-stack mode, null if no method is being analyzed.
+     */
+    private static Deque<MethodFrame> frames;
+
     public AnalysisManager(Plan plan) {
         this.plan = plan;
         this.keepAllResults = plan.keepResult().contains(Plan.KEEP_ALL);
-        workList = new LinkedList<>();
+        workList = new EntryScheduler();
         methodAnalyses = new ArrayList<>();
     }
 
     public static void addWL(JMethod method) {
-        if (!workList.contains(method)) workList.add(method);
+        workList.add(method);
     }
 
     /**
@@ -102,22 +109,61 @@ public class AnalysisManager {
         }
         // execute analyses
         plan.analyses().forEach(config -> methodAnalyses.add((MethodAnalysis) getAnalysis(config)));
+        summaryDriver = (SummaryAnalysisDriver) getAnalysis(methodAnalyses, SummaryAnalysisDriver.ID);
         World.get().filterHandler();
+        boolean prune = summaryDriver.getOptions().getBoolean("prune-unreachable");
+        boolean prioritize = "priority".equals(summaryDriver.getOptions().getString("entry-order"));
+        SinkReachability reachability = prune || prioritize
+                ? new SinkReachability(World.get().getGCEntries()) : null;
+        if (prioritize) {
+            EntryScheduler scheduler = new EntryScheduler(reachability);
+            while (!workList.isEmpty()) {
+                scheduler.add(workList.poll());
+            }
+            workList = scheduler;
+        }
         workList.addAll(World.get().getGCEntries());
+        // entries which cannot reach any sink are skipped, while the methods
+        // they call are still analyzed on demand by other entries
+        int nPruned = 0;
+        int nFinished = 0;
 
         while (!workList.isEmpty()) {
             JMethod method = workList.poll();
+            if (summaryDriver.isFinishedEntry(method)) {
+                ++nFinished;
+                continue;
+            }
             if (!method.hasSummary()) {
+                if (prune && !reachability.canReachSink(method)) {
+                    ++nPruned;
+                    continue;
+                }
                 runMethodAnalysis(method);
             }
+            summaryDriver.finishEntry(method);
+        }
+        if (prune) {
+            logger.info("{} entries which cannot reach sinks are skipped", nPruned);
+        }
+        if (nFinished > 0) {
+            logger.info("{} entries finished before resuming are skipped", nFinished);
         }
 
-        SummaryAnalysisDriver analysis = (SummaryAnalysisDriver) getAnalysis(methodAnalyses, SummaryAnalysisDriver.ID);
-        analysis.finish();
+        summaryDriver.finish();
     }
 
     public static void runMethodAnalysis(JMethod m) {
         if (m.isSink() || m.hasSummary() || m.isIgnored()) return;
+        if (summaryDriver.loadStoredSummary(m)) return;
+        if (summaryDriver.isExplicitStack()) {
+            if (frames == null) {
+                runWithExplicitStack(m);
+            } else if (!frames.peek().analyzed.contains(m)) {
+                throw new PendingMethod(m);
+            }
+            return;
+        }
         methodAnalyses.forEach(analysis -> {
             IR ir = m.getIR();
             Object result = analysis.analyze(ir);
@@ -127,6 +173,81 @@ public class AnalysisManager {
         });
     }
 
+    /**
+     * Analyzes the given method and the methods it needs with an explicit stack,
+     * instead of recursive calls of {@link #runMethodAnalysis(JMethod)}.
+     */
+    private static void runWithExplicitStack(JMethod entry) {
+        frames = new ArrayDeque<>();
+        frames.push(new MethodFrame(entry));
+        try {
+            while (!frames.isEmpty()) {
+                MethodFrame frame = frames.peek();
+                try {
+                    frame.resume();
+                    frames.pop();
+                    if (!frames.isEmpty()) {
+                        frames.peek().analyzed.add(frame.method);
+                    }
+                } catch (PendingMethod e) {
+                    frames.push(new MethodFrame(e.getMethod()));
+                }
+            }
+        } finally {
+            frames = null;
+        }
+    }
+
+    /**
+     * Method analyses of a method which are suspended by {@link PendingMethod}.
+     */
+    private static class MethodFrame {
+
+        private final JMethod method;
+
+        /**
+         * Methods analyzed for this method. Within the lifetime of this frame,
+         * analyzing them again makes no difference as their summaries either
+         * exist or cannot be computed (i.e., they are in the stack).
+         */
+        private final Set<JMethod> analyzed = new HashSet<>();
+
+        /**
+         * Index of the next method analysis to run.
+         */
+        private int next;
+
+        private SummaryAnalysisDriver.Frame summaryFrame;
+
+        private MethodFrame(JMethod method) {
+            this.method = method;
+        }
+
+        private void resume() {
+            IR ir = method.getIR();
+            for (; next < methodAnalyses.size(); ++next) {
+                MethodAnalysis analysis = methodAnalyses.get(next);
+                Object result;
+                if (analysis == summaryDriver) {
+                    if (summaryFrame == null) {
+                        summaryFrame = summaryDriver.newFrame(ir);
+                        if (summaryFrame == null) {
+                            continue;
+                        }
+                    }
+                    result = summaryFrame.resume();
+                } else if (!ir.hasResult(analysis.getId())) {
+                    result = analysis.analyze(ir);
+                } else {
+                    continue;
+                }
+                if (result != null) {
+                    ir.storeResult(analysis.getId(), result);
+                }
+            }
+        }
+    }
+
     private MethodAnalysis getAnalysis(List<MethodAnalysis> methodAnalyses, String id) {
         for (MethodAnalysis analysis : methodAnalyses) {
             if (analysis.getId().equals(id)) {
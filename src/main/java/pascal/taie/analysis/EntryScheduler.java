@@ -0,0 +1,92 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Worklist of the methods to be analyzed by {@link AnalysisManager},
+ * which contains each method at most once.
+ * <p>
+ * Methods are polled in the order they are added by default. Given
+ * {@link SinkReachability}, the methods closer to sinks are polled first,
+ * and among them, the ones with fewer CHA callees, so that the likely chains
+ * are found first when the scan is bounded by time.
+ */
+class EntryScheduler {
+
+    private final PriorityQueue<Entry> queue;
+
+    private final Set<JMethod> queued = Sets.newSet();
+
+    /**
+     * Counter of added methods, which breaks ties in insertion order.
+     */
+    private long count;
+
+    EntryScheduler() {
+        this.queue = new PriorityQueue<>(Comparator.comparingLong(Entry::seq));
+    }
+
+    EntryScheduler(SinkReachability reachability) {
+        this.queue = new PriorityQueue<>(Comparator
+                .comparingInt((Entry e) -> reachability.getDistance(e.method()))
+                .thenComparingInt(e -> reachability.getFanOut(e.method()))
+                .thenComparingLong(Entry::seq));
+    }
+
+    /**
+     * Adds a method if it is not in this worklist.
+     */
+    void add(JMethod method) {
+        if (queued.add(method)) {
+            queue.add(new Entry(method, count++));
+        }
+    }
+
+    void addAll(Iterable<JMethod> methods) {
+        methods.forEach(this::add);
+    }
+
+    JMethod poll() {
+        Entry entry = queue.poll();
+        if (entry == null) {
+            return null;
+        }
+        queued.remove(entry.method());
+        return entry.method();
+    }
+
+    boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    private record Entry(JMethod method, long seq) {
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Thrown by {@link AnalysisManager#runMethodAnalysis(JMethod)} in explicit-stack
+ * mode, when the method being analyzed needs another method to be analyzed first.
+ * The analysis of current method is suspended, and the interrupted step is
+ * executed again after the pending method is analyzed, so the effects of
+ * the step before the interruption must be idempotent.
+ */
+public class PendingMethod extends RuntimeException {
+
+    private final JMethod method;
+
+    PendingMethod(JMethod method) {
+        // stack trace is useless for this exception, and expensive to fill
+        super(null, null, false, false);
+        this.method = method;
+    }
+
+    public JMethod getMethod() {
+        return method;
+    }
+}
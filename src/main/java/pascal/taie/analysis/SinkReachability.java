@@ -0,0 +1,236 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.FieldStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Timer;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes the methods which may reach a sink on the CHA call graph
+ * reachable from given entries, together with their distances to sinks,
+ * so that the entries which cannot reach any sink are not analyzed, as they
+ * cannot start a gadget chain, and the entries closer to sinks go first.
+ * <p>
+ * The call graph is widened to over-approximate the calls found by
+ * the summary analysis, i.e., a method which calls a reflective behavior
+ * ({@code constructor}, {@code inference} or {@code toString}) is assumed
+ * to reach sinks, an interface call may be dispatched to any
+ * {@link java.lang.reflect.InvocationHandler}, and a method also "calls"
+ * the class initializers and the sources that are analyzed when the method
+ * or its static fields are used.
+ */
+class SinkReachability {
+
+    private static final Logger logger = LogManager.getLogger(SinkReachability.class);
+
+    private static final Set<String> REFLECTIVE_JUMPS =
+            Set.of("constructor", "inference", "toString");
+
+    /**
+     * Callers of each method on the CHA call graph.
+     */
+    private final MultiMap<JMethod, JMethod> callers = Maps.newMultiMap();
+
+    /**
+     * Number of CHA callees of each method.
+     */
+    private final Map<JMethod, Integer> fanOuts = Maps.newMap();
+
+    /**
+     * Shortest distance to sinks of the methods which may reach sinks.
+     */
+    private final Map<JMethod, Integer> distances = Maps.newMap();
+
+    SinkReachability(Collection<JMethod> entries) {
+        Timer timer = new Timer("Sink reachability");
+        timer.start();
+        Deque<JMethod> sinks = new ArrayDeque<>();
+        Deque<JMethod> reflective = new ArrayDeque<>();
+        int nMethods = buildCallGraph(entries, sinks, reflective);
+        computeDistances(sinks, reflective);
+        timer.stop();
+        logger.info("{} of {} methods reachable from {} entries may reach sinks",
+                distances.size(), nMethods, entries.size());
+        logger.info(timer);
+    }
+
+    /**
+     * Computes the distances by BFS on the reverse call graph, where
+     * sinks are at distance 0 and the methods calling reflective
+     * behaviors are at distance 1.
+     */
+    private void computeDistances(Deque<JMethod> sinks, Deque<JMethod> reflective) {
+        Deque<JMethod> workList = new ArrayDeque<>();
+        sinks.forEach(sink -> {
+            if (distances.putIfAbsent(sink, 0) == null) {
+                workList.add(sink);
+            }
+        });
+        // appended after the sinks to keep the distances of queued
+        // methods non-decreasing
+        reflective.forEach(method -> {
+            if (distances.putIfAbsent(method, 1) == null) {
+                workList.add(method);
+            }
+        });
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            int dist = distances.get(method) + 1;
+            for (JMethod caller : callers.get(method)) {
+                if (distances.putIfAbsent(caller, dist) == null) {
+                    workList.add(caller);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the given method may reach a sink.
+     */
+    boolean canReachSink(JMethod method) {
+        return distances.containsKey(method);
+    }
+
+    /**
+     * @return the length of the shortest call chain from the given method
+     * to a sink, or {@link Integer#MAX_VALUE} if it cannot reach sinks.
+     */
+    int getDistance(JMethod method) {
+        return distances.getOrDefault(method, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return number of CHA callees of the given method.
+     */
+    int getFanOut(JMethod method) {
+        return fanOuts.getOrDefault(method, 0);
+    }
+
+    /**
+     * Builds CHA call graph from the entries, and collects the sinks
+     * and the methods which call reflective behaviors.
+     *
+     * @return number of methods in the call graph.
+     */
+    private int buildCallGraph(Collection<JMethod> entries, Deque<JMethod> sinks,
+                               Deque<JMethod> reflective) {
+        Set<JMethod> visited = Sets.newSet();
+        Deque<JMethod> workList = new ArrayDeque<>(entries);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (!visited.add(method)) {
+                continue;
+            }
+            if (method.isSink()) {
+                sinks.add(method);
+                continue;
+            }
+            if (method.isAbstract() || method.isIgnored()) {
+                continue;
+            }
+            Set<JMethod> callees = Sets.newHybridSet();
+            if (addCallees(method, callees)) {
+                reflective.add(method);
+            }
+            fanOuts.put(method, callees.size());
+            for (JMethod callee : callees) {
+                callers.put(callee, method);
+                workList.add(callee);
+            }
+        }
+        return visited.size();
+    }
+
+    /**
+     * Adds the callees of the given method to {@code callees}.
+     *
+     * @return true if the method calls a reflective behavior.
+     */
+    private static boolean addCallees(JMethod method, Set<JMethod> callees) {
+        boolean reflective = false;
+        addInitializers(method.getDeclaringClass(), callees);
+        IR ir = method.getIR();
+        for (Stmt stmt : ir) {
+            if (stmt instanceof Invoke invoke && !invoke.isDynamic()) {
+                JMethod ref = invoke.getMethodRef().resolveNullable();
+                if (ref != null) {
+                    if (ref.isSink()) {
+                        callees.add(ref);
+                    }
+                    if (ref.hasImitatedBehavior() && REFLECTIVE_JUMPS.contains(
+                            ref.getImitatedBehavior().get("jump"))) {
+                        reflective = true;
+                    }
+                }
+                callees.addAll(CallGraphs.resolveCalleesOf(invoke));
+                if (invoke.isInterface()) {
+                    callees.addAll(World.get().getInvocationHandlerMethod());
+                }
+            } else if (stmt instanceof FieldStmt<?, ?> fieldStmt && fieldStmt.isStatic()) {
+                JField field = fieldStmt.getFieldRef().resolveNullable();
+                if (field != null) {
+                    addInitializers(field.getDeclaringClass(), callees);
+                }
+            }
+        }
+        return reflective;
+    }
+
+    /**
+     * Adds the class initializers of the given class and its superclasses,
+     * and the sources of the given class.
+     */
+    private static void addInitializers(JClass jclass, Set<JMethod> callees) {
+        for (JMethod method : jclass.getDeclaredMethods()) {
+            if (method.isSource()) {
+                callees.add(method);
+            }
+        }
+        for (JClass c = jclass; c != null; c = c.getSuperClass()) {
+            JMethod clinit = c.getClinit();
+            if (clinit != null) {
+                callees.add(clinit);
+            }
+        }
+    }
+}
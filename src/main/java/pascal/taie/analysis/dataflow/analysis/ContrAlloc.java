@@ -1,8 +1,9 @@
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.analysis.methodsummary.ContrValue;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 
-public record ContrAlloc(Pointer pointer, String contr) {
+public record ContrAlloc(Pointer pointer, ContrValue contr) {
 
     @Override
     public String toString() {
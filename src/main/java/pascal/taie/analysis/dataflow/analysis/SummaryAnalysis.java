@@ -2,6 +2,9 @@ package pascal.taie.analysis.dataflow.analysis;
 
 import pascal.taie.analysis.dataflow.analysis.methodsummary.Contr;
 import pascal.taie.analysis.dataflow.analysis.methodsummary.ContrFact;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.ContrValue;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.MethodBudget;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.PointsToCache;
 import pascal.taie.analysis.dataflow.analysis.methodsummary.StackManger;
 import pascal.taie.analysis.dataflow.analysis.methodsummary.StmtProcessor;
 import pascal.taie.analysis.dataflow.analysis.methodsummary.Utils.ContrUtil;
@@ -35,13 +38,13 @@ public class SummaryAnalysis extends AbstractDataflowAnalysis<Stmt, ContrFact> {
 
     private CSCallGraph csCallGraph;
 
-    public SummaryAnalysis(CFG<Stmt> body, StackManger stackManger, CSManager csManager, HeapModel heapModel, Context context, PointerFlowGraph pointerFlowGraph, CSCallGraph csCallGraph) {
+    public SummaryAnalysis(CFG<Stmt> body, StackManger stackManger, PointsToCache pointsToCache, CSManager csManager, HeapModel heapModel, Context context, PointerFlowGraph pointerFlowGraph, CSCallGraph csCallGraph, MethodBudget budget) {
         super(body);
         this.csManager = csManager;
         this.heapModel = heapModel;
         this.context = context;
         this.csCallGraph = csCallGraph;
-        this.stmtProcessor = new StmtProcessor(stackManger, csCallGraph, pointerFlowGraph, heapModel, csManager, context);
+        this.stmtProcessor = new StmtProcessor(stackManger, pointsToCache, csCallGraph, pointerFlowGraph, heapModel, csManager, context, budget);
     }
 
     @Override
@@ -54,14 +57,14 @@ public class SummaryAnalysis extends AbstractDataflowAnalysis<Stmt, ContrFact> {
         List<Var> params = cfg.getIR().getParams();
         for (int i = 0; i < params.size(); i++) {
             CSVar param = csManager.getCSVar(context, params.get(i));
-            CSObj csContrParam = ContrUtil.getObj(param, ContrUtil.int2String(i), heapModel, context, csManager);
+            CSObj csContrParam = ContrUtil.getObj(param, ContrValue.of(i), heapModel, context, csManager);
             stmtProcessor.addPFGEdge(csContrParam, param, FlowKind.NEW_CONTR, cfg.getEntry().getLineNumber());
         }
         Var thisVar = cfg.getIR().getThis();
         if (thisVar != null) {
             CSVar csThisVar = csManager.getCSVar(context, thisVar);
             stmtProcessor.setThis(csThisVar);
-            CSObj csContrThis = ContrUtil.getObj(csThisVar, ContrUtil.sTHIS, heapModel, context, csManager);
+            CSObj csContrThis = ContrUtil.getObj(csThisVar, ContrValue.THIS, heapModel, context, csManager);
             stmtProcessor.addPFGEdge(csContrThis, csThisVar, FlowKind.NEW_CONTR, cfg.getEntry().getLineNumber());
         }
         return newInitialFact();
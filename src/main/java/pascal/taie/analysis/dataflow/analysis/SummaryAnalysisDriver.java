@@ -4,13 +4,22 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.BudgetExceeded;
 import pascal.taie.analysis.dataflow.analysis.methodsummary.ContrFact;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.ContrValue;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.MethodBudget;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.PointerReclaimer;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.PointsToCache;
 import pascal.taie.analysis.dataflow.analysis.methodsummary.StackManger;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.StmtProcessor;
 import pascal.taie.analysis.dataflow.analysis.methodsummary.plugin.*;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.store.Checkpoint;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.store.SummaryStore;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.solver.Solver;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.CondensedCFG;
 import pascal.taie.analysis.pta.core.cs.CSCallGraph;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.element.CSManager;
@@ -21,9 +30,18 @@ import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.solver.PointerFlowGraph;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.Options;
 import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.If;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class SummaryAnalysisDriver extends MethodAnalysis<DataflowResult<Stmt, ContrFact>> {
 
@@ -33,10 +51,12 @@ public class SummaryAnalysisDriver extends MethodAnalysis<DataflowResult<Stmt, C
 
     private Context emptyContext;
 
-    private CSManager csManager;
+    private MapBasedCSManager csManager;
 
     private StackManger stackManger;
 
+    private PointsToCache pointsToCache;
+
     private PointerFlowGraph pointerFlowGraph;
 
     private CSCallGraph csCallGraph;
@@ -45,6 +65,24 @@ public class SummaryAnalysisDriver extends MethodAnalysis<DataflowResult<Stmt, C
 
     private CompositePlugin plugin;
 
+    private SummaryStore summaryStore;
+
+    private Checkpoint checkpoint;
+
+    private PointerReclaimer reclaimer;
+
+    private MethodBudget.Limits budgetLimits;
+
+    /**
+     * Budgets of the methods being analyzed, the top one is counting.
+     */
+    private final Deque<MethodBudget> budgets = new ArrayDeque<>();
+
+    /**
+     * Number of methods whose analysis exceeds the budget.
+     */
+    private long degradedMethod;
+
     private long allMethod = World.get().allMethods().count();
 
     private long analyzedMethod;
@@ -58,9 +96,26 @@ public class SummaryAnalysisDriver extends MethodAnalysis<DataflowResult<Stmt, C
         this.csManager = new MapBasedCSManager();
         this.csCallGraph = new CSCallGraph(csManager, emptyContext);
         this.stackManger = new StackManger(csCallGraph);
+        this.pointsToCache = new PointsToCache(getOptions().getInt("points-to-cache-size"));
         this.pointerFlowGraph = new PointerFlowGraph(csManager);
         this.solver = Solver.getSolver();
         setPlugin(getOptions());
+        Options options = World.get().getOptions();
+        String storeDir = getOptions().getString("summary-store");
+        String checkpointDir = options.getCheckpoint();
+        if (storeDir == null) storeDir = checkpointDir; // summaries in the checkpoint are restored by the store
+        if (storeDir != null) {
+            String configDigest = SummaryStore.getConfigDigest(options, getOptions().getString("priori-knowledge"));
+            this.summaryStore = new SummaryStore(storeDir, configDigest, csManager, emptyContext, csCallGraph, stackManger);
+            if (checkpointDir != null) {
+                this.checkpoint = new Checkpoint(checkpointDir, configDigest, options.isResume(),
+                        options.getCheckpointInterval(), summaryStore, stackManger);
+            }
+        }
+        if (getOptions().getBoolean("reclaim")) {
+            this.reclaimer = new PointerReclaimer(csManager, pointerFlowGraph, pointsToCache, stackManger);
+        }
+        this.budgetLimits = MethodBudget.Limits.fromOptions(getOptions());
         analyzedMethod = 0;
     }
 
@@ -71,37 +126,178 @@ public class SummaryAnalysisDriver extends MethodAnalysis<DataflowResult<Stmt, C
                 new ClassInitializer(),
                 new PrioriKnow(options.getString("priori-knowledge"))
         );
+        String neo4jPath = options.getString("neo4j-dbpath");
+        if (neo4jPath != null) {
+            plugin.addPlugin(new Graph2Neo4j(neo4jPath, options.getBoolean("neo4j-gzip"), options.getInt("neo4j-shards")));
+        }
+        int metricsTop = options.getInt("metrics-top");
+        if (metricsTop > 0) {
+            plugin.addPlugin(new SummaryMetrics(metricsTop));
+        }
+        csCallGraph.setEdgeListener(plugin::onNewCallEdge);
         plugin.onStart();
     }
 
     public void finish() {
         plugin.onFinish();
         stackManger.count();
+        if (checkpoint != null) checkpoint.close();
+        if (summaryStore != null) summaryStore.save();
+        logger.info("[+] points-to cache: {} hits, {} misses", pointsToCache.getHits(), pointsToCache.getMisses());
+        if (reclaimer != null) logger.info("[+] reclaimed {} pointers", reclaimer.getReclaimed());
+        if (degradedMethod > 0) logger.info("[+] {} methods exceeded the budget and got conservative summaries", degradedMethod);
+        ContrValue.clearPool();
+    }
+
+    /**
+     * @return true if the given entry was finished before resuming from the checkpoint.
+     */
+    public boolean isFinishedEntry(JMethod entry) {
+        return checkpoint != null && checkpoint.isFinished(entry);
+    }
+
+    /**
+     * Records the analysis of the given entry in the checkpoint.
+     */
+    public void finishEntry(JMethod entry) {
+        if (checkpoint != null) checkpoint.finishEntry(entry);
+    }
+
+    /**
+     * Loads the stored summary of the given method if it is still valid.
+     *
+     * @return true if the method needs no analysis.
+     */
+    public boolean loadStoredSummary(JMethod method) {
+        if (summaryStore == null || stackManger.containsMethod(method) || !summaryStore.load(method)) return false;
+        stackManger.linkLoadedCallee(method);
+        return true;
     }
 
     @Override
     public DataflowResult<Stmt, ContrFact> analyze(IR ir) {
+        Frame frame = newFrame(ir);
+        return frame == null ? null : frame.resume();
+    }
+
+    /**
+     * Starts the analysis of the given method.
+     *
+     * @return the frame of the analysis, or null if the method is not analyzed.
+     */
+    public Frame newFrame(IR ir) {
         JMethod method = ir.getMethod();
         if (stackManger.containsMethod(method)) return null;
         CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
         if (cfg == null) return null; // 跳过abstract方法分析
+        if (isSparse()) cfg = condense(cfg);
+        // the caller waits for this method, and its time is not counted
+        if (!budgets.isEmpty()) budgets.peek().pause();
+        // may be interrupted by PendingMethod from ClassInitializer, and called again
         plugin.onNewMethod(method);
         stackManger.pushMethod(method);
         csCallGraph.addReachableMethod(csManager.getCSMethod(emptyContext, method));
-        SummaryAnalysis analysis = makeAnalysis(cfg, stackManger, csManager, heapModel, emptyContext, pointerFlowGraph, csCallGraph);
-        DataflowResult<Stmt, ContrFact> ret = solver.solve(analysis);
-        analysis.complementSummary();
-        stackManger.popMethod();
-        if (!method.hasSummary()) method.setSummary("return", "null");
-        analyzedMethod += 1;
-        if (analyzedMethod % 5000 == 0) {
-            logger.info("[+] have analyzed {} methods, remaining {} methods in stack, {} methods may need analysis", analyzedMethod, stackManger.mSize(), allMethod - analyzedMethod - stackManger.mSize());
+        MethodBudget budget = budgetLimits.start(method);
+        budgets.push(budget);
+        SummaryAnalysis analysis = makeAnalysis(cfg, stackManger, pointsToCache, csManager, heapModel, emptyContext, pointerFlowGraph, csCallGraph, budget);
+        return new Frame(method, budget, analysis, solver.newFrame(analysis));
+    }
+
+    /**
+     * @return CFG of the statements which may change the fact, so that
+     * the fact only flows among them.
+     */
+    private static CFG<Stmt> condense(CFG<Stmt> cfg) {
+        Set<Stmt> ifTargets = cfg.getIR().stmts()
+                .filter(s -> s instanceof If)
+                .map(s -> ((If) s).getTarget())
+                .collect(Collectors.toSet());
+        return new CondensedCFG<>(cfg, s -> StmtProcessor.isRelevant(s, ifTargets));
+    }
+
+    private boolean isSparse() {
+        return getOptions().getBoolean("sparse");
+    }
+
+    public boolean isExplicitStack() {
+        return "explicit-stack".equals(getOptions().getString("engine"));
+    }
+
+    /**
+     * Summary analysis of a method, which is suspended when a callee
+     * needs to be analyzed first in explicit-stack mode.
+     */
+    public class Frame {
+
+        private final JMethod method;
+
+        private final SummaryAnalysis analysis;
+
+        private final Solver.Frame<Stmt, ContrFact> solverFrame;
+
+        private final MethodBudget budget;
+
+        private Frame(JMethod method, MethodBudget budget, SummaryAnalysis analysis, Solver.Frame<Stmt, ContrFact> solverFrame) {
+            this.method = method;
+            this.budget = budget;
+            this.analysis = analysis;
+            this.solverFrame = solverFrame;
+        }
+
+        /**
+         * Continues the analysis and finishes it.
+         */
+        public DataflowResult<Stmt, ContrFact> resume() {
+            DataflowResult<Stmt, ContrFact> ret;
+            boolean degraded = false;
+            try {
+                ret = solverFrame.resume();
+                analysis.complementSummary();
+            } catch (BudgetExceeded e) {
+                degrade(e);
+                degraded = true;
+                ret = null;
+            }
+            budgets.pop();
+            if (!budgets.isEmpty()) budgets.peek().resume();
+            stackManger.popMethod();
+            if (!method.hasSummary()) method.setSummary("return", ContrValue.NOT_POLLUTED);
+            // degraded summaries depend on the budget, and are not reused
+            if (summaryStore != null && !degraded) summaryStore.record(method);
+            if (checkpoint != null && !degraded) checkpoint.recordMethod(method);
+            if (reclaimer != null) { // 摘要已确定，回收方法内的指针，也不再保留数据流结果
+                reclaimer.reclaim(method);
+                ret = null;
+            }
+            plugin.onFinishMethod(method, budget);
+            analyzedMethod += 1;
+            if (analyzedMethod % 5000 == 0) {
+                logger.info("[+] have analyzed {} methods, remaining {} methods in stack, {} methods may need analysis", analyzedMethod, stackManger.mSize(), allMethod - analyzedMethod - stackManger.mSize());
+            }
+            return ret;
+        }
+
+        /**
+         * Abandons the analysis, keeps the flows found so far, i.e., the
+         * summaries set by the statements processed and the effects on
+         * parameters and fields of {@code this} on the pointer flow graph,
+         * and takes the return value as polluted, which any parameter
+         * may reach.
+         */
+        private void degrade(BudgetExceeded e) {
+            logger.warn("[!] analysis of {} exceeded the budget of {}, use conservative summary", method, e.getMessage());
+            degradedMethod += 1;
+            stackManger.popIfs(method);
+            analysis.complementSummary();
+            Type retType = method.getReturnType();
+            if (retType instanceof ReferenceType) {
+                method.setSummary("return", ContrValue.POLLUTED.concat(retType.getName()));
+            }
         }
-        return ret;
     }
 
-    public static SummaryAnalysis makeAnalysis(CFG<Stmt> body, StackManger stackManger, CSManager csManager, HeapModel heapModel, Context context, PointerFlowGraph pointerFlowGraph, CSCallGraph csCallGraph) {
-        return new SummaryAnalysis(body, stackManger, csManager, heapModel, context, pointerFlowGraph, csCallGraph);
+    public static SummaryAnalysis makeAnalysis(CFG<Stmt> body, StackManger stackManger, PointsToCache pointsToCache, CSManager csManager, HeapModel heapModel, Context context, PointerFlowGraph pointerFlowGraph, CSCallGraph csCallGraph, MethodBudget budget) {
+        return new SummaryAnalysis(body, stackManger, pointsToCache, csManager, heapModel, context, pointerFlowGraph, csCallGraph, budget);
     }
 
 }
@@ -0,0 +1,23 @@
+package pascal.taie.analysis.dataflow.analysis.methodsummary;
+
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Thrown by {@link StmtProcessor} when the analysis of a method exceeds
+ * its {@link MethodBudget}. The analysis of the method is abandoned,
+ * and a conservative summary is installed instead.
+ */
+public class BudgetExceeded extends RuntimeException {
+
+    private final JMethod method;
+
+    BudgetExceeded(JMethod method, String limit) {
+        // stack trace is useless for this exception, and expensive to fill
+        super(limit, null, false, false);
+        this.method = method;
+    }
+
+    public JMethod getMethod() {
+        return method;
+    }
+}
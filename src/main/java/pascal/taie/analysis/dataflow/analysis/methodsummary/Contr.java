@@ -7,7 +7,6 @@ import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.classes.Modifier;
 import pascal.taie.language.type.ArrayType;
 import pascal.taie.language.type.Type;
-import pascal.taie.util.Strings;
 
 import java.util.ArrayList;
 
@@ -29,7 +28,7 @@ public class Contr {
 
     private boolean isCasted = false; // 反序列化中代理对象不能再cast
 
-    private String value = ContrUtil.sNOT_POLLUTED;
+    private ContrValue value = ContrValue.NOT_POLLUTED;
 
     private String constString;
 
@@ -114,35 +113,31 @@ public class Contr {
         this.isCasted = true;
     }
 
-    public String getValue() {
-        if (this.constString != null) return this.constString;
+    public ContrValue getValue() {
+        if (this.constString != null) return ContrValue.of(this.constString);
         return this.value;
     }
 
-    public void setValue(String value) {
+    public void setValue(ContrValue value) {
         this.value = value;
     }
 
-    public void updateValue(String value) {
-        if (!Strings.isLegalContrValue(value)) {
+    public void updateValue(ContrValue value) {
+        if (!value.isLegal()) {
             return;
-        } else if (this.value.equals(ContrUtil.sNOT_POLLUTED)
-                || value.equals(ContrUtil.sNOT_POLLUTED)
-                || this.value.contains("new")) {
+        } else if (this.value.isNotPolluted()
+                || value.isNotPolluted()
+                || this.value.containsNew()) {
             setValue(value);
         } else {
-            String last;
-            if (this.value.contains("+")) {
-                last = this.value.substring(this.value.lastIndexOf("+") + 1);
-            } else {
-                last = this.value;
-                if (!ContrUtil.hasCS(last) && (ContrUtil.isControllable(value) || ContrUtil.hasCS(value))) {
-                    setValue(value);
-                    return;
-                }
+            ContrValue last = this.value.getLast();
+            if (!this.value.contains("+")
+                    && !last.hasCS() && (value.isControllable() || value.hasCS())) {
+                setValue(value);
+                return;
             }
             if (ContrUtil.needUpdateInConcat(last, value)) {
-                this.value = this.value + "+" + value;
+                this.value = this.value.concat(value);
             }
         }
     }
@@ -3,14 +3,14 @@ package pascal.taie.analysis.dataflow.analysis.methodsummary;
 import pascal.taie.analysis.dataflow.fact.MapFact;
 import pascal.taie.analysis.pta.core.cs.element.CSVar;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.util.collection.PersistentHashMap;
 
-import java.util.Collections;
 import java.util.Map;
 
 public class ContrFact extends MapFact<Pointer, Contr> {
 
     public ContrFact() {
-        this(Collections.emptyMap());
+        this(new PersistentHashMap<>());
     }
 
     public ContrFact(Map<Pointer, Contr> map) {
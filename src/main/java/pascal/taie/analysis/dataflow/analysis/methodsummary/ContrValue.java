@@ -0,0 +1,335 @@
+package pascal.taie.analysis.dataflow.analysis.methodsummary;
+
+import pascal.taie.analysis.dataflow.analysis.methodsummary.Utils.ContrUtil;
+import pascal.taie.util.Strings;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Interned controllability value. Values are interned in a pool owned by
+ * the running summary analysis, which clears it via {@link #clearPool()}
+ * when the analysis finishes, so equal values are usually the same object,
+ * but values created before and after a clear are only {@link #equals}.
+ */
+public final class ContrValue implements Serializable {
+
+    public enum Kind {
+        /**
+         * not controllable
+         */
+        NULL,
+        POLLUTED,
+        THIS,
+        PARAM,
+        /**
+         * allocated object, e.g. "new java.util.HashMap"
+         */
+        NEW,
+        /**
+         * concatenation carrying at least one constant string
+         */
+        CONST,
+        OTHER
+    }
+
+    private static final ConcurrentMap<String, ContrValue> pool = new ConcurrentHashMap<>();
+
+    public static final ContrValue NOT_POLLUTED = of(ContrUtil.sNOT_POLLUTED);
+
+    public static final ContrValue POLLUTED = of(ContrUtil.sPOLLUTED);
+
+    public static final ContrValue THIS = of(ContrUtil.sTHIS);
+
+    private final String value;
+
+    private final transient int index;
+
+    private final transient Kind kind;
+
+    private final transient List<String> segments;
+
+    private final transient String lastSegment;
+
+    private final transient String accessPath;
+
+    private final transient boolean hasCS;
+
+    private final transient boolean containsNew;
+
+    private final transient boolean legal;
+
+    private transient volatile String reg;
+
+    private ContrValue(String value) {
+        this.value = value;
+        this.index = parseIndex(value);
+        this.segments = split(value);
+        this.lastSegment = value.substring(value.lastIndexOf('+') + 1);
+        this.hasCS = segments.stream().anyMatch(ContrValue::isConstSegment);
+        this.containsNew = value.contains("new");
+        this.legal = Strings.isLegalContrValue(value);
+        this.kind = computeKind();
+        this.accessPath = computeAccessPath();
+    }
+
+    /**
+     * @return the interned value of the given string, or null if {@code s} is null.
+     */
+    public static ContrValue of(String s) {
+        if (s == null) {
+            return null;
+        }
+        ContrValue v = pool.get(s);
+        if (v == null) {
+            // not computeIfAbsent: the constructor must not run under the map lock
+            ContrValue created = new ContrValue(s);
+            v = pool.putIfAbsent(s, created);
+            if (v == null) {
+                v = created;
+            }
+        }
+        return v;
+    }
+
+    public static ContrValue of(int i) {
+        return of(ContrUtil.int2String(i));
+    }
+
+    public static List<ContrValue> of(List<String> values) {
+        List<ContrValue> ret = new ArrayList<>(values.size());
+        values.forEach(v -> ret.add(of(v)));
+        return ret;
+    }
+
+    /**
+     * @return number of interned values.
+     */
+    public static int poolSize() {
+        return pool.size();
+    }
+
+    /**
+     * Releases the interned values except the constants, which is called
+     * when the analysis that interns the values finishes.
+     */
+    public static void clearPool() {
+        pool.clear();
+        for (ContrValue v : List.of(NOT_POLLUTED, POLLUTED, THIS)) {
+            pool.put(v.value, v);
+        }
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the int encoding used by call edges, i.e., the parameter index,
+     * {@link ContrUtil#iTHIS}, {@link ContrUtil#iPOLLUTED} or {@link ContrUtil#iNOT_POLLUTED}.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public boolean isControllable() {
+        return index >= ContrUtil.iPOLLUTED;
+    }
+
+    public boolean isControllableParam() {
+        return index > ContrUtil.iTHIS;
+    }
+
+    public boolean isCallSite() {
+        return index >= ContrUtil.iTHIS;
+    }
+
+    public boolean isThis() {
+        return index == ContrUtil.iTHIS;
+    }
+
+    public boolean isNotPolluted() {
+        return this == NOT_POLLUTED;
+    }
+
+    /**
+     * @return whether any concat segment is a constant string.
+     */
+    public boolean hasCS() {
+        return hasCS;
+    }
+
+    public boolean containsNew() {
+        return containsNew;
+    }
+
+    public boolean isLegal() {
+        return legal;
+    }
+
+    public boolean contains(String s) {
+        return value.contains(s);
+    }
+
+    public boolean startsWith(String s) {
+        return value.startsWith(s);
+    }
+
+    /**
+     * @return the concat segments, i.e., the parts separated by '+'.
+     */
+    public List<String> getSegments() {
+        return segments;
+    }
+
+    /**
+     * @return the part after the last '+', or the whole value.
+     */
+    public ContrValue getLast() {
+        return of(lastSegment);
+    }
+
+    /**
+     * @return the part before the last '+', e.g. the value of a return summary.
+     */
+    public ContrValue getPrefix() {
+        int i = value.lastIndexOf('+');
+        return i < 0 ? this : of(value.substring(0, i));
+    }
+
+    /**
+     * @return field path following the root of the first segment,
+     * e.g. "f-g" for "param-0-f-g+xxx", or null if there is none.
+     */
+    public String getAccessPath() {
+        return accessPath;
+    }
+
+    public ContrValue concat(ContrValue other) {
+        return of(value + "+" + other.value);
+    }
+
+    public ContrValue concat(String other) {
+        return of(value + "+" + other);
+    }
+
+    public ContrValue field(String fieldName) {
+        return of(value + "-" + fieldName);
+    }
+
+    /**
+     * @return regex matching the strings this value may stand for,
+     * controllable segments are represented as ".*".
+     */
+    public String toReg() {
+        String r = reg;
+        if (r == null) {
+            reg = r = computeReg();
+        }
+        return r;
+    }
+
+    private static int parseIndex(String s) {
+        if (s.equals(ContrUtil.sNOT_POLLUTED)) return ContrUtil.iNOT_POLLUTED;
+        else if (s.contains(ContrUtil.sPOLLUTED)) return ContrUtil.iPOLLUTED;
+        else if (s.contains(ContrUtil.sTHIS)) return ContrUtil.iTHIS;
+        else if (s.contains(ContrUtil.sParam)) return parseParamIndex(s);
+        else return ContrUtil.iNOT_POLLUTED;
+    }
+
+    /**
+     * Same result as {@link Strings#extractParamIndex(String)} without a regex.
+     */
+    private static int parseParamIndex(String s) {
+        String prefix = ContrUtil.sParam + "-";
+        for (int i = s.indexOf(prefix); i >= 0; i = s.indexOf(prefix, i + 1)) {
+            int start = i + prefix.length();
+            int end = start;
+            while (end < s.length() && s.charAt(end) >= '0' && s.charAt(end) <= '9') {
+                end++;
+            }
+            if (end > start) {
+                try {
+                    return Integer.parseInt(s.substring(start, end));
+                } catch (NumberFormatException e) {
+                    return ContrUtil.iNOT_POLLUTED;
+                }
+            }
+        }
+        return ContrUtil.iNOT_POLLUTED;
+    }
+
+    private static List<String> split(String s) {
+        if (!s.contains("+")) {
+            return List.of(s);
+        }
+        return Collections.unmodifiableList(List.of(s.split("\\+")));
+    }
+
+    private static boolean isConstSegment(String s) {
+        return parseIndex(s) < ContrUtil.iPOLLUTED && !s.equals(ContrUtil.sNOT_POLLUTED) && !s.contains(".");
+    }
+
+    private Kind computeKind() {
+        if (index >= 0) return Kind.PARAM;
+        else if (index == ContrUtil.iTHIS) return Kind.THIS;
+        else if (index == ContrUtil.iPOLLUTED) return Kind.POLLUTED;
+        else if (value.equals(ContrUtil.sNOT_POLLUTED)) return Kind.NULL;
+        else if (containsNew) return Kind.NEW;
+        else if (hasCS) return Kind.CONST;
+        else return Kind.OTHER;
+    }
+
+    private String computeAccessPath() {
+        if (kind != Kind.PARAM && kind != Kind.THIS) return null;
+        String first = segments.get(0);
+        int rootEnd = first.indexOf('-');
+        if (kind == Kind.PARAM) rootEnd = first.indexOf('-', rootEnd + 1);
+        return rootEnd < 0 ? null : first.substring(rootEnd + 1);
+    }
+
+    private String computeReg() {
+        if (value.contains("+")) {
+            StringBuilder ret = new StringBuilder();
+            for (String p : segments) {
+                if (parseIndex(p) >= ContrUtil.iPOLLUTED && !ret.toString().endsWith(".*")) {
+                    ret.append(".*");
+                } else {
+                    ret.append(p);
+                }
+            }
+            return ret.toString();
+        } else if (isControllable()) {
+            return ".*";
+        } else if (!isNotPolluted()) {
+            return value;
+        } else {
+            return "";
+        }
+    }
+
+    @Serial
+    private Object readResolve() {
+        return of(value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof ContrValue v && value.equals(v.value));
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
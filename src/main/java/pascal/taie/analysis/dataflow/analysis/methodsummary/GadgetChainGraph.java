@@ -1,87 +1,277 @@
 package pascal.taie.analysis.dataflow.analysis.methodsummary;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
+import pascal.taie.util.collection.Maps;
 
 import java.util.*;
 
+/**
+ * Graph of the methods on the gadget chains to sinks, whose nodes are
+ * indexed by dense ids. A sink is a node without successors.
+ * <p>
+ * The paths to sinks of each node are memoized, and adding an edge only
+ * drops the memoized paths of the nodes which can reach it within
+ * {@link StackManger#MAX_LEN} nodes.
+ */
 public class GadgetChainGraph {
 
-    private Map<String, GadgetChainNode> adjList;
+    private static final int PATH_MAX_COUNT = World.get().getOptions().getPATH_MAX_COUNT();
 
-    private static int PATH_MAX_COUNT = World.get().getOptions().getPATH_MAX_COUNT();
+    private final Map<String, Integer> ids = Maps.newMap();
 
-    private static int PATH_COLLECT_TIME = World.get().getOptions().getPATH_COLLECT_TIME() * 1000;
-
-    private static final Logger logger = LogManager.getLogger(GadgetChainGraph.class);
-
-    public GadgetChainGraph() {
-        this.adjList = new HashMap<>();
-    }
+    private final List<GadgetChainNode> nodes = new ArrayList<>();
 
+    /**
+     * Whether the distances of nodes to sinks should be recomputed,
+     * which happens when a sink gets a successor.
+     */
+    private boolean distDirty;
 
     public boolean addPath(List<String> path) {
         boolean add = false;
         int size = path.size();
+        GadgetChainNode prev = null;
         for (int i = 0; i < size; i++) {
             String m = path.get(i);
-            if (!adjList.containsKey(m)) {
+            GadgetChainNode node = getNode(m);
+            if (node == null) {
                 add = true;
-                adjList.put(m, new GadgetChainNode(m));
+                node = newNode(m);
             }
-            if (i != size - 1) {
-                addEdge(m, path.get(i + 1));
+            if (prev != null) {
+                addEdge(prev, node);
             }
+            prev = node;
         }
         return add;
     }
 
-    private void addEdge(String from, String to) {
-        adjList.get(from).addNext(to);
+    private GadgetChainNode newNode(String name) {
+        GadgetChainNode node = new GadgetChainNode(nodes.size(), name);
+        node.dist = 1;
+        ids.put(name, node.id);
+        nodes.add(node);
+        return node;
     }
 
-    public Set<List<String>> collectPath(String from) {
-        Set<List<String>> paths = new HashSet<>();
-        List<String> path = new ArrayList<>();
-        Set<String> visited = new HashSet<>();
-        long startTime = System.currentTimeMillis();
-        dfsCollectPaths(from, visited, path, paths, startTime);
-//        long endTime = System.currentTimeMillis();
-//        logger.info("collect {} path in {}s", paths.size() , (endTime - startTime) / 1000);
-        return paths;
+    private void addEdge(GadgetChainNode from, GadgetChainNode to) {
+        boolean wasSink = from.isLeaf();
+        if (!from.addNext(to.id)) return;
+        to.addPred(from.id);
+        invalidatePaths(from);
+        if (wasSink) {
+            distDirty = true;
+        } else if (!distDirty && to.dist != Integer.MAX_VALUE) {
+            relaxDist(from, to.dist + 1);
+        }
     }
 
-    private void dfsCollectPaths(String current, Set<String> visited, List<String> path, Set<List<String>> paths, long startTime) {
-        if (paths.size() >= PATH_MAX_COUNT || path.contains(current) || System.currentTimeMillis() - startTime > PATH_COLLECT_TIME) return;
-        visited.add(current);
-        path.add(current);
+    /**
+     * Drops the memoized paths of the given node and the nodes
+     * reaching it within {@link StackManger#MAX_LEN} nodes.
+     */
+    private void invalidatePaths(GadgetChainNode node) {
+        BitSet visited = new BitSet(nodes.size());
+        Deque<GadgetChainNode> level = new ArrayDeque<>();
+        visited.set(node.id);
+        level.add(node);
+        for (int len = 1; len < StackManger.MAX_LEN && !level.isEmpty(); len++) {
+            Deque<GadgetChainNode> next = new ArrayDeque<>();
+            for (GadgetChainNode n : level) {
+                n.setPaths(null);
+                for (int i = 0; i < n.getPredCount(); i++) {
+                    int pred = n.getPred(i);
+                    if (!visited.get(pred)) {
+                        visited.set(pred);
+                        next.add(nodes.get(pred));
+                    }
+                }
+            }
+            level = next;
+        }
+        level.forEach(n -> n.setPaths(null));
+    }
+
+    /**
+     * Propagates a shorter distance to sinks of the given node to its predecessors.
+     */
+    private void relaxDist(GadgetChainNode node, int dist) {
+        Deque<GadgetChainNode> workList = new ArrayDeque<>();
+        if (dist < node.dist) {
+            node.dist = dist;
+            workList.add(node);
+        }
+        while (!workList.isEmpty()) {
+            GadgetChainNode n = workList.poll();
+            for (int i = 0; i < n.getPredCount(); i++) {
+                GadgetChainNode pred = nodes.get(n.getPred(i));
+                if (n.dist + 1 < pred.dist) {
+                    pred.dist = n.dist + 1;
+                    workList.add(pred);
+                }
+            }
+        }
+    }
 
-        if (!adjList.containsKey(current)) {
-            path.remove(path.size() - 1);
-            visited.remove(current);
-            return;
+    /**
+     * Recomputes the distances of all nodes to sinks by a backward BFS from sinks.
+     */
+    private void computeDist() {
+        Deque<GadgetChainNode> workList = new ArrayDeque<>();
+        for (GadgetChainNode node : nodes) {
+            if (node.isLeaf()) {
+                node.dist = 1;
+                workList.add(node);
+            } else {
+                node.dist = Integer.MAX_VALUE;
+            }
         }
-        boolean isSink = adjList.get(current).isLeaf();
-        if (isSink) {
-            paths.add(new ArrayList<>(path));
-        } else if (path.size() == StackManger.MAX_LEN) {
-            path.remove(path.size() - 1);
-            visited.remove(current);
-            return;
+        while (!workList.isEmpty()) {
+            GadgetChainNode n = workList.poll();
+            for (int i = 0; i < n.getPredCount(); i++) {
+                GadgetChainNode pred = nodes.get(n.getPred(i));
+                if (pred.dist == Integer.MAX_VALUE) {
+                    pred.dist = n.dist + 1;
+                    workList.add(pred);
+                }
+            }
         }
+        distDirty = false;
+    }
 
-        for (String neighbor : adjList.get(current).getNexts()) {
-            if (!visited.contains(neighbor)) {
-                dfsCollectPaths(neighbor, visited, path, paths, startTime);
+    /**
+     * @return the simple paths from the given node to sinks with at most
+     * {@link StackManger#MAX_LEN} nodes, and at most {@code PATH_MAX_COUNT} paths.
+     */
+    public Set<List<String>> collectPath(String from) {
+        GadgetChainNode node = getNode(from);
+        if (node == null) return Set.of();
+        Set<List<String>> paths = node.getPaths();
+        if (paths == null) {
+            paths = new LinkedHashSet<>();
+            Iterator<List<String>> iter = pathIterator(node);
+            while (paths.size() < PATH_MAX_COUNT && iter.hasNext()) {
+                paths.add(iter.next());
             }
+            paths = Collections.unmodifiableSet(paths);
+            node.setPaths(paths);
         }
+        return paths;
+    }
 
-        path.remove(path.size() - 1);
-        visited.remove(current);
+    /**
+     * @return an iterator which lazily enumerates the simple paths from
+     * the given node to sinks with at most {@link StackManger#MAX_LEN} nodes.
+     */
+    public Iterator<List<String>> iteratePaths(String from) {
+        GadgetChainNode node = getNode(from);
+        return node != null ? pathIterator(node) : Collections.emptyIterator();
+    }
+
+    private Iterator<List<String>> pathIterator(GadgetChainNode from) {
+        if (distDirty) {
+            computeDist();
+        }
+        return new PathIterator(from);
     }
 
     public boolean containsNode(String key) {
-        return adjList.containsKey(key);
+        return ids.containsKey(key);
+    }
+
+    public Set<String> getNexts(String key) {
+        GadgetChainNode node = getNode(key);
+        if (node == null) return Set.of();
+        Set<String> nexts = new LinkedHashSet<>();
+        for (int i = 0; i < node.getNextCount(); i++) {
+            nexts.add(nodes.get(node.getNext(i)).name);
+        }
+        return nexts;
+    }
+
+    private GadgetChainNode getNode(String name) {
+        Integer id = ids.get(name);
+        return id != null ? nodes.get(id) : null;
+    }
+
+    /**
+     * Depth-first enumeration of paths with an explicit stack, which only
+     * descends into the nodes that can reach a sink within the remaining length.
+     */
+    private class PathIterator implements Iterator<List<String>> {
+
+        private final int maxLen = StackManger.MAX_LEN;
+
+        private final int[] path = new int[maxLen];
+
+        /**
+         * Index of the next successor to visit of each node on the path.
+         */
+        private final int[] cursor = new int[maxLen];
+
+        private final BitSet onPath = new BitSet(nodes.size());
+
+        private int depth;
+
+        private List<String> next;
+
+        private PathIterator(GadgetChainNode from) {
+            if (from.dist <= maxLen) {
+                push(from.id);
+            }
+        }
+
+        private void push(int id) {
+            path[depth] = id;
+            cursor[depth] = 0;
+            onPath.set(id);
+            depth++;
+        }
+
+        private void pop() {
+            onPath.clear(path[--depth]);
+        }
+
+        private List<String> advance() {
+            while (depth > 0) {
+                GadgetChainNode top = nodes.get(path[depth - 1]);
+                if (top.isLeaf()) {
+                    List<String> result = new ArrayList<>(depth);
+                    for (int i = 0; i < depth; i++) {
+                        result.add(nodes.get(path[i]).name);
+                    }
+                    pop();
+                    return result;
+                }
+                int i = cursor[depth - 1]++;
+                if (i >= top.getNextCount()) {
+                    pop();
+                    continue;
+                }
+                GadgetChainNode succ = nodes.get(top.getNext(i));
+                if (!onPath.get(succ.id) && succ.dist <= maxLen - depth) {
+                    push(succ.id);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public List<String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<String> result = next;
+            next = null;
+            return result;
+        }
     }
 }
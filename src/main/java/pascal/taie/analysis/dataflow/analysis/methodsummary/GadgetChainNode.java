@@ -1,28 +1,97 @@
 package pascal.taie.analysis.dataflow.analysis.methodsummary;
 
-import java.util.*;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
 
+/**
+ * Node of {@link GadgetChainGraph}, whose successors and predecessors
+ * are kept as the ids of nodes.
+ */
 public class GadgetChainNode {
 
-    private Set<String> nexts;
+    private static final int[] EMPTY = new int[0];
 
-    public String name;
+    public final int id;
 
-    public GadgetChainNode(String name) {
+    public final String name;
+
+    private int[] nexts = EMPTY;
+
+    private int nextCount;
+
+    private int[] preds = EMPTY;
+
+    private int predCount;
+
+    /**
+     * Memoized paths to sinks starting from this node, null if not computed
+     * or invalidated.
+     */
+    @Nullable
+    private Set<List<String>> paths;
+
+    /**
+     * Minimum number of nodes on the paths from this node to sinks.
+     */
+    int dist;
+
+    public GadgetChainNode(int id, String name) {
+        this.id = id;
         this.name = name;
-        this.nexts = new HashSet<>();
     }
 
-    public void addNext(String next) {
-        nexts.add(next);
+    /**
+     * @return true if the edge to the given node is new.
+     */
+    boolean addNext(int next) {
+        for (int i = 0; i < nextCount; i++) {
+            if (nexts[i] == next) return false;
+        }
+        nexts = append(nexts, nextCount++, next);
+        return true;
+    }
+
+    void addPred(int pred) {
+        preds = append(preds, predCount++, pred);
+    }
+
+    private static int[] append(int[] array, int size, int elem) {
+        if (size == array.length) {
+            array = Arrays.copyOf(array, Math.max(4, size * 2));
+        }
+        array[size] = elem;
+        return array;
     }
 
     public boolean isLeaf() {
-        return nexts.isEmpty();
+        return nextCount == 0;
+    }
+
+    public int getNextCount() {
+        return nextCount;
+    }
+
+    public int getNext(int i) {
+        return nexts[i];
+    }
+
+    public int getPredCount() {
+        return predCount;
+    }
+
+    public int getPred(int i) {
+        return preds[i];
+    }
+
+    @Nullable
+    Set<List<String>> getPaths() {
+        return paths;
     }
 
-    public Set<String> getNexts() {
-        return new HashSet<>(nexts);
+    void setPaths(@Nullable Set<List<String>> paths) {
+        this.paths = paths;
     }
 
     @Override
@@ -0,0 +1,310 @@
+package pascal.taie.analysis.dataflow.analysis.methodsummary;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Output stage of the gadget chains found by {@link StackManger}.
+ * <p>
+ * Chains are deduplicated by their sequences of interned method ids on the
+ * analysis thread, and handed to a writer thread through a bounded queue,
+ * so that the analysis rarely blocks on disk or logging. When the queue is
+ * full, chains wait in a backlog of the analysis thread until there is room.
+ * The backlog is bounded too: when it is full, the analysis thread blocks
+ * until the backlog is handed to the writer thread. Chains are never dropped,
+ * as a chain may carry the declarations of methods referred to by later ones.
+ * <p>
+ * In text format, each chain is written as the lines of callers with their
+ * contr vectors, followed by the sink and an empty line. In JSON Lines format,
+ * each method is declared once by {@code {"id":0,"method":"<sig>"}} before
+ * the chains referring to it, which are written as
+ * {@code {"chain":[{"method":0,"contr":[-1,0],"line":12},...,{"method":3}]}}.
+ */
+public class GadgetChainWriter {
+
+    private static final Logger logger = LogManager.getLogger(GadgetChainWriter.class);
+
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private static final int BACKLOG_CAPACITY = 16 * QUEUE_CAPACITY;
+
+    /**
+     * Marks the end of the chains in the queue.
+     */
+    private static final Chain END = new Chain(List.of(), new int[0], List.of(), new int[0]);
+
+    private final boolean jsonLines;
+
+    private final PrintWriter pw;
+
+    private final BlockingQueue<Chain> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    private final Thread writer;
+
+    // fields below are only accessed by the analysis thread
+
+    private final Map<JMethod, Integer> methodIds = Maps.newMap();
+
+    private final Set<IdSequence> added = Sets.newSet();
+
+    private final Deque<Chain> backlog = new ArrayDeque<>();
+
+    /**
+     * Number of times the analysis thread blocks on a full backlog.
+     */
+    private int blocked;
+
+    private Consumer<GadgetChain> listener = chain -> {
+    };
+
+    // fields below are only accessed by the writer thread
+
+    private final List<String> signatures = new ArrayList<>();
+
+    public GadgetChainWriter(String path, String format) {
+        this.jsonLines = "jsonl".equals(format);
+        PrintWriter pw = null;
+        try {
+            pw = new PrintWriter(new BufferedWriter(new FileWriter(path)));
+        } catch (Exception e) {
+            logger.info(e);
+        }
+        this.pw = pw;
+        this.writer = new Thread(this::run, "gadget-chain-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Hands the given chain, from source to sink, to the writer thread
+     * if it has not been added.
+     *
+     * @return true if the chain is new.
+     */
+    public boolean add(List<Edge> gcEdgeList) {
+        int size = gcEdgeList.size();
+        List<JMethod> methods = new ArrayList<>(size + 1);
+        int[] lines = new int[size];
+        List<List<Integer>> contrs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Edge edge = gcEdgeList.get(i);
+            methods.add(CSCallGraph.getCaller(edge));
+            contrs.add(edge.getCSIntContr());
+            Integer lineNo = edge.getLineNo();
+            lines[i] = lineNo != null ? lineNo : -1;
+        }
+        methods.add(CSCallGraph.getCallee(gcEdgeList.get(size - 1)));
+        return add(new GadgetChain(methods, contrs, lines));
+    }
+
+    /**
+     * Hands the given chain to the writer thread if it has not been added,
+     * and notifies the listener of it.
+     *
+     * @return true if the chain is new.
+     */
+    public boolean add(GadgetChain chain) {
+        List<String> newSignatures = new ArrayList<>();
+        int[] methods = new int[chain.methods().size()];
+        for (int i = 0; i < methods.length; i++) {
+            methods[i] = getId(chain.methods().get(i), newSignatures);
+        }
+        // a chain with new methods is always new, so no declaration is lost
+        if (!added.add(new IdSequence(methods))) {
+            return false;
+        }
+        hand(new Chain(newSignatures, methods, chain.contrs(), chain.lines()));
+        listener.accept(chain);
+        return true;
+    }
+
+    /**
+     * Sets the listener of the chains added since then.
+     */
+    public void setListener(Consumer<GadgetChain> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return number of distinct chains added.
+     */
+    public int size() {
+        return added.size();
+    }
+
+    /**
+     * Waits for the writer thread to write all chains, and closes the output.
+     */
+    public void close() {
+        try {
+            for (Chain chain : backlog) {
+                queue.put(chain);
+            }
+            backlog.clear();
+            queue.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("total GC count: {}", size());
+        if (blocked > 0) {
+            logger.info("the analysis blocked {} times on the full backlog of chains", blocked);
+        }
+        if (pw != null) {
+            pw.println(jsonLines ? "{\"total\":" + size() + "}" : "total GC count: " + size());
+            pw.close();
+        }
+    }
+
+    private int getId(JMethod method, List<String> newSignatures) {
+        Integer id = methodIds.get(method);
+        if (id == null) {
+            id = methodIds.size();
+            methodIds.put(method, id);
+            newSignatures.add(method.toString());
+        }
+        return id;
+    }
+
+    private void hand(Chain chain) {
+        while (!backlog.isEmpty() && queue.offer(backlog.peek())) {
+            backlog.poll();
+        }
+        if (!backlog.isEmpty() || !queue.offer(chain)) {
+            backlog.add(chain);
+        }
+        if (backlog.size() >= BACKLOG_CAPACITY) {
+            blocked += 1;
+            try {
+                while (!backlog.isEmpty()) {
+                    queue.put(backlog.peek());
+                    backlog.poll();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Chain chain = queue.poll();
+                if (chain == null) {
+                    if (pw != null) pw.flush();
+                    chain = queue.take();
+                }
+                if (chain == END) break;
+                write(chain);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(Chain chain) {
+        chain.newSignatures().forEach(sig -> {
+            if (jsonLines && pw != null) {
+                pw.println("{\"id\":" + signatures.size() + ",\"method\":" + quote(sig) + "}");
+            }
+            signatures.add(sig);
+        });
+        int[] methods = chain.methods();
+        int size = chain.lines().length;
+        for (int i = 0; i < size; i++) {
+            String line = signatures.get(methods[i]) + "->" + chain.contrs().get(i);
+            logger.info(line);
+            if (!jsonLines && pw != null) pw.println(line);
+        }
+        String sink = signatures.get(methods[size]);
+        logger.info(sink);
+        logger.info("");
+        if (pw == null) {
+            return;
+        }
+        if (jsonLines) {
+            StringBuilder json = new StringBuilder("{\"chain\":[");
+            for (int i = 0; i < size; i++) {
+                json.append("{\"method\":").append(methods[i])
+                        .append(",\"contr\":").append(chain.contrs().get(i).toString().replace(" ", ""))
+                        .append(",\"line\":").append(chain.lines()[i])
+                        .append("},");
+            }
+            json.append("{\"method\":").append(methods[size]).append("}]}");
+            pw.println(json);
+        } else {
+            pw.println(sink);
+            pw.println("");
+        }
+    }
+
+    private static String quote(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * A gadget chain found by the analysis.
+     *
+     * @param methods callers of the call edges, followed by the sink
+     * @param contrs  contr vectors of the call edges
+     * @param lines   line numbers of the call edges, -1 if unknown
+     */
+    public record GadgetChain(List<JMethod> methods, List<List<Integer>> contrs, int[] lines) {
+    }
+
+    /**
+     * A chain and the signatures of the methods first seen in it.
+     *
+     * @param methods ids of the callers, followed by the id of the sink
+     * @param contrs  contr vectors of the call edges
+     * @param lines   line numbers of the call edges
+     */
+    private record Chain(List<String> newSignatures, int[] methods,
+                         List<List<Integer>> contrs, int[] lines) {
+    }
+
+    /**
+     * Sequence of method ids of a chain, compared by contents.
+     */
+    private static final class IdSequence {
+
+        private final int[] ids;
+
+        private final int hash;
+
+        private IdSequence(int[] ids) {
+            this.ids = ids;
+            this.hash = Arrays.hashCode(ids);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof IdSequence that
+                    && hash == that.hash && Arrays.equals(ids, that.ids);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package pascal.taie.analysis.dataflow.analysis.methodsummary;
+
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Work allowed for the summary analysis of a method, i.e., the statements
+ * visited, the pointer flow edges added, the depth of nested points-to queries
+ * and the time. A limit of 0 means unlimited. The work spent so far is
+ * also counted, and reported to {@link pascal.taie.analysis.dataflow.analysis.methodsummary.plugin.Plugin}s.
+ * <p>
+ * The limits are checked by {@link StmtProcessor} before each statement, where
+ * the analysis can be abandoned safely by {@link BudgetExceeded}. A points-to
+ * query deeper than the limit is not started, and the budget is exceeded
+ * at the next check. The time is the self time of the method, i.e., the time
+ * of the callees analyzed meanwhile is excluded, as the driver pauses the
+ * budget of a caller while its callees are analyzed (see {@link #pause()}).
+ */
+public class MethodBudget {
+
+    private final Limits limits;
+
+    private final JMethod method;
+
+    /**
+     * Max self time in nanoseconds, 0 means unlimited.
+     */
+    private final long maxNanos;
+
+    /**
+     * Self time before the last pause.
+     */
+    private long selfNanos;
+
+    /**
+     * When the budget is resumed last time.
+     */
+    private long resumedAt;
+
+    private boolean paused;
+
+    private int stmtVisits;
+
+    private int pfgEdges;
+
+    private int queries;
+
+    private int maxQueryDepth;
+
+    private int filterMethods;
+
+    /**
+     * Description of the first limit which is exceeded, or null.
+     */
+    private String exceeded;
+
+    private MethodBudget(Limits limits, JMethod method) {
+        this.limits = limits;
+        this.method = method;
+        this.maxNanos = limits.seconds() * 1_000_000_000L;
+        this.resumedAt = System.nanoTime();
+    }
+
+    /**
+     * Stops counting the time, e.g., when a callee is being analyzed.
+     */
+    public void pause() {
+        if (!paused) {
+            selfNanos += System.nanoTime() - resumedAt;
+            paused = true;
+        }
+    }
+
+    /**
+     * Continues counting the time.
+     */
+    public void resume() {
+        if (paused) {
+            resumedAt = System.nanoTime();
+            paused = false;
+        }
+    }
+
+    private long getSelfNanos() {
+        return paused ? selfNanos : selfNanos + System.nanoTime() - resumedAt;
+    }
+
+    void visitStmt() {
+        if (++stmtVisits > limits.stmtVisits() && limits.stmtVisits() > 0) {
+            exceed(limits.stmtVisits() + " statement visits");
+        }
+        if (maxNanos > 0 && getSelfNanos() > maxNanos) {
+            exceed(limits.seconds() + "s");
+        }
+        if (exceeded != null) {
+            throw new BudgetExceeded(method, exceeded);
+        }
+    }
+
+    void addPFGEdge() {
+        if (++pfgEdges > limits.pfgEdges() && limits.pfgEdges() > 0) {
+            exceed(limits.pfgEdges() + " PFG edges");
+        }
+    }
+
+    /**
+     * Counts a points-to query started at the given depth.
+     *
+     * @return false if the depth is over the limit, and the query
+     * should be answered by nothing.
+     */
+    boolean startQuery(int depth) {
+        ++queries;
+        maxQueryDepth = Math.max(maxQueryDepth, depth + 1);
+        if (limits.queryDepth() > 0 && depth >= limits.queryDepth()) {
+            exceed("query depth " + limits.queryDepth());
+            return false;
+        }
+        return true;
+    }
+
+    void filterMethods() {
+        ++filterMethods;
+    }
+
+    public int getStmtVisits() {
+        return stmtVisits;
+    }
+
+    public int getPFGEdges() {
+        return pfgEdges;
+    }
+
+    /**
+     * @return number of points-to queries started, excluding the ones
+     * stopped for recursion.
+     */
+    public int getQueries() {
+        return queries;
+    }
+
+    public int getMaxQueryDepth() {
+        return maxQueryDepth;
+    }
+
+    /**
+     * @return number of invocations of {@link pascal.taie.World#filterMethods}.
+     */
+    public int getFilterMethods() {
+        return filterMethods;
+    }
+
+    /**
+     * @return true if any limit is exceeded.
+     */
+    public boolean isExceeded() {
+        return exceeded != null;
+    }
+
+    private void exceed(String limit) {
+        if (exceeded == null) {
+            exceeded = limit;
+        }
+    }
+
+    /**
+     * Limits shared by the budgets of all methods.
+     */
+    public record Limits(int stmtVisits, int pfgEdges, int queryDepth, int seconds) {
+
+        public static Limits fromOptions(AnalysisOptions options) {
+            return new Limits(options.getInt("budget-stmt-visits"),
+                    options.getInt("budget-pfg-edges"),
+                    options.getInt("budget-query-depth"),
+                    options.getInt("budget-seconds"));
+        }
+
+        /**
+         * Starts the budget of the given method.
+         */
+        public MethodBudget start(JMethod method) {
+            return new MethodBudget(this, method);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package pascal.taie.analysis.dataflow.analysis.methodsummary;
+
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.solver.PointerFlowEdge;
+import pascal.taie.analysis.pta.core.solver.PointerFlowGraph;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+
+/**
+ * Removes the pointers of a method whose summary is final, together with
+ * their edges and the states of the method keyed by them, so that they can
+ * be reclaimed.
+ * <p>
+ * The pointers which can still be queried from other methods are kept, i.e.,
+ * the pointers flowing to other methods or static fields, the fields (and
+ * array elements) of {@code this} which are matched by the loads of other
+ * methods, and the pointers their queries visit.
+ */
+public class PointerReclaimer {
+
+    private final MapBasedCSManager csManager;
+
+    private final PointerFlowGraph pointerFlowGraph;
+
+    private final PointsToCache pointsToCache;
+
+    private final StackManger stackManger;
+
+    private long reclaimed;
+
+    public PointerReclaimer(MapBasedCSManager csManager, PointerFlowGraph pointerFlowGraph, PointsToCache pointsToCache, StackManger stackManger) {
+        this.csManager = csManager;
+        this.pointerFlowGraph = pointerFlowGraph;
+        this.pointsToCache = pointsToCache;
+        this.stackManger = stackManger;
+    }
+
+    public void reclaim(JMethod method) {
+        method.clearInvokeDispatch();
+        stackManger.removeInstanceOfInfo(method);
+        Set<Pointer> pointers = getPointersOf(method);
+        pointers.removeAll(getKeptPointers(pointers));
+        if (pointers.isEmpty()) return;
+        pointsToCache.remove(pointers);
+        pointerFlowGraph.removePointers(pointers);
+        csManager.removePointers(pointers);
+        reclaimed += pointers.size();
+    }
+
+    /**
+     * @return number of pointers reclaimed so far.
+     */
+    public long getReclaimed() {
+        return reclaimed;
+    }
+
+    private Set<Pointer> getPointersOf(JMethod method) {
+        Set<Pointer> pointers = Sets.newSet();
+        for (Var var : method.getIR().getVars()) {
+            for (CSVar csVar : csManager.getCSVarsOf(var)) {
+                pointers.add(csVar);
+                pointers.addAll(csManager.getPointersBasedOn(csVar));
+            }
+        }
+        return pointers;
+    }
+
+    private Set<Pointer> getKeptPointers(Set<Pointer> pointers) {
+        Set<Pointer> kept = Sets.newSet();
+        Deque<Pointer> workList = new ArrayDeque<>();
+        for (Pointer p : pointers) {
+            if (isThisBased(p) || p.getOutEdges().stream()
+                    .anyMatch(edge -> !pointers.contains(edge.target()))) {
+                workList.add(p);
+            }
+        }
+        while (!workList.isEmpty()) {
+            Pointer p = workList.poll();
+            if (!kept.add(p)) continue;
+            for (PointerFlowEdge edge : p.getInEdges()) {
+                if (edge.source() != null && pointers.contains(edge.source())) {
+                    workList.add(edge.source());
+                }
+            }
+            CSVar base = getBase(p);
+            if (base != null && pointers.contains(base)) {
+                workList.add(base);
+            }
+        }
+        return kept;
+    }
+
+    private static boolean isThisBased(Pointer p) {
+        CSVar base = getBase(p);
+        return base != null && base.getVar().getName().equals("%this");
+    }
+
+    private static CSVar getBase(Pointer p) {
+        if (p instanceof InstanceField iField) {
+            return iField.getBaseVar();
+        } else if (p instanceof ArrayIndex arrayIndex) {
+            return arrayIndex.getArrayVar();
+        } else {
+            return null;
+        }
+    }
+}
@@ -59,7 +59,7 @@ public class PointsTo {
         return relatedMap.entrySet().iterator().next().getValue();
     }
 
-    public void setValue(String value) {
+    public void setValue(ContrValue value) {
         Map.Entry<Pointer, Contr> entry = relatedMap.entrySet().iterator().next();
         Pointer key = entry.getKey();
         Contr newValue = entry.getValue();
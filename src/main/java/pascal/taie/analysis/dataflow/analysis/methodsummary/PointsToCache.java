@@ -0,0 +1,259 @@
+package pascal.taie.analysis.dataflow.analysis.methodsummary;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Memoizes the answers of points-to queries on the pointer flow graph, and
+ * records what each answer depends on, i.e., the pointers whose in-edges
+ * are visited and the fields (or arrays) whose store edges are matched,
+ * so that adding an edge only invalidates the affected answers.
+ * <p>
+ * A query also records the facts of the pointers it reads, as they are
+ * when first read (null if absent). An answer is reused only if these
+ * facts are unchanged in the current fact, so it is valid in any method,
+ * including the ones whose pointers it visits. A query is not memoized
+ * if it reads the state of {@link StackManger}.
+ * <p>
+ * At most {@code capacity} answers are kept, and the least recently used
+ * one is dropped with the answers depending on it.
+ */
+public class PointsToCache {
+
+    private final int capacity;
+
+    /**
+     * Answers in access order, the eldest is dropped first.
+     */
+    private final Map<Pointer, Answer> answers = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Pointers whose answers depend on a pointer or a match key.
+     */
+    private final MultiMap<Object, Pointer> dependents = Maps.newMultiMap();
+
+    /**
+     * Reverse of {@link #dependents}, used to drop the records of answers.
+     */
+    private final MultiMap<Pointer, Object> dependencies = Maps.newMultiMap();
+
+    private final Deque<Query> queries = new ArrayDeque<>();
+
+    private long hits;
+
+    private long misses;
+
+    /**
+     * @param capacity max number of memoized answers, 0 disables memoization.
+     */
+    public PointsToCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Starts the query of a pointer, which may be nested in another query.
+     */
+    public void startQuery() {
+        queries.push(new Query());
+    }
+
+    /**
+     * Finishes the current query of the given pointer.
+     */
+    public void finishQuery(Pointer p, @Nullable Contr answer) {
+        Query query = queries.pop();
+        if (query.pure && capacity > 0) {
+            drop(p); // the previous answer is invalid in the current fact
+            query.deps.forEach(dep -> {
+                dependents.put(dep, p);
+                dependencies.put(p, dep);
+            });
+            answers.put(p, new Answer(answer == null ? null : answer.copy(), query.facts));
+            while (answers.size() > capacity) {
+                invalidate(answers.keySet().iterator().next());
+            }
+        }
+        Query caller = queries.peek();
+        if (caller != null) {
+            caller.deps.add(p);
+            caller.pure &= query.pure;
+            caller.readFacts(query.facts);
+        }
+    }
+
+    /**
+     * @return true if the memoized answer of the given pointer is valid
+     * in the given fact, i.e., the facts read by its query are unchanged.
+     */
+    public boolean hasAnswer(Pointer p, ContrFact fact) {
+        Answer answer = answers.get(p);
+        if (answer != null && answer.facts.entrySet().stream()
+                .allMatch(e -> isSame(e.getValue(), fact.get(e.getKey())))) {
+            hits += 1;
+            return true;
+        }
+        misses += 1;
+        return false;
+    }
+
+    /**
+     * @return a copy of the memoized answer of the given pointer.
+     */
+    @Nullable
+    public Contr useAnswer(Pointer p) {
+        Answer answer = answers.get(p);
+        Query query = queries.peek();
+        if (query != null) {
+            query.deps.add(p);
+            query.readFacts(answer.facts);
+        }
+        return answer.contr == null ? null : answer.contr.copy();
+    }
+
+    /**
+     * Records that the current query depends on the given pointer,
+     * and reads its fact.
+     *
+     * @param fact the fact of the pointer, or null if absent.
+     */
+    public void read(Pointer p, @Nullable Contr fact) {
+        Query query = queries.peek();
+        if (query != null) {
+            query.deps.add(p);
+            query.readFact(p, fact);
+        }
+    }
+
+    /**
+     * Records that the current query depends on the given match key.
+     */
+    public void read(Object key) {
+        Query query = queries.peek();
+        if (query != null) query.deps.add(key);
+    }
+
+    /**
+     * Marks that the current query reads the state of stack,
+     * or changes the fact.
+     */
+    public void markImpure() {
+        Query query = queries.peek();
+        if (query != null) query.pure = false;
+    }
+
+    /**
+     * Drops the answers which depend on the given pointer or match key,
+     * together with their records.
+     *
+     * @return the pointers whose answers are affected, in the order of
+     * dependence, starting with the given pointer.
+     */
+    public Set<Pointer> invalidate(Object changed) {
+        Set<Pointer> affected = Sets.newLinkedSet();
+        Deque<Object> workList = new ArrayDeque<>();
+        workList.add(changed);
+        if (changed instanceof Pointer p) affected.add(p);
+        while (!workList.isEmpty()) {
+            for (Pointer p : dependents.get(workList.poll())) {
+                if (affected.add(p)) workList.add(p);
+            }
+        }
+        affected.forEach(this::drop);
+        return affected;
+    }
+
+    /**
+     * Drops the answer of the given pointer and its records.
+     */
+    private void drop(Pointer p) {
+        answers.remove(p);
+        for (Object dep : dependencies.get(p)) {
+            dependents.remove(dep, p);
+        }
+        dependencies.removeAll(p);
+    }
+
+    /**
+     * Removes the given pointers and the answers depending on them.
+     */
+    public void remove(Set<Pointer> pointers) {
+        pointers.forEach(this::invalidate);
+    }
+
+    /**
+     * @return number of queries answered by the memoized answers.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of queries which are computed.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the key of store edges matched by the loads of array elements.
+     */
+    public static Object arrayKey(JClass jClass, Type type) {
+        return new Pair<>(jClass, type);
+    }
+
+    /**
+     * @return true if the given facts of a pointer lead to the same answers.
+     */
+    private static boolean isSame(@Nullable Contr c1, @Nullable Contr c2) {
+        if (c1 == null || c2 == null) {
+            return c1 == c2;
+        }
+        return c1.equals(c2)
+                && Objects.equals(c1.getCS(), c2.getCS())
+                && c1.isNew() == c2.isNew()
+                && c1.isCasted() == c2.isCasted()
+                && c1.getArrayElements().equals(c2.getArrayElements());
+    }
+
+    private static class Query {
+
+        private final Set<Object> deps = Sets.newHybridSet();
+
+        /**
+         * Facts of the pointers read by this query, as they are when first
+         * read, null if absent.
+         */
+        private final Map<Pointer, Contr> facts = Maps.newMap();
+
+        private boolean pure = true;
+
+        private void readFact(Pointer p, @Nullable Contr fact) {
+            if (!facts.containsKey(p)) {
+                // the fact may be changed in place later
+                facts.put(p, fact == null ? null : fact.copy());
+            } else if (!isSame(facts.get(p), fact)) {
+                pure = false; // the answer mixes two facts of p
+            }
+        }
+
+        private void readFacts(Map<Pointer, Contr> facts) {
+            facts.forEach(this::readFact);
+        }
+    }
+
+    private record Answer(@Nullable Contr contr, Map<Pointer, Contr> facts) {
+    }
+}
@@ -22,9 +22,6 @@ import pascal.taie.language.type.TypeSystem;
 import pascal.taie.util.Strings;
 import pascal.taie.util.collection.Lists;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.PrintWriter;
 import java.util.*;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -39,6 +36,16 @@ public class StackManger {
 
     private Stack<Pointer> queryStack;
 
+    /**
+     * Number of occurrences of each method in methodStack, for O(1) containsMethod.
+     */
+    private Map<JMethod, Integer> methodCounts;
+
+    /**
+     * Number of occurrences of each pointer in queryStack, for O(1) containsQuery.
+     */
+    private Map<Pointer, Integer> queryCounts;
+
     private LinkedList<Stmt> ifStack;
 
     private Map<Stmt, JMethod> ifEndMap;
@@ -51,9 +58,7 @@ public class StackManger {
 
     private static final String GC_OUT = World.get().getOptions().getGC_OUT();
 
-    private Set<List<String>> GCs;
-
-    private PrintWriter pw;
+    private GadgetChainWriter gcWriter;
 
     private Map<JMethod, Set<Stack<Edge>>> tempGCMap;
 
@@ -74,16 +79,13 @@ public class StackManger {
         this.edgeStack = new Stack<>();
         this.methodStack = new Stack<>();
         this.queryStack = new Stack<>();
+        this.methodCounts = new HashMap<>();
+        this.queryCounts = new HashMap<>();
         this.ifStack = new LinkedList<>();
         this.ifEndMap = new HashMap<>();
         this.ifMap = new HashMap<>();
         this.gcGraph = new GadgetChainGraph();
-        try {
-            pw = new PrintWriter(new BufferedWriter(new FileWriter(GC_OUT)));
-        } catch (Exception e) {
-            logger.info(e);
-        }
-        this.GCs = new HashSet<>();
+        this.gcWriter = new GadgetChainWriter(GC_OUT, World.get().getOptions().getGC_FORMAT());
         this.tempGCMap = new HashMap<>();
         this.instanceOfEnd = new HashMap<>();
         this.instanceOfRet = new HashMap<>();
@@ -94,10 +96,12 @@ public class StackManger {
 
     public void pushMethod(JMethod method) {
         methodStack.push(method);
+        methodCounts.merge(method, 1, Integer::sum);
     }
 
     public void popMethod() {
         JMethod m = methodStack.pop();
+        decrease(methodCounts, m);
         if (!edgeStack.isEmpty()) {
             Edge e = edgeStack.peek();
             JMethod callee = ((CSMethod) e.getCallee()).getMethod();
@@ -105,8 +109,22 @@ public class StackManger {
         }
     }
 
+    /**
+     * Called when the summary of the callee on top of the edge stack is loaded
+     * instead of analyzed, links the gadget chains through it as if it is analyzed.
+     */
+    public void linkLoadedCallee(JMethod callee) {
+        if (edgeStack.isEmpty() || !CSCallGraph.getCallee(edgeStack.peek()).equals(callee)) return;
+        Edge callEdge = edgeStack.pop();
+        String calleeSig = callee.toString();
+        if (gcGraph.containsNode(calleeSig)) {
+            Set<List<Edge>> toSinkEdges = getToSinkEdges(gcGraph.collectPath(calleeSig));
+            linkGC(callEdge, toSinkEdges, edgeStack);
+        }
+    }
+
     public boolean containsMethod(JMethod method) {
-        return methodStack.contains(method);
+        return methodCounts.containsKey(method);
     }
 
     public JMethod curMethod() {
@@ -115,14 +133,26 @@ public class StackManger {
 
     public void pushQuery(Pointer pointer) {
         queryStack.push(pointer);
+        queryCounts.merge(pointer, 1, Integer::sum);
     }
 
     public void popQuery() {
-        queryStack.pop();
+        decrease(queryCounts, queryStack.pop());
+    }
+
+    /**
+     * @return number of points-to queries in progress.
+     */
+    public int queryDepth() {
+        return queryStack.size();
     }
 
     public boolean containsQuery(Pointer pointer) {
-        return queryStack.contains(pointer);
+        return queryCounts.containsKey(pointer);
+    }
+
+    private static <T> void decrease(Map<T, Integer> counts, T key) {
+        counts.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
     }
 
     public void pushIf(Stmt ifEnd, JMethod method, If ifStart) {
@@ -145,6 +175,16 @@ public class StackManger {
         ifMap.remove(stmt);
     }
 
+    /**
+     * Removes the if regions of the given method which are not ended,
+     * as the analysis of the method is abandoned.
+     */
+    public void popIfs(JMethod method) {
+        ifStack.removeIf(ifEnd -> method.equals(ifEndMap.get(ifEnd)));
+        ifEndMap.values().removeIf(method::equals);
+        ifMap.keySet().retainAll(ifEndMap.keySet());
+    }
+
     public Set<ConditionExp> getIfConditions(JMethod m) {
         Set<ConditionExp> ret = new HashSet<>();
         Stmt ifEnd = getCurIfEnd();
@@ -178,19 +218,10 @@ public class StackManger {
             updateToSinkGC(gcList, true);
             if (!typeCheck(gcEdgeList)) return;
             List<Edge> simplyGC = simplyGC(gcList, gcEdgeList);
-            if (addGC(simplyGC)) {
-                logAndWriteGC(simplyGC);
-            }
+            gcWriter.add(simplyGC);
         }
     }
 
-    private boolean addGC(List<Edge> gcEdgeList) {
-        List<Edge> copy = new ArrayList<>(gcEdgeList);
-        Collections.reverse(copy);
-        List<String> gc = getGCList(copy);
-        return GCs.add(gc);
-    }
-
     private boolean typeCheck(List<Edge> edgeList) {
         List<Edge> gcEdgeList = new ArrayList<>(edgeList);
         Collections.reverse(gcEdgeList);
@@ -331,25 +362,6 @@ public class StackManger {
         return CSCallGraph.getCaller(gc.get(gc.size() - 1)).isSource();
     }
 
-    private void logAndWriteGC(List<Edge> gcEdgeList) {
-        int gcSize = gcEdgeList.size();
-        for (int i = 0; i < gcSize; i++) {
-            Edge edge = gcEdgeList.get(i);
-            String caller = CSCallGraph.getCaller(edge).toString();
-            StringBuilder line = new StringBuilder(caller);
-            line.append("->").append(edge.getCSIntContr());
-            String writeLine = line.toString();
-            logger.info(writeLine);
-            pw.println(writeLine);
-        }
-        String sink = CSCallGraph.getCallee(gcEdgeList.get(gcSize - 1)).toString();
-        logger.info(sink);
-        pw.println(sink);
-        logger.info("");
-        pw.println("");
-        pw.flush();
-    }
-
     private List<Edge> backPropagate(List<Integer> tcList, Edge initEdge, Stack<Edge> edges, int sinkLen) { // 这里需要多获取一个，保证simply
         List<Edge> edgeList = new ArrayList<>();
         List<Integer> tempNewTC = getNewTCList(tcList, initEdge.getCSIntContr());
@@ -409,7 +421,7 @@ public class StackManger {
             List<Edge> ret = new ArrayList<>();
             for (int i = 0; i < callers.size(); i++) {
                 Edge caller = callers.get(i);
-                String edgeValue = (String) caller.getCSContr().get(idx);
+                ContrValue edgeValue = (ContrValue) caller.getCSContr().get(idx);
                 if (ContrUtil.hasCS(edgeValue) || ContrUtil.isThis(edgeValue)) {
                     String nameReg = ContrUtil.convert2Reg(edgeValue);
                     boolean hasStar = nameReg.contains("*");
@@ -419,7 +431,7 @@ public class StackManger {
                     if (match) ret.addAll(callers.subList(i, callers.size()));
                     break;
                 } else if (ContrUtil.isControllableParam(edgeValue)) {
-                    idx = Strings.extractParamIndex(edgeValue) + 1;
+                    idx = edgeValue.getIndex() + 1;
                     ret.add(caller);
                 } else {
                     break;
@@ -550,9 +562,7 @@ public class StackManger {
                 updateToSinkGC(gc, true);
                 if (!typeCheck(filterGCList)) return;
                 List<Edge> simplyGC = simplyGC(gc, filterGCList);
-                if (addGC(simplyGC)) {
-                    logAndWriteGC(simplyGC);
-                }
+                gcWriter.add(simplyGC);
             }
         }
     }
@@ -565,9 +575,7 @@ public class StackManger {
     }
 
     public void count() {
-        logger.info("total GC count: {}", GCs.size());
-        pw.println("total GC count: " + GCs.size());
-        pw.flush();
+        gcWriter.close();
     }
 
     public void putInstanceOfInfo(CSVar retVar, Pointer pointer, ReferenceType type) {
@@ -605,6 +613,29 @@ public class StackManger {
         return instanceOfType.get(p);
     }
 
+    /**
+     * Removes the instanceof information recorded by the given method,
+     * which is left when the checks are not followed by the expected ifs.
+     */
+    public void removeInstanceOfInfo(JMethod method) {
+        instanceOfRet.entrySet().removeIf(e -> {
+            if (method.equals(e.getKey().getVar().getMethod())) {
+                instanceOfType.remove(e.getValue());
+                return true;
+            }
+            return false;
+        });
+        List<Stmt> stmts = method.getIR().getStmts();
+        instanceOfEnd.entrySet().removeIf(e -> {
+            int index = e.getKey().getIndex();
+            if (index < stmts.size() && stmts.get(index) == e.getKey()) {
+                instanceOfType.remove(e.getValue());
+                return true;
+            }
+            return false;
+        });
+    }
+
     private List<Edge> getEdgeListOfGC(List<String> gc) {
         List<Edge> edgeList = new ArrayList<>();
         for (int i = 0; i < gc.size() - 1; i++) {
@@ -651,4 +682,12 @@ public class StackManger {
     public int mSize() {
         return methodStack.size();
     }
+
+    public GadgetChainGraph getGCGraph() {
+        return gcGraph;
+    }
+
+    public GadgetChainWriter getGCWriter() {
+        return gcWriter;
+    }
 }
@@ -4,6 +4,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.AnalysisManager;
+import pascal.taie.analysis.PendingMethod;
 import pascal.taie.analysis.dataflow.analysis.ContrAlloc;
 import pascal.taie.analysis.dataflow.analysis.methodsummary.Utils.ContrUtil;
 import pascal.taie.analysis.dataflow.analysis.methodsummary.plugin.TaintTransfer;
@@ -50,8 +51,29 @@ public class StmtProcessor {
 
     private StackManger stackManger;
 
+    private PointsToCache pointsToCache;
+
+    private MethodBudget budget;
+
     private Context context; // empty context
 
+    /**
+     * The statement whose processing is interrupted by {@link PendingMethod}
+     * in explicit-stack mode, which is processed again when the analysis resumes.
+     */
+    private Stmt interrupted;
+
+    /**
+     * Whether the statement being processed is {@link #interrupted} before.
+     */
+    private boolean replaying;
+
+    /**
+     * Callees that {@link #addWL} has finished for the statement being processed,
+     * which are skipped when the statement is replayed.
+     */
+    private final Set<JMethod> finishedCallees = new HashSet<>();
+
     private TypeSystem typeSystem;
 
     private int lineNumber;
@@ -64,15 +86,17 @@ public class StmtProcessor {
 
     private boolean isFilterNonSerializable =  World.get().getOptions().isFilterNonSerializable();
 
-    public StmtProcessor(StackManger stackManger, CSCallGraph callGraph, PointerFlowGraph pointerFlowGraph, HeapModel heapModel, CSManager csManager, Context context) {
+    public StmtProcessor(StackManger stackManger, PointsToCache pointsToCache, CSCallGraph callGraph, PointerFlowGraph pointerFlowGraph, HeapModel heapModel, CSManager csManager, Context context, MethodBudget budget) {
         this.drivenMap = new ContrFact();
         this.visitor = new Visitor();
         this.stackManger = stackManger;
+        this.pointsToCache = pointsToCache;
         this.csCallGraph = callGraph;
         this.pointerFlowGraph = pointerFlowGraph;
         this.heapModel = heapModel;
         this.csManager = csManager;
         this.context = context;
+        this.budget = budget;
         this.typeSystem = World.get().getTypeSystem();
         this.curMethod = stackManger.curMethod();
         this.lineNumber = -1;
@@ -125,10 +149,14 @@ public class StmtProcessor {
     public void addPFGEdge(PointerFlowEdge edge, Transfer transfer, int lineNumber) {
         edge.addTransfer(transfer);
         edge.setLineNumber(lineNumber);
-        if (pointerFlowGraph.addEdge(edge) != null) varsToReQuery(edge.target(), new HashSet<>());
+        if (pointerFlowGraph.addEdge(edge) != null) {
+            budget.addPFGEdge();
+            varsToReQuery(edge);
+        }
     }
 
-    private void addWL(Invoke stmt, JMethod callee, List<String> edgeContr) {
+    private void addWL(Invoke stmt, JMethod callee, List<ContrValue> edgeContr) {
+        if (replaying && finishedCallees.contains(callee)) return;
         if (!isIgnored(callee) && (callee.isSink() || (!callee.isTransfer() && !callee.hasImitatedBehavior()))) {
             List<CSVar> callSiteVars = getCallsiteVars(stmt.getInvokeExp());
             List<Contr> callSiteContr = new ArrayList<>();
@@ -140,9 +168,14 @@ public class StmtProcessor {
             boolean inStack = stackManger.containsMethod(callee);
             if (csCallGraph.addEdge(callEdge)) stackManger.pushCallEdge(callEdge, inStack);
             if (!inStack) AnalysisManager.runMethodAnalysis(callee);
+            finishedCallees.add(callee);
         }
     }
 
+    private void countFilterMethods() {
+        if (!replaying) budget.filterMethods();
+    }
+
     private void setEdgeCasted(Edge callEdge, List<Contr> callSiteContr) {
         for (int i = 0; i < callSiteContr.size(); i++) {
             Contr contr = callSiteContr.get(i);
@@ -150,25 +183,156 @@ public class StmtProcessor {
         }
     }
 
-    private void varsToReQuery(Pointer p, HashSet<Pointer> visited) { // drivenMap会缓存结果，如果缓存的变量新增加了指向边，则需要重新查询
+    private void varsToReQuery(PointerFlowEdge edge) { // drivenMap会缓存结果，如果缓存的变量新增加了指向边，则需要重新查询
+        if (edge.kind() == FlowKind.INSTANCE_STORE) { // 新的store边只影响缓存的别名查询结果
+            Pointer target = edge.target();
+            if (target instanceof InstanceField iField) {
+                pointsToCache.invalidate(iField.getField());
+            } else if (target instanceof ArrayIndex arrayIndex) {
+                CSVar base = arrayIndex.getArrayVar();
+                pointsToCache.invalidate(PointsToCache.arrayKey(base.getVar().getMethod().getDeclaringClass(), base.getType()));
+            }
+        }
+        pointsToCache.invalidate(edge.target());
+        reQuery(edge.target(), new HashSet<>());
+    }
+
+    /**
+     * Re-queries the cached pointers in the forward cone of the given pointer
+     * within current method, after the memoized answers are invalidated.
+     */
+    private void reQuery(Pointer p, Set<Pointer> visited) {
         if (Objects.equals(getPointerMethod(p), curMethod) && visited.add(p)) {
             if (drivenMap.contains(p)) {
                 drivenMap.remove(p);
                 updateContr(p, getContr(p));
             }
             for (PointerFlowEdge outEdge : p.getOutEdges()) {
-                varsToReQuery(outEdge.target(), visited);
+                reQuery(outEdge.target(), visited);
             }
         }
     }
 
+    /**
+     * Processes the given statement. In explicit-stack mode, the processing
+     * is interrupted by {@link PendingMethod} when a callee needs to be
+     * analyzed first, and the statement is processed again after that.
+     * The replay is not counted by the budget, and skips the callees
+     * finished before, while the other effects of the interrupted processing
+     * are done again, so they must be idempotent: adding the PFG edges and
+     * the call edges, which are deduplicated, updating the fact, which is
+     * copied from the in fact again, and merging the summaries.
+     */
     public void process(Stmt stmt) {
+        replaying = stmt == interrupted;
+        interrupted = null;
+        if (!replaying) {
+            finishedCallees.clear();
+            budget.visitStmt();
+        }
         this.lineNumber = stmt.getLineNumber();
-        stmt.accept(visitor);
+        try {
+            stmt.accept(visitor);
+        } catch (PendingMethod e) {
+            interrupted = stmt;
+            throw e;
+        }
         if (stackManger.isInIf() && stackManger.isIfEnd(stmt)) stackManger.popIf(stmt);
         if (stackManger.containsInstanceOfEnd(stmt)) stackManger.removeInstanceOfEnd(stmt);
     }
 
+    /**
+     * @param ifTargets targets of the if statements in the method, which end
+     *                  the regions recorded in {@link StackManger}.
+     * @return false if {@link #process(Stmt)} never affects the fact, the pointer
+     * flow graph or the stack for the given statement, so that it can be skipped.
+     */
+    public static boolean isRelevant(Stmt stmt, Set<Stmt> ifTargets) {
+        return ifTargets.contains(stmt) || isRelevant(stmt);
+    }
+
+    /**
+     * @return false if {@link Visitor} does nothing for the given statement.
+     * The visitor checks the statements by this method too, so that the sparse
+     * mode skips exactly the statements which the dense mode ignores.
+     */
+    private static boolean isRelevant(Stmt stmt) {
+        return stmt.accept(RELEVANCE);
+    }
+
+    private static final StmtVisitor<Boolean> RELEVANCE = new StmtVisitor<>() {
+
+        @Override
+        public Boolean visit(New stmt) {
+            return true;
+        }
+
+        @Override
+        public Boolean visit(AssignLiteral stmt) {
+            return true;
+        }
+
+        @Override
+        public Boolean visit(Copy stmt) {
+            return !isIgnored(stmt.getRValue().getType());
+        }
+
+        @Override
+        public Boolean visit(Cast stmt) {
+            return !isIgnored(stmt.getRValue().getCastType());
+        }
+
+        @Override
+        public Boolean visit(LoadField stmt) {
+            return !isIgnored(stmt.getLValue().getType());
+        }
+
+        @Override
+        public Boolean visit(StoreField stmt) {
+            return !isIgnored(stmt.getRValue().getType());
+        }
+
+        @Override
+        public Boolean visit(LoadArray stmt) {
+            return !isIgnored(stmt.getLValue().getType());
+        }
+
+        @Override
+        public Boolean visit(StoreArray stmt) {
+            return !isIgnored(stmt.getRValue().getType());
+        }
+
+        @Override
+        public Boolean visit(If stmt) {
+            return true;
+        }
+
+        @Override
+        public Boolean visit(InstanceOf stmt) {
+            return true;
+        }
+
+        @Override
+        public Boolean visit(Return stmt) {
+            return true;
+        }
+
+        @Override
+        public Boolean visit(Invoke stmt) {
+            return !stmt.isDynamic();
+        }
+
+        @Override
+        public Boolean visitDefault(Stmt stmt) {
+            return false;
+        }
+    };
+
+    /**
+     * Transfers the statements. Every statement which this visitor handles
+     * must be relevant by {@link #RELEVANCE}, and the guards of the handled
+     * statements are checked by {@link #isRelevant(Stmt)}.
+     */
     private class Visitor implements StmtVisitor<Void> {
 
         public Visitor() {
@@ -204,7 +368,7 @@ public class StmtProcessor {
         @Override
         public Void visit(Copy stmt) {
             Var rvalue = stmt.getRValue();
-            if (!isIgnored(rvalue.getType())) {
+            if (isRelevant(stmt)) {
                 CSVar from = csManager.getCSVar(context, rvalue);
                 CSVar to = csManager.getCSVar(context, stmt.getLValue());
                 addPFGEdge(from, to, FlowKind.LOCAL_ASSIGN, lineNumber);
@@ -215,7 +379,7 @@ public class StmtProcessor {
         @Override
         public Void visit(Cast stmt) {
             CastExp cast = stmt.getRValue();
-            if (!isIgnored(cast.getCastType())) {
+            if (isRelevant(stmt)) {
                 CSVar from = csManager.getCSVar(context, cast.getValue());
                 CSVar to = csManager.getCSVar(context, stmt.getLValue());
                 addPFGEdge(new PointerFlowEdge(FlowKind.CAST, from, to), new SpecialType(cast.getCastType()), lineNumber);
@@ -225,8 +389,7 @@ public class StmtProcessor {
 
         @Override
         public Void visit(LoadField stmt) {
-            Var lValue = stmt.getLValue();
-            if (!isIgnored(lValue.getType())) {
+            if (isRelevant(stmt)) {
                 JField field = stmt.getFieldRef().resolve();
                 if (field == null) {
                     return null;
@@ -250,7 +413,7 @@ public class StmtProcessor {
         @Override
         public Void visit(StoreField stmt) {
             Var rValue = stmt.getRValue();
-            if (!isIgnored(rValue.getType())) {
+            if (isRelevant(stmt)) {
                 JField field = stmt.getFieldRef().resolve();
                 if (field == null) {
                     return null;
@@ -263,9 +426,9 @@ public class StmtProcessor {
                     CSVar base = csManager.getCSVar(context, ((InstanceFieldAccess) stmt.getFieldAccess()).getBase());
                     InstanceField iField = csManager.getInstanceField(base, field);
                     PointerFlowEdge edge = new PointerFlowEdge(FlowKind.INSTANCE_STORE, from, iField);
-                    addPFGEdge(edge, Identity.get(), lineNumber);
                     int ifEnd = Objects.equals(curMethod, stackManger.getCurIfEndMethod()) ? stackManger.getIfEnd() : -1;
-                    pointerFlowGraph.addIfRange(edge, ifEnd);
+                    pointerFlowGraph.addIfRange(edge, ifEnd); // 先于加边设置，使加边后的重新查询可见
+                    addPFGEdge(edge, Identity.get(), lineNumber);
                 }
             }
             return null;
@@ -274,7 +437,7 @@ public class StmtProcessor {
         @Override
         public Void visit(LoadArray stmt) {
             Var lValue = stmt.getLValue();
-            if (!isIgnored(lValue.getType())) {
+            if (isRelevant(stmt)) {
                 CSVar to = csManager.getCSVar(context, lValue);
                 CSVar base = csManager.getCSVar(context, stmt.getArrayAccess().getBase());
                 ArrayIndex varArray = csManager.getArrayIndex(base);
@@ -286,7 +449,7 @@ public class StmtProcessor {
         @Override
         public Void visit(StoreArray stmt) {
             Var rValue = stmt.getRValue();
-            if (!isIgnored(rValue.getType())) {
+            if (isRelevant(stmt)) {
                 CSVar from = csManager.getCSVar(context, rValue);
                 CSVar base = csManager.getCSVar(context, stmt.getArrayAccess().getBase());
                 ArrayIndex varArray = csManager.getArrayIndex(base);
@@ -330,18 +493,18 @@ public class StmtProcessor {
         public Void visit(Return stmt) {
             Var ret = stmt.getValue();
             if (ret == null || isIgnored(ret.getType())) {
-                String oldV = curMethod.getSummary("return");
-                if (oldV == null) curMethod.setSummary("return", "null");
+                ContrValue oldV = curMethod.getSummary("return");
+                if (oldV == null) curMethod.setSummary("return", ContrValue.NOT_POLLUTED);
             } else {
-                String oldV = curMethod.getSummary("return");
+                ContrValue oldV = curMethod.getSummary("return");
                 CSVar retVar = csManager.getCSVar(context, ret);
-                String newV;
+                ContrValue newV;
                 if (!drivenMap.contains(retVar)) {
                     newV = getContrValue(retVar);
                 } else {
                     newV = drivenMap.get(retVar).getValue();
                 }
-                newV = newV + "+" + (drivenMap.contains(retVar) ? drivenMap.get(retVar).getType() : "null");
+                newV = newV.concat(String.valueOf(drivenMap.contains(retVar) ? drivenMap.get(retVar).getType() : "null"));
                 if (oldV == null || ContrUtil.needUpdateInMerge(oldV, newV)) {
                     curMethod.setSummary("return", newV);
                 }
@@ -352,7 +515,7 @@ public class StmtProcessor {
         @Override
         public Void visit(Invoke stmt) {
             InvokeExp invokeExp = stmt.getInvokeExp();
-            if (stmt.isDynamic()) return null;
+            if (!isRelevant(stmt)) return null;
             JMethod ref = invokeExp.getMethodRef().resolve();
             if (isIgnored(ref)) return null;
             if (ref.isTransfer()) {
@@ -361,7 +524,7 @@ public class StmtProcessor {
             }
             List<CSVar> callSiteVars = getCallsiteVars(invokeExp);
             CSVar base = callSiteVars.get(0);
-            List<String> csContr;
+            List<ContrValue> csContr;
             Set<JMethod> callees = new HashSet<>();
             csContr = getCallSiteContr(callSiteVars);
             if (isIgnoredCallSite(csContr, ref, stmt.getContainer().getDeclaringClass().getType())) return null;
@@ -399,7 +562,7 @@ public class StmtProcessor {
                 if (isIgnored(callee)) continue;
                 if (stackManger.containsMethod(callee)) { // 处理递归导致的忽略问题, 暂时没有更好的方法
                     if (retContr != null) {
-                        for (String contr : csContr) {
+                        for (ContrValue contr : csContr) {
                             if (ContrUtil.isControllable(contr)) {
                                 retContr.setValue(contr);
                                 break;
@@ -408,13 +571,13 @@ public class StmtProcessor {
                     }
                     continue;
                 }
-                Map<String, String> summary = callee.getSummaryMap();
+                Map<String, ContrValue> summary = callee.getSummaryMap();
                 for (String sKey : summary.keySet()) {
-                    String sValue = summary.get(sKey);
+                    ContrValue sValue = summary.get(sKey);
                     if (sKey.equals("return")) { // return
                         if (retContr == null || !ContrUtil.needUpdateInMerge(retContr.getValue(), sValue)) continue;
-                        String retValue = sValue.substring(0, sValue.lastIndexOf("+"));
-                        String retType = sValue.substring(sValue.lastIndexOf("+") + 1);
+                        ContrValue retValue = sValue.getPrefix();
+                        String retType = sValue.getLast().toString();
                         if (!retType.equals("null")) retContr.setType(typeSystem.getType(retType));
                         if (ContrUtil.isCallSite(retValue)) { // 返回值来源于参数
                             Contr fromContr = getCallSiteCorrespondContr(retValue, callSiteVars);
@@ -428,18 +591,18 @@ public class StmtProcessor {
                         }
                         updateContr(csRet, retContr);
                     } else if (ContrUtil.isCallSite(sKey)) { // 参数
-                        Contr toContr = getCallSiteCorrespondContr(sKey, callSiteVars);
+                        Contr toContr = getCallSiteCorrespondContr(ContrValue.of(sKey), callSiteVars);
                         if (ContrUtil.isCallSite(sValue)) {
                             Contr fromContr = getCallSiteCorrespondContr(sValue, callSiteVars);
                             toContr.updateValue(fromContr.getValue());
                             polluteBase(toContr);
                             if (!Objects.equals(getPointerMethod(toContr.getOrigin()), curMethod)) curMethod.setSummary(toContr.getName(), fromContr.getValue());
                             else addPFGEdge(fromContr.getOrigin(), toContr.getOrigin(), FlowKind.SUMMARY_ASSIGN, lineNumber);
-                        } else if (sValue.equals(ContrUtil.sPOLLUTED)) {
+                        } else if (ContrValue.POLLUTED.equals(sValue)) {
                             toContr.setValue(sValue);
                             Pointer origin = toContr.getOrigin();
                             if (origin != null) {
-                                CSObj csContrObj = ContrUtil.getObj(origin, ContrUtil.sPOLLUTED, heapModel, context, csManager);
+                                CSObj csContrObj = ContrUtil.getObj(origin, ContrValue.POLLUTED, heapModel, context, csManager);
                                 addPFGEdge(csContrObj, toContr.getOrigin(), FlowKind.NEW_CONTR, lineNumber);
                             }
                         } else {
@@ -488,7 +651,7 @@ public class StmtProcessor {
         return true;
     }
 
-    private boolean isIgnored(Type type) {
+    private static boolean isIgnored(Type type) {
         return type instanceof PrimitiveType || type instanceof NullType || (type instanceof ClassType ct && ct.getName().equals("java.lang.Short"));
     }
 
@@ -502,7 +665,7 @@ public class StmtProcessor {
                         && !method.getName().equals("equals"));
     }
 
-    private boolean isIgnoredCallSite(List<String> csContr, JMethod ref, Type containerType) {
+    private boolean isIgnoredCallSite(List<ContrValue> csContr, JMethod ref, Type containerType) {
         if (!ref.isConstructor() && ref.getParamTypes().stream().anyMatch(p -> p.getName().equals("java.lang.String"))) return false; // 字符串操作？
         else if (ref.getName().equals("equals") && !ref.getDeclaringClass().getName().equals("java.lang.String") && !ContrUtil.isControllable(csContr.get(1))) return true;
         else if (typeSystem.isSubtype(typeSystem.getType("java.io.ObjectInputStream"), containerType)
@@ -514,14 +677,14 @@ public class StmtProcessor {
         return var.getVar().getName().equals("%this");
     }
 
-    private List<String> getCallSiteContr(List<CSVar> callSiteVars) {
-        List<String> list = new ArrayList<>();
+    private List<ContrValue> getCallSiteContr(List<CSVar> callSiteVars) {
+        List<ContrValue> list = new ArrayList<>();
         List<Contr> contrList = new ArrayList<>();
         callSiteVars.forEach(var -> contrList.add(getContr(var)));
         Contr baseContr = contrList.get(0);
         if (ContrUtil.isControllable(baseContr) && isFilterNonSerializable && !baseContr.isSerializable()
                 && !baseContr.isNew() && !(baseContr.getOrigin() instanceof ArrayIndex)) {
-            list.add(ContrUtil.sNOT_POLLUTED);
+            list.add(ContrValue.NOT_POLLUTED);
         } else {
             list.add(getContrValue(baseContr));
         }
@@ -531,20 +694,22 @@ public class StmtProcessor {
         return list;
     }
 
-    private String getContrValue(Pointer p) {
+    private ContrValue getContrValue(Pointer p) {
         Contr contr = getContr(p);
         return getContrValue(contr);
     }
 
-    private String getContrValue(Contr c) {
-        return c != null ? c.getValue() : ContrUtil.sNOT_POLLUTED;
+    private ContrValue getContrValue(Contr c) {
+        return c != null ? c.getValue() : ContrValue.NOT_POLLUTED;
     }
 
     private Contr getContr(Pointer p) {
         if (p != null && !isIgnored(p.getType())) {
             if (containsContr(p)) {
                 Contr query = drivenMap.get(p);
+                pointsToCache.read(p, query);
                 if (stackManger.containsInstanceOfType(p)) {
+                    pointsToCache.markImpure();
                     Contr checkedContr = query.copy(); // 返回副本可以方便还原状态
                     checkedContr.setType(stackManger.getInstanceofType(p));
                     return checkedContr;
@@ -555,11 +720,15 @@ public class StmtProcessor {
                 Contr cs = Contr.newInstance(p);
                 cs.setConstString(getConstString(var.getVar()));
                 updateContr(p, cs);
+                pointsToCache.read(p, drivenMap.get(p));
                 return cs;
             } else {
-                Contr query = findPointsTo(p).getMergedContr();
+                Contr query = queryMergedContr(p);
                 updateContr(p, query);
+                // a fresh query would read the fact just updated
+                pointsToCache.read(p, drivenMap.get(p));
                 if (query != null && stackManger.containsInstanceOfType(p)) {
+                    pointsToCache.markImpure();
                     Contr checkedContr = query.copy();
                     checkedContr.setType(stackManger.getInstanceofType(p));
                     return checkedContr;
@@ -594,13 +763,13 @@ public class StmtProcessor {
         }
     }
 
-    private Edge getCallEdge(Invoke callSite, JMethod callee, List<String> csContr, List<Type> edgeType) {
+    private Edge getCallEdge(Invoke callSite, JMethod callee, List<ContrValue> csContr, List<Type> edgeType) {
         CSCallSite csCallSite = csManager.getCSCallSite(context, callSite);
         CSMethod csCallee = csManager.getCSMethod(context, callee);
         return new Edge<>(CallGraphs.getCallKind(callSite), csCallSite, csCallee, csContr, lineNumber, edgeType);
     }
 
-    private Set<JMethod> getCallees(Invoke stmt, CSVar base, List<String> csContr, Type refType) {
+    private Set<JMethod> getCallees(Invoke stmt, CSVar base, List<ContrValue> csContr, Type refType) {
         Set<JMethod> ret = new HashSet<>();
         if (base == null) {
             ret.add(CallGraphs.resolveCallee(null, stmt));
@@ -630,40 +799,40 @@ public class StmtProcessor {
         return callees;
     }
 
-    private Contr getCallSiteCorrespondContr(String value, List<CSVar> callSiteVars) {
+    private Contr getCallSiteCorrespondContr(ContrValue value, List<CSVar> callSiteVars) {
         Pointer origin;
-        String contrValue;
+        ContrValue contrValue;
         boolean repalce = false;
         if (value.contains(ContrUtil.sTHIS)) {
             CSVar base = callSiteVars.get(0);
             if (base != null) {
-                String baseValue = getContrValue(base);
+                ContrValue baseValue = getContrValue(base);
                 if (value.contains("-")) {
-                    String fieldName = Strings.extractFieldName(value);
+                    String fieldName = Strings.extractFieldName(value.toString());
                     JField field = base.getVar().getClassField(fieldName);
                     origin = field == null ? base : csManager.getInstanceField(base, field);
-                    contrValue = ContrUtil.isControllable(baseValue) ? baseValue + "-" + fieldName : baseValue;
+                    contrValue = ContrUtil.isControllable(baseValue) ? baseValue.field(fieldName) : baseValue;
                 } else {
                     origin = base;
                     contrValue = baseValue;
                 }
             } else { // 静态方法调用
                 origin = null;
-                contrValue = ContrUtil.sNOT_POLLUTED;
+                contrValue = ContrValue.NOT_POLLUTED;
             }
         } else if (value.contains(ContrUtil.sPOLLUTED)) {
             origin = null;
-            contrValue = ContrUtil.sPOLLUTED;
+            contrValue = ContrValue.POLLUTED;
         } else {
-            int paramIdx = ContrUtil.string2Int(value) + 1;
+            int paramIdx = value.getIndex() + 1;
             origin = paramIdx >= callSiteVars.size() ? null : callSiteVars.get(paramIdx);
             if (origin == null || isIgnored(origin.getType())) {
-                contrValue = "null";
+                contrValue = ContrValue.NOT_POLLUTED;
             } else if (drivenMap.contains(origin)) {
                 repalce = true;
-                contrValue = value.replace("param-" + (paramIdx - 1), drivenMap.get(origin).getValue());
+                contrValue = ContrValue.of(value.toString().replace("param-" + (paramIdx - 1), drivenMap.get(origin).getValue().toString()));
             } else {
-                contrValue = "null";
+                contrValue = ContrValue.NOT_POLLUTED;
             }
         }
         Contr ret;
@@ -679,9 +848,25 @@ public class StmtProcessor {
         return ret;
     }
 
+    /**
+     * @return the merged result of {@link #findPointsTo(Pointer)}, which is
+     * memoized by {@link PointsToCache} if possible.
+     */
+    private Contr queryMergedContr(Pointer p) {
+        if (pointsToCache.hasAnswer(p, drivenMap)) return pointsToCache.useAnswer(p);
+        pointsToCache.startQuery();
+        Contr answer = findPointsTo(p).getMergedContr();
+        pointsToCache.finishQuery(p, answer);
+        return answer;
+    }
+
     private PointsTo findPointsTo(Pointer pointer) {
         PointsTo pt = PointsTo.make();
-        if (stackManger.containsQuery(pointer)) return pt; // 防止递归
+        if (stackManger.containsQuery(pointer) // 防止递归
+                || !budget.startQuery(stackManger.queryDepth())) {
+            pointsToCache.markImpure();
+            return pt;
+        }
         stackManger.pushQuery(pointer);
 
         LinkedList<Pointer> workList = new LinkedList<>();
@@ -690,6 +875,7 @@ public class StmtProcessor {
 
         while (!workList.isEmpty()) {
             Pointer p = workList.poll();
+            pointsToCache.read(p, drivenMap.get(p));
             if (containsContr(p)) {
                 pt.add(p, drivenMap.get(p));
                 continue;
@@ -705,7 +891,7 @@ public class StmtProcessor {
                         } else if (obj instanceof ConstantObj co && co.getAllocation() instanceof ClassLiteral cl) {
                             newContr.setType(cl.getTypeValue());
                         } else {
-                            String newType = "new " + obj.getType();
+                            ContrValue newType = ContrValue.of("new " + obj.getType());
                             newContr.setValue(newType);
                             newContr.setNew();
                         }
@@ -713,20 +899,20 @@ public class StmtProcessor {
                     }
                     case LOCAL_ASSIGN, SUMMARY_ASSIGN -> propagate(pfe.source(), marked, workList);
                     case CAST -> {
-                        Contr from = findPointsTo(pfe.source()).getMergedContr();
+                        Contr from = queryMergedContr(pfe.source());
                         if (from != null && (ContrUtil.isControllable(from) || from.isNew())) {
                             pfe.getTransfers().forEach(transfer -> { // 转换类型
                                 if (transfer instanceof SpecialType st) {
                                     Contr contr = from.copy();
                                     contr.setCasted();
                                     contr.setType(st.getType());
-                                    if (from.isNew()) contr.setValue("new " + st.getType());
+                                    if (from.isNew()) contr.setValue(ContrValue.of("new " + st.getType()));
                                     pt.add(p, contr);
                                 }
                             });
                         }
                     }
-                    case STATIC_LOAD, STATIC_STORE -> pt.add(findPointsTo(pfe.source()));
+                    case STATIC_LOAD, STATIC_STORE -> pt.add(pfe.source(), queryMergedContr(pfe.source()));
                     case INSTANCE_LOAD -> {
                         CSVar base = null;
                         Set<PointerFlowEdge> matchEdges = null;
@@ -737,26 +923,29 @@ public class StmtProcessor {
                             base = iField.getBaseVar();
                             fieldName = iField.getField().getName();
                             matchEdges = pointerFlowGraph.getMatchEdges(iField.getField());
+                            pointsToCache.read(iField.getField());
                         } else if (source instanceof ArrayIndex arrayIndex) {
                             base = arrayIndex.getArrayVar();
                             fieldName = "arr";
                             matchEdges = pointerFlowGraph.getMatchEdges(base.getVar().getMethod().getDeclaringClass(), base.getType());
+                            pointsToCache.read(PointsToCache.arrayKey(base.getVar().getMethod().getDeclaringClass(), base.getType()));
                             contr.setType(p.getType()); // element type
                         }
                         if (!processAlias(source, matchEdges, pt, pfe.getLineNumber())) {
                             Contr baseContr = getContr(base);
                             if (ContrUtil.isControllable(baseContr)) {
                                 if (source instanceof ArrayIndex) {
-                                    contr.updateValue(baseContr.getValue() + "-" + fieldName);
+                                    contr.updateValue(baseContr.getValue().field(fieldName));
                                 } else if (!contr.isTransient()) {
                                     if (fieldName.equals("this$0")) contr.updateValue(baseContr.getValue()); // Class.this的一种访问形式
-                                    else contr.updateValue(baseContr.getValue() + "-" +fieldName);
+                                    else contr.updateValue(baseContr.getValue().field(fieldName));
                                 }
                             }
                             pt.add(base, contr);
                         }
                     }
                     case ELEMENT_STORE -> {
+                        pointsToCache.markImpure();
                         Contr arrContr = getOrAddContr(p);
                         if (pfe.source() != null) {
                             arrContr.addArrElement(getContr(pfe.source()));
@@ -805,7 +994,7 @@ public class StmtProcessor {
                 if ((ifEnd != -1 && lineNumber >= ifEnd)
                         || targetMethod == null
                         || targetMethod.getName().equals("<init>")) continue;
-                Contr aliasContr = findPointsTo(matchSource).getMergedContr();
+                Contr aliasContr = queryMergedContr(matchSource);
 //                if (targetMethod.getName().equals("<init>")) {
 //                    if (!ContrUtil.isControllableParam(aliasContr)) continue;
 //                    List<String> initEdge = targetMethod.getInitEdge();
@@ -817,8 +1006,8 @@ public class StmtProcessor {
                 if (!Objects.equals(getPointerMethod(source), targetMethod) // 如果来源变量不属于当前方法，则参数来源可能不一致
                         && !pt.isEmpty()
                         && ContrUtil.isControllableParam(pt.getMergedContr())) {
-                    String value = pt.getMergedContr().getValue();
-                    pt.setValue(source instanceof InstanceField ? ContrUtil.replaceContr(value, ContrUtil.sTHIS) : ContrUtil.replaceContr(value, ContrUtil.sPOLLUTED));
+                    ContrValue value = pt.getMergedContr().getValue();
+                    pt.setValue(source instanceof InstanceField ? ContrUtil.replaceContr(value, ContrValue.THIS) : ContrUtil.replaceContr(value, ContrValue.POLLUTED));
                 }
             }
         }
@@ -843,13 +1032,13 @@ public class StmtProcessor {
         });
     }
 
-    private void processReceiver(JMethod ref, CSVar base, List<String> csContr) { // 处理receiver可控性传递
+    private void processReceiver(JMethod ref, CSVar base, List<ContrValue> csContr) { // 处理receiver可控性传递
         Contr baseContr = drivenMap.get(base);
         if (baseContr == null) return;
         if (ref.isConstructor()) {
             ref.setInitEdge(csContr.subList(1, csContr.size()));
             for (int i = 1; i < csContr.size(); i++) {
-                String contr = csContr.get(i);
+                ContrValue contr = csContr.get(i);
                 if (ContrUtil.isControllable(contr)) {
                     baseContr.setValue(contr);
                     break;
@@ -858,7 +1047,7 @@ public class StmtProcessor {
         }
     }
 
-    private void processBehavior(JMethod method, Invoke stmt, List<CSVar> callSiteVars, List<String> csContr, CSVar base) {
+    private void processBehavior(JMethod method, Invoke stmt, List<CSVar> callSiteVars, List<ContrValue> csContr, CSVar base) {
         Map<String, String> imitatedBehavior = method.getImitatedBehavior();
         if (imitatedBehavior.containsKey("jump")) {
             String target = imitatedBehavior.get("jump");
@@ -881,6 +1070,7 @@ public class StmtProcessor {
                     Type expandArgType = null;
                     if (fromContr.getType().getName().equals("java.lang.String")) { // Class#forName
                         clzName = ContrUtil.convert2Reg(fromContr.getValue());
+                        countFilterMethods();
                         callees = World.get().filterMethods("<clinit>", clzName, new ArrayList<>(), ContrUtil.isControllableParam(fromContr), isFilterNonSerializable, expandArgType);
                     } else {
                         Contr paramContr = getContr(callSiteVars.get(1));
@@ -889,15 +1079,16 @@ public class StmtProcessor {
                         List<Type> argTypes = argContrs.stream().map(Contr::getType).toList();
                         clzName = fromContr.getOrigin().getType().getName();
                         if (clzName.equals("java.lang.Class")) clzName = "java.lang.Object";
+                        countFilterMethods();
                         callees = World.get().filterMethods("<init>", clzName, argTypes, ContrUtil.isControllableParam(fromContr), isFilterNonSerializable, expandArgType);
                     }
                     if (callees.size() > 1) logger.info("[+] {} possible init target in {}", callees.size(), curMethod);
                     for (JMethod init : callees) {
                         if (init.isPrivate()) continue;
-                        List<String> edgeContr = new ArrayList<>();
+                        List<ContrValue> edgeContr = new ArrayList<>();
                         edgeContr.add(csContr.get(0));
                         int pSize = init.getIR().getParams().size(); // 适应性PP
-                        List<String> copied = Collections.nCopies(pSize, csContr.get(1));
+                        List<ContrValue> copied = Collections.nCopies(pSize, csContr.get(1));
                         edgeContr.addAll(copied);
                         addWL(stmt, init, edgeContr);
                     }
@@ -908,7 +1099,7 @@ public class StmtProcessor {
                     int pidx = InvokeUtils.toInt(imitatedBehavior.get("paramIdx")) + 1;
                     Contr nameContr = getContr(callSiteVars.get(idx));
                     if (nameContr == null) return;
-                    String nameValue = nameContr.getValue();
+                    ContrValue nameValue = nameContr.getValue();
                     if (isFilterNonSerializable && !nameContr.isSerializable() && ContrUtil.isThis(nameValue)) return;
                     if (nameValue.startsWith(ContrUtil.sParam)) {
                         stmt.setFilterByCaller("edge:" + nameValue);
@@ -925,11 +1116,12 @@ public class StmtProcessor {
                     List<Type> argTypes = argContrs.stream().map(Contr::getType).toList();
                     Contr recvContr = getContr(callSiteVars.get(ridx));
                     if (recvContr == null) return;
+                    countFilterMethods();
                     Set<JMethod> callees = World.get().filterMethods(nameReg, recvContr.getType(), argTypes, ContrUtil.isControllableParam(recvContr), isFilterNonSerializable, expandArgType); // for example getxxx
                     if (callees.size() > 1) logger.info("[+] {} possible invoke target in {}", callees.size(), curMethod);
                     if (nameReg.equals(".*")) callees.addAll(World.get().getInvocationHandlerMethod());
                     for (JMethod callee : callees) {
-                        List<String> edgeContr = new ArrayList<>();
+                        List<ContrValue> edgeContr = new ArrayList<>();
                         edgeContr.add(csContr.get(ridx));
                         if (callee.isInvoke()) {
                             edgeContr.add(csContr.get(ridx));
@@ -947,32 +1139,33 @@ public class StmtProcessor {
                 }
                 case "get" -> {
                     int getIdx = InvokeUtils.toInt(imitatedBehavior.get("fromIdx")) + 1;
-                    String fromValue = csContr.get(getIdx);
+                    ContrValue fromValue = csContr.get(getIdx);
                     if (ContrUtil.isControllable(fromValue) && stmt.getResult() != null) {
                         Pointer p = csManager.getCSVar(context, stmt.getResult());
                         Contr retContr = getOrAddContr(p);
-                        retContr.setValue("get+" + fromValue);
+                        retContr.setValue(ContrValue.of("get+" + fromValue));
                         updateContr(p, retContr);
                     }
                 }
                 case "set" -> {
                     int setIdx = InvokeUtils.toInt(imitatedBehavior.get("fromIdx")) + 1;
-                    String fromValue = csContr.get(setIdx);
+                    ContrValue fromValue = csContr.get(setIdx);
                     if (ContrUtil.isControllable(fromValue) && stmt.getResult() != null) {
                         Pointer p = csManager.getCSVar(context, stmt.getResult());
                         Contr retContr = getOrAddContr(p);
-                        retContr.setValue("set+" + fromValue);
+                        retContr.setValue(ContrValue.of("set+" + fromValue));
                         updateContr(p, retContr);
                     }
                 }
                 case "toString" -> {
-                    List<String> edgeContr = new ArrayList<>();
+                    List<ContrValue> edgeContr = new ArrayList<>();
                     int fromIdx = InvokeUtils.toInt(imitatedBehavior.get("fromIdx")) + 1;
                     if (!ContrUtil.isControllable(csContr.get(fromIdx))) break;
                     edgeContr.add(csContr.get(fromIdx));
                     CSVar toStringVar = callSiteVars.get(fromIdx);
                     Contr toStringContr = drivenMap.get(toStringVar);
                     Type recType = getContrType(toStringContr);
+                    countFilterMethods();
                     Set<JMethod> callees = World.get().filterMethods("toString", recType, new ArrayList<>(), ContrUtil.isControllableParam(toStringContr), isFilterNonSerializable, null);
                     for (JMethod toString : callees) {
                         addWL(stmt, toString, edgeContr);
@@ -984,7 +1177,7 @@ public class StmtProcessor {
             switch (behavior) {
                 case "replace" -> {
                     if (ContrUtil.isControllable(csContr.get(0))
-                            || csContr.get(0).equals(ContrUtil.sNOT_POLLUTED)
+                            || csContr.get(0).isNotPolluted()
                             || csContr.subList(1, 2).stream().allMatch(s -> ContrUtil.isControllable(s)))
                         return;
                     try {
@@ -994,10 +1187,10 @@ public class StmtProcessor {
                             paramTypes[i] = Class.forName(method.getParamType(i).getName());
                         }
                         Method rep = c.getDeclaredMethod(method.getName(), paramTypes);
-                        String s = csContr.get(0);
-                        String replacedValue = (String) rep.invoke(s, ContrUtil.convert2Reg(csContr.get(1)), csContr.get(2));
+                        String s = csContr.get(0).toString();
+                        String replacedValue = (String) rep.invoke(s, ContrUtil.convert2Reg(csContr.get(1)), csContr.get(2).toString());
                         Contr replacedContr = getContr(base);
-                        replacedContr.setValue(replacedValue);
+                        replacedContr.setValue(ContrValue.of(replacedValue));
                         updateContr(base, replacedContr);
                     } catch (Exception e) {
                         throw new RuntimeException(e);
@@ -1005,7 +1198,7 @@ public class StmtProcessor {
                 }
                 case "polluteRec" -> {
                     for (int i = 1; i < callSiteVars.size(); i++) {
-                        String contr = csContr.get(i);
+                        ContrValue contr = csContr.get(i);
                         if (ContrUtil.isControllable(contr) && containsContr(base)) {
                             drivenMap.get(base).setValue(contr);
                             CSObj csFrom = ContrUtil.getObj(callSiteVars.get(i), contr, heapModel, context, csManager);
@@ -1019,19 +1212,19 @@ public class StmtProcessor {
 
     }
 
-    private List<String> getDynamicProxyEdge(List<String> csContr) {
-        List<String> invokeEdge = new ArrayList<>(); // 适应参数长度
+    private List<ContrValue> getDynamicProxyEdge(List<ContrValue> csContr) {
+        List<ContrValue> invokeEdge = new ArrayList<>(); // 适应参数长度
         invokeEdge.add(csContr.get(0));
         invokeEdge.add(csContr.get(0));
-        invokeEdge.add(ContrUtil.sNOT_POLLUTED);
+        invokeEdge.add(ContrValue.NOT_POLLUTED);
         for (int i = 1; i < csContr.size(); i++) {
-            String v = csContr.get(i);
+            ContrValue v = csContr.get(i);
             if (ContrUtil.isControllable(v)) {
                 invokeEdge.add(v);
                 break;
             }
         }
-        if (invokeEdge.size() == 3) invokeEdge.add(ContrUtil.sNOT_POLLUTED);
+        if (invokeEdge.size() == 3) invokeEdge.add(ContrValue.NOT_POLLUTED);
         return invokeEdge;
     }
 
@@ -1065,7 +1258,7 @@ public class StmtProcessor {
                 .collect(Collectors.toSet());
     }
 
-    private void filterByCaller(Invoke stmt, Edge callEdge, List<String> edgeContr) {
+    private void filterByCaller(Invoke stmt, Edge callEdge, List<ContrValue> edgeContr) {
         if (curMethod.isInvoke()) {
             if (stackManger.isInIf()) {
                 stackManger.getIfConditions(curMethod).forEach(condition -> {
@@ -1099,7 +1292,7 @@ public class StmtProcessor {
                     && ContrUtil.isControllable(contr)) {
                 Contr old = drivenMap.get(base);
                 if (old != null) {
-                    old.setValue(ContrUtil.sPOLLUTED);
+                    old.setValue(ContrValue.POLLUTED);
                     drivenMap.update(base, old);
                 }
             }
@@ -1113,8 +1306,8 @@ public class StmtProcessor {
                 param.removePFG(FlowKind.NEW_CONTR); // 削除初始操作影响
                 drivenMap.remove(param);
                 String key = "param-" + i;
-                String oldV = curMethod.getSummary(key);
-                String newV = getContrValue(param);
+                ContrValue oldV = curMethod.getSummary(key);
+                ContrValue newV = getContrValue(param);
                 if (ContrUtil.needUpdateInMerge(oldV, newV)) curMethod.setSummary(key, newV);
             }
         }
@@ -1124,8 +1317,8 @@ public class StmtProcessor {
                 if (!isIgnored(field.getType())) {
                     InstanceField to = csManager.getInstanceField(thisVar, field);
                     String key = tv.getName().substring(1) + "-" + field.getName();
-                    String oldV = curMethod.getSummary(key);
-                    String newV;
+                    ContrValue oldV = curMethod.getSummary(key);
+                    ContrValue newV;
                     if (!drivenMap.contains(to)) newV = getContrValue(to);
                     else newV = drivenMap.get(to).getValue();
                     if (ContrUtil.needUpdateInMerge(oldV, newV)) {
@@ -1,9 +1,8 @@
 package pascal.taie.analysis.dataflow.analysis.methodsummary.Utils;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.dataflow.analysis.ContrAlloc;
 import pascal.taie.analysis.dataflow.analysis.methodsummary.Contr;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.ContrValue;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
@@ -15,7 +14,6 @@ import pascal.taie.language.type.ArrayType;
 import pascal.taie.language.type.ClassType;
 import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.Type;
-import pascal.taie.util.Strings;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -36,8 +34,6 @@ public class ContrUtil {
 
     public static final String sParam = "param";
 
-    private static final Logger logger = LogManager.getLogger(ContrUtil.class);
-
     public static String int2String(int i) {
         if (i >= 0) return sParam + "-" + i;
         else if (i == iTHIS) return sTHIS;
@@ -46,102 +42,83 @@ public class ContrUtil {
     }
 
     public static int string2Int(String s) {
-        try {
-            if (s == null || s.equals(sNOT_POLLUTED)) return iNOT_POLLUTED;
-            else if (s.contains(sPOLLUTED)) return iPOLLUTED;
-            else if (s.contains(sTHIS)) return iTHIS;
-            else if (s.contains(sParam)) return Strings.extractParamIndex(s);
-        } catch (Exception e) {
-            logger.info("[-] error parsing {}", s);
-        }
-        return iNOT_POLLUTED;
+        return s == null ? iNOT_POLLUTED : ContrValue.of(s).getIndex();
     }
 
-    public static List<Integer> string2Int(List<String> values) {
+    public static int string2Int(ContrValue v) {
+        return v == null ? iNOT_POLLUTED : v.getIndex();
+    }
+
+    public static List<Integer> string2Int(List<ContrValue> values) {
         List<Integer> ret = new ArrayList<>();
         values.forEach(value -> ret.add(string2Int(value)));
         return ret;
     }
 
     public static boolean needUpdateInMerge(String oldV, String newV) {
+        return needUpdateInMerge(ContrValue.of(oldV), ContrValue.of(newV));
+    }
+
+    public static boolean needUpdateInMerge(ContrValue oldV, ContrValue newV) {
         if (oldV == null) {
-            return !newV.equals(sNOT_POLLUTED);
-        } else if (isControllable(oldV) && isControllable(newV)) {
-            return hasCS(newV) && !hasCS(oldV);
+            return !newV.isNotPolluted();
+        } else if (oldV.isControllable() && newV.isControllable()) {
+            return newV.hasCS() && !oldV.hasCS();
         } else {
-            return string2Int(oldV) == iNOT_POLLUTED && string2Int(newV) != iNOT_POLLUTED;
+            return oldV.getIndex() == iNOT_POLLUTED && newV.getIndex() != iNOT_POLLUTED;
         }
     }
 
     public static boolean hasCS(String value) {
-        if (value.contains("+")) {
-            String[] parts = value.split("\\+");
-            for (String part : parts) {
-                if (isConstString(part)) {
-                    return true;
-                }
-            }
-            return false;
-        } else {
-            return isConstString(value);
-        }
+        return ContrValue.of(value).hasCS();
+    }
+
+    public static boolean hasCS(ContrValue value) {
+        return value.hasCS();
     }
 
-    public static boolean needUpdateInConcat(String left, String right) {
-        return isControllable(left) != isControllable(right);
+    public static boolean needUpdateInConcat(ContrValue left, ContrValue right) {
+        return left.isControllable() != right.isControllable();
     }
 
     public static boolean isControllable(Contr contr) {
-        return contr != null && isControllable(contr.getValue());
+        return contr != null && contr.getValue().isControllable();
     }
 
     public static boolean isControllable(String value) {
         return string2Int(value) >= iPOLLUTED;
     }
 
+    public static boolean isControllable(ContrValue value) {
+        return value != null && value.isControllable();
+    }
+
     public static boolean isControllableParam(Contr contr) {
         if (contr == null) return false;
-        else return isControllableParam(contr.getValue());
+        else return contr.getValue().isControllableParam();
     }
 
-    public static boolean isControllableParam(String value) {
-        return string2Int(value) > iTHIS;
+    public static boolean isControllableParam(ContrValue value) {
+        return value != null && value.isControllableParam();
     }
 
     public static boolean isCallSite(String value) {
         return string2Int(value) >= iTHIS;
     }
 
-    public static boolean isThis(String value) {
-        return string2Int(value) == iTHIS;
+    public static boolean isCallSite(ContrValue value) {
+        return value != null && value.isCallSite();
     }
 
-    private static boolean isConstString(String value) {
-        return !isControllable(value) && !value.equals(sNOT_POLLUTED) && !value.contains(".");
+    public static boolean isThis(ContrValue value) {
+        return value != null && value.isThis();
     }
 
-    public static String convert2Reg(String v) {
-        if (v.contains("+")) {
-            StringBuilder ret = new StringBuilder();
-            String[] parts = v.split("\\+");
-            for (String p : parts) {
-                if (isControllable(p) && !ret.toString().endsWith(".*")) {
-                    ret.append(".*");
-                } else {
-                    ret.append(p);
-                }
-            }
-            return ret.toString();
-        } else if (isControllable(v)) {
-            return ".*";
-        } else if (!v.equals(sNOT_POLLUTED)) {
-            return v;
-        } else {
-            return "";
-        }
+    public static String convert2Reg(ContrValue v) {
+        return v.toReg();
     }
 
-    public static CSObj getObj(Pointer p, String value, HeapModel heapModel, Context context, CSManager csManager) {
+    public static CSObj getObj(Pointer p, ContrValue value, HeapModel heapModel, Context context, CSManager csManager) {
         ContrAlloc alloc = new ContrAlloc(p, value);
         Obj obj = heapModel.getMockObj(Descriptor.CONTR_DESC, alloc, p.getType());
         return csManager.getCSObj(context, obj);
@@ -164,19 +141,19 @@ public class ContrUtil {
         return !values.contains(iNOT_POLLUTED);
     }
 
-    public static String replaceContr(String old, String contr) {
-        if (hasCS(old)) {
-            String[] parts = old.split("\\+");
-            String replace = parts[0];
-            String left = replace;
-            for (int i = 1; i < parts.length; i++) {
-                String right = parts[i];
+    public static ContrValue replaceContr(ContrValue old, ContrValue contr) {
+        if (old.hasCS()) {
+            List<String> parts = old.getSegments();
+            ContrValue left = ContrValue.of(parts.get(0));
+            StringBuilder replace = new StringBuilder(parts.get(0));
+            for (int i = 1; i < parts.size(); i++) {
+                ContrValue right = ContrValue.of(parts.get(i));
                 if (needUpdateInConcat(left, right)) {
-                    replace += "+" + (isControllable(right) ? contr : right);
+                    replace.append("+").append(right.isControllable() ? contr : right);
                     left = right;
                 }
             }
-            return replace;
+            return ContrValue.of(replace.toString());
         } else {
             return contr;
         }
@@ -1,5 +1,9 @@
 package pascal.taie.analysis.dataflow.analysis.methodsummary.plugin;
 
+import pascal.taie.analysis.dataflow.analysis.methodsummary.MethodBudget;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.language.classes.JMethod;
 
 import java.util.ArrayList;
@@ -29,4 +33,14 @@ public class CompositePlugin implements Plugin {
     public void onNewMethod(JMethod method) {
         allPlugins.forEach(p -> p.onNewMethod(method));
     }
+
+    @Override
+    public void onFinishMethod(JMethod method, MethodBudget budget) {
+        allPlugins.forEach(p -> p.onFinishMethod(method, budget));
+    }
+
+    @Override
+    public void onNewCallEdge(Edge<CSCallSite, CSMethod> edge) {
+        allPlugins.forEach(p -> p.onNewCallEdge(edge));
+    }
 }
@@ -8,73 +8,111 @@ import pascal.taie.analysis.pta.core.cs.CSCallGraph;
 import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Stream;
-
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports the call graph as CSV files in the format of neo4j-admin bulk import,
+ * which are written to {@code <db_path>/import}.
+ * <p>
+ * The edges are appended to the files as they are added to the call graph,
+ * together with the methods first seen in them. The rows are distributed over
+ * shards in round-robin, and each shard writes its own node and edge files
+ * on a thread. The headers are written in separate files, so the import
+ * command lists the header file before the shard files of each kind.
+ */
 public class Graph2Neo4j implements Plugin {
 
     private static final Logger logger = LogManager.getLogger(Graph2Neo4j.class);
 
-    private CSCallGraph csCallGraph;
+    private static final String[] NODE_HEADER = {"signature:ID", "name", "isSource", "isSink", "className", "tc", ":LABEL"};
 
-    private String db_path;
+    private static final String[] EDGE_HEADER = {":START_ID", ":END_ID", ":TYPE", "PP", "lineNo"};
 
-    private Set<JMethod> visited;
+    private static final int QUEUE_CAPACITY = 4096;
 
-    public Graph2Neo4j(CSCallGraph csCallGraph, String db_path) {
-        super();
-        this.csCallGraph = csCallGraph;
-        this.db_path = db_path;
-        visited = new HashSet<>();
-    }
+    /**
+     * Marks the end of the rows in the queue of a shard.
+     */
+    private static final Row END = new Row(false, new String[0]);
 
-    @Override
-    public void onFinish() {
-        String node_path = db_path + "/import/nodes.csv";
-        String relationship_path = db_path + "/import/edges.csv";
+    private final File importDir;
+
+    private final boolean gzip;
+
+    private final String suffix;
+
+    private final List<Shard> shards = new ArrayList<>();
+
+    private final Set<JMethod> visited = Sets.newSet();
+
+    private long nEdges;
+
+    public Graph2Neo4j(String db_path, boolean gzip, int nShards) {
+        this.importDir = new File(db_path, "import");
+        this.gzip = gzip;
+        this.suffix = gzip ? ".csv.gz" : ".csv";
         try {
-            CSVWriter nodeWriter = new CSVWriter(new FileWriter(node_path, false));
-            CSVWriter edgeWriter = new CSVWriter(new FileWriter(relationship_path, false));
-            String[] nodeHeader = {"signature:ID", "name", "isSource", "isSink", "className", "tc", ":LABEL"};
-            nodeWriter.writeNext(nodeHeader);
-            String[] edgeHeader = {":START_ID", ":END_ID", ":TYPE" ,"PP", "lineNo"};
-            edgeWriter.writeNext(edgeHeader);
-
-            Stream<Edge<CSCallSite, CSMethod>> edges = this.csCallGraph.edges();
-            graph2CSV(nodeWriter, edgeWriter, edges);
-
-            String command = "neo4j-admin.bat database import full --nodes=import/nodes.csv --relationships=import/edges.csv --overwrite-destination neo4j";
-//            logger.info("[+] use {} to load graph to neo4j", command);
-            ProcessBuilder process = new ProcessBuilder("cmd", "/c", command);
-            process.directory(new File(db_path + "/bin"));
-            process.start();
-
-            nodeWriter.close();
-            edgeWriter.close();
-        } catch (Exception e) {
+            importDir.mkdirs();
+            writeHeader("nodes-header.csv", NODE_HEADER);
+            writeHeader("edges-header.csv", EDGE_HEADER);
+            for (int i = 0; i < Math.max(nShards, 1); i++) {
+                shards.add(new Shard(i));
+            }
+        } catch (IOException e) {
             logger.info(e);
+            shards.forEach(Shard::finish);
+            shards.clear();
         }
     }
 
-    private void graph2CSV(CSVWriter nodeWriter, CSVWriter edgeWriter, Stream<Edge<CSCallSite, CSMethod>> edges) {
-        edges.forEach(edge -> {
-            JMethod callee = edge.getCallee().getMethod();
-            JMethod caller = CSCallGraph.getCaller(edge);
-            node2CSV(nodeWriter, callee);
-            node2CSV(nodeWriter, caller);
-            edge2CSV(edgeWriter, caller.getSignature(), callee.getSignature(), edge.getCSIntContr(), edge.getLineNo());
-        });
+    @Override
+    public void onNewCallEdge(Edge<CSCallSite, CSMethod> edge) {
+        if (shards.isEmpty()) return;
+        Shard shard = shards.get((int) (nEdges++ % shards.size()));
+        JMethod callee = edge.getCallee().getMethod();
+        JMethod caller = CSCallGraph.getCaller(edge);
+        node2CSV(shard, callee);
+        node2CSV(shard, caller);
+        shard.put(new Row(false, new String[]{
+                caller.getSignature(),
+                callee.getSignature(),
+                "CALL",
+                edge.getCSIntContr().toString(),
+                String.valueOf(edge.getLineNo())
+        }));
+    }
+
+    @Override
+    public void onFinish() {
+        if (shards.isEmpty()) return;
+        shards.forEach(Shard::finish);
+        String command = "neo4j-admin database import full"
+                + " --nodes=" + files("nodes")
+                + " --relationships=" + files("edges")
+                + " --overwrite-destination neo4j";
+        logger.info("[+] exported {} methods and {} call edges, use {} to load graph to neo4j",
+                visited.size(), nEdges, command);
     }
 
-    private void node2CSV(CSVWriter nodeWriter, JMethod node) {
+    private void node2CSV(Shard shard, JMethod node) {
         if (visited.add(node)) {
-            String[] line = {
+            shard.put(new Row(true, new String[]{
                     node.getSignature(),
                     node.getName(),
                     String.valueOf(node.isSource()),
@@ -82,19 +120,96 @@ public class Graph2Neo4j implements Plugin {
                     node.getDeclaringClass().getName(),
                     Arrays.toString(node.getSink()),
                     "Method"
-            };
-            nodeWriter.writeNext(line);
+            }));
         }
     }
 
-    private void edge2CSV(CSVWriter edgeWriter, String caller, String callee, List<Integer> csIntContr, Integer lineNo) {
-        String line = String.format("%s#%s#%s#%s#%d",
-                caller,
-                callee,
-                "CALL",
-                csIntContr.toString(),
-                lineNo);
-        edgeWriter.writeNext(line.split("#"));
+    private void writeHeader(String name, String[] header) throws IOException {
+        try (CSVWriter writer = new CSVWriter(newWriter(new File(importDir, name), false))) {
+            writer.writeNext(header);
+        }
+    }
+
+    /**
+     * @return comma-separated paths of the header file and the shard files of the given kind.
+     */
+    private String files(String kind) {
+        List<File> files = new ArrayList<>();
+        files.add(new File(importDir, kind + "-header.csv"));
+        shards.forEach(shard -> files.add(new File(importDir, kind + "-" + shard.id + suffix)));
+        return files.stream().map(File::getPath).collect(Collectors.joining(","));
     }
 
+    private BufferedWriter newWriter(File file, boolean compress) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        if (compress) {
+            out = new GZIPOutputStream(out, 1 << 16);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    private record Row(boolean isNode, String[] cells) {
+    }
+
+    /**
+     * Writer of a part of the node and edge files.
+     */
+    private class Shard {
+
+        private final int id;
+
+        private final BlockingQueue<Row> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+        private final CSVWriter nodeWriter;
+
+        private final CSVWriter edgeWriter;
+
+        private final Thread thread;
+
+        private Shard(int id) throws IOException {
+            this.id = id;
+            this.nodeWriter = new CSVWriter(newWriter(new File(importDir, "nodes-" + id + suffix), gzip));
+            this.edgeWriter = new CSVWriter(newWriter(new File(importDir, "edges-" + id + suffix), gzip));
+            this.thread = new Thread(this::run, "neo4j-export-" + id);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void put(Row row) {
+            try {
+                queue.put(row);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void run() {
+            try {
+                for (Row row = queue.take(); row != END; row = queue.take()) {
+                    (row.isNode() ? nodeWriter : edgeWriter).writeNext(row.cells());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                try {
+                    nodeWriter.close();
+                    edgeWriter.close();
+                } catch (IOException e) {
+                    logger.info(e);
+                }
+            }
+        }
+
+        /**
+         * Waits for the rows in the queue to be written, and closes the files.
+         */
+        private void finish() {
+            put(END);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
 }
@@ -1,5 +1,9 @@
 package pascal.taie.analysis.dataflow.analysis.methodsummary.plugin;
 
+import pascal.taie.analysis.dataflow.analysis.methodsummary.MethodBudget;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.language.classes.JMethod;
 
 public interface Plugin {
@@ -21,4 +25,18 @@ public interface Plugin {
 
     default void onNewMethod(JMethod method) {
     }
+
+    /**
+     * Invoked when the summary of a method is final.
+     *
+     * @param budget the budget of the analysis, which counts the work spent on the method
+     */
+    default void onFinishMethod(JMethod method, MethodBudget budget) {
+    }
+
+    /**
+     * Invoked when a new call edge is added to the call graph.
+     */
+    default void onNewCallEdge(Edge<CSCallSite, CSMethod> edge) {
+    }
 }
@@ -11,6 +11,7 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.ContrValue;
 import pascal.taie.analysis.dataflow.analysis.methodsummary.Utils.ContrUtil;
 import pascal.taie.config.ConfigException;
 import pascal.taie.language.classes.ClassHierarchy;
@@ -201,7 +202,7 @@ public record PrioriKnowConfig(List<JMethod> sinks,
                                     } else {
                                         to = ContrUtil.int2String(InvokeUtils.toInt(v[1]));
                                     }
-                                    method.setSummary(to, from);
+                                    method.setSummary(to, ContrValue.of(from));
                                 });
                             }
                         }
@@ -0,0 +1,52 @@
+package pascal.taie.analysis.dataflow.analysis.methodsummary.plugin;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder event of the summary analysis of a method, whose
+ * duration includes the callees analyzed meanwhile.
+ */
+@Name("pascal.taie.SummaryAnalysis")
+@Label("Method Summary Analysis")
+@Category("Tai-e")
+@StackTrace(false)
+class SummaryAnalysisEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Class")
+    String declaringClass;
+
+    @Label("Self Time")
+    @Description("Time excluding the callees analyzed meanwhile")
+    @Timespan(Timespan.NANOSECONDS)
+    long selfTime;
+
+    @Label("Statement Visits")
+    int stmtVisits;
+
+    @Label("Points-to Queries")
+    int queries;
+
+    @Label("Max Query Depth")
+    int maxQueryDepth;
+
+    @Label("PFG Edges")
+    int pfgEdges;
+
+    @Label("Callees")
+    int callees;
+
+    @Label("filterMethods Invocations")
+    int filterMethods;
+
+    @Label("Budget Exceeded")
+    boolean exceeded;
+}
@@ -0,0 +1,215 @@
+package pascal.taie.analysis.dataflow.analysis.methodsummary.plugin;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.MethodBudget;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Records the work spent on the summary analysis of each method, emits a
+ * {@link SummaryAnalysisEvent} for it, and reports the methods and classes
+ * taking the most time to {@code summary-metrics.txt} in the output directory
+ * when the analysis finishes.
+ * <p>
+ * The time of a method excludes the callees analyzed meanwhile, so that
+ * the time of a class is the sum of the time of its methods.
+ */
+public class SummaryMetrics implements Plugin {
+
+    private static final Logger logger = LogManager.getLogger(SummaryMetrics.class);
+
+    private static final String REPORT_FILE = "summary-metrics.txt";
+
+    private static final Comparator<Metrics> BY_TIME = Comparator.comparingLong(Metrics::selfNanos);
+
+    private final int topN;
+
+    /**
+     * Methods being analyzed, the innermost on top.
+     */
+    private final Deque<Running> running = new ArrayDeque<>();
+
+    /**
+     * The top N methods by time, the least on head.
+     */
+    private final PriorityQueue<Metrics> topMethods = new PriorityQueue<>(BY_TIME);
+
+    private final Map<JClass, Metrics.Builder> classes = Maps.newMap();
+
+    private final Metrics.Builder total = new Metrics.Builder("total");
+
+    public SummaryMetrics(int topN) {
+        this.topN = topN;
+    }
+
+    @Override
+    public void onNewMethod(JMethod method) {
+        SummaryAnalysisEvent event = new SummaryAnalysisEvent();
+        event.begin();
+        running.push(new Running(method, event, System.nanoTime()));
+    }
+
+    @Override
+    public void onNewCallEdge(Edge<CSCallSite, CSMethod> edge) {
+        Running caller = running.peek();
+        if (caller != null && caller.method.equals(CSCallGraph.getCaller(edge))) {
+            ++caller.callees;
+        }
+    }
+
+    @Override
+    public void onFinishMethod(JMethod method, MethodBudget budget) {
+        Running r = running.peek();
+        if (r == null || !r.method.equals(method)) return;
+        running.pop();
+        long nanos = System.nanoTime() - r.start;
+        if (!running.isEmpty()) {
+            running.peek().childNanos += nanos;
+        }
+        Metrics metrics = new Metrics(method.toString(), 1, nanos - r.childNanos,
+                budget.getStmtVisits(), budget.getQueries(), budget.getMaxQueryDepth(),
+                budget.getPFGEdges(), r.callees, budget.getFilterMethods(), budget.isExceeded() ? 1 : 0);
+        commit(r.event, method, metrics);
+        topMethods.add(metrics);
+        if (topMethods.size() > topN) {
+            topMethods.poll();
+        }
+        JClass jclass = method.getDeclaringClass();
+        classes.computeIfAbsent(jclass, c -> new Metrics.Builder(c.getName())).add(metrics);
+        total.add(metrics);
+    }
+
+    private static void commit(SummaryAnalysisEvent event, JMethod method, Metrics metrics) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = metrics.name();
+            event.declaringClass = method.getDeclaringClass().getName();
+            event.selfTime = metrics.selfNanos();
+            event.stmtVisits = (int) metrics.stmtVisits();
+            event.queries = (int) metrics.queries();
+            event.maxQueryDepth = metrics.maxQueryDepth();
+            event.pfgEdges = (int) metrics.pfgEdges();
+            event.callees = (int) metrics.callees();
+            event.filterMethods = (int) metrics.filterMethods();
+            event.exceeded = metrics.exceeded() > 0;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onFinish() {
+        File report = new File(World.get().getOptions().getOutputDir(), REPORT_FILE);
+        try (PrintWriter pw = new PrintWriter(new FileWriter(report))) {
+            List<Metrics> methods = topMethods.stream().sorted(BY_TIME.reversed()).toList();
+            List<Metrics> topClasses = classes.values().stream()
+                    .map(Metrics.Builder::build)
+                    .sorted(BY_TIME.reversed())
+                    .limit(topN)
+                    .toList();
+            printTable(pw, "Top " + methods.size() + " methods by self time", methods);
+            pw.println();
+            printTable(pw, "Top " + topClasses.size() + " classes by self time", topClasses);
+            pw.println();
+            printTable(pw, "All methods", List.of(total.build()));
+            logger.info("[+] metrics of {} methods are written to {}", total.build().count(), report);
+        } catch (IOException e) {
+            logger.info(e);
+        }
+    }
+
+    private static void printTable(PrintWriter pw, String title, List<Metrics> rows) {
+        pw.println(title);
+        pw.printf("%10s %8s %10s %10s %6s %10s %8s %8s %8s  %s%n",
+                "self(ms)", "methods", "stmts", "queries", "depth",
+                "pfg-edges", "callees", "filter", "exceeded", "name");
+        rows.forEach(m -> pw.printf("%10d %8d %10d %10d %6d %10d %8d %8d %8d  %s%n",
+                m.selfNanos() / 1_000_000, m.count(), m.stmtVisits(), m.queries(),
+                m.maxQueryDepth(), m.pfgEdges(), m.callees(), m.filterMethods(),
+                m.exceeded(), m.name()));
+    }
+
+    /**
+     * State of a method being analyzed.
+     */
+    private static class Running {
+
+        private final JMethod method;
+
+        private final SummaryAnalysisEvent event;
+
+        private final long start;
+
+        /**
+         * Time of the callees analyzed meanwhile.
+         */
+        private long childNanos;
+
+        private int callees;
+
+        private Running(JMethod method, SummaryAnalysisEvent event, long start) {
+            this.method = method;
+            this.event = event;
+            this.start = start;
+        }
+    }
+
+    /**
+     * Work spent on a method, or the sum over a group of methods,
+     * where the depth is the maximum.
+     */
+    private record Metrics(String name, int count, long selfNanos,
+                           long stmtVisits, long queries, int maxQueryDepth,
+                           long pfgEdges, long callees, long filterMethods,
+                           int exceeded) {
+
+        private static class Builder {
+
+            private final String name;
+
+            private int count;
+
+            private long selfNanos, stmtVisits, queries, pfgEdges, callees, filterMethods;
+
+            private int maxQueryDepth, exceeded;
+
+            private Builder(String name) {
+                this.name = name;
+            }
+
+            private void add(Metrics m) {
+                count += m.count;
+                selfNanos += m.selfNanos;
+                stmtVisits += m.stmtVisits;
+                queries += m.queries;
+                maxQueryDepth = Math.max(maxQueryDepth, m.maxQueryDepth);
+                pfgEdges += m.pfgEdges;
+                callees += m.callees;
+                filterMethods += m.filterMethods;
+                exceeded += m.exceeded;
+            }
+
+            private Metrics build() {
+                return new Metrics(name, count, selfNanos, stmtVisits, queries,
+                        maxQueryDepth, pfgEdges, callees, filterMethods, exceeded);
+            }
+        }
+    }
+}
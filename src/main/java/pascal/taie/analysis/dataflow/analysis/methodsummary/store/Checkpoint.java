@@ -0,0 +1,340 @@
+package pascal.taie.analysis.dataflow.analysis.methodsummary.store;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.GadgetChainWriter;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.GadgetChainWriter.GadgetChain;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.StackManger;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Journal of the progress of a scan, from which an interrupted scan is resumed.
+ * <p>
+ * When an entry of the analysis finishes, the final summaries of the methods
+ * analyzed for it are appended as {@link SummaryRecord}s, followed by a mark of
+ * the entry. Gadget chains are appended as they are found. The records are
+ * encoded on the analysis thread and written by a writer thread, which syncs
+ * the file to disk after an entry at most once per interval, so the analysis
+ * only waits for the encoding.
+ * <p>
+ * Each record has a length and a checksum, so a record torn by a crash is
+ * detected and dropped, together with the records after it. When resuming,
+ * the records are read back: the summaries are added to the {@link SummaryStore}
+ * and loaded on demand as stored summaries, the chains are written to the output
+ * again, and the marked entries are skipped. New records are appended to the
+ * same journal, so a resumed scan can be resumed again.
+ */
+public class Checkpoint {
+
+    private static final Logger logger = LogManager.getLogger(Checkpoint.class);
+
+    private static final String MAGIC = "flash-checkpoint";
+
+    /**
+     * Increase this when the record format changes.
+     */
+    private static final int VERSION = 1;
+
+    private static final byte SUMMARY = 1;
+
+    private static final byte CHAIN = 2;
+
+    private static final byte ENTRY = 3;
+
+    /**
+     * Marks the end of the records in the queue.
+     */
+    private static final byte[] END = new byte[0];
+
+    private final File file;
+
+    private final SummaryStore store;
+
+    private final long syncNanos;
+
+    /**
+     * Signatures of the entries finished before resuming.
+     */
+    private final Set<String> finishedEntries = new HashSet<>();
+
+    /**
+     * Methods analyzed since the last finished entry.
+     */
+    private final List<JMethod> pending = new ArrayList<>();
+
+    private final BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>();
+
+    private final Thread writer;
+
+    private FileOutputStream out;
+
+    private int nSummaries;
+
+    private int nChains;
+
+    public Checkpoint(String dir, String configDigest, boolean resume, int intervalSeconds,
+                      SummaryStore store, StackManger stackManger) {
+        File checkpointDir = new File(dir);
+        if (!checkpointDir.exists()) {
+            checkpointDir.mkdirs();
+        }
+        this.file = new File(checkpointDir, "checkpoint-" + configDigest.substring(0, 16) + ".log");
+        this.store = store;
+        this.syncNanos = intervalSeconds * 1_000_000_000L;
+        GadgetChainWriter gcWriter = stackManger.getGCWriter();
+        try {
+            long length = resume ? recover(configDigest, gcWriter) : -1;
+            if (length < 0) {
+                try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(file))) {
+                    SummaryRecord.writeString(dos, MAGIC);
+                    dos.writeInt(VERSION);
+                    SummaryRecord.writeString(dos, configDigest);
+                }
+            } else {
+                // drop the torn records, if any, before appending
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    raf.setLength(length);
+                }
+            }
+            this.out = new FileOutputStream(file, true);
+        } catch (IOException e) {
+            logger.error("Failed to open checkpoint {} due to {}", file, e);
+        }
+        gcWriter.setListener(this::recordChain);
+        this.writer = new Thread(this::run, "checkpoint-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Reads the records of the checkpoint, and restores the summaries,
+     * chains and finished entries in them.
+     *
+     * @return length of the valid prefix of the checkpoint, or -1 if
+     * there is no checkpoint of the given configuration.
+     */
+    private long recover(String configDigest, GadgetChainWriter gcWriter) throws IOException {
+        if (!file.exists()) {
+            logger.info("No checkpoint {} to resume from", file);
+            return -1;
+        }
+        List<SummaryRecord> summaries = new ArrayList<>();
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        long fileLength = file.length();
+        long length;
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (!MAGIC.equals(SummaryRecord.readString(dis))
+                    || dis.readInt() != VERSION
+                    || !configDigest.equals(SummaryRecord.readString(dis))) {
+                logger.info("Ignore incompatible checkpoint {}", file);
+                return -1;
+            }
+            length = 4 + MAGIC.length() + 4 + 4 + configDigest.length();
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] record;
+                try {
+                    int recordLength = dis.readInt();
+                    // a torn length may be garbage, so check it against the
+                    // bytes left before allocating the record
+                    if (recordLength < 0 || recordLength > fileLength - length - 8) {
+                        logger.warn("Drop the torn records of checkpoint {} from offset {}", file, length);
+                        break;
+                    }
+                    record = new byte[recordLength];
+                    dis.readFully(record);
+                    crc.reset();
+                    crc.update(record);
+                    if (dis.readInt() != (int) crc.getValue()) {
+                        logger.warn("Drop the corrupted records of checkpoint {} from offset {}", file, length);
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                length += 4 + record.length + 4;
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+                switch (in.readByte()) {
+                    case SUMMARY -> summaries.add(SummaryRecord.read(in));
+                    case CHAIN -> {
+                        GadgetChain chain = readChain(in, hierarchy);
+                        if (chain != null) {
+                            gcWriter.add(chain);
+                            ++nChains;
+                        }
+                    }
+                    case ENTRY -> finishedEntries.add(SummaryRecord.readString(in));
+                    default -> throw new IOException("Unknown record in checkpoint " + file);
+                }
+            }
+        }
+        store.addRecords(summaries);
+        nSummaries = summaries.size();
+        logger.info("[+] resume from checkpoint {}: {} finished entries, {} summaries, {} gadget chains",
+                file, finishedEntries.size(), nSummaries, nChains);
+        return length;
+    }
+
+    /**
+     * @return true if the given entry was finished before resuming.
+     */
+    public boolean isFinished(JMethod entry) {
+        return finishedEntries.contains(entry.getSignature());
+    }
+
+    /**
+     * Marks the summary of the given method as final.
+     */
+    public void recordMethod(JMethod method) {
+        pending.add(method);
+    }
+
+    /**
+     * Appends the summaries of the methods analyzed for the given entry,
+     * and marks the entry as finished.
+     */
+    public void finishEntry(JMethod entry) {
+        for (JMethod m : pending) {
+            SummaryRecord r = store.toRecord(m);
+            if (r != null) {
+                enqueue(SUMMARY, dos -> r.write(dos));
+                ++nSummaries;
+            }
+        }
+        pending.clear();
+        enqueue(ENTRY, dos -> SummaryRecord.writeString(dos, entry.getSignature()));
+    }
+
+    private void recordChain(GadgetChain chain) {
+        enqueue(CHAIN, dos -> {
+            List<String> methods = new ArrayList<>(chain.methods().size());
+            chain.methods().forEach(m -> methods.add(m.getSignature()));
+            SummaryRecord.writeStrings(dos, methods);
+            for (int i = 0; i < chain.lines().length; i++) {
+                List<Integer> contr = chain.contrs().get(i);
+                dos.writeInt(contr.size());
+                for (int c : contr) {
+                    dos.writeInt(c);
+                }
+                dos.writeInt(chain.lines()[i]);
+            }
+        });
+        ++nChains;
+    }
+
+    /**
+     * @return the chain, or null if any method of it is not found.
+     */
+    private static GadgetChain readChain(DataInputStream in, ClassHierarchy hierarchy) throws IOException {
+        List<JMethod> methods = new ArrayList<>();
+        for (String sig : SummaryRecord.readStrings(in)) {
+            JMethod m = hierarchy.getMethod(sig);
+            if (m == null) {
+                return null;
+            }
+            methods.add(m);
+        }
+        int size = methods.size() - 1;
+        List<List<Integer>> contrs = new ArrayList<>(size);
+        int[] lines = new int[size];
+        for (int i = 0; i < size; i++) {
+            int n = in.readInt();
+            List<Integer> contr = new ArrayList<>(n);
+            for (int j = 0; j < n; j++) {
+                contr.add(in.readInt());
+            }
+            contrs.add(List.copyOf(contr));
+            lines[i] = in.readInt();
+        }
+        return new GadgetChain(methods, contrs, lines);
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream dos) throws IOException;
+    }
+
+    /**
+     * Encodes a record as its length, tag and content, and checksum,
+     * and hands it to the writer thread.
+     */
+    private void enqueue(byte tag, RecordWriter content) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream dos = new DataOutputStream(bytes);
+            dos.writeByte(tag);
+            content.write(dos);
+            byte[] record = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(record);
+            ByteArrayOutputStream framed = new ByteArrayOutputStream(record.length + 8);
+            DataOutputStream fdos = new DataOutputStream(framed);
+            fdos.writeInt(record.length);
+            fdos.write(record);
+            fdos.writeInt((int) crc.getValue());
+            queue.add(framed.toByteArray());
+        } catch (IOException e) {
+            logger.info(e);
+        }
+    }
+
+    private void run() {
+        if (out == null) {
+            return;
+        }
+        long lastSync = System.nanoTime();
+        try (BufferedOutputStream bos = new BufferedOutputStream(out, 1 << 16)) {
+            while (true) {
+                byte[] record = queue.take();
+                if (record == END) break;
+                bos.write(record);
+                // the tag follows the length
+                if (record[4] == ENTRY && System.nanoTime() - lastSync >= syncNanos) {
+                    bos.flush();
+                    out.getFD().sync();
+                    lastSync = System.nanoTime();
+                }
+            }
+            bos.flush();
+            out.getFD().sync();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("Failed to write checkpoint {} due to {}", file, e);
+        }
+    }
+
+    /**
+     * Waits for the writer thread to write all records, and closes the checkpoint.
+     */
+    public void close() {
+        try {
+            queue.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("[+] checkpoint {} has {} summaries and {} gadget chains", file, nSummaries, nChains);
+    }
+}
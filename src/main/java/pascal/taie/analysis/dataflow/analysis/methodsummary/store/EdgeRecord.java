@@ -0,0 +1,61 @@
+package pascal.taie.analysis.dataflow.analysis.methodsummary.store;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persistent form of a call edge, the call site is identified by the index
+ * of the invoke statement in the caller's IR.
+ *
+ * @param types type names of the call site arguments, null for unknown types
+ */
+public record EdgeRecord(String callee,
+                         String kind,
+                         int invokeIndex,
+                         List<String> csContr,
+                         int lineNumber,
+                         List<String> types,
+                         List<Integer> casted,
+                         String filterByCaller) {
+
+    void write(DataOutputStream out) throws IOException {
+        SummaryRecord.writeString(out, callee);
+        SummaryRecord.writeString(out, kind);
+        out.writeInt(invokeIndex);
+        SummaryRecord.writeStrings(out, csContr);
+        out.writeInt(lineNumber);
+        out.writeInt(types.size());
+        for (String type : types) {
+            out.writeBoolean(type != null);
+            if (type != null) SummaryRecord.writeString(out, type);
+        }
+        out.writeInt(casted.size());
+        for (int i : casted) {
+            out.writeInt(i);
+        }
+        SummaryRecord.writeString(out, filterByCaller);
+    }
+
+    static EdgeRecord read(DataInputStream in) throws IOException {
+        String callee = SummaryRecord.readString(in);
+        String kind = SummaryRecord.readString(in);
+        int invokeIndex = in.readInt();
+        List<String> csContr = SummaryRecord.readStrings(in);
+        int lineNumber = in.readInt();
+        int typeSize = in.readInt();
+        List<String> types = new ArrayList<>(typeSize);
+        for (int i = 0; i < typeSize; i++) {
+            types.add(in.readBoolean() ? SummaryRecord.readString(in) : null);
+        }
+        int castedSize = in.readInt();
+        List<Integer> casted = new ArrayList<>(castedSize);
+        for (int i = 0; i < castedSize; i++) {
+            casted.add(in.readInt());
+        }
+        String filterByCaller = SummaryRecord.readString(in);
+        return new EdgeRecord(callee, kind, invokeIndex, csContr, lineNumber, types, casted, filterByCaller);
+    }
+}
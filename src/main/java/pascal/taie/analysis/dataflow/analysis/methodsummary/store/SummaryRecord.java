@@ -0,0 +1,97 @@
+package pascal.taie.analysis.dataflow.analysis.methodsummary.store;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent form of the final summary of a method.
+ *
+ * @param method      signature of the method
+ * @param classDigest content digest of the class file declaring the method
+ * @param summary     the summary map of the method
+ * @param deps        signatures of the callees whose summaries were applied
+ * @param inGCGraph   whether the method is a node of the gadget chain graph
+ * @param gcNexts     successors of the method in the gadget chain graph
+ * @param edges       call edges from the method to its successors in the gadget chain graph
+ */
+public record SummaryRecord(String method,
+                            String classDigest,
+                            String dispatchDigest,
+                            Map<String, String> summary,
+                            List<String> deps,
+                            boolean inGCGraph,
+                            List<String> gcNexts,
+                            List<EdgeRecord> edges) {
+
+    void write(DataOutputStream out) throws IOException {
+        writeString(out, method);
+        writeString(out, classDigest);
+        writeString(out, dispatchDigest);
+        out.writeInt(summary.size());
+        for (Map.Entry<String, String> e : summary.entrySet()) {
+            writeString(out, e.getKey());
+            writeString(out, e.getValue());
+        }
+        writeStrings(out, deps);
+        out.writeBoolean(inGCGraph);
+        writeStrings(out, gcNexts);
+        out.writeInt(edges.size());
+        for (EdgeRecord edge : edges) {
+            edge.write(out);
+        }
+    }
+
+    static SummaryRecord read(DataInputStream in) throws IOException {
+        String method = readString(in);
+        String classDigest = readString(in);
+        String dispatchDigest = readString(in);
+        int summarySize = in.readInt();
+        Map<String, String> summary = new LinkedHashMap<>();
+        for (int i = 0; i < summarySize; i++) {
+            summary.put(readString(in), readString(in));
+        }
+        List<String> deps = readStrings(in);
+        boolean inGCGraph = in.readBoolean();
+        List<String> gcNexts = readStrings(in);
+        int edgeSize = in.readInt();
+        List<EdgeRecord> edges = new ArrayList<>(edgeSize);
+        for (int i = 0; i < edgeSize; i++) {
+            edges.add(EdgeRecord.read(in));
+        }
+        return new SummaryRecord(method, classDigest, dispatchDigest, summary, deps, inGCGraph, gcNexts, edges);
+    }
+
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String s : strings) {
+            writeString(out, s);
+        }
+    }
+
+    static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<String> ret = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ret.add(readString(in));
+        }
+        return ret;
+    }
+}
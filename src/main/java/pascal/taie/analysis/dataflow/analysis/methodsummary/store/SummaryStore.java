@@ -0,0 +1,408 @@
+package pascal.taie.analysis.dataflow.analysis.methodsummary.store;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.ContrValue;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.GadgetChainGraph;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.StackManger;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.config.Options;
+import pascal.taie.frontend.cache.ClassFileDigests;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * On-disk store of final method summaries, reused across scans.
+ * <p>
+ * A store file belongs to one configuration (priori knowledge and the options
+ * affecting summaries), and each record is keyed by the content digest of the
+ * class file declaring the method. A record is reused only if the digests of
+ * the method and of all methods it transitively depends on are unchanged, and the
+ * call sites in these methods resolve to the same callees on the class hierarchy,
+ * as a changed class path may add a dispatch target, e.g., a subclass or an override,
+ * to a virtual call in an unchanged class. Loading
+ * a record also loads its dependencies, together with their nodes in the gadget
+ * chain graph and the call edges needed to rebuild chains through them.
+ * <p>
+ * Sources are never loaded, they are always analyzed so that chains starting
+ * from them are reported in every scan.
+ */
+public class SummaryStore {
+
+    private static final Logger logger = LogManager.getLogger(SummaryStore.class);
+
+    private static final String MAGIC = "flash-summary-store";
+
+    /**
+     * Increase this when the record format or the summary semantics change.
+     */
+    private static final int VERSION = 2;
+
+    private final File file;
+
+    private final String configDigest;
+
+    private final ClassFileDigests digests;
+
+    private final CSManager csManager;
+
+    private final Context context;
+
+    private final CSCallGraph csCallGraph;
+
+    private final StackManger stackManger;
+
+    private final ClassHierarchy hierarchy;
+
+    private final TypeSystem typeSystem;
+
+    /**
+     * Records read from disk.
+     */
+    private final Map<String, SummaryRecord> records;
+
+    /**
+     * Signatures of the records which cannot be reused in this run.
+     */
+    private final Set<String> invalid = new HashSet<>();
+
+    /**
+     * Methods analyzed in this run.
+     */
+    private final Set<JMethod> analyzed = new LinkedHashSet<>();
+
+    private int loaded;
+
+    public SummaryStore(String dir, String configDigest, CSManager csManager, Context context,
+                        CSCallGraph csCallGraph, StackManger stackManger) {
+        File storeDir = new File(dir);
+        if (!storeDir.exists()) {
+            storeDir.mkdirs();
+        }
+        this.file = new File(storeDir, "summaries-" + configDigest.substring(0, 16) + ".bin");
+        this.configDigest = configDigest;
+        this.digests = ClassFileDigests.of(World.get().getOptions());
+        this.csManager = csManager;
+        this.context = context;
+        this.csCallGraph = csCallGraph;
+        this.stackManger = stackManger;
+        this.hierarchy = World.get().getClassHierarchy();
+        this.typeSystem = World.get().getTypeSystem();
+        this.records = read(file, configDigest);
+        logger.info("[+] load {} stored summaries from {}", records.size(), file);
+    }
+
+    /**
+     * @return digest of the configuration which affects summaries.
+     */
+    public static String getConfigDigest(Options options, String prioriKnowledge) {
+        MessageDigest md = ClassFileDigests.newDigest();
+        List<String> keys = new ArrayList<>();
+        keys.add(String.valueOf(VERSION));
+        keys.add(String.valueOf(options.getJavaVersion()));
+        keys.add(String.valueOf(options.isFilterNonSerializable()));
+        keys.add(String.valueOf(options.getGC_MAX_LEN()));
+        keys.add(String.valueOf(options.getSources()));
+        keys.forEach(key -> md.update((key + "\n").getBytes(StandardCharsets.UTF_8)));
+        if (prioriKnowledge != null) {
+            try {
+                md.update(Files.readAllBytes(new File(prioriKnowledge).toPath()));
+            } catch (IOException e) {
+                logger.warn("Failed to read {} due to {}", prioriKnowledge, e);
+            }
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    /**
+     * Marks the summary of the given method as final.
+     */
+    public void record(JMethod method) {
+        analyzed.add(method);
+    }
+
+    /**
+     * Loads the stored summary of the given method, and of the methods it depends on.
+     *
+     * @return true if the method has a summary after loading.
+     */
+    public boolean load(JMethod method) {
+        if (method.isSource() || invalid.contains(method.getSignature())) {
+            return false;
+        }
+        SummaryRecord root = records.get(method.getSignature());
+        if (root == null) {
+            return false;
+        }
+        List<SummaryRecord> closure = getClosure(root);
+        if (closure == null) {
+            invalid.add(root.method());
+            return false;
+        }
+        closure.forEach(this::install);
+        return method.hasSummary();
+    }
+
+    /**
+     * @return the records the given record depends on (including itself),
+     * or null if any of them cannot be reused.
+     */
+    private List<SummaryRecord> getClosure(SummaryRecord root) {
+        List<SummaryRecord> closure = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        LinkedList<String> workList = new LinkedList<>();
+        workList.add(root.method());
+        visited.add(root.method());
+        while (!workList.isEmpty()) {
+            String sig = workList.poll();
+            SummaryRecord r = records.get(sig);
+            if (r == null || invalid.contains(sig)) {
+                return null;
+            }
+            JMethod m = hierarchy.getMethod(sig);
+            if (m == null || m.isSource()
+                    || !r.classDigest().equals(digests.getDigest(m.getDeclaringClass().getName()))) {
+                invalid.add(sig);
+                return null;
+            }
+            if (!m.hasSummary() && (!isInstallable(m, r)
+                    || !r.dispatchDigest().equals(getDispatchDigest(m)))) {
+                invalid.add(sig);
+                return null;
+            }
+            closure.add(r);
+            for (String dep : r.deps()) {
+                if (visited.add(dep)) {
+                    workList.add(dep);
+                }
+            }
+        }
+        return closure;
+    }
+
+    private boolean isInstallable(JMethod m, SummaryRecord r) {
+        if (r.edges().isEmpty()) {
+            return true;
+        }
+        IR ir = m.getIR();
+        for (EdgeRecord e : r.edges()) {
+            if (e.invokeIndex() >= ir.getStmts().size()
+                    || !(ir.getStmt(e.invokeIndex()) instanceof Invoke)
+                    || hierarchy.getMethod(e.callee()) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void install(SummaryRecord r) {
+        JMethod m = hierarchy.getMethod(r.method());
+        if (m.hasSummary() || stackManger.containsMethod(m)) {
+            return;
+        }
+        r.summary().forEach((k, v) -> m.setSummary(k, ContrValue.of(v)));
+        csCallGraph.addReachableMethod(csManager.getCSMethod(context, m));
+        GadgetChainGraph gcGraph = stackManger.getGCGraph();
+        if (r.inGCGraph()) {
+            gcGraph.addPath(List.of(r.method()));
+        }
+        r.gcNexts().forEach(next -> gcGraph.addPath(List.of(r.method(), next)));
+        for (EdgeRecord e : r.edges()) {
+            Invoke invoke = (Invoke) m.getIR().getStmt(e.invokeIndex());
+            CSCallSite csCallSite = csManager.getCSCallSite(context, invoke);
+            CSMethod csCallee = csManager.getCSMethod(context, hierarchy.getMethod(e.callee()));
+            List<Type> types = new ArrayList<>();
+            e.types().forEach(t -> types.add(t != null ? typeSystem.getType(t) : null));
+            Edge<CSCallSite, CSMethod> edge = new Edge<>(CallKind.valueOf(e.kind()), csCallSite, csCallee,
+                    ContrValue.of(e.csContr()), e.lineNumber(), types);
+            edge.setFilterByCaller(e.filterByCaller());
+            e.casted().forEach(edge::setCasted);
+            csCallGraph.addEdge(edge);
+        }
+        loaded++;
+    }
+
+    /**
+     * Writes the summaries of this run, together with the stored summaries
+     * which are not stale, back to disk.
+     */
+    public void save() {
+        Map<String, SummaryRecord> out = new LinkedHashMap<>();
+        records.forEach((sig, r) -> {
+            JMethod m = hierarchy.getMethod(sig);
+            if (m == null || r.classDigest().equals(digests.getDigest(m.getDeclaringClass().getName()))) {
+                out.put(sig, r);
+            }
+        });
+        for (JMethod m : analyzed) {
+            SummaryRecord r = toRecord(m);
+            if (r != null) {
+                out.put(r.method(), r);
+            }
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            try (DataOutputStream dos = new DataOutputStream(new GZIPOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tmp))))) {
+                SummaryRecord.writeString(dos, MAGIC);
+                dos.writeInt(VERSION);
+                SummaryRecord.writeString(dos, configDigest);
+                dos.writeInt(out.size());
+                for (SummaryRecord r : out.values()) {
+                    r.write(dos);
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            logger.info("[+] reuse {} stored summaries, save {} summaries to {}", loaded, out.size(), file);
+        } catch (IOException e) {
+            logger.error("Failed to save summaries to {} due to {}", file, e);
+        } finally {
+            digests.close();
+        }
+    }
+
+    /**
+     * Adds the given records, which replace the records of the same methods.
+     */
+    void addRecords(Collection<SummaryRecord> rs) {
+        rs.forEach(r -> {
+            records.put(r.method(), r);
+            invalid.remove(r.method());
+        });
+    }
+
+    /**
+     * @return the record of the final summary of the given method,
+     * or null if it cannot be stored.
+     */
+    SummaryRecord toRecord(JMethod m) {
+        String digest = digests.getDigest(m.getDeclaringClass().getName());
+        if (digest == null || !m.hasSummary()) {
+            return null;
+        }
+        Map<String, String> summary = new LinkedHashMap<>();
+        m.getSummaryMap().forEach((k, v) -> summary.put(k, v.toString()));
+        String sig = m.getSignature();
+        GadgetChainGraph gcGraph = stackManger.getGCGraph();
+        Set<String> gcNexts = new TreeSet<>(gcGraph.getNexts(sig));
+        Set<String> deps = new TreeSet<>();
+        List<EdgeRecord> edges = new ArrayList<>();
+        CSMethod csMethod = csManager.getCSMethod(context, m);
+        csCallGraph.getCallSitesIn(csMethod).forEach(csCallSite ->
+                csCallSite.getEdges().forEach(edge -> {
+                    JMethod callee = CSCallGraph.getCallee(edge);
+                    if (callee.hasSummary() && !callee.isSink()) {
+                        deps.add(callee.getSignature());
+                    }
+                    if (gcNexts.contains(callee.getSignature())) {
+                        edges.add(toRecord(edge));
+                    }
+                }));
+        return new SummaryRecord(sig, digest, getDispatchDigest(m), summary, new ArrayList<>(deps),
+                gcGraph.containsNode(sig), new ArrayList<>(gcNexts), edges);
+    }
+
+    /**
+     * @return digest of the callees of the call sites in the given method,
+     * resolved on the class hierarchy. It changes when the class path adds
+     * or removes a dispatch target of any call site in the method, while
+     * the class file of the method is unchanged.
+     */
+    private static String getDispatchDigest(JMethod m) {
+        MessageDigest md = ClassFileDigests.newDigest();
+        m.getIR().invokes(false).forEach(invoke -> {
+            Collection<JMethod> callees;
+            if (invoke.isVirtual() || invoke.isInterface()) {
+                callees = CallGraphs.resolveCalleesOf(invoke);
+            } else {
+                JMethod callee = invoke.getMethodRef().resolveNullable();
+                callees = callee != null ? List.of(callee) : List.of();
+            }
+            md.update((invoke.getIndex() + "\n").getBytes(StandardCharsets.UTF_8));
+            callees.stream()
+                    .map(JMethod::getSignature)
+                    .sorted()
+                    .forEach(sig -> md.update((sig + "\n").getBytes(StandardCharsets.UTF_8)));
+        });
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    private static EdgeRecord toRecord(Edge<CSCallSite, CSMethod> edge) {
+        List<String> csContr = new ArrayList<>();
+        edge.getCSContr().forEach(v -> csContr.add(v.toString()));
+        List<String> types = new ArrayList<>();
+        edge.getTypeList().forEach(t -> types.add(t != null ? t.getName() : null));
+        return new EdgeRecord(CSCallGraph.getCallee(edge).getSignature(),
+                edge.getKind().name(),
+                edge.getCallSite().getCallSite().getIndex(),
+                csContr,
+                edge.getLineNo(),
+                types,
+                new ArrayList<>(edge.getCasted()),
+                edge.getFilterByCaller());
+    }
+
+    private static Map<String, SummaryRecord> read(File file, String configDigest) {
+        Map<String, SummaryRecord> records = new HashMap<>();
+        if (!file.exists()) {
+            return records;
+        }
+        try (DataInputStream dis = new DataInputStream(new GZIPInputStream(
+                new BufferedInputStream(new FileInputStream(file))))) {
+            if (!MAGIC.equals(SummaryRecord.readString(dis))
+                    || dis.readInt() != VERSION
+                    || !configDigest.equals(SummaryRecord.readString(dis))) {
+                logger.info("Ignore incompatible summary store {}", file);
+                return records;
+            }
+            int size = dis.readInt();
+            for (int i = 0; i < size; i++) {
+                SummaryRecord r = SummaryRecord.read(dis);
+                records.put(r.method(), r);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read summary store {} due to {}", file, e);
+            records.clear();
+        }
+        return records;
+    }
+}
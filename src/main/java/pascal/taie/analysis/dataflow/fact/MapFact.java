@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.fact;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.util.Copyable;
 import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.PersistentHashMap;
 
 import java.util.Comparator;
 import java.util.ConcurrentModificationException;
@@ -51,10 +52,15 @@ public class MapFact<K, V> implements Copyable<MapFact<K, V>> {
     /**
      * Constructs a new MapFact with the same mappings as specified Map.
      *
+     * If the specified map is a {@link PersistentHashMap}, this fact shares
+     * its structure, and the construction takes O(1) time.
+     *
      * @param map the map whose mappings are to be placed in this map.
      */
     public MapFact(Map<K, V> map) {
-        this.map = Maps.newHybridMap(map);
+        this.map = map instanceof PersistentHashMap<K, V> persistent
+                ? persistent.copy()
+                : Maps.newHybridMap(map);
     }
 
     /**
@@ -90,6 +96,10 @@ public class MapFact<K, V> implements Copyable<MapFact<K, V>> {
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean copyFrom(MapFact<K, V> fact) {
+        if (map instanceof PersistentHashMap<K, V> persistent
+                && fact.map instanceof PersistentHashMap<K, V> other) {
+            return persistent.putAllFrom(other);
+        }
         boolean changed = false;
         for (Map.Entry<K, V> entry : fact.map.entrySet()) {
             changed |= update(entry.getKey(), entry.getValue());
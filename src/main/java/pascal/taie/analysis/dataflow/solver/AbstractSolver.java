@@ -43,6 +43,23 @@ abstract class AbstractSolver<Node, Fact> implements Solver<Node, Fact> {
         return result;
     }
 
+    @Override
+    public Frame<Node, Fact> newFrame(DataflowAnalysis<Node, Fact> analysis) {
+        return newFrame(analysis, initialize(analysis));
+    }
+
+    /**
+     * Creates a frame for the initialized result. This default frame solves
+     * the whole problem again when it is resumed.
+     */
+    protected Frame<Node, Fact> newFrame(DataflowAnalysis<Node, Fact> analysis,
+                                         DataflowResult<Node, Fact> result) {
+        return () -> {
+            doSolve(analysis, result);
+            return result;
+        };
+    }
+
     /**
      * Creates and initializes a new data-flow result for given CFG.
      *
@@ -53,4 +53,25 @@ public interface Solver<Node, Fact> {
      * @return the data-flow analysis result
      */
     DataflowResult<Node, Fact> solve(DataflowAnalysis<Node, Fact> analysis);
+
+    /**
+     * Creates a frame which solves the given analysis problem, and can be
+     * suspended by an exception thrown from the transfer function.
+     */
+    Frame<Node, Fact> newFrame(DataflowAnalysis<Node, Fact> analysis);
+
+    /**
+     * State of an analysis problem being solved.
+     */
+    interface Frame<Node, Fact> {
+
+        /**
+         * Continues solving the analysis problem. If the transfer function
+         * throws an exception, the exception is propagated and the node
+         * being transferred is transferred again in the next call.
+         *
+         * @return the data-flow analysis result
+         */
+        DataflowResult<Node, Fact> resume();
+    }
 }
@@ -81,46 +81,96 @@ class WorkListSolver<Node, Fact> extends AbstractSolver<Node, Fact> {
     @Override
     protected void doSolveForward(DataflowAnalysis<Node, Fact> analysis,
                                   DataflowResult<Node, Fact> result) {
-        CFG<Node> cfg = analysis.getCFG();
-        NavigableSet<Node> workList = Sets.newOrderedSet(
-                Comparator.comparingInt(cfg::getIndex));
-        cfg.forEach(node -> {
-            if (!cfg.isEntry(node)) {
-                workList.add(node);
-            }
-        });
-        while (!workList.isEmpty()) {
-            Node node = workList.pollFirst();
-            // meet incoming facts
-            Fact in;
-            int inDegree = cfg.getInDegreeOf(node);
-            if (inDegree > 1) {
-                in = result.getInFact(node);
-                cfg.getInEdgesOf(node).forEach(inEdge -> {
-                    Fact fact = result.getOutFact(inEdge.source());
+        new ForwardFrame(analysis, result).resume();
+    }
+
+    @Override
+    protected Frame<Node, Fact> newFrame(DataflowAnalysis<Node, Fact> analysis,
+                                         DataflowResult<Node, Fact> result) {
+        return analysis.isForward() ?
+                new ForwardFrame(analysis, result) :
+                super.newFrame(analysis, result);
+    }
+
+    /**
+     * Work list and the node being transferred of a forward analysis.
+     * <p>
+     * If the transfer of a node is interrupted by an exception, e.g.,
+     * {@link pascal.taie.analysis.PendingMethod}, the node is met and
+     * transferred again when the frame resumes. Meeting the in facts again
+     * makes no difference, while the side effects that the analysis makes
+     * in {@link DataflowAnalysis#transferNode} before the interruption
+     * must be idempotent.
+     */
+    private class ForwardFrame implements Frame<Node, Fact> {
+
+        private final DataflowAnalysis<Node, Fact> analysis;
+
+        private final DataflowResult<Node, Fact> result;
+
+        private final CFG<Node> cfg;
+
+        private final NavigableSet<Node> workList;
+
+        /**
+         * The node whose transfer is interrupted, or null.
+         */
+        private Node current;
+
+        private ForwardFrame(DataflowAnalysis<Node, Fact> analysis,
+                             DataflowResult<Node, Fact> result) {
+            this.analysis = analysis;
+            this.result = result;
+            this.cfg = analysis.getCFG();
+            this.workList = Sets.newOrderedSet(
+                    Comparator.comparingInt(cfg::getIndex));
+            cfg.forEach(node -> {
+                if (!cfg.isEntry(node)) {
+                    workList.add(node);
+                }
+            });
+        }
+
+        @Override
+        public DataflowResult<Node, Fact> resume() {
+            while (current != null || !workList.isEmpty()) {
+                if (current == null) {
+                    current = workList.pollFirst();
+                }
+                Node node = current;
+                // meet incoming facts
+                Fact in;
+                int inDegree = cfg.getInDegreeOf(node);
+                if (inDegree > 1) {
+                    in = result.getInFact(node);
+                    cfg.getInEdgesOf(node).forEach(inEdge -> {
+                        Fact fact = result.getOutFact(inEdge.source());
+                        if (analysis.needTransferEdge(inEdge)) {
+                            fact = analysis.transferEdge(inEdge, fact);
+                        }
+                        analysis.meetInto(fact, in);
+                    });
+                } else if (inDegree == 1) {
+                    CFGEdge<Node> inEdge = CollectionUtils.getOne(cfg.getInEdgesOf(node));
                     if (analysis.needTransferEdge(inEdge)) {
-                        fact = analysis.transferEdge(inEdge, fact);
+                        in = analysis.transferEdge(inEdge,
+                                result.getOutFact(inEdge.source()));
+                        result.setInFact(node, in);
+                    } else {
+                        in = result.getInFact(node);
                     }
-                    analysis.meetInto(fact, in);
-                });
-            } else if (inDegree == 1) {
-                CFGEdge<Node> inEdge = CollectionUtils.getOne(cfg.getInEdgesOf(node));
-                if (analysis.needTransferEdge(inEdge)) {
-                    in = analysis.transferEdge(inEdge,
-                            result.getOutFact(inEdge.source()));
-                    result.setInFact(node, in);
                 } else {
                     in = result.getInFact(node);
                 }
-            } else {
-                in = result.getInFact(node);
-            }
-            // apply node transfer function
-            Fact out = result.getOutFact(node);
-            boolean changed = analysis.transferNode(node, in, out);
-            if (changed) {
-                workList.addAll(cfg.getSuccsOf(node));
+                // apply node transfer function
+                Fact out = result.getOutFact(node);
+                boolean changed = analysis.transferNode(node, in, out);
+                current = null;
+                if (changed) {
+                    workList.addAll(cfg.getSuccsOf(node));
+                }
             }
+            return result;
         }
     }
 
@@ -22,6 +22,7 @@
 
 package pascal.taie.analysis.graph.callgraph;
 
+import pascal.taie.analysis.dataflow.analysis.methodsummary.ContrValue;
 import pascal.taie.analysis.dataflow.analysis.methodsummary.Utils.ContrUtil;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.Hashes;
@@ -47,7 +48,13 @@ public class Edge<CallSite, Method> {
 
     private final int hashCode;
 
-    private final List<String> csContr;
+    private final List<ContrValue> csContr;
+
+    /**
+     * Int encoding of {@link #csContr}, computed once as edges are
+     * compared and hashed frequently.
+     */
+    private final List<Integer> csIntContr;
 
     private final Integer lineNumber;
 
@@ -57,16 +64,17 @@ public class Edge<CallSite, Method> {
 
     private Set<Integer> casted;
 
-    public Edge(CallKind kind, CallSite callSite, Method callee, List<String> csContr, Integer lineNumber, List<Type> typeList) {
+    public Edge(CallKind kind, CallSite callSite, Method callee, List<ContrValue> csContr, Integer lineNumber, List<Type> typeList) {
         this.kind = kind;
         this.callSite = callSite;
         this.callee = callee;
         this.csContr = csContr;
+        this.csIntContr = List.copyOf(ContrUtil.string2Int(csContr));
         this.lineNumber = lineNumber;
         this.filterByCaller = "";
         this.typeList = typeList;
         this.casted = new HashSet<>();
-        hashCode = Hashes.hash(kind, callSite, callee, getCSIntContr());
+        hashCode = Hashes.hash(kind, callSite, callee, csIntContr);
     }
 
     /**
@@ -111,7 +119,7 @@ public class Edge<CallSite, Method> {
         return Objects.equals(kind, edge.kind)
                 && Objects.equals(callSite, edge.callSite)
                 && Objects.equals(callee, edge.callee)
-                && Objects.equals(getCSIntContr(), edge.getCSIntContr());
+                && csIntContr.equals(edge.csIntContr);
     }
 
     @Override
@@ -124,11 +132,14 @@ public class Edge<CallSite, Method> {
         return "[" + getInfo() + "]" + callSite + "-" + getCSIntContr() + "->" + callee;
     }
 
+    /**
+     * @return the immutable int encoding of contr values of this edge.
+     */
     public List<Integer> getCSIntContr() {
-        return ContrUtil.string2Int(csContr);
+        return csIntContr;
     }
 
-    public List<String> getCSContr() {
+    public List<ContrValue> getCSContr() {
         return csContr;
     }
 
@@ -159,4 +170,8 @@ public class Edge<CallSite, Method> {
     public boolean isCasted(int i) {
         return casted.contains(i);
     }
+
+    public Set<Integer> getCasted() {
+        return casted;
+    }
 }
@@ -0,0 +1,131 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * CFG which only keeps the nodes of a given CFG that satisfy a predicate,
+ * together with the entry and the exit. There is an edge from node
+ * {@code a} to node {@code b} if {@code b} is reachable from {@code a}
+ * via the removed nodes only.
+ * <p>
+ * This CFG suits data-flow analyses whose transfer functions of the removed
+ * nodes are identity and which do not transfer edges. The kind of each
+ * edge is the kind of the first edge on the corresponding path.
+ * The indexes of nodes are the same as those in the given CFG.
+ *
+ * @param <N> type of CFG nodes.
+ */
+public class CondensedCFG<N> extends AbstractCFG<N> {
+
+    private final CFG<N> cfg;
+
+    /**
+     * Kept nodes sorted by index, which eases debugging.
+     */
+    private final Set<N> sortedNodes;
+
+    public CondensedCFG(CFG<N> cfg, Predicate<N> keep) {
+        super(cfg.getIR());
+        this.cfg = cfg;
+        setEntry(cfg.getEntry());
+        setExit(cfg.getExit());
+        cfg.forEach(node -> {
+            if (keep.test(node)) {
+                addNode(node);
+            }
+        });
+        nodes.forEach(this::addEdgesFrom);
+        Set<N> sorted = Sets.newOrderedSet(Comparator.comparingInt(this::getIndex));
+        sorted.addAll(super.getNodes());
+        sortedNodes = Collections.unmodifiableSet(sorted);
+    }
+
+    /**
+     * Connects the given node to the kept nodes reachable from it
+     * via the removed nodes.
+     */
+    private void addEdgesFrom(N source) {
+        for (CFGEdge<N> outEdge : cfg.getOutEdgesOf(source)) {
+            Set<N> visited = Sets.newHybridSet();
+            Deque<N> workList = new ArrayDeque<>();
+            workList.add(outEdge.target());
+            while (!workList.isEmpty()) {
+                N node = workList.poll();
+                if (!visited.add(node)) {
+                    continue;
+                }
+                if (nodes.contains(node)) {
+                    addEdge(node == outEdge.target() ? outEdge
+                            : newEdge(outEdge, node));
+                } else {
+                    cfg.getSuccsOf(node).forEach(workList::add);
+                }
+            }
+        }
+    }
+
+    private static <N> CFGEdge<N> newEdge(CFGEdge<N> first, N target) {
+        if (first.isExceptional()) {
+            return new ExceptionalEdge<>(first.getKind(), first.source(),
+                    target, first.getExceptions());
+        } else if (first.isSwitchCase()) {
+            return new SwitchCaseEdge<>(first.source(), target,
+                    first.getCaseValue());
+        } else {
+            return new CFGEdge<>(first.getKind(), first.source(), target);
+        }
+    }
+
+    /**
+     * @return the original CFG of this CFG.
+     */
+    public CFG<N> getOriginal() {
+        return cfg;
+    }
+
+    @Override
+    public int getIndex(N node) {
+        return cfg.getIndex(node);
+    }
+
+    @Override
+    public N getNode(int index) {
+        N node = cfg.getNode(index);
+        assert nodes.contains(node) : node + " is not kept in this CFG";
+        return node;
+    }
+
+    @Override
+    public Set<N> getNodes() {
+        return sortedNodes;
+    }
+}
@@ -39,6 +39,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -50,11 +51,21 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     private Context emptyContext;
 
+    /**
+     * Consumer of the edges added to this call graph.
+     */
+    private Consumer<Edge<CSCallSite, CSMethod>> edgeListener = edge -> {
+    };
+
     public CSCallGraph(CSManager csManager, Context context) {
         this.csManager = csManager;
         this.emptyContext = context;
     }
 
+    public void setEdgeListener(Consumer<Edge<CSCallSite, CSMethod>> edgeListener) {
+        this.edgeListener = edgeListener;
+    }
+
     /**
      * Adds an entry method to this call graph.
      */
@@ -93,18 +104,12 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
      */
     public boolean addEdge(Edge<CSCallSite, CSMethod> edge) {
         if (Objects.equals(getCaller(edge), edge.getCallee().getMethod())) return false; // 对于gc检测应该是没有影响的
-        Set<Edge<CSCallSite, CSMethod>> edges = edge.getCallee().getEdges();
-
-        if (!edges.isEmpty()) {
-            for (Edge<CSCallSite, CSMethod> eEdge : edges) {
-                if (Objects.equals(eEdge.getCSIntContr(), edge.getCSIntContr())
-                        && Objects.equals(getCaller(eEdge), getCaller(edge))) {
-                    return false;
-                }
-            }
+        if (edge.getCallee().containsEdge(getCaller(edge), edge.getCSIntContr())) {
+            return false;
         }
         if (edge.getCallSite().addEdge(edge)) {
             edge.getCallee().addEdge(edge);
+            edgeListener.accept(edge);
             return true;
         } else {
             return false;
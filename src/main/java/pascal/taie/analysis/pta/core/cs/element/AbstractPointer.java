@@ -123,6 +123,22 @@ abstract class AbstractPointer implements Pointer {
         outEdges.add(edge);
     }
 
+    @Override
+    public void removeInEdge(PointerFlowEdge edge) {
+        if (inEdges.remove(edge)) {
+            if (edge.source() != null) {
+                predecessors.remove(edge.source());
+            } else if (edge.sourceObj() != null) {
+                newObjs.remove(edge.sourceObj());
+            }
+        }
+    }
+
+    @Override
+    public void removeOutEdge(PointerFlowEdge edge) {
+        outEdges.remove(edge);
+    }
+
     @Override
     public Set<PointerFlowEdge> getOutEdges() {
         return Collections.unmodifiableSet(new ArraySet<>(outEdges, true));
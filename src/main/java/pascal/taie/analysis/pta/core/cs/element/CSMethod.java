@@ -28,9 +28,12 @@ import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.AbstractResultHolder;
 import pascal.taie.util.ResultHolder;
 import pascal.taie.util.collection.ArraySet;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
@@ -47,6 +50,11 @@ public class CSMethod extends AbstractCSElement {
      */
     private final ArrayList<Edge<CSCallSite, CSMethod>> edges = new ArrayList<>(4);
 
+    /**
+     * Callers and int contr vectors of {@link #edges}.
+     */
+    private final Set<Pair<JMethod, List<Integer>>> edgeKeys = Sets.newHybridSet();
+
     private final ResultHolder resultHolder = new AbstractResultHolder() {};
 
     CSMethod(JMethod method, Context context) {
@@ -65,9 +73,19 @@ public class CSMethod extends AbstractCSElement {
         return edges.contains(edge);
     }
 
+    /**
+     * @return true if this CS method has a call edge from the given caller
+     * with the given int contr vector.
+     */
+    public boolean containsEdge(JMethod caller, List<Integer> csIntContr) {
+        return edgeKeys.contains(new Pair<>(caller, csIntContr));
+    }
+
     public void addEdge(Edge<CSCallSite, CSMethod> edge) {
         // The caller has ensured that each edge added to CSMethod is unique
         edges.add(edge);
+        edgeKeys.add(new Pair<>(edge.getCallSite().getCallSite().getContainer(),
+                edge.getCSIntContr()));
     }
 
     public Set<Edge<CSCallSite, CSMethod>> getEdges() {
@@ -119,6 +119,22 @@ public class MapBasedCSManager implements CSManager {
         return ptrManager.pointers();
     }
 
+    /**
+     * @return the pointers based on the given variable, i.e., its instance
+     * fields and its array index.
+     */
+    public Collection<Pointer> getPointersBasedOn(CSVar base) {
+        return ptrManager.getPointersBasedOn(base);
+    }
+
+    /**
+     * Removes the given pointers from this manager, so that they can be
+     * reclaimed. Only variables and the pointers based on variables are removed.
+     */
+    public void removePointers(Collection<? extends Pointer> pointers) {
+        pointers.forEach(ptrManager::removePointer);
+    }
+
     @Override
     public CSObj getCSObj(Context heapContext, Obj obj) {
         return objManager.getCSObj(heapContext, obj);
@@ -201,6 +217,31 @@ public class MapBasedCSManager implements CSManager {
                     a -> new ArrayIndex(a, counter++));
         }
 
+        private Collection<Pointer> getPointersBasedOn(CSVar base) {
+            List<Pointer> pointers = new ArrayList<>();
+            var fields = instanceVarFields.get(base);
+            if (fields != null) {
+                pointers.addAll(fields.values());
+            }
+            ArrayIndex arrayIndex = arrayVarIndexes.get(base);
+            if (arrayIndex != null) {
+                pointers.add(arrayIndex);
+            }
+            return pointers;
+        }
+
+        private void removePointer(Pointer pointer) {
+            if (pointer instanceof CSVar csVar) {
+                vars.remove(csVar.getVar(), csVar.getContext());
+            } else if (pointer instanceof InstanceField iField
+                    && iField.getBaseVar() != null) {
+                instanceVarFields.remove(iField.getBaseVar(), iField.getField());
+            } else if (pointer instanceof ArrayIndex arrayIndex
+                    && arrayIndex.getArrayVar() != null) {
+                arrayVarIndexes.remove(arrayIndex.getArrayVar());
+            }
+        }
+
         private Collection<Var> getVars() {
             return vars.keySet();
         }
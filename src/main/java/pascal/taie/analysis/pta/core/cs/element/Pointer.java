@@ -99,6 +99,16 @@ public interface Pointer extends Indexable {
 
     void addOutEdge(PointerFlowEdge edge);
 
+    /**
+     * Removes an in edge of this pointer, so that the edge can be added again.
+     */
+    void removeInEdge(PointerFlowEdge edge);
+
+    /**
+     * Removes an out edge of this pointer.
+     */
+    void removeOutEdge(PointerFlowEdge edge);
+
     /**
      * @return out edges of this pointer in pointer flow graph.
      */
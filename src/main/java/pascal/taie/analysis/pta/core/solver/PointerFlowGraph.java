@@ -34,6 +34,7 @@ import pascal.taie.util.graph.Edge;
 import pascal.taie.util.graph.Graph;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -90,6 +91,50 @@ public class PointerFlowGraph implements Graph<Pointer> {
         return edge.target().addEdge(edge);
     }
 
+    /**
+     * Removes the given pointers and their edges from this PFG.
+     * The pointers must not be used afterwards.
+     */
+    public void removePointers(Set<Pointer> pointers) {
+        for (Pointer pointer : pointers) {
+            for (PointerFlowEdge edge : List.copyOf(pointer.getInEdges())) {
+                Pointer source = edge.source();
+                if (source != null && !pointers.contains(source)) {
+                    source.removeOutEdge(edge);
+                }
+                removeEdgeInfo(edge);
+                pointer.removeInEdge(edge);
+            }
+            for (PointerFlowEdge edge : List.copyOf(pointer.getOutEdges())) {
+                Pointer target = edge.target();
+                if (!pointers.contains(target)) {
+                    target.removeInEdge(edge);
+                    removeEdgeInfo(edge);
+                }
+                pointer.removeOutEdge(edge);
+            }
+        }
+    }
+
+    private void removeEdgeInfo(PointerFlowEdge edge) {
+        ifRangeMap.remove(edge);
+        if (edge.kind() == FlowKind.INSTANCE_STORE) {
+            if (edge.target() instanceof InstanceField iField) {
+                Set<PointerFlowEdge> edges = fieldMatchEdges.get(iField.getField());
+                if (edges != null && edges.remove(edge) && edges.isEmpty()) {
+                    fieldMatchEdges.remove(iField.getField());
+                }
+            } else if (edge.target() instanceof ArrayIndex varArray) {
+                CSVar base = varArray.getArrayVar();
+                JClass jClass = base.getVar().getMethod().getDeclaringClass();
+                Set<PointerFlowEdge> edges = arrayMatchEdges.get(jClass, base.getType());
+                if (edges != null && edges.remove(edge) && edges.isEmpty()) {
+                    arrayMatchEdges.remove(jClass, base.getType());
+                }
+            }
+        }
+    }
+
     @Override
     public Set<? extends Edge<Pointer>> getInEdgesOf(Pointer node) {
         throw new UnsupportedOperationException();
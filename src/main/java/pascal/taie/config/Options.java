@@ -211,6 +211,32 @@ public class Options implements Serializable {
         return preBuildIR;
     }
 
+    @JsonProperty
+    @Option(names = "--ir-build-threads",
+            description = "max number of threads that build IR in parallel," +
+                    " which also bounds the method bodies being converted" +
+                    " at the same time, 0 for the number of processors" +
+                    " (default: ${DEFAULT-VALUE})",
+            defaultValue = "0")
+    private int irBuildThreads;
+
+    public int getIRBuildThreads() {
+        return irBuildThreads;
+    }
+
+    @JsonProperty
+    @Option(names = "--world-build-threads",
+            description = "max number of threads that build the classes" +
+                    " of the world in parallel, 1 for the serial build," +
+                    " 0 for the number of processors" +
+                    " (default: ${DEFAULT-VALUE})",
+            defaultValue = "0")
+    private int worldBuildThreads;
+
+    public int getWorldBuildThreads() {
+        return worldBuildThreads;
+    }
+
     @JsonProperty
     @Option(names = {"-wc", "--world-cache-mode"},
             description = "Enable world cache mode to save build time"
@@ -272,6 +298,49 @@ public class Options implements Serializable {
         return GC_OUT;
     }
 
+    @JsonProperty
+    @Option(names = {"-gf", "--GC_FORMAT"},
+            description = "format of gadget chains output: text or jsonl" +
+                    " (default: ${DEFAULT-VALUE})",
+            defaultValue = "text")
+    private String GC_FORMAT;
+
+    public String getGC_FORMAT() {
+        return GC_FORMAT;
+    }
+
+    @JsonProperty
+    @Option(names = {"-ckpt", "--checkpoint"},
+            description = "directory of the checkpoint of the scan, which is" +
+                    " written periodically to resume the scan from")
+    private String checkpoint;
+
+    public String getCheckpoint() {
+        return checkpoint;
+    }
+
+    @JsonProperty
+    @Option(names = "--checkpoint-interval",
+            description = "min seconds between syncs of the checkpoint to disk" +
+                    " (default: ${DEFAULT-VALUE})",
+            defaultValue = "60")
+    private int checkpointInterval;
+
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    @JsonProperty
+    @Option(names = "--resume",
+            description = "resume the scan from the checkpoint, skipping" +
+                    " the entries finished before (default: ${DEFAULT-VALUE})",
+            defaultValue = "false")
+    private boolean resume;
+
+    public boolean isResume() {
+        return resume;
+    }
+
     @JsonProperty
     @Option(names = {"-fns", "--filterNonSerializable"},
             description = "filter method by isSerializable")
@@ -301,7 +370,8 @@ public class Options implements Serializable {
 
     @JsonProperty
     @Option(names = {"-pct", "--PATH_COLLECT_TIME"},
-            description = "the max time of collecting paths")
+            description = "the max time of collecting paths (no longer used," +
+                    " as paths are collected up to PATH_MAX_COUNT)")
     private int PATH_COLLECT_TIME;
 
     public int getPATH_COLLECT_TIME() {
@@ -561,12 +631,18 @@ public class Options implements Serializable {
                 ", worldBuilderClass=" + worldBuilderClass +
                 ", outputDir='" + outputDir + '\'' +
                 ", preBuildIR=" + preBuildIR +
+                ", irBuildThreads=" + irBuildThreads +
+                ", worldBuildThreads=" + worldBuildThreads +
                 ", worldCacheMode=" + worldCacheMode +
                 ", scope=" + scope +
                 ", nativeModel=" + nativeModel +
                 ", planFile=" + planFile +
                 ", sources=" + sources +
                 ", GC_OUT=" + GC_OUT +
+                ", GC_FORMAT=" + GC_FORMAT +
+                ", checkpoint=" + checkpoint +
+                ", checkpointInterval=" + checkpointInterval +
+                ", resume=" + resume +
                 ", filterNonSerializable=" + filterNonSerializable +
                 ", GC_MAX_LEN=" + GC_MAX_LEN +
                 ", PATH_MAX_COUNT=" + PATH_MAX_COUNT +
@@ -0,0 +1,138 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Cursor for decoding values written by {@link CacheOutput}.
+ * <p>
+ * The cursor only reads the underlying buffer by absolute positions,
+ * thus multiple cursors can read a shared (memory-mapped) buffer
+ * concurrently.
+ */
+final class CacheInput {
+
+    private final ByteBuffer buf;
+
+    /**
+     * Offset of {@link #buf} in the file.
+     */
+    private final long base;
+
+    private int pos;
+
+    CacheInput(ByteBuffer buf, long base, int pos) {
+        this.buf = buf;
+        this.base = base;
+        this.pos = pos;
+    }
+
+    int position() {
+        return pos;
+    }
+
+    /**
+     * @return the offset of current position in the file.
+     */
+    long offset() {
+        return base + pos;
+    }
+
+    void seek(int pos) {
+        this.pos = pos;
+    }
+
+    void skip(int n) {
+        pos += n;
+    }
+
+    /**
+     * Reads an unsigned byte.
+     */
+    int readByte() {
+        return buf.get(pos++) & 0xFF;
+    }
+
+    boolean readBoolean() {
+        return buf.get(pos++) != 0;
+    }
+
+    int readVarInt() {
+        int v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buf.get(pos++);
+            v |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return v;
+            }
+        }
+    }
+
+    int readSignedVarInt() {
+        int v = readVarInt();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    long readSignedVarLong() {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buf.get(pos++);
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    int readInt() {
+        int v = buf.getInt(pos);
+        pos += 4;
+        return v;
+    }
+
+    long readLong() {
+        long v = buf.getLong(pos);
+        pos += 8;
+        return v;
+    }
+
+    float readFloat() {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    double readDouble() {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    /**
+     * Reads {@code n} bytes into a new array.
+     */
+    byte[] readBytes(int n) {
+        byte[] bytes = new byte[n];
+        buf.get(pos, bytes);
+        pos += n;
+        return bytes;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Growable buffer for encoding a section of the world cache.
+ * Integers are encoded as variable-length quantities, where
+ * signed ones are zigzag-encoded, and fixed-width values are
+ * big-endian, as read by {@link CacheInput}.
+ */
+final class CacheOutput {
+
+    private byte[] buf;
+
+    private int size;
+
+    CacheOutput(int capacity) {
+        buf = new byte[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    /**
+     * @return a buffer that wraps the written bytes.
+     */
+    ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(buf, 0, size);
+    }
+
+    void writeByte(int b) {
+        ensureCapacity(1);
+        buf[size++] = (byte) b;
+    }
+
+    void writeBoolean(boolean b) {
+        writeByte(b ? 1 : 0);
+    }
+
+    /**
+     * Writes a non-negative int by 1 to 5 bytes.
+     */
+    void writeVarInt(int v) {
+        ensureCapacity(5);
+        while ((v & ~0x7F) != 0) {
+            buf[size++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[size++] = (byte) v;
+    }
+
+    void writeSignedVarInt(int v) {
+        writeVarInt((v << 1) ^ (v >> 31));
+    }
+
+    void writeSignedVarLong(long v) {
+        v = (v << 1) ^ (v >> 63);
+        ensureCapacity(10);
+        while ((v & ~0x7FL) != 0) {
+            buf[size++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[size++] = (byte) v;
+    }
+
+    void writeInt(int v) {
+        ensureCapacity(4);
+        setInt(size, v);
+        size += 4;
+    }
+
+    void writeLong(long v) {
+        writeInt((int) (v >>> 32));
+        writeInt((int) v);
+    }
+
+    void writeFloat(float v) {
+        writeInt(Float.floatToRawIntBits(v));
+    }
+
+    void writeDouble(double v) {
+        writeLong(Double.doubleToRawLongBits(v));
+    }
+
+    void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buf, size, bytes.length);
+        size += bytes.length;
+    }
+
+    /**
+     * Appends the bytes written to {@code other}.
+     */
+    void write(CacheOutput other) {
+        ensureCapacity(other.size);
+        System.arraycopy(other.buf, 0, buf, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Overwrites the int at {@code pos}, which has been written.
+     */
+    void setInt(int pos, int v) {
+        buf[pos] = (byte) (v >>> 24);
+        buf[pos + 1] = (byte) (v >>> 16);
+        buf[pos + 2] = (byte) (v >>> 8);
+        buf[pos + 3] = (byte) v;
+    }
+
+    private void ensureCapacity(int n) {
+        if (size + n > buf.length) {
+            long capacity = Math.max((long) buf.length << 1, (long) size + n);
+            if (capacity > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Section of world cache is too large");
+            }
+            buf = Arrays.copyOf(buf, (int) capacity);
+        }
+    }
+}
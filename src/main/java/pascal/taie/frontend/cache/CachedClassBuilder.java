@@ -0,0 +1,228 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassBuilder;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Modifier;
+import pascal.taie.language.generics.ClassGSignature;
+import pascal.taie.language.generics.GSignatures;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static pascal.taie.frontend.cache.WorldCacheFormat.APPLICATION;
+import static pascal.taie.frontend.cache.WorldCacheFormat.NO_IR;
+import static pascal.taie.frontend.cache.WorldCacheFormat.PHANTOM;
+import static pascal.taie.frontend.cache.WorldCacheFormat.SERIALIZABLE;
+
+/**
+ * Builds a class from its section of the world cache, which is
+ * positioned by {@code in} after the module name of the class.
+ */
+class CachedClassBuilder implements JClassBuilder {
+
+    private final WorldCacheReader reader;
+
+    private final JClass jclass;
+
+    private final CacheInput in;
+
+    private final String simpleName;
+
+    private final Set<Modifier> modifiers;
+
+    private final int flags;
+
+    private final String superClass;
+
+    private final List<String> interfaces;
+
+    private final String outerClass;
+
+    private final String gSignature;
+
+    private final AnnotationHolder annotationHolder;
+
+    private List<JField> fields;
+
+    CachedClassBuilder(WorldCacheReader reader, JClass jclass, CacheInput in) {
+        this.reader = reader;
+        this.jclass = jclass;
+        this.in = in;
+        simpleName = reader.readString(in);
+        modifiers = reader.readModifiers(in);
+        flags = in.readByte();
+        superClass = reader.readString(in);
+        int n = in.readVarInt();
+        interfaces = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            interfaces.add(reader.readString(in));
+        }
+        outerClass = reader.readString(in);
+        gSignature = reader.readString(in);
+        annotationHolder = reader.readAnnotations(in);
+    }
+
+    @Override
+    public void build(JClass jclass) {
+        jclass.build(this);
+    }
+
+    boolean isSerializable() {
+        return (flags & SERIALIZABLE) != 0;
+    }
+
+    @Override
+    public Set<Modifier> getModifiers() {
+        return modifiers;
+    }
+
+    @Override
+    public String getSimpleName() {
+        return simpleName;
+    }
+
+    @Override
+    public ClassType getClassType() {
+        return reader.getClassType(jclass.getName());
+    }
+
+    @Override
+    public JClass getSuperClass() {
+        return loadClass(superClass);
+    }
+
+    @Override
+    public Collection<JClass> getInterfaces() {
+        List<JClass> result = new ArrayList<>(interfaces.size());
+        interfaces.forEach(name -> result.add(loadClass(name)));
+        return result;
+    }
+
+    @Override
+    public JClass getOuterClass() {
+        return loadClass(outerClass);
+    }
+
+    @Nullable
+    private JClass loadClass(@Nullable String name) {
+        return name == null ? null : jclass.getClassLoader().loadClass(name);
+    }
+
+    @Override
+    public Collection<JField> getDeclaredFields() {
+        if (fields == null) {
+            int n = in.readVarInt();
+            fields = new ArrayList<>(n);
+            for (int i = 0; i < n; ++i) {
+                String name = reader.readString(in);
+                Set<Modifier> mods = reader.readModifiers(in);
+                Type type = reader.readType(in);
+                String gSig = reader.readString(in);
+                fields.add(new JField(jclass, name, mods, type,
+                        gSig == null ? null : GSignatures.toTypeSig(gSig),
+                        reader.readAnnotations(in)));
+            }
+        }
+        return fields;
+    }
+
+    @Override
+    public Collection<JMethod> getDeclaredMethods() {
+        // the methods follow the fields
+        getDeclaredFields();
+        int n = in.readVarInt();
+        List<JMethod> methods = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            methods.add(readMethod());
+        }
+        return methods;
+    }
+
+    private JMethod readMethod() {
+        String name = reader.readString(in);
+        Set<Modifier> mods = reader.readModifiers(in);
+        List<Type> paramTypes = reader.readTypes(in);
+        Type returnType = reader.readType(in);
+        List<Type> exceptionTypes = reader.readTypes(in);
+        List<ClassType> exceptions = new ArrayList<>(exceptionTypes.size());
+        exceptionTypes.forEach(t -> exceptions.add((ClassType) t));
+        String gSig = reader.readString(in);
+        AnnotationHolder annotations = reader.readAnnotations(in);
+        List<AnnotationHolder> paramAnnotations = null;
+        int n = in.readVarInt();
+        if (n > 0) {
+            paramAnnotations = new ArrayList<>(n - 1);
+            for (int i = 0; i < n - 1; ++i) {
+                paramAnnotations.add(reader.readAnnotations(in));
+            }
+        }
+        List<String> paramNames = null;
+        n = in.readVarInt();
+        if (n > 0) {
+            paramNames = new ArrayList<>(n - 1);
+            for (int i = 0; i < n - 1; ++i) {
+                paramNames.add(reader.readString(in));
+            }
+        }
+        // the method source refers to the IR record, if any,
+        // from which the IR is decoded by CachedIRBuilder
+        long irOffset = in.readLong();
+        Object methodSource = irOffset == NO_IR ? null
+                : new WorldCacheReader.IRSource(reader, irOffset);
+        return new JMethod(jclass, name, mods, paramTypes, returnType,
+                exceptions, gSig == null ? null : GSignatures.toMethodSig(gSig),
+                annotations, paramAnnotations, paramNames, methodSource);
+    }
+
+    @Override
+    public AnnotationHolder getAnnotationHolder() {
+        return annotationHolder;
+    }
+
+    @Override
+    public boolean isApplication() {
+        return (flags & APPLICATION) != 0;
+    }
+
+    @Override
+    public boolean isPhantom() {
+        return (flags & PHANTOM) != 0;
+    }
+
+    @Nullable
+    @Override
+    public ClassGSignature getGSignature() {
+        return gSignature == null ? null
+                : GSignatures.toClassSig(Modifier.hasInterface(modifiers), gSignature);
+    }
+}
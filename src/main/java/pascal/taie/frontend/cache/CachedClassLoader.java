@@ -0,0 +1,81 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassLoader;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads classes from the sections of the world cache. A class is loaded
+ * from the first segment file that holds it.
+ */
+class CachedClassLoader implements JClassLoader {
+
+    private final transient List<WorldCacheReader> segments;
+
+    private final ClassHierarchy hierarchy;
+
+    private final Map<String, JClass> classes = Maps.newLinkedHashMap();
+
+    CachedClassLoader(List<WorldCacheReader> segments, ClassHierarchy hierarchy) {
+        this.segments = segments;
+        this.hierarchy = hierarchy;
+    }
+
+    @Override
+    public JClass loadClass(String name) {
+        JClass jclass = classes.get(name);
+        if (jclass == null && segments != null) {
+            for (WorldCacheReader reader : segments) {
+                long offset = reader.getClassOffset(name);
+                if (offset >= 0) {
+                    CacheInput in = reader.input(offset);
+                    jclass = new JClass(this, name, reader.readString(in));
+                    // New class must be put into classes map at first,
+                    // at build(jclass) may also trigger the loading of
+                    // the new created class.
+                    classes.put(name, jclass);
+                    CachedClassBuilder builder = new CachedClassBuilder(reader, jclass, in);
+                    builder.build(jclass);
+                    hierarchy.addClass(jclass);
+                    if (builder.isSerializable()) {
+                        jclass.setSerializable();
+                    }
+                    break;
+                }
+            }
+        }
+        return jclass;
+    }
+
+    @Override
+    public Collection<JClass> getLoadedClasses() {
+        return classes.values();
+    }
+}
@@ -24,11 +24,13 @@ package pascal.taie.frontend.cache;
 
 
 import pascal.taie.ir.IR;
+import pascal.taie.ir.IRBuildPipeline;
 import pascal.taie.ir.IRBuilder;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -37,9 +39,13 @@ import java.util.stream.Collectors;
  * The {@link pascal.taie.ir.IRBuilder} is for keeping the {@link IR}s of all methods to
  * prevent cyclic references with too long a path which may make
  * the serialization fail or {@link java.lang.StackOverflowError}.
+ * <p>
+ * For the world loaded from the world cache, this builder decodes the IR
+ * of a method from the cache when the IR is first requested instead.
  */
 public class CachedIRBuilder implements IRBuilder {
 
+    @Nullable
     private final Map<String, IR> methodSig2IR;
 
     public CachedIRBuilder(IRBuilder irBuilder, ClassHierarchy hierarchy) {
@@ -51,21 +57,24 @@ public class CachedIRBuilder implements IRBuilder {
                 .collect(Collectors.toMap(JMethod::getSignature, JMethod::getIR));
     }
 
+    CachedIRBuilder() {
+        this.methodSig2IR = null;
+    }
+
     /**
      * This method will be called by {@link JMethod#getIR()} only once,
      * so remove the IR from the map after returning it.
      */
     @Override
     public IR buildIR(JMethod method) {
-        return methodSig2IR.remove(method.getSignature());
+        if (method.getMethodSource() instanceof WorldCacheReader.IRSource source) {
+            return source.decode(method);
+        }
+        return methodSig2IR != null ? methodSig2IR.remove(method.getSignature()) : null;
     }
 
     @Override
     public void buildAll(ClassHierarchy hierarchy) {
-        hierarchy.allClasses()
-                .map(JClass::getDeclaredMethods)
-                .flatMap(Collection::stream)
-                .filter(m -> !m.isAbstract() || m.isNative())
-                .forEach(JMethod::getIR);
+        IRBuildPipeline.buildAll(IRBuildPipeline.methodsOf(hierarchy.allClasses()));
     }
 }
@@ -28,21 +28,29 @@ import pascal.taie.World;
 import pascal.taie.WorldBuilder;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.Options;
+import pascal.taie.ir.IRBuildPipeline;
+import pascal.taie.language.classes.JClass;
 import pascal.taie.util.Timer;
+import pascal.taie.util.collection.Maps;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A {@link WorldBuilder} that loads the cached world if it exists, or delegates to the
  * underlying {@link WorldBuilder} otherwise.
+ * <p>
+ * The cache is keyed by the contents of the class path entries instead of
+ * their timestamps, and the classes of each entry are cached in a separate
+ * segment file (see {@link WorldCacheFormat}). When some entries change,
+ * the world is rebuilt by the underlying builder, as it resolves the whole
+ * program at once, but only the segments whose keys change are written, and
+ * the others, e.g., the segments of the unchanged JDK jars, are reused
+ * (see {@link ClassPathSegments#getKey}).
  */
 public class CachedWorldBuilder implements WorldBuilder {
 
@@ -64,12 +72,17 @@ public class CachedWorldBuilder implements WorldBuilder {
                     + " but world cache mode option is not enabled");
             System.exit(-1);
         }
-        File worldCacheFile = getWorldCacheFile(options);
-        if (loadCache(options, worldCacheFile)) {
-            return;
+        try (ClassPathSegments segments = new ClassPathSegments(options)) {
+            File worldCacheFile = getWorldCacheFile(options, segments);
+            if (loadCache(options, worldCacheFile)) {
+                return;
+            }
+            runWorldBuilder(options, analyses);
+            saveCache(worldCacheFile, segments);
+        } catch (IOException e) {
+            logger.error("Failed to read the class path due to {}", e);
+            runWorldBuilder(options, analyses);
         }
-        runWorldBuilder(options, analyses);
-        saveCache(worldCacheFile);
     }
 
     private boolean loadCache(Options options, File worldCacheFile) {
@@ -80,25 +93,13 @@ public class CachedWorldBuilder implements WorldBuilder {
         logger.info("Loading the world cache from {}", worldCacheFile);
         Timer timer = new Timer("Load the world cache");
         timer.start();
-        ObjectInputStream ois = null;
         try {
-            ois = new ObjectInputStream(
-                    new BufferedInputStream(new FileInputStream(worldCacheFile)));
-            World world = (World) ois.readObject();
-            World.set(world);
-            world.setOptions(options);
+            WorldCacheReader.load(worldCacheFile, options);
             return true;
         } catch (Exception e) {
             logger.error("Failed to load world cache from {} due to {}",
                     worldCacheFile, e);
         } finally {
-            if (ois != null) {
-                try {
-                    ois.close();
-                } catch (Exception e) {
-                    logger.error("Failed to close input stream", e);
-                }
-            }
             timer.stop();
             logger.info(timer);
         }
@@ -114,62 +115,82 @@ public class CachedWorldBuilder implements WorldBuilder {
         logger.info(timer);
     }
 
-    private void saveCache(File worldCacheFile) {
+    private void saveCache(File worldCacheFile, ClassPathSegments segments) {
         logger.info("Saving the world cache to {}", worldCacheFile);
         Timer timer = new Timer("Save the world cache");
         timer.start();
-        ObjectOutputStream oos = null;
         try {
-            oos = new ObjectOutputStream(
-                    new BufferedOutputStream(new FileOutputStream(worldCacheFile)));
-            oos.writeObject(World.get());
-            oos.close();
+            World world = World.get();
+            List<List<JClass>> classes = segments.split(
+                    world.getClassHierarchy().allClasses());
+            List<String> segmentFiles = new ArrayList<>();
+            Map<File, List<JClass>> toWrite = Maps.newLinkedHashMap();
+            for (int i = 0; i < classes.size(); ++i) {
+                if (classes.get(i).isEmpty()) {
+                    continue;
+                }
+                File segmentFile = new File(worldCacheFile.getParentFile(),
+                        "segment-" + segments.getKey(i, classes.get(i)) + ".bin");
+                if (!segmentFile.exists()) {
+                    toWrite.put(segmentFile, classes.get(i));
+                }
+                segmentFiles.add(segmentFile.getName());
+            }
+            // build the IRs in parallel in the order they are encoded,
+            // so that the writers encode the IRs as soon as they are built
+            CompletableFuture<Void> building = IRBuildPipeline.start(
+                    IRBuildPipeline.methodsOf(toWrite.values().stream()
+                            .flatMap(List::stream)));
+            try {
+                for (Map.Entry<File, List<JClass>> e : toWrite.entrySet()) {
+                    new WorldCacheWriter(world, e.getValue(), null).write(e.getKey());
+                }
+            } finally {
+                building.join();
+            }
+            new WorldCacheWriter(world, List.of(), segmentFiles).write(worldCacheFile);
+            logger.info("Wrote {} segments of the world cache, reused {} segments",
+                    toWrite.size(), segmentFiles.size() - toWrite.size());
         } catch (Exception e) {
             logger.error("Failed to save world cache from {} due to {}",
                     worldCacheFile, e);
         } finally {
-            if (oos != null) {
-                try {
-                    oos.close();
-                } catch (Exception e) {
-                    logger.error("Failed to close output stream", e);
-                }
-            }
             timer.stop();
             logger.info(timer);
         }
     }
 
-    public static File getWorldCacheFile(Options options) {
+    public static File getWorldCacheFile(Options options) throws IOException {
+        try (ClassPathSegments segments = new ClassPathSegments(options)) {
+            return getWorldCacheFile(options, segments);
+        }
+    }
+
+    private static File getWorldCacheFile(Options options, ClassPathSegments segments) {
         File cacheDir = new File(CACHE_DIR);
         if (!cacheDir.exists()) {
             cacheDir.mkdirs();
         }
         return new File(cacheDir,
-                "world-cache-" + getWorldCacheHash(options) + ".bin").getAbsoluteFile();
+                "world-cache-" + getWorldCacheKey(options, segments) + ".bin")
+                .getAbsoluteFile();
     }
 
-    private static int getWorldCacheHash(Options options) {
-        int result = options.getMainClass() != null
-                ? options.getMainClass().hashCode() : 0;
-        result = 31 * result + (options.getInputClasses() != null
-                ? options.getInputClasses().hashCode() : 0);
-        result = 31 * result + options.getJavaVersion();
-        result = 31 * result + (options.isPrependJVM() ? 1 : 0);
-        result = 31 * result + (options.isAllowPhantom() ? 1 : 0);
-        result = 31 * result + (options.getWorldBuilderClass() != null
-                ? options.getWorldBuilderClass().getName().hashCode() : 0);
-        // add the timestamp to the cache key calculation
-        List<String> paths = new ArrayList<>();
-        paths.addAll(options.getClassPath());
-        paths.addAll(options.getAppClassPath());
-        for (String path : paths) {
-            File file = new File(path);
-            if (file.exists()) {
-                result = 31 * result + (int) file.lastModified();
-            }
-        }
-        result = Math.abs(result);
-        return result;
+    /**
+     * @return the key of the world cache, which covers the options that
+     * shape the world and the contents of all class path entries.
+     */
+    private static String getWorldCacheKey(Options options, ClassPathSegments segments) {
+        List<String> parts = new ArrayList<>();
+        parts.add(Integer.toString(WorldCacheFormat.VERSION));
+        parts.add(options.getMainClass());
+        parts.add(String.valueOf(options.getInputClasses()));
+        parts.add(Integer.toString(options.getJavaVersion()));
+        parts.add(Boolean.toString(options.isPrependJVM()));
+        parts.add(Boolean.toString(options.isAllowPhantom()));
+        parts.add(options.getWorldBuilderClass() != null
+                ? options.getWorldBuilderClass().getName() : null);
+        parts.addAll(segments.getDigests());
+        return ClassPathSegments.digest(parts).substring(0, 32);
     }
 }
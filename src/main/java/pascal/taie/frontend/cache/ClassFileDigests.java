@@ -0,0 +1,182 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.AbstractWorldBuilder;
+import pascal.taie.config.Options;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Computes content digests of the class files on the class path.
+ * <p>
+ * Class files are looked up in class path order, so the digest of a class
+ * is the digest of the class file the frontend would load. Classes which
+ * are not on the class path (e.g., JDK classes when the JVM is prepended)
+ * are looked up via the system class loader.
+ */
+public class ClassFileDigests implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(ClassFileDigests.class);
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private final List<File> roots;
+
+    /**
+     * Opened jars on the class path, kept open until {@link #close()}.
+     */
+    private final Map<File, ZipFile> jars = new ConcurrentHashMap<>();
+
+    private final Map<String, String> digests = new ConcurrentHashMap<>();
+
+    public ClassFileDigests(List<String> classPath) {
+        roots = new ArrayList<>();
+        for (String path : classPath) {
+            if (!path.isBlank()) {
+                roots.add(new File(path));
+            }
+        }
+    }
+
+    public static ClassFileDigests of(Options options) {
+        return new ClassFileDigests(List.of(
+                AbstractWorldBuilder.getClassPath(options).split(File.pathSeparator)));
+    }
+
+    /**
+     * @return hex digest of the class file of the given class,
+     * or {@code null} if the class file cannot be found.
+     */
+    @Nullable
+    public String getDigest(String className) {
+        String digest = digests.get(className);
+        if (digest == null) {
+            byte[] content = readClassFile(className);
+            if (content == null) {
+                return null;
+            }
+            digest = digest(content);
+            digests.putIfAbsent(className, digest);
+        }
+        return digest;
+    }
+
+    @Nullable
+    private byte[] readClassFile(String className) {
+        String entryName = className.replace('.', '/') + ".class";
+        try {
+            for (File root : roots) {
+                if (root.isDirectory()) {
+                    File file = new File(root, entryName);
+                    if (file.isFile()) {
+                        return Files.readAllBytes(file.toPath());
+                    }
+                } else if (root.isFile()) {
+                    ZipFile zip = getJar(root);
+                    ZipEntry entry = zip != null ? zip.getEntry(entryName) : null;
+                    if (entry != null) {
+                        try (InputStream in = zip.getInputStream(entry)) {
+                            return in.readAllBytes();
+                        }
+                    }
+                }
+            }
+            try (InputStream in = ClassLoader.getSystemResourceAsStream(entryName)) {
+                return in != null ? in.readAllBytes() : null;
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read class file of {} due to {}", className, e);
+            return null;
+        }
+    }
+
+    @Nullable
+    private ZipFile getJar(File jar) {
+        return jars.computeIfAbsent(jar, f -> {
+            try {
+                return new ZipFile(f);
+            } catch (IOException e) {
+                logger.warn("Failed to open {} due to {}", f, e);
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        jars.values().forEach(zip -> {
+            try {
+                zip.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close {} due to {}", zip.getName(), e);
+            }
+        });
+        jars.clear();
+    }
+
+    /**
+     * @return hex digest of the given content.
+     */
+    public static String digest(byte[] content) {
+        return HexFormat.of().formatHex(newDigest().digest(content));
+    }
+
+    /**
+     * @return hex digest of the content of the given file.
+     */
+    public static String digest(File file) throws IOException {
+        MessageDigest md = newDigest();
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            byte[] buffer = new byte[1 << 16];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                md.update(buffer, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
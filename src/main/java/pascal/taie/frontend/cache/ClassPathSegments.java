@@ -0,0 +1,245 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.AbstractWorldBuilder;
+import pascal.taie.config.Options;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.util.collection.Maps;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
+
+/**
+ * Splits the classes of the world into segments by the class path
+ * entries they are loaded from, and keys the segments by the content
+ * digests of the entries.
+ * <p>
+ * Segment {@code i < n} holds the classes of the {@code i}-th entry,
+ * where {@code n} is the number of entries, and a class is in the first
+ * entry that contains its class file, as the frontend looks it up in
+ * class path order. The last segment holds the classes found in no entry,
+ * e.g., the classes of the running JDK when the JVM is prepended, and
+ * phantom classes, and is keyed by the running JDK.
+ * <p>
+ * The classes of an entry refer to the classes of other entries, e.g., their
+ * super classes and the field and method references in their IRs, which are
+ * resolved when the world is built. So the key of a segment covers the digests
+ * of all entries that are not JDK jars, and a segment is reused only if none
+ * of these entries changes. The JDK jars are the exception, as the JDK classes
+ * only refer to the JDK classes.
+ */
+class ClassPathSegments implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(ClassPathSegments.class);
+
+    private final List<File> roots = new ArrayList<>();
+
+    /**
+     * Indexes of the entries that are JDK jars.
+     */
+    private final Set<Integer> jdkEntries = new HashSet<>();
+
+    /**
+     * Digests of the entries, followed by the digest of the last segment.
+     */
+    private final List<String> digests = new ArrayList<>();
+
+    /**
+     * Opened jars on the class path, kept open until {@link #close()}.
+     */
+    private final Map<File, ZipFile> jars = Maps.newMap();
+
+    ClassPathSegments(Options options) throws IOException {
+        Set<String> paths = new LinkedHashSet<>(List.of(
+                AbstractWorldBuilder.getClassPath(options).split(File.pathSeparator)));
+        paths.addAll(options.getAppClassPath());
+        // the JDK jars are added to the class path given by the options
+        Set<String> programPaths = new HashSet<>(options.getAppClassPath());
+        programPaths.addAll(options.getClassPath());
+        for (String path : paths) {
+            if (!path.isBlank()) {
+                File root = new File(path).getAbsoluteFile();
+                if (!programPaths.contains(path)) {
+                    jdkEntries.add(roots.size());
+                }
+                roots.add(root);
+                digests.add(digestRoot(root));
+            }
+        }
+        digests.add(digest(List.of(System.getProperty("java.home"),
+                System.getProperty("java.runtime.version"))));
+    }
+
+    /**
+     * @return the number of segments.
+     */
+    int size() {
+        return digests.size();
+    }
+
+    /**
+     * @return digests of all segments, which change when the content
+     * of any class path entry changes.
+     */
+    List<String> getDigests() {
+        return digests;
+    }
+
+    /**
+     * @return the key of the {@code i}-th segment holding {@code classes}.
+     * The key of a JDK jar covers the jar, and the key of another entry
+     * covers all entries that are not JDK jars, as its classes refer to
+     * their classes. The key of the last segment covers all entries, as its
+     * phantom classes are built from the references in the other segments.
+     * The key also covers the classes, since the classes of an entry
+     * that are in the world depend on the whole program.
+     */
+    String getKey(int i, List<JClass> classes) {
+        List<String> parts = new ArrayList<>(classes.size() + digests.size() + 1);
+        parts.add(Integer.toString(WorldCacheFormat.VERSION));
+        if (i == size() - 1) {
+            parts.addAll(digests);
+        } else if (jdkEntries.contains(i)) {
+            parts.add(digests.get(i));
+        } else {
+            for (int j = 0; j < roots.size(); ++j) {
+                if (!jdkEntries.contains(j)) {
+                    parts.add(digests.get(j));
+                }
+            }
+        }
+        classes.stream()
+                .map(c -> c.isApplication() ? c.getName() + " app" : c.getName())
+                .sorted()
+                .forEach(parts::add);
+        return digest(parts).substring(0, 32);
+    }
+
+    /**
+     * Splits {@code classes} into the segments.
+     */
+    List<List<JClass>> split(Stream<JClass> classes) {
+        List<List<JClass>> segments = new ArrayList<>(size());
+        for (int i = 0; i < size(); ++i) {
+            segments.add(new ArrayList<>());
+        }
+        classes.forEach(c -> segments.get(segmentOf(c.getName())).add(c));
+        return segments;
+    }
+
+    private int segmentOf(String className) {
+        String entryName = className.replace('.', '/') + ".class";
+        for (int i = 0; i < roots.size(); ++i) {
+            File root = roots.get(i);
+            if (root.isDirectory()) {
+                if (new File(root, entryName).isFile()) {
+                    return i;
+                }
+            } else if (root.isFile()) {
+                ZipFile zip = getJar(root);
+                if (zip != null && zip.getEntry(entryName) != null) {
+                    return i;
+                }
+            }
+        }
+        return roots.size();
+    }
+
+    private ZipFile getJar(File jar) {
+        return jars.computeIfAbsent(jar, f -> {
+            try {
+                return new ZipFile(f);
+            } catch (IOException e) {
+                logger.warn("Failed to open {} due to {}", f, e);
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        jars.values().forEach(zip -> {
+            try {
+                if (zip != null) {
+                    zip.close();
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to close {} due to {}", zip.getName(), e);
+            }
+        });
+        jars.clear();
+    }
+
+    /**
+     * @return digest of the content of {@code root}. The digest of
+     * a directory covers the relative paths and the contents of
+     * all files in it.
+     */
+    private static String digestRoot(File root) throws IOException {
+        if (root.isFile()) {
+            return ClassFileDigests.digest(root);
+        } else if (root.isDirectory()) {
+            MessageDigest md = ClassFileDigests.newDigest();
+            Path base = root.toPath();
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(base)) {
+                files = walk.filter(Files::isRegularFile).sorted().toList();
+            }
+            for (Path file : files) {
+                md.update(base.relativize(file).toString()
+                        .getBytes(StandardCharsets.UTF_8));
+                md.update((byte) 0);
+                md.update(Files.readAllBytes(file));
+            }
+            return HexFormat.of().formatHex(md.digest());
+        } else {
+            // the missing entry may be created later
+            return digest(List.of("missing", root.getPath()));
+        }
+    }
+
+    static String digest(List<String> parts) {
+        MessageDigest md = ClassFileDigests.newDigest();
+        for (String part : parts) {
+            md.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+}
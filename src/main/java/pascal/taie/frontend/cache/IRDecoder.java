@@ -0,0 +1,331 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.ArrayLengthExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.CastExp;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.ComparisonExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.DoubleLiteral;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.FloatLiteral;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InstanceOfExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.InvokeDynamic;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInterface;
+import pascal.taie.ir.exp.InvokeSpecial;
+import pascal.taie.ir.exp.InvokeStatic;
+import pascal.taie.ir.exp.InvokeVirtual;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.LongLiteral;
+import pascal.taie.ir.exp.MethodHandle;
+import pascal.taie.ir.exp.MethodType;
+import pascal.taie.ir.exp.NegExp;
+import pascal.taie.ir.exp.NewArray;
+import pascal.taie.ir.exp.NewExp;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.NewMultiArray;
+import pascal.taie.ir.exp.NullLiteral;
+import pascal.taie.ir.exp.ShiftExp;
+import pascal.taie.ir.exp.StaticFieldAccess;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.exp.UnaryExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Catch;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.InstanceOf;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.LookupSwitch;
+import pascal.taie.ir.stmt.Monitor;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.ir.stmt.TableSwitch;
+import pascal.taie.ir.stmt.Throw;
+import pascal.taie.ir.stmt.Unary;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.ReferenceType;
+
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandleInfo;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static pascal.taie.frontend.cache.WorldCacheFormat.*;
+
+/**
+ * Decodes the {@link IR}s encoded by {@link IREncoder}.
+ */
+class IRDecoder {
+
+    private final WorldCacheReader reader;
+
+    private final JMethod method;
+
+    private final CacheInput in;
+
+    private Var[] vars;
+
+    IRDecoder(WorldCacheReader reader, JMethod method, CacheInput in) {
+        this.reader = reader;
+        this.method = method;
+        this.in = in;
+    }
+
+    IR decode() {
+        int varCount = in.readVarInt();
+        vars = new Var[varCount];
+        for (int i = 0; i < varCount; ++i) {
+            String name = reader.readString(in);
+            vars[i] = new Var(method, name, reader.readType(in), i, readLiteral());
+        }
+        Var thisVar = readNullableVar();
+        List<Var> params = readVars();
+        Set<Var> returnVars = new LinkedHashSet<>(readVars());
+        int stmtCount = in.readVarInt();
+        Stmt[] stmts = new Stmt[stmtCount];
+        for (int i = 0; i < stmtCount; ++i) {
+            Stmt stmt = readStmt();
+            stmt.setIndex(i);
+            stmt.setLineNumber(in.readVarInt() - 1);
+            stmts[i] = stmt;
+        }
+        for (Stmt stmt : stmts) {
+            if (stmt instanceof Goto gotoStmt) {
+                gotoStmt.setTarget(stmts[in.readVarInt()]);
+            } else if (stmt instanceof If ifStmt) {
+                ifStmt.setTarget(stmts[in.readVarInt()]);
+            } else if (stmt instanceof SwitchStmt switchStmt) {
+                int caseCount = switchStmt.getCaseValues().size();
+                List<Stmt> targets = new ArrayList<>(caseCount);
+                for (int i = 0; i < caseCount; ++i) {
+                    targets.add(stmts[in.readVarInt()]);
+                }
+                switchStmt.setTargets(targets);
+                switchStmt.setDefaultTarget(stmts[in.readVarInt()]);
+            }
+        }
+        int entryCount = in.readVarInt();
+        List<ExceptionEntry> entries = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; ++i) {
+            Stmt start = stmts[in.readVarInt()];
+            Stmt end = stmts[in.readVarInt()];
+            Catch handler = (Catch) stmts[in.readVarInt()];
+            entries.add(new ExceptionEntry(start, end, handler,
+                    (ClassType) reader.readType(in)));
+        }
+        return new DefaultIR(method, thisVar, params, returnVars,
+                List.of(vars), List.of(stmts), entries);
+    }
+
+    private Var readVar() {
+        return vars[in.readVarInt()];
+    }
+
+    @Nullable
+    private Var readNullableVar() {
+        int i = in.readVarInt();
+        return i == 0 ? null : vars[i - 1];
+    }
+
+    private List<Var> readVars() {
+        int n = in.readVarInt();
+        List<Var> result = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            result.add(readVar());
+        }
+        return result;
+    }
+
+    @Nullable
+    private Literal readLiteral() {
+        int tag = in.readByte();
+        return switch (tag) {
+            case 0 -> null;
+            case INT_LITERAL -> IntLiteral.get(in.readSignedVarInt());
+            case LONG_LITERAL -> LongLiteral.get(in.readSignedVarLong());
+            case FLOAT_LITERAL -> FloatLiteral.get(in.readFloat());
+            case DOUBLE_LITERAL -> DoubleLiteral.get(in.readDouble());
+            case STRING_LITERAL -> StringLiteral.get(reader.readString(in));
+            case CLASS_LITERAL -> ClassLiteral.get(reader.readType(in));
+            case NULL_LITERAL -> NullLiteral.get();
+            case METHOD_HANDLE_LITERAL -> {
+                MethodHandle.Kind kind = MethodHandle.Kind.get(in.readByte());
+                int ref = in.readVarInt();
+                // the kinds of field references precede the ones of methods
+                yield MethodHandle.get(kind, kind.getValue() <= MethodHandleInfo.REF_putStatic
+                        ? reader.getFieldRef(ref) : reader.getMethodRef(ref));
+            }
+            case METHOD_TYPE_LITERAL -> MethodType.get(
+                    reader.readTypes(in), reader.readType(in));
+            default -> throw new IllegalStateException("Unknown literal: " + tag);
+        };
+    }
+
+    private FieldAccess readFieldAccess() {
+        FieldRef ref = reader.getFieldRef(in.readVarInt());
+        return in.readBoolean()
+                ? new InstanceFieldAccess(ref, readVar())
+                : new StaticFieldAccess(ref);
+    }
+
+    private Stmt readStmt() {
+        int tag = in.readByte();
+        return switch (tag) {
+            case ASSIGN_LITERAL -> new AssignLiteral(readVar(), readLiteral());
+            case COPY -> new Copy(readVar(), readVar());
+            case LOAD_ARRAY -> new LoadArray(readVar(),
+                    new ArrayAccess(readVar(), readVar()));
+            case STORE_ARRAY -> new StoreArray(
+                    new ArrayAccess(readVar(), readVar()), readVar());
+            case LOAD_FIELD -> new LoadField(readVar(), readFieldAccess());
+            case STORE_FIELD -> new StoreField(readFieldAccess(), readVar());
+            case NEW -> new New(method, readVar(), readNewExp());
+            case BINARY -> readBinary();
+            case UNARY -> readUnary();
+            case INSTANCE_OF -> new InstanceOf(readVar(), new InstanceOfExp(
+                    readVar(), (ReferenceType) reader.readType(in)));
+            case CAST -> new Cast(readVar(),
+                    new CastExp(readVar(), reader.readType(in)));
+            case INVOKE -> readInvoke();
+            case GOTO -> new Goto();
+            case IF -> {
+                ConditionExp.Op op = ConditionExp.Op.values()[in.readByte()];
+                yield new If(new ConditionExp(op, readVar(), readVar()));
+            }
+            case TABLE_SWITCH -> new TableSwitch(readVar(),
+                    in.readSignedVarInt(), in.readSignedVarInt());
+            case LOOKUP_SWITCH -> {
+                Var var = readVar();
+                int n = in.readVarInt();
+                List<Integer> caseValues = new ArrayList<>(n);
+                for (int i = 0; i < n; ++i) {
+                    caseValues.add(in.readSignedVarInt());
+                }
+                yield new LookupSwitch(var, caseValues);
+            }
+            case RETURN -> new Return(readNullableVar());
+            case THROW -> new Throw(readVar());
+            case CATCH -> new Catch(readVar());
+            case MONITOR -> new Monitor(in.readBoolean()
+                    ? Monitor.Op.ENTER : Monitor.Op.EXIT, readVar());
+            case NOP -> new Nop();
+            default -> throw new IllegalStateException("Unknown statement: " + tag);
+        };
+    }
+
+    private NewExp readNewExp() {
+        int kind = in.readByte();
+        return switch (kind) {
+            case NEW_INSTANCE -> new NewInstance((ClassType) reader.readType(in));
+            case NEW_ARRAY -> new NewArray((ArrayType) reader.readType(in), readVar());
+            case NEW_MULTI_ARRAY -> new NewMultiArray(
+                    (ArrayType) reader.readType(in), readVars());
+            default -> throw new IllegalStateException("Unknown new expression: " + kind);
+        };
+    }
+
+    private Binary readBinary() {
+        Var lvalue = readVar();
+        int kind = in.readByte();
+        int op = in.readByte();
+        Var v1 = readVar();
+        Var v2 = readVar();
+        BinaryExp exp = switch (kind) {
+            case ARITHMETIC -> new ArithmeticExp(ArithmeticExp.Op.values()[op], v1, v2);
+            case BITWISE -> new BitwiseExp(BitwiseExp.Op.values()[op], v1, v2);
+            case COMPARISON -> new ComparisonExp(ComparisonExp.Op.values()[op], v1, v2);
+            case CONDITION -> new ConditionExp(ConditionExp.Op.values()[op], v1, v2);
+            case SHIFT -> new ShiftExp(ShiftExp.Op.values()[op], v1, v2);
+            default -> throw new IllegalStateException("Unknown binary expression: " + kind);
+        };
+        return new Binary(lvalue, exp);
+    }
+
+    private Unary readUnary() {
+        Var lvalue = readVar();
+        int kind = in.readByte();
+        UnaryExp exp = switch (kind) {
+            case NEG -> new NegExp(readVar());
+            case ARRAY_LENGTH -> new ArrayLengthExp(readVar());
+            default -> throw new IllegalStateException("Unknown unary expression: " + kind);
+        };
+        return new Unary(lvalue, exp);
+    }
+
+    private Invoke readInvoke() {
+        Var result = readNullableVar();
+        int kind = in.readByte();
+        InvokeExp exp;
+        if (kind == INVOKE_DYNAMIC) {
+            MethodRef bootstrapRef = reader.getMethodRef(in.readVarInt());
+            String methodName = reader.readString(in);
+            MethodType methodType = MethodType.get(
+                    reader.readTypes(in), reader.readType(in));
+            int n = in.readVarInt();
+            List<Literal> bootstrapArgs = new ArrayList<>(n);
+            for (int i = 0; i < n; ++i) {
+                bootstrapArgs.add(readLiteral());
+            }
+            exp = new InvokeDynamic(bootstrapRef, methodName, methodType,
+                    bootstrapArgs, readVars());
+        } else {
+            MethodRef ref = reader.getMethodRef(in.readVarInt());
+            exp = switch (kind) {
+                case INVOKE_VIRTUAL -> new InvokeVirtual(ref, readVar(), readVars());
+                case INVOKE_INTERFACE -> new InvokeInterface(ref, readVar(), readVars());
+                case INVOKE_SPECIAL -> new InvokeSpecial(ref, readVar(), readVars());
+                case INVOKE_STATIC -> new InvokeStatic(ref, readVars());
+                default -> throw new IllegalStateException("Unknown invoke expression: " + kind);
+            };
+        }
+        return new Invoke(method, exp, result);
+    }
+}
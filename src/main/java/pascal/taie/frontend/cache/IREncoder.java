@@ -0,0 +1,480 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ArrayLengthExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.ComparisonExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.DoubleLiteral;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.FloatLiteral;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.InvokeDynamic;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.InvokeInterface;
+import pascal.taie.ir.exp.InvokeSpecial;
+import pascal.taie.ir.exp.InvokeStatic;
+import pascal.taie.ir.exp.InvokeVirtual;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.LongLiteral;
+import pascal.taie.ir.exp.MethodHandle;
+import pascal.taie.ir.exp.MethodType;
+import pascal.taie.ir.exp.NegExp;
+import pascal.taie.ir.exp.NewArray;
+import pascal.taie.ir.exp.NewExp;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.NewMultiArray;
+import pascal.taie.ir.exp.NullLiteral;
+import pascal.taie.ir.exp.ShiftExp;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.exp.UnaryExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Catch;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.InstanceOf;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.JumpStmt;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.LookupSwitch;
+import pascal.taie.ir.stmt.Monitor;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StmtVisitor;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.ir.stmt.TableSwitch;
+import pascal.taie.ir.stmt.Throw;
+import pascal.taie.ir.stmt.Unary;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+import static pascal.taie.frontend.cache.WorldCacheFormat.*;
+
+/**
+ * Encodes {@link IR}s for the world cache, which are decoded by
+ * {@link IRDecoder}.
+ * <p>
+ * An IR is encoded as its variables, the indexes of this variable,
+ * parameters and return variables, its statements, the jump targets
+ * of its jump statements, and its exception entries. Variables and
+ * statements are referred to by their indexes in the IR.
+ */
+class IREncoder implements StmtVisitor<Void> {
+
+    private final WorldCacheWriter writer;
+
+    private final CacheOutput out = new CacheOutput(1 << 12);
+
+    private IR ir;
+
+    IREncoder(WorldCacheWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * @return the encoded {@code ir}, which is valid until the next call.
+     */
+    CacheOutput encode(IR ir) {
+        this.ir = ir;
+        out.reset();
+        List<Var> vars = ir.getVars();
+        out.writeVarInt(vars.size());
+        for (int i = 0; i < vars.size(); ++i) {
+            Var var = vars.get(i);
+            if (var.getIndex() != i) {
+                throw new IllegalStateException("Unexpected index of " + var
+                        + " in " + ir.getMethod());
+            }
+            writer.writeString(out, var.getName());
+            out.writeVarInt(writer.typeId(var.getType()));
+            writeLiteral(var.isConst() ? var.getConstValue() : null);
+        }
+        writeNullableVar(ir.getThis());
+        writeVars(ir.getParams());
+        writeVars(ir.getReturnVars());
+        List<Stmt> stmts = ir.getStmts();
+        out.writeVarInt(stmts.size());
+        for (Stmt stmt : stmts) {
+            int start = out.size();
+            stmt.accept(this);
+            if (out.size() == start) {
+                throw new IllegalStateException("Unknown statement: " + stmt);
+            }
+            // line numbers are -1 when absent
+            out.writeVarInt(stmt.getLineNumber() + 1);
+        }
+        for (Stmt stmt : stmts) {
+            if (stmt instanceof JumpStmt jump) {
+                jump.getTargets().forEach(t -> out.writeVarInt(t.getIndex()));
+                if (jump instanceof SwitchStmt switchStmt) {
+                    out.writeVarInt(switchStmt.getDefaultTarget().getIndex());
+                }
+            }
+        }
+        List<ExceptionEntry> entries = ir.getExceptionEntries();
+        out.writeVarInt(entries.size());
+        for (ExceptionEntry entry : entries) {
+            out.writeVarInt(entry.start().getIndex());
+            out.writeVarInt(entry.end().getIndex());
+            out.writeVarInt(entry.handler().getIndex());
+            out.writeVarInt(writer.typeId(entry.catchType()));
+        }
+        this.ir = null;
+        return out;
+    }
+
+    private void writeVar(Var var) {
+        out.writeVarInt(indexOf(var));
+    }
+
+    /**
+     * Writes the index of {@code var} plus 1, or 0 if it is null.
+     */
+    private void writeNullableVar(@Nullable Var var) {
+        out.writeVarInt(var == null ? 0 : indexOf(var) + 1);
+    }
+
+    private int indexOf(Var var) {
+        int index = var.getIndex();
+        if (index < 0 || index >= ir.getVars().size() || ir.getVar(index) != var) {
+            throw new IllegalStateException(var + " is not a variable of "
+                    + ir.getMethod());
+        }
+        return index;
+    }
+
+    private void writeVars(List<Var> vars) {
+        out.writeVarInt(vars.size());
+        vars.forEach(this::writeVar);
+    }
+
+    private void writeLiteral(@Nullable Literal literal) {
+        if (literal == null) {
+            out.writeByte(0);
+        } else if (literal instanceof IntLiteral l) {
+            out.writeByte(INT_LITERAL);
+            out.writeSignedVarInt(l.getValue());
+        } else if (literal instanceof LongLiteral l) {
+            out.writeByte(LONG_LITERAL);
+            out.writeSignedVarLong(l.getValue());
+        } else if (literal instanceof FloatLiteral l) {
+            out.writeByte(FLOAT_LITERAL);
+            out.writeFloat(l.getValue());
+        } else if (literal instanceof DoubleLiteral l) {
+            out.writeByte(DOUBLE_LITERAL);
+            out.writeDouble(l.getValue());
+        } else if (literal instanceof StringLiteral l) {
+            out.writeByte(STRING_LITERAL);
+            writer.writeString(out, l.getString());
+        } else if (literal instanceof ClassLiteral l) {
+            out.writeByte(CLASS_LITERAL);
+            out.writeVarInt(writer.typeId(l.getTypeValue()));
+        } else if (literal instanceof NullLiteral) {
+            out.writeByte(NULL_LITERAL);
+        } else if (literal instanceof MethodHandle l) {
+            out.writeByte(METHOD_HANDLE_LITERAL);
+            out.writeByte(l.getKind().getValue());
+            out.writeVarInt(l.isMethodRef()
+                    ? writer.methodRefId(l.getMethodRef())
+                    : writer.fieldRefId(l.getFieldRef()));
+        } else if (literal instanceof MethodType l) {
+            out.writeByte(METHOD_TYPE_LITERAL);
+            writer.writeTypes(out, l.getParamTypes());
+            out.writeVarInt(writer.typeId(l.getReturnType()));
+        } else {
+            throw new IllegalArgumentException("Unknown literal: " + literal);
+        }
+    }
+
+    private void writeFieldAccess(FieldAccess access) {
+        out.writeVarInt(writer.fieldRefId(access.getFieldRef()));
+        if (access instanceof InstanceFieldAccess instanceAccess) {
+            out.writeBoolean(true);
+            writeVar(instanceAccess.getBase());
+        } else {
+            out.writeBoolean(false);
+        }
+    }
+
+    private static int binaryKindOf(BinaryExp exp) {
+        if (exp instanceof ArithmeticExp) {
+            return ARITHMETIC;
+        } else if (exp instanceof BitwiseExp) {
+            return BITWISE;
+        } else if (exp instanceof ComparisonExp) {
+            return COMPARISON;
+        } else if (exp instanceof ConditionExp) {
+            return CONDITION;
+        } else if (exp instanceof ShiftExp) {
+            return SHIFT;
+        } else {
+            throw new IllegalArgumentException("Unknown binary expression: " + exp);
+        }
+    }
+
+    private static int invokeKindOf(InvokeExp exp) {
+        if (exp instanceof InvokeVirtual) {
+            return INVOKE_VIRTUAL;
+        } else if (exp instanceof InvokeInterface) {
+            return INVOKE_INTERFACE;
+        } else if (exp instanceof InvokeSpecial) {
+            return INVOKE_SPECIAL;
+        } else if (exp instanceof InvokeStatic) {
+            return INVOKE_STATIC;
+        } else if (exp instanceof InvokeDynamic) {
+            return INVOKE_DYNAMIC;
+        } else {
+            throw new IllegalArgumentException("Unknown invoke expression: " + exp);
+        }
+    }
+
+    @Override
+    public Void visit(New stmt) {
+        out.writeByte(NEW);
+        writeVar(stmt.getLValue());
+        NewExp exp = stmt.getRValue();
+        if (exp instanceof NewInstance) {
+            out.writeByte(NEW_INSTANCE);
+            out.writeVarInt(writer.typeId(exp.getType()));
+        } else if (exp instanceof NewArray newArray) {
+            out.writeByte(NEW_ARRAY);
+            out.writeVarInt(writer.typeId(exp.getType()));
+            writeVar(newArray.getLength());
+        } else if (exp instanceof NewMultiArray newMultiArray) {
+            out.writeByte(NEW_MULTI_ARRAY);
+            out.writeVarInt(writer.typeId(exp.getType()));
+            writeVars(newMultiArray.getLengths());
+        } else {
+            throw new IllegalArgumentException("Unknown new expression: " + exp);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(AssignLiteral stmt) {
+        out.writeByte(ASSIGN_LITERAL);
+        writeVar(stmt.getLValue());
+        writeLiteral(stmt.getRValue());
+        return null;
+    }
+
+    @Override
+    public Void visit(Copy stmt) {
+        out.writeByte(COPY);
+        writeVar(stmt.getLValue());
+        writeVar(stmt.getRValue());
+        return null;
+    }
+
+    @Override
+    public Void visit(LoadArray stmt) {
+        out.writeByte(LOAD_ARRAY);
+        writeVar(stmt.getLValue());
+        writeVar(stmt.getArrayAccess().getBase());
+        writeVar(stmt.getArrayAccess().getIndex());
+        return null;
+    }
+
+    @Override
+    public Void visit(StoreArray stmt) {
+        out.writeByte(STORE_ARRAY);
+        writeVar(stmt.getArrayAccess().getBase());
+        writeVar(stmt.getArrayAccess().getIndex());
+        writeVar(stmt.getRValue());
+        return null;
+    }
+
+    @Override
+    public Void visit(LoadField stmt) {
+        out.writeByte(LOAD_FIELD);
+        writeVar(stmt.getLValue());
+        writeFieldAccess(stmt.getFieldAccess());
+        return null;
+    }
+
+    @Override
+    public Void visit(StoreField stmt) {
+        out.writeByte(STORE_FIELD);
+        writeFieldAccess(stmt.getFieldAccess());
+        writeVar(stmt.getRValue());
+        return null;
+    }
+
+    @Override
+    public Void visit(Binary stmt) {
+        out.writeByte(BINARY);
+        writeVar(stmt.getLValue());
+        BinaryExp exp = stmt.getRValue();
+        out.writeByte(binaryKindOf(exp));
+        out.writeByte(((Enum<?>) exp.getOperator()).ordinal());
+        writeVar(exp.getOperand1());
+        writeVar(exp.getOperand2());
+        return null;
+    }
+
+    @Override
+    public Void visit(Unary stmt) {
+        out.writeByte(UNARY);
+        writeVar(stmt.getLValue());
+        UnaryExp exp = stmt.getRValue();
+        if (exp instanceof NegExp) {
+            out.writeByte(NEG);
+        } else if (exp instanceof ArrayLengthExp) {
+            out.writeByte(ARRAY_LENGTH);
+        } else {
+            throw new IllegalArgumentException("Unknown unary expression: " + exp);
+        }
+        writeVar(exp.getOperand());
+        return null;
+    }
+
+    @Override
+    public Void visit(InstanceOf stmt) {
+        out.writeByte(INSTANCE_OF);
+        writeVar(stmt.getLValue());
+        writeVar(stmt.getRValue().getValue());
+        out.writeVarInt(writer.typeId(stmt.getRValue().getCheckedType()));
+        return null;
+    }
+
+    @Override
+    public Void visit(Cast stmt) {
+        out.writeByte(CAST);
+        writeVar(stmt.getLValue());
+        writeVar(stmt.getRValue().getValue());
+        out.writeVarInt(writer.typeId(stmt.getRValue().getCastType()));
+        return null;
+    }
+
+    @Override
+    public Void visit(Goto stmt) {
+        out.writeByte(GOTO);
+        return null;
+    }
+
+    @Override
+    public Void visit(If stmt) {
+        out.writeByte(IF);
+        ConditionExp cond = stmt.getCondition();
+        out.writeByte(cond.getOperator().ordinal());
+        writeVar(cond.getOperand1());
+        writeVar(cond.getOperand2());
+        return null;
+    }
+
+    @Override
+    public Void visit(TableSwitch stmt) {
+        out.writeByte(TABLE_SWITCH);
+        writeVar(stmt.getVar());
+        out.writeSignedVarInt(stmt.getLowIndex());
+        out.writeSignedVarInt(stmt.getHighIndex());
+        return null;
+    }
+
+    @Override
+    public Void visit(LookupSwitch stmt) {
+        out.writeByte(LOOKUP_SWITCH);
+        writeVar(stmt.getVar());
+        List<Integer> caseValues = stmt.getCaseValues();
+        out.writeVarInt(caseValues.size());
+        caseValues.forEach(out::writeSignedVarInt);
+        return null;
+    }
+
+    @Override
+    public Void visit(Invoke stmt) {
+        out.writeByte(INVOKE);
+        writeNullableVar(stmt.getResult());
+        InvokeExp exp = stmt.getInvokeExp();
+        int kind = invokeKindOf(exp);
+        out.writeByte(kind);
+        if (exp instanceof InvokeDynamic indy) {
+            out.writeVarInt(writer.methodRefId(indy.getBootstrapMethodRef()));
+            writer.writeString(out, indy.getMethodName());
+            writer.writeTypes(out, indy.getMethodType().getParamTypes());
+            out.writeVarInt(writer.typeId(indy.getMethodType().getReturnType()));
+            out.writeVarInt(indy.getBootstrapArgs().size());
+            indy.getBootstrapArgs().forEach(this::writeLiteral);
+        } else {
+            out.writeVarInt(writer.methodRefId(exp.getMethodRef()));
+            if (exp instanceof InvokeInstanceExp instanceExp) {
+                writeVar(instanceExp.getBase());
+            }
+        }
+        writeVars(exp.getArgs());
+        return null;
+    }
+
+    @Override
+    public Void visit(Return stmt) {
+        out.writeByte(RETURN);
+        writeNullableVar(stmt.getValue());
+        return null;
+    }
+
+    @Override
+    public Void visit(Throw stmt) {
+        out.writeByte(THROW);
+        writeVar(stmt.getExceptionRef());
+        return null;
+    }
+
+    @Override
+    public Void visit(Catch stmt) {
+        out.writeByte(CATCH);
+        writeVar(stmt.getExceptionRef());
+        return null;
+    }
+
+    @Override
+    public Void visit(Monitor stmt) {
+        out.writeByte(MONITOR);
+        out.writeBoolean(stmt.isEnter());
+        writeVar(stmt.getObjectRef());
+        return null;
+    }
+
+    @Override
+    public Void visit(Nop stmt) {
+        out.writeByte(NOP);
+        return null;
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+/**
+ * Layout of the world cache files.
+ * <p>
+ * The world cache consists of one segment file per class path entry,
+ * which holds the classes loaded from the entry and is keyed by
+ * the content of the entry (see {@link ClassPathSegments}), and the world
+ * file, which holds the world section, i.e., the names of the segment
+ * files and the entries of the world. Unchanged segment files are shared
+ * by the world files of different versions of the program.
+ * <p>
+ * Each file starts with a fixed-size header, which holds the offsets
+ * of the other sections:
+ * <ul>
+ *     <li>one record per IR, which is decoded when the IR is first
+ *     requested;</li>
+ *     <li>one section per class, which holds the class, its members
+ *     and the offsets of the IRs of its methods;</li>
+ *     <li>the world section, which is only in the world file;</li>
+ *     <li>the tables of strings, types, field references and method
+ *     references, which are referred to by their indexes elsewhere;</li>
+ *     <li>the class index, which maps class names to their sections.</li>
+ * </ul>
+ * Each table starts with the number of its entries, followed by the
+ * offsets of the entries, so that any entry is decoded independently.
+ * No section crosses a {@link #CHUNK_SIZE} boundary, so that
+ * the file is memory-mapped chunk by chunk.
+ */
+final class WorldCacheFormat {
+
+    private WorldCacheFormat() {
+    }
+
+    static final int MAGIC = 0x54414945; // "TAIE"
+
+    /**
+     * Increase this when the format changes.
+     */
+    static final int VERSION = 3;
+
+    static final int CHUNK_BITS = 30;
+
+    static final long CHUNK_SIZE = 1L << CHUNK_BITS;
+
+    /**
+     * magic, version, and offsets of world section, string table,
+     * type table, field reference table, method reference table
+     * and class index.
+     */
+    static final int HEADER_SIZE = 4 + 4 + 8 * 6;
+
+    /**
+     * IR offset of the methods without IR, as the header is at offset 0.
+     */
+    static final long NO_IR = 0;
+
+    /**
+     * Offset of the world section in the segment files.
+     */
+    static final long NO_WORLD = 0;
+
+    /**
+     * No string. Strings are referred to by their indexes plus 1,
+     * so that 0 means null.
+     */
+    static final int NULL_STRING = 0;
+
+    // class flags
+    static final int APPLICATION = 1;
+
+    static final int PHANTOM = 2;
+
+    static final int SERIALIZABLE = 4;
+
+    // type kinds
+    static final int PRIMITIVE_TYPE = 0;
+
+    static final int CLASS_TYPE = 1;
+
+    static final int ARRAY_TYPE = 2;
+
+    static final int VOID_TYPE = 3;
+
+    static final int NULL_TYPE = 4;
+
+    static final int BOTTOM_TYPE = 5;
+
+    // annotation elements
+    static final int STRING_ELEMENT = 0;
+
+    static final int CLASS_ELEMENT = 1;
+
+    static final int ANNOTATION_ELEMENT = 2;
+
+    static final int ARRAY_ELEMENT = 3;
+
+    static final int ENUM_ELEMENT = 4;
+
+    static final int INT_ELEMENT = 5;
+
+    static final int BOOLEAN_ELEMENT = 6;
+
+    static final int FLOAT_ELEMENT = 7;
+
+    static final int DOUBLE_ELEMENT = 8;
+
+    static final int LONG_ELEMENT = 9;
+
+    // literals, where 0 means no literal
+    static final int INT_LITERAL = 1;
+
+    static final int LONG_LITERAL = 2;
+
+    static final int FLOAT_LITERAL = 3;
+
+    static final int DOUBLE_LITERAL = 4;
+
+    static final int STRING_LITERAL = 5;
+
+    static final int CLASS_LITERAL = 6;
+
+    static final int NULL_LITERAL = 7;
+
+    static final int METHOD_HANDLE_LITERAL = 8;
+
+    static final int METHOD_TYPE_LITERAL = 9;
+
+    // statements
+    static final int ASSIGN_LITERAL = 0;
+
+    static final int COPY = 1;
+
+    static final int LOAD_ARRAY = 2;
+
+    static final int STORE_ARRAY = 3;
+
+    static final int LOAD_FIELD = 4;
+
+    static final int STORE_FIELD = 5;
+
+    static final int NEW = 6;
+
+    static final int BINARY = 7;
+
+    static final int UNARY = 8;
+
+    static final int INSTANCE_OF = 9;
+
+    static final int CAST = 10;
+
+    static final int INVOKE = 11;
+
+    static final int GOTO = 12;
+
+    static final int IF = 13;
+
+    static final int TABLE_SWITCH = 14;
+
+    static final int LOOKUP_SWITCH = 15;
+
+    static final int RETURN = 16;
+
+    static final int THROW = 17;
+
+    static final int CATCH = 18;
+
+    static final int MONITOR = 19;
+
+    static final int NOP = 20;
+
+    // new expressions
+    static final int NEW_INSTANCE = 0;
+
+    static final int NEW_ARRAY = 1;
+
+    static final int NEW_MULTI_ARRAY = 2;
+
+    // binary expressions
+    static final int ARITHMETIC = 0;
+
+    static final int BITWISE = 1;
+
+    static final int COMPARISON = 2;
+
+    static final int CONDITION = 3;
+
+    static final int SHIFT = 4;
+
+    // unary expressions
+    static final int NEG = 0;
+
+    static final int ARRAY_LENGTH = 1;
+
+    // invoke expressions
+    static final int INVOKE_VIRTUAL = 0;
+
+    static final int INVOKE_INTERFACE = 1;
+
+    static final int INVOKE_SPECIAL = 2;
+
+    static final int INVOKE_STATIC = 3;
+
+    static final int INVOKE_DYNAMIC = 4;
+}
@@ -0,0 +1,410 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import pascal.taie.World;
+import pascal.taie.config.Options;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.language.annotation.Annotation;
+import pascal.taie.language.annotation.AnnotationElement;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.annotation.ArrayElement;
+import pascal.taie.language.annotation.BooleanElement;
+import pascal.taie.language.annotation.ClassElement;
+import pascal.taie.language.annotation.DoubleElement;
+import pascal.taie.language.annotation.Element;
+import pascal.taie.language.annotation.EnumElement;
+import pascal.taie.language.annotation.FloatElement;
+import pascal.taie.language.annotation.IntElement;
+import pascal.taie.language.annotation.LongElement;
+import pascal.taie.language.annotation.StringElement;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassHierarchyImpl;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Modifier;
+import pascal.taie.language.natives.DefaultNativeModel;
+import pascal.taie.language.natives.EmptyNativeModel;
+import pascal.taie.language.type.BottomType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.language.type.TypeSystemImpl;
+import pascal.taie.language.type.VoidType;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import static pascal.taie.frontend.cache.WorldCacheFormat.*;
+
+/**
+ * Reads a cache file written by {@link WorldCacheWriter}, and loads
+ * a world from a world file and its segment files.
+ * <p>
+ * The file is memory-mapped, and the entries of its tables are decoded
+ * on demand, thus the strings, types and member references that are
+ * shared by classes and IRs are decoded only once. The classes are
+ * loaded with the world, while the IRs are decoded when requested,
+ * so the IRs of the methods that are never analyzed are not decoded.
+ * The readers of all files of a world share the type system and
+ * the class loader of the world.
+ */
+class WorldCacheReader {
+
+    private static final ConcurrentMap<Integer, Set<Modifier>> modMap
+            = Maps.newConcurrentMap();
+
+    private static final Modifier[] MODIFIERS = Modifier.values();
+
+    private final File file;
+
+    private final ByteBuffer[] chunks;
+
+    private final long worldOffset;
+
+    private final long stringTable;
+
+    private final long typeTable;
+
+    private final long fieldRefTable;
+
+    private final long methodRefTable;
+
+    private final String[] strings;
+
+    private final Type[] types;
+
+    private final FieldRef[] fieldRefs;
+
+    private final MethodRef[] methodRefs;
+
+    /**
+     * Map from class names to the offsets of their sections.
+     */
+    private final Map<String, Long> classOffsets;
+
+    private TypeSystem typeSystem;
+
+    private CachedClassLoader loader;
+
+    WorldCacheReader(File file) throws IOException {
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            chunks = new ByteBuffer[(int) ((size + CHUNK_SIZE - 1) >>> CHUNK_BITS)];
+            for (int i = 0; i < chunks.length; ++i) {
+                long start = (long) i << CHUNK_BITS;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        start, Math.min(CHUNK_SIZE, size - start));
+            }
+        }
+        if (chunks.length == 0 || chunks[0].limit() < HEADER_SIZE) {
+            throw new IOException("Truncated world cache " + file);
+        }
+        CacheInput header = input(0);
+        if (header.readInt() != MAGIC || header.readInt() != VERSION) {
+            throw new IOException("Incompatible world cache " + file);
+        }
+        worldOffset = header.readLong();
+        stringTable = header.readLong();
+        typeTable = header.readLong();
+        fieldRefTable = header.readLong();
+        methodRefTable = header.readLong();
+        long classIndex = header.readLong();
+        strings = new String[input(stringTable).readInt()];
+        types = new Type[input(typeTable).readInt()];
+        fieldRefs = new FieldRef[input(fieldRefTable).readInt()];
+        methodRefs = new MethodRef[input(methodRefTable).readInt()];
+        CacheInput in = input(classIndex);
+        int classCount = in.readVarInt();
+        classOffsets = Maps.newLinkedHashMap();
+        for (int i = 0; i < classCount; ++i) {
+            String name = readString(in);
+            classOffsets.put(name, in.readLong());
+        }
+    }
+
+    /**
+     * Loads the world from {@code worldFile} and the segment files it
+     * refers to, which are in the same directory, and sets the world
+     * as current world.
+     */
+    static World load(File worldFile, Options options) throws IOException {
+        WorldCacheReader worldReader = new WorldCacheReader(worldFile);
+        if (worldReader.worldOffset == NO_WORLD) {
+            throw new IOException("Missing world section in " + worldFile);
+        }
+        CacheInput in = worldReader.input(worldReader.worldOffset);
+        int n = in.readVarInt();
+        List<WorldCacheReader> segments = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            segments.add(new WorldCacheReader(
+                    new File(worldFile.getParentFile(), worldReader.readString(in))));
+        }
+        World.reset();
+        World world = new World();
+        World.set(world);
+        // options will be used during World building, thus it should be
+        // set at first.
+        world.setOptions(options);
+        ClassHierarchy hierarchy = new ClassHierarchyImpl();
+        CachedClassLoader loader = new CachedClassLoader(segments, hierarchy);
+        hierarchy.setDefaultClassLoader(loader);
+        hierarchy.setBootstrapClassLoader(loader);
+        world.setClassHierarchy(hierarchy);
+        TypeSystem typeSystem = new TypeSystemImpl(hierarchy);
+        world.setTypeSystem(typeSystem);
+        worldReader.init(typeSystem, loader);
+        segments.forEach(segment -> segment.init(typeSystem, loader));
+        segments.forEach(segment ->
+                segment.classOffsets.keySet().forEach(loader::loadClass));
+        String mainMethod = worldReader.readString(in);
+        if (mainMethod != null) {
+            world.setMainMethod(hierarchy.getMethod(mainMethod));
+        }
+        world.setImplicitEntries(worldReader.readMethods(in, hierarchy));
+        worldReader.readMethods(in, hierarchy).forEach(world::addGCEntry);
+        worldReader.readMethods(in, hierarchy).forEach(world::addInvocationHandlerMethod);
+        world.setNativeModel(options.enableNativeModel() ?
+                new DefaultNativeModel(typeSystem, hierarchy, options.getJavaVersion()) :
+                new EmptyNativeModel());
+        world.setIRBuilder(new CachedIRBuilder());
+        return world;
+    }
+
+    private void init(TypeSystem typeSystem, CachedClassLoader loader) {
+        this.typeSystem = typeSystem;
+        this.loader = loader;
+    }
+
+    /**
+     * Source of the method whose IR is in a cache file, from which
+     * the IR is decoded when it is first requested.
+     *
+     * @param reader reader of the cache file.
+     * @param offset offset of the IR record.
+     */
+    record IRSource(WorldCacheReader reader, long offset) {
+
+        /**
+         * Decodes the IR of {@code method}. This method may be called by
+         * multiple threads after the world is loaded, where the races on
+         * the caches of the tables are benign, as the decoded entries
+         * are either immutable or interned.
+         */
+        IR decode(JMethod method) {
+            return new IRDecoder(reader, method, reader.input(offset)).decode();
+        }
+    }
+
+    private List<JMethod> readMethods(CacheInput in, ClassHierarchy hierarchy) {
+        int n = in.readVarInt();
+        List<JMethod> methods = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            JMethod method = hierarchy.getMethod(readString(in));
+            if (method != null) {
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+
+    CacheInput input(long offset) {
+        long base = offset & -CHUNK_SIZE;
+        return new CacheInput(chunks[(int) (offset >>> CHUNK_BITS)],
+                base, (int) (offset - base));
+    }
+
+    /**
+     * @return the input at the offset of the {@code i}-th entry of
+     * the table at {@code table}.
+     */
+    private CacheInput tableEntry(long table, int i) {
+        return input(table + input(table + 4 + 4L * i).readInt());
+    }
+
+    /**
+     * @return the offset of the section of the class, or -1 if the class
+     * is not in the cache.
+     */
+    long getClassOffset(String name) {
+        Long offset = classOffsets.get(name);
+        return offset == null ? -1 : offset;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    @Nullable
+    String readString(CacheInput in) {
+        int id = in.readVarInt();
+        if (id == NULL_STRING) {
+            return null;
+        }
+        String s = strings[id - 1];
+        if (s == null) {
+            CacheInput entry = tableEntry(stringTable, id - 1);
+            s = new String(entry.readBytes(entry.readVarInt()), StandardCharsets.UTF_8);
+            strings[id - 1] = s;
+        }
+        return s;
+    }
+
+    ClassType getClassType(String name) {
+        return typeSystem.getClassType(loader, name);
+    }
+
+    Type readType(CacheInput in) {
+        return getType(in.readVarInt());
+    }
+
+    List<Type> readTypes(CacheInput in) {
+        int n = in.readVarInt();
+        List<Type> result = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            result.add(readType(in));
+        }
+        return result;
+    }
+
+    private Type getType(int id) {
+        Type type = types[id];
+        if (type == null) {
+            CacheInput in = tableEntry(typeTable, id);
+            int kind = in.readByte();
+            type = switch (kind) {
+                case PRIMITIVE_TYPE -> typeSystem.getPrimitiveType(readString(in));
+                case CLASS_TYPE -> typeSystem.getClassType(loader, readString(in));
+                case ARRAY_TYPE -> typeSystem.getArrayType(readType(in), in.readVarInt());
+                case VOID_TYPE -> VoidType.VOID;
+                case NULL_TYPE -> NullType.NULL;
+                case BOTTOM_TYPE -> BottomType.BOTTOM;
+                default -> throw new IllegalStateException("Unknown type: " + kind);
+            };
+            types[id] = type;
+        }
+        return type;
+    }
+
+    FieldRef getFieldRef(int id) {
+        FieldRef ref = fieldRefs[id];
+        if (ref == null) {
+            CacheInput in = tableEntry(fieldRefTable, id);
+            JClass declaringClass = loader.loadClass(readString(in));
+            String name = readString(in);
+            ref = FieldRef.get(declaringClass, name, readType(in), in.readBoolean());
+            fieldRefs[id] = ref;
+        }
+        return ref;
+    }
+
+    MethodRef getMethodRef(int id) {
+        MethodRef ref = methodRefs[id];
+        if (ref == null) {
+            CacheInput in = tableEntry(methodRefTable, id);
+            JClass declaringClass = loader.loadClass(readString(in));
+            String name = readString(in);
+            List<Type> paramTypes = readTypes(in);
+            ref = MethodRef.get(declaringClass, name, paramTypes,
+                    readType(in), in.readBoolean());
+            methodRefs[id] = ref;
+        }
+        return ref;
+    }
+
+    Set<Modifier> readModifiers(CacheInput in) {
+        return modMap.computeIfAbsent(in.readVarInt(), bits -> {
+            Set<Modifier> result = EnumSet.noneOf(Modifier.class);
+            for (Modifier modifier : MODIFIERS) {
+                if ((bits & (1 << modifier.ordinal())) != 0) {
+                    result.add(modifier);
+                }
+            }
+            return Collections.unmodifiableSet(result);
+        });
+    }
+
+    AnnotationHolder readAnnotations(CacheInput in) {
+        int n = in.readVarInt();
+        if (n == 0) {
+            return AnnotationHolder.emptyHolder();
+        }
+        List<Annotation> annotations = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            annotations.add(readAnnotation(in));
+        }
+        return AnnotationHolder.make(annotations);
+    }
+
+    private Annotation readAnnotation(CacheInput in) {
+        String type = readString(in);
+        int n = in.readVarInt();
+        Map<String, Element> elements = Maps.newHybridMap();
+        for (int i = 0; i < n; ++i) {
+            String name = readString(in);
+            elements.put(name, readElement(in));
+        }
+        return new Annotation(type, elements);
+    }
+
+    private Element readElement(CacheInput in) {
+        int tag = in.readByte();
+        return switch (tag) {
+            case STRING_ELEMENT -> new StringElement(readString(in));
+            case CLASS_ELEMENT -> new ClassElement(readString(in));
+            case ANNOTATION_ELEMENT -> new AnnotationElement(readAnnotation(in));
+            case ARRAY_ELEMENT -> {
+                int n = in.readVarInt();
+                List<Element> elements = new ArrayList<>(n);
+                for (int i = 0; i < n; ++i) {
+                    elements.add(readElement(in));
+                }
+                yield new ArrayElement(elements);
+            }
+            case ENUM_ELEMENT -> new EnumElement(readString(in), readString(in));
+            case INT_ELEMENT -> new IntElement(in.readSignedVarInt());
+            case BOOLEAN_ELEMENT -> new BooleanElement(in.readBoolean());
+            case FLOAT_ELEMENT -> new FloatElement(in.readFloat());
+            case DOUBLE_ELEMENT -> new DoubleElement(in.readDouble());
+            case LONG_ELEMENT -> new LongElement(in.readSignedVarLong());
+            default -> throw new IllegalStateException("Unknown annotation element: " + tag);
+        };
+    }
+}
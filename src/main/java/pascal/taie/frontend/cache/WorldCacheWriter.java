@@ -0,0 +1,506 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import pascal.taie.World;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.language.annotation.Annotation;
+import pascal.taie.language.annotation.AnnotationElement;
+import pascal.taie.language.annotation.ArrayElement;
+import pascal.taie.language.annotation.BooleanElement;
+import pascal.taie.language.annotation.ClassElement;
+import pascal.taie.language.annotation.DoubleElement;
+import pascal.taie.language.annotation.Element;
+import pascal.taie.language.annotation.EnumElement;
+import pascal.taie.language.annotation.FloatElement;
+import pascal.taie.language.annotation.IntElement;
+import pascal.taie.language.annotation.LongElement;
+import pascal.taie.language.annotation.StringElement;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Modifier;
+import pascal.taie.language.generics.GSignatures;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.BottomType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.VoidType;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static pascal.taie.frontend.cache.WorldCacheFormat.*;
+
+/**
+ * Writes classes of a world, or the world section, to a cache file,
+ * whose layout is described in {@link WorldCacheFormat}.
+ * <p>
+ * Strings, types and member references are interned while the
+ * sections are written, and the tables of them are written last.
+ */
+class WorldCacheWriter {
+
+    private final World world;
+
+    private final Map<String, Integer> stringIds = Maps.newMap(1 << 16);
+
+    private final List<String> strings = new ArrayList<>(1 << 16);
+
+    private final Map<Type, Integer> typeIds = Maps.newMap(1 << 14);
+
+    private final List<Type> types = new ArrayList<>(1 << 14);
+
+    private final Map<FieldRef, Integer> fieldRefIds = Maps.newMap(1 << 14);
+
+    private final List<FieldRef> fieldRefs = new ArrayList<>(1 << 14);
+
+    private final Map<MethodRef, Integer> methodRefIds = Maps.newMap(1 << 14);
+
+    private final List<MethodRef> methodRefs = new ArrayList<>(1 << 14);
+
+    private FileChannel channel;
+
+    /**
+     * Position to write the next section at.
+     */
+    private long position;
+
+    /**
+     * Sections appended but not written yet, which are written at once
+     * to avoid writing the small IR records one by one.
+     */
+    private final CacheOutput pending = new CacheOutput(PENDING_SIZE);
+
+    /**
+     * Position of {@link #pending} in the file.
+     */
+    private long pendingPosition;
+
+    private static final int PENDING_SIZE = 1 << 20;
+
+    private final List<JClass> classes;
+
+    /**
+     * Names of the segment files of the world, or null if this writes
+     * a segment file, which has no world section.
+     */
+    @Nullable
+    private final List<String> segments;
+
+    /**
+     * @param classes  classes to write, whose IRs are built on demand
+     *                 if they are not built yet.
+     * @param segments names of the segment files to write with the
+     *                 world section, or null to write a segment file.
+     */
+    WorldCacheWriter(World world, List<JClass> classes,
+                     @Nullable List<String> segments) {
+        this.world = world;
+        this.classes = classes;
+        this.segments = segments;
+    }
+
+    /**
+     * Writes the classes and the world section to {@code file}.
+     * The file is replaced only when the writing succeeds.
+     */
+    void write(File file) throws IOException {
+        Path tmp = Path.of(file.getPath() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel = ch;
+            position = HEADER_SIZE;
+            pending.reset();
+            CacheOutput out = new CacheOutput(1 << 16);
+            IREncoder irEncoder = new IREncoder(this);
+            long[] classOffsets = new long[classes.size()];
+            for (int i = 0; i < classes.size(); ++i) {
+                out.reset();
+                writeClass(out, classes.get(i), irEncoder);
+                classOffsets[i] = append(out);
+            }
+            long worldOffset = NO_WORLD;
+            if (segments != null) {
+                out.reset();
+                writeWorld(out);
+                worldOffset = append(out);
+            }
+            // the tables are written in the order that the entries
+            // of a table only intern the entries of later tables
+            long methodRefTable = append(encodeTable(methodRefs, this::writeMethodRef));
+            long fieldRefTable = append(encodeTable(fieldRefs, this::writeFieldRef));
+            long typeTable = append(encodeTable(types, this::writeType));
+            out.reset();
+            out.writeVarInt(classes.size());
+            for (int i = 0; i < classes.size(); ++i) {
+                writeString(out, classes.get(i).getName());
+                out.writeLong(classOffsets[i]);
+            }
+            long classIndex = append(out);
+            long stringTable = append(encodeTable(strings, (o, s) -> {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                o.writeVarInt(bytes.length);
+                o.writeBytes(bytes);
+            }));
+            flush();
+            CacheOutput header = new CacheOutput(HEADER_SIZE);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeLong(worldOffset);
+            header.writeLong(stringTable);
+            header.writeLong(typeTable);
+            header.writeLong(fieldRefTable);
+            header.writeLong(methodRefTable);
+            header.writeLong(classIndex);
+            write(header.toByteBuffer(), 0);
+        } finally {
+            channel = null;
+        }
+        Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Appends a section, which is moved to the next chunk if it
+     * would cross the chunk boundary.
+     *
+     * @return the offset of the section.
+     */
+    private long append(CacheOutput section) throws IOException {
+        long size = section.size();
+        if (size > CHUNK_SIZE) {
+            throw new IOException("Section of world cache is too large: " + size);
+        }
+        long chunkEnd = (position | (CHUNK_SIZE - 1)) + 1;
+        if (position + size > chunkEnd) {
+            flush();
+            position = chunkEnd;
+        }
+        if (pending.size() + size > PENDING_SIZE) {
+            flush();
+        }
+        long offset = position;
+        if (size > PENDING_SIZE) {
+            write(section.toByteBuffer(), offset);
+        } else {
+            if (pending.size() == 0) {
+                pendingPosition = offset;
+            }
+            pending.write(section);
+        }
+        position += size;
+        return offset;
+    }
+
+    private void flush() throws IOException {
+        if (pending.size() > 0) {
+            write(pending.toByteBuffer(), pendingPosition);
+            pending.reset();
+        }
+    }
+
+    private void write(ByteBuffer buf, long offset) throws IOException {
+        while (buf.hasRemaining()) {
+            offset += channel.write(buf, offset);
+        }
+    }
+
+    /**
+     * Encodes a table of {@code entries} as the number of entries,
+     * the offsets of entries relative to the table, and the entries.
+     */
+    private static <T> CacheOutput encodeTable(
+            List<T> entries, BiConsumer<CacheOutput, T> writer) {
+        CacheOutput out = new CacheOutput(1 << 16);
+        out.writeInt(entries.size());
+        for (int i = 0; i < entries.size(); ++i) {
+            out.writeInt(0);
+        }
+        // entries may grow during the iteration, e.g., the base types
+        // of array types, thus get the size in each iteration
+        for (int i = 0; i < entries.size(); ++i) {
+            out.setInt(4 + 4 * i, out.size());
+            writer.accept(out, entries.get(i));
+        }
+        return out;
+    }
+
+    private void writeClass(CacheOutput out, JClass jclass, IREncoder irEncoder)
+            throws IOException {
+        writeString(out, jclass.getModuleName());
+        writeString(out, jclass.getSimpleName());
+        writeModifiers(out, jclass.getModifiers());
+        out.writeByte((jclass.isApplication() ? APPLICATION : 0)
+                | (jclass.isPhantom() ? PHANTOM : 0)
+                | (jclass.isSerializable() ? SERIALIZABLE : 0));
+        writeClassName(out, jclass.getSuperClass());
+        out.writeVarInt(jclass.getInterfaces().size());
+        jclass.getInterfaces().forEach(iface -> writeClassName(out, iface));
+        writeClassName(out, jclass.getOuterClass());
+        writeString(out, jclass.getGSignature() == null ? null
+                : GSignatures.toSignature(jclass.getGSignature()));
+        writeAnnotations(out, jclass.getAnnotations());
+        out.writeVarInt(jclass.getDeclaredFields().size());
+        for (JField field : jclass.getDeclaredFields()) {
+            writeString(out, field.getName());
+            writeModifiers(out, field.getModifiers());
+            out.writeVarInt(typeId(field.getType()));
+            writeString(out, field.getGSignature() == null ? null
+                    : GSignatures.toSignature(field.getGSignature()));
+            writeAnnotations(out, field.getAnnotations());
+        }
+        // the IRs are appended as separate records before the class,
+        // so that loading the class does not touch them
+        Collection<JMethod> methods = jclass.getDeclaredMethods();
+        out.writeVarInt(methods.size());
+        for (JMethod method : methods) {
+            // native methods get their IRs from the native model
+            long irOffset = method.isAbstract() || method.isNative() ? NO_IR
+                    : append(irEncoder.encode(method.getIR()));
+            writeMethod(out, method, irOffset);
+        }
+    }
+
+    private void writeMethod(CacheOutput out, JMethod method, long irOffset) {
+        writeString(out, method.getName());
+        writeModifiers(out, method.getModifiers());
+        writeTypes(out, method.getParamTypes());
+        out.writeVarInt(typeId(method.getReturnType()));
+        writeTypes(out, method.getExceptions());
+        writeString(out, method.getGSignature() == null ? null
+                : GSignatures.toSignature(method.getGSignature()));
+        writeAnnotations(out, method.getAnnotations());
+        int paramCount = method.getParamCount();
+        boolean hasParamAnnotations = false;
+        for (int i = 0; i < paramCount; ++i) {
+            hasParamAnnotations |= !method.getParamAnnotations(i).isEmpty();
+        }
+        // the lists of parameter annotations and names are written
+        // as their sizes plus 1, or 0 if they are absent
+        if (hasParamAnnotations) {
+            out.writeVarInt(paramCount + 1);
+            for (int i = 0; i < paramCount; ++i) {
+                writeAnnotations(out, method.getParamAnnotations(i));
+            }
+        } else {
+            out.writeVarInt(0);
+        }
+        if (paramCount > 0 && method.getParamName(0) != null) {
+            out.writeVarInt(paramCount + 1);
+            for (int i = 0; i < paramCount; ++i) {
+                writeString(out, method.getParamName(i));
+            }
+        } else {
+            out.writeVarInt(0);
+        }
+        out.writeLong(irOffset);
+    }
+
+    private void writeWorld(CacheOutput out) {
+        out.writeVarInt(segments.size());
+        segments.forEach(segment -> writeString(out, segment));
+        JMethod main = world.getMainMethod();
+        writeString(out, main == null ? null : main.getSignature());
+        writeMethods(out, world.getImplicitEntries());
+        writeMethods(out, world.getGCEntries());
+        writeMethods(out, world.getInvocationHandlerMethod());
+    }
+
+    private void writeMethods(CacheOutput out, Collection<JMethod> methods) {
+        out.writeVarInt(methods.size());
+        methods.forEach(m -> writeString(out, m.getSignature()));
+    }
+
+    private void writeAnnotations(CacheOutput out, Collection<Annotation> annotations) {
+        out.writeVarInt(annotations.size());
+        annotations.forEach(a -> writeAnnotation(out, a));
+    }
+
+    private void writeAnnotation(CacheOutput out, Annotation annotation) {
+        writeString(out, annotation.getType());
+        Set<Annotation.Entry> entries = annotation.getElementEntries();
+        out.writeVarInt(entries.size());
+        for (Annotation.Entry entry : entries) {
+            writeString(out, entry.name());
+            writeElement(out, entry.element());
+        }
+    }
+
+    private void writeElement(CacheOutput out, Element element) {
+        if (element instanceof StringElement e) {
+            out.writeByte(STRING_ELEMENT);
+            writeString(out, e.value());
+        } else if (element instanceof ClassElement e) {
+            out.writeByte(CLASS_ELEMENT);
+            writeString(out, e.classDescriptor());
+        } else if (element instanceof AnnotationElement e) {
+            out.writeByte(ANNOTATION_ELEMENT);
+            writeAnnotation(out, e.annotation());
+        } else if (element instanceof ArrayElement e) {
+            out.writeByte(ARRAY_ELEMENT);
+            out.writeVarInt(e.elements().size());
+            e.elements().forEach(elem -> writeElement(out, elem));
+        } else if (element instanceof EnumElement e) {
+            out.writeByte(ENUM_ELEMENT);
+            writeString(out, e.type());
+            writeString(out, e.name());
+        } else if (element instanceof IntElement e) {
+            out.writeByte(INT_ELEMENT);
+            out.writeSignedVarInt(e.value());
+        } else if (element instanceof BooleanElement e) {
+            out.writeByte(BOOLEAN_ELEMENT);
+            out.writeBoolean(e.value());
+        } else if (element instanceof FloatElement e) {
+            out.writeByte(FLOAT_ELEMENT);
+            out.writeFloat(e.value());
+        } else if (element instanceof DoubleElement e) {
+            out.writeByte(DOUBLE_ELEMENT);
+            out.writeDouble(e.value());
+        } else if (element instanceof LongElement e) {
+            out.writeByte(LONG_ELEMENT);
+            out.writeSignedVarLong(e.value());
+        } else {
+            throw new IllegalArgumentException("Unknown annotation element: " + element);
+        }
+    }
+
+    private void writeType(CacheOutput out, Type type) {
+        if (type instanceof PrimitiveType) {
+            out.writeByte(PRIMITIVE_TYPE);
+            writeString(out, type.getName());
+        } else if (type instanceof ClassType) {
+            out.writeByte(CLASS_TYPE);
+            writeString(out, type.getName());
+        } else if (type instanceof ArrayType arrayType) {
+            out.writeByte(ARRAY_TYPE);
+            out.writeVarInt(typeId(arrayType.baseType()));
+            out.writeVarInt(arrayType.dimensions());
+        } else if (type instanceof VoidType) {
+            out.writeByte(VOID_TYPE);
+        } else if (type instanceof NullType) {
+            out.writeByte(NULL_TYPE);
+        } else if (type instanceof BottomType) {
+            out.writeByte(BOTTOM_TYPE);
+        } else {
+            throw new IllegalArgumentException("Unknown type: " + type);
+        }
+    }
+
+    private void writeFieldRef(CacheOutput out, FieldRef ref) {
+        writeClassName(out, ref.getDeclaringClass());
+        writeString(out, ref.getName());
+        out.writeVarInt(typeId(ref.getType()));
+        out.writeBoolean(ref.isStatic());
+    }
+
+    private void writeMethodRef(CacheOutput out, MethodRef ref) {
+        writeClassName(out, ref.getDeclaringClass());
+        writeString(out, ref.getName());
+        writeTypes(out, ref.getParameterTypes());
+        out.writeVarInt(typeId(ref.getReturnType()));
+        out.writeBoolean(ref.isStatic());
+    }
+
+    void writeTypes(CacheOutput out, List<? extends Type> types) {
+        out.writeVarInt(types.size());
+        types.forEach(t -> out.writeVarInt(typeId(t)));
+    }
+
+    private void writeClassName(CacheOutput out, @Nullable JClass jclass) {
+        writeString(out, jclass == null ? null : jclass.getName());
+    }
+
+    private static void writeModifiers(CacheOutput out, Set<Modifier> modifiers) {
+        int bits = 0;
+        for (Modifier modifier : modifiers) {
+            bits |= 1 << modifier.ordinal();
+        }
+        out.writeVarInt(bits);
+    }
+
+    void writeString(CacheOutput out, @Nullable String s) {
+        out.writeVarInt(s == null ? NULL_STRING : stringId(s) + 1);
+    }
+
+    private int stringId(String s) {
+        Integer id = stringIds.get(s);
+        if (id == null) {
+            id = strings.size();
+            stringIds.put(s, id);
+            strings.add(s);
+        }
+        return id;
+    }
+
+    int typeId(Type type) {
+        Integer id = typeIds.get(type);
+        if (id == null) {
+            if (type instanceof ArrayType arrayType) {
+                // intern the base type first
+                typeId(arrayType.baseType());
+            }
+            id = types.size();
+            typeIds.put(type, id);
+            types.add(type);
+        }
+        return id;
+    }
+
+    int fieldRefId(FieldRef ref) {
+        Integer id = fieldRefIds.get(ref);
+        if (id == null) {
+            id = fieldRefs.size();
+            fieldRefIds.put(ref, id);
+            fieldRefs.add(ref);
+        }
+        return id;
+    }
+
+    int methodRefId(MethodRef ref) {
+        Integer id = methodRefIds.get(ref);
+        if (id == null) {
+            id = methodRefs.size();
+            methodRefIds.put(ref, id);
+            methodRefs.add(ref);
+        }
+        return id;
+    }
+}
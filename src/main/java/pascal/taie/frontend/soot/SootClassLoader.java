@@ -24,13 +24,17 @@ package pascal.taie.frontend.soot;
 
 import pascal.taie.World;
 import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JClassLoader;
 import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
 import soot.Scene;
 import soot.SootClass;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
 
 public class SootClassLoader implements JClassLoader {
 
@@ -42,9 +46,15 @@ public class SootClassLoader implements JClassLoader {
 
     private transient Converter converter;
 
-    private final Map<String, JClass> classes = Maps.newMap(1024);
+    private final ConcurrentMap<String, JClass> classes = Maps.newConcurrentMap(1024);
 
-    private List<String> sources;
+    private final Set<String> sources;
+
+    /**
+     * Whether the loaded classes are added to the class hierarchy
+     * by {@link #loadClasses(List, int)} instead of {@link #loadClass(String)}.
+     */
+    private transient volatile boolean deferred;
 
     public static Set<String> readSubSigList = Set.of(
             "void readObject(java.io.ObjectInputStream)",
@@ -58,7 +68,7 @@ public class SootClassLoader implements JClassLoader {
         this.scene = scene;
         this.hierarchy = hierarchy;
         this.allowPhantom = allowPhantom;
-        this.sources = sources;
+        this.sources = Sets.newSet(sources);
     }
 
     @Override
@@ -74,28 +84,91 @@ public class SootClassLoader implements JClassLoader {
                 // at build(jclass) may also trigger the loading of
                 // the new created class. Not putting the class into classes
                 // may cause infinite recursion.
-                classes.put(name, jclass);
+                JClass loaded = classes.putIfAbsent(name, jclass);
+                if (loaded != null) {
+                    // the class is being loaded by another thread
+                    return loaded;
+                }
                 new SootClassBuilder(converter, sootClass).build(jclass);
-                hierarchy.addClass(jclass);
-
-                boolean isSerImpl = sootClass.implementsInterface("java.io.Serializable");
-                if (isSerImpl) jclass.setSerializable();
-                boolean isInvokeImpl = sootClass.implementsInterface("java.lang.reflect.InvocationHandler");
-                jclass.getDeclaredMethods().forEach(m -> {
-                    if (sources.contains(m.getSignature()) ||
-                            (sources.contains("serializable") && readSubSigList.contains(m.getSubsignature().toString()))) {
-                        World.get().addGCEntry(m);
-                    }
-                    if (m.getSubsignature().toString().equals(invokeSubSig) && isInvokeImpl) {
-                        World.get().addInvocationHandlerMethod(m);
-                    }
-                });
+                if (!deferred) {
+                    addClass(jclass, sootClass);
+                }
             }
         }
         // TODO: add warning for missing classes
         return jclass;
     }
 
+    /**
+     * Loads the given classes in parallel, and then adds them to
+     * the class hierarchy in the order that {@link #loadClass(String)}
+     * would add them when loading the classes one by one, so that
+     * the indexes of the classes and the world entries are the same
+     * as those of the serial loading.
+     *
+     * @param nThreads max number of threads, 1 for loading the classes
+     *                 one by one, 0 for the number of processors.
+     */
+    void loadClasses(List<SootClass> sootClasses, int nThreads) {
+        if (nThreads == 1) {
+            sootClasses.forEach(c -> loadClass(c.getName()));
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(nThreads > 0 ? nThreads
+                : Runtime.getRuntime().availableProcessors());
+        deferred = true;
+        try {
+            pool.submit(() -> sootClasses.parallelStream()
+                    .forEach(c -> loadClass(c.getName()))).join();
+        } finally {
+            deferred = false;
+            pool.shutdown();
+        }
+        Set<String> added = Sets.newSet(classes.size());
+        sootClasses.forEach(c -> addClass(c.getName(), added));
+    }
+
+    private void addClass(String name, Set<String> added) {
+        JClass jclass = classes.get(name);
+        if (jclass == null || !added.add(name)) {
+            return;
+        }
+        // a class is added after the classes loaded by building it,
+        // i.e., its super class, interfaces and outer class
+        SootClass sootClass = scene.getSootClass(name);
+        if (!name.equals(ClassNames.OBJECT)) {
+            if (sootClass.hasSuperclass()) {
+                addClass(sootClass.getSuperclass().getName(), added);
+                sootClass.getInterfaces().forEach(i -> addClass(i.getName(), added));
+                if (sootClass.hasOuterClass()) {
+                    addClass(sootClass.getOuterClass().getName(), added);
+                }
+            } else {
+                // building the (phantom) class without super class fails,
+                // and then its super class is set to Object
+                addClass(ClassNames.OBJECT, added);
+            }
+        }
+        addClass(jclass, sootClass);
+    }
+
+    private void addClass(JClass jclass, SootClass sootClass) {
+        hierarchy.addClass(jclass);
+
+        boolean isSerImpl = sootClass.implementsInterface("java.io.Serializable");
+        if (isSerImpl) jclass.setSerializable();
+        boolean isInvokeImpl = sootClass.implementsInterface("java.lang.reflect.InvocationHandler");
+        jclass.getDeclaredMethods().forEach(m -> {
+            if (sources.contains(m.getSignature()) ||
+                    (sources.contains("serializable") && readSubSigList.contains(m.getSubsignature().toString()))) {
+                World.get().addGCEntry(m);
+            }
+            if (m.getSubsignature().toString().equals(invokeSubSig) && isInvokeImpl) {
+                World.get().addInvocationHandlerMethod(m);
+            }
+        });
+    }
+
     @Override
     public Collection<JClass> getLoadedClasses() {
         return classes.values();
@@ -175,7 +175,7 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
         Converter converter = new Converter(loader, typeSystem);
         loader.setConverter(converter);
         // build classes in hierarchy
-        buildClasses(hierarchy, scene);
+        buildClasses(hierarchy, scene, options.getWorldBuildThreads());
         // set main method
         if (options.getMainClass() != null) {
             if (scene.hasMainClass()) {
@@ -205,10 +205,9 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
         }
     }
 
-    protected static void buildClasses(ClassHierarchy hierarchy, Scene scene) {
-        // TODO: parallelize?
-        new ArrayList<>(scene.getClasses()).forEach(c ->
-                hierarchy.getDefaultClassLoader().loadClass(c.getName()));
+    protected static void buildClasses(ClassHierarchy hierarchy, Scene scene, int nThreads) {
+        ((SootClassLoader) hierarchy.getDefaultClassLoader())
+                .loadClasses(new ArrayList<>(scene.getClasses()), nThreads);
     }
 
     private static void runSoot(String[] args) {
@@ -0,0 +1,106 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.ir;
+
+import pascal.taie.World;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Builds the IRs of methods in parallel.
+ * <p>
+ * The methods are handed out to the workers in small chunks in the
+ * given order, so that a worker which draws some huge methods does not
+ * hold up the others, and a consumer that requests the IRs in the same
+ * order, e.g., the writer of the world cache, gets them as soon as they
+ * are built. The number of workers is given by option
+ * {@code --ir-build-threads}, which also bounds the number of method
+ * bodies of the frontend that are in memory at the same time.
+ */
+public final class IRBuildPipeline {
+
+    private static final int CHUNK_SIZE = 16;
+
+    private IRBuildPipeline() {
+    }
+
+    /**
+     * @return the methods of {@code classes} that have IRs, in the order
+     * of the classes.
+     */
+    public static List<JMethod> methodsOf(Stream<JClass> classes) {
+        return classes.map(JClass::getDeclaredMethods)
+                .flatMap(Collection::stream)
+                .filter(m -> !m.isAbstract() || m.isNative())
+                .toList();
+    }
+
+    /**
+     * Builds the IRs of {@code methods}, and waits until all are built.
+     */
+    public static void buildAll(List<JMethod> methods) {
+        start(methods).join();
+    }
+
+    /**
+     * Starts building the IRs of {@code methods} in the background.
+     * The IRs can be requested via {@link JMethod#getIR()} meanwhile,
+     * which builds the IR in the requesting thread if no worker has
+     * started building it.
+     *
+     * @return the future that completes when all IRs are built.
+     */
+    public static CompletableFuture<Void> start(List<JMethod> methods) {
+        int nThreads = Math.max(1, Math.min(getThreads(), methods.size()));
+        ExecutorService service = Executors.newFixedThreadPool(nThreads);
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            int start;
+            while ((start = next.getAndAdd(CHUNK_SIZE)) < methods.size()) {
+                int end = Math.min(start + CHUNK_SIZE, methods.size());
+                for (int i = start; i < end; ++i) {
+                    methods.get(i).getIR();
+                }
+            }
+        };
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[nThreads];
+        for (int i = 0; i < nThreads; ++i) {
+            workers[i] = CompletableFuture.runAsync(worker, service);
+        }
+        service.shutdown();
+        return CompletableFuture.allOf(workers);
+    }
+
+    private static int getThreads() {
+        int nThreads = World.get().getOptions().getIRBuildThreads();
+        return nThreads > 0 ? nThreads : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -23,6 +23,7 @@
 package pascal.taie.language.classes;
 
 import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.ContrValue;
 import pascal.taie.analysis.dataflow.analysis.methodsummary.plugin.TaintTransfer;
 import pascal.taie.analysis.pta.core.cs.element.CSVar;
 import pascal.taie.frontend.cache.CachedIRBuilder;
@@ -77,7 +78,7 @@ public class JMethod extends ClassMember {
      *
      * @see CachedIRBuilder
      */
-    private transient IR ir;
+    private transient volatile IR ir;
 
     private boolean isSource;
 
@@ -89,13 +90,13 @@ public class JMethod extends ClassMember {
 
     private Map<String, String> imitatedBehavior;
 
-    private Map<String, String> summary;
+    private Map<String, ContrValue> summary;
 
     private boolean isInvoke;
 
     private Map<CSVar, String> invokeDispatch;
 
-    private List<String> initEdge;
+    private List<ContrValue> initEdge;
 
     public JMethod(JClass declaringClass, String name, Set<Modifier> modifiers,
                    List<Type> paramTypes, Type returnType, List<ClassType> exceptions,
@@ -208,17 +209,25 @@ public class JMethod extends ClassMember {
     }
 
     public IR getIR() {
-        if (ir == null) {
+        IR result = ir;
+        if (result == null) {
             if (isAbstract()) {
                 return new IRBuildHelper(this).buildEmpty();
             }
-            if (isNative()) {
-                ir = World.get().getNativeModel().buildNativeIR(this);
-            } else {
-                ir = World.get().getIRBuilder().buildIR(this);
+            // IR may be requested by multiple threads, build it only once
+            synchronized (this) {
+                result = ir;
+                if (result == null) {
+                    if (isNative()) {
+                        result = World.get().getNativeModel().buildNativeIR(this);
+                    } else {
+                        result = World.get().getIRBuilder().buildIR(this);
+                    }
+                    ir = result;
+                }
             }
         }
-        return ir;
+        return result;
     }
 
     /**
@@ -281,15 +290,15 @@ public class JMethod extends ClassMember {
         return imitatedBehavior;
     }
 
-    public void setSummary(String key, String value) {
-        if (key != null && value != null && !key.equals(value)) summary.put(key, value);
+    public void setSummary(String key, ContrValue value) {
+        if (key != null && value != null && !key.equals(value.toString())) summary.put(key, value);
     }
 
-    public String getSummary(String key) {
+    public ContrValue getSummary(String key) {
         return summary.getOrDefault(key, null);
     }
 
-    public Map<String,String> getSummaryMap() {
+    public Map<String, ContrValue> getSummaryMap() {
         return summary;
     }
 
@@ -313,11 +322,15 @@ public class JMethod extends ClassMember {
         return invokeDispatch.getOrDefault(var, null);
     }
 
-    public void setInitEdge(List<String> csContr) {
+    public void clearInvokeDispatch() {
+        invokeDispatch.clear();
+    }
+
+    public void setInitEdge(List<ContrValue> csContr) {
         initEdge = csContr;
     }
 
-    public List<String> getInitEdge() {
+    public List<ContrValue> getInitEdge() {
         return initEdge;
     }
 }
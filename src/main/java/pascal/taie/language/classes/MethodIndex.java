@@ -0,0 +1,149 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.language.classes;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Index of the non-abstract and non-private methods of the world, keyed by
+ * method name, number of parameters and serializability of declaring class,
+ * for looking up the targets of reflective calls without scanning all methods.
+ * <p>
+ * Method names are kept in a sorted table, and a name pattern is matched
+ * once per distinct name rather than once per method. The matched names
+ * of each pattern are cached.
+ */
+public class MethodIndex {
+
+    /**
+     * Distinct method names in ascending order.
+     */
+    private final String[] names;
+
+    /**
+     * Methods of each name in {@link #names}, grouped by number of parameters.
+     */
+    private final Map<Integer, Bucket>[] buckets;
+
+    /**
+     * Cache of the indexes of names matched by each pattern.
+     */
+    private final Map<String, int[]> matchedNames = Maps.newConcurrentMap();
+
+    @SuppressWarnings("unchecked")
+    public MethodIndex(Stream<JMethod> methods) {
+        TreeMap<String, Map<Integer, Bucket>> index = new TreeMap<>();
+        methods.filter(m -> !m.isAbstract() && !m.isPrivate())
+                .forEach(m -> index.computeIfAbsent(m.getName(), n -> Maps.newSmallMap())
+                        .computeIfAbsent(m.getParamCount(), n -> new Bucket())
+                        .add(m));
+        names = index.keySet().toArray(new String[0]);
+        buckets = index.values().toArray(new Map[0]);
+    }
+
+    /**
+     * @param name               name of the methods.
+     * @param paramCount         number of parameters of the methods,
+     *                           or -1 for any number.
+     * @param serializableOnly   whether only the methods declared in
+     *                           serializable classes are returned.
+     * @return the methods with the given name.
+     */
+    public Stream<JMethod> getMethods(String name, int paramCount,
+                                      boolean serializableOnly) {
+        int i = Arrays.binarySearch(names, name);
+        return i >= 0 ? getMethods(i, paramCount, serializableOnly) : Stream.of();
+    }
+
+    /**
+     * @param regex              pattern which the names of the methods contain,
+     *                           as {@link java.util.regex.Matcher#find()}.
+     * @param paramCount         number of parameters of the methods,
+     *                           or -1 for any number.
+     * @param serializableOnly   whether only the methods declared in
+     *                           serializable classes are returned.
+     * @return the methods whose names match the given pattern.
+     */
+    public Stream<JMethod> getMethodsMatching(String regex, int paramCount,
+                                              boolean serializableOnly) {
+        int[] matched = matchedNames.computeIfAbsent(regex, this::matchNames);
+        return Arrays.stream(matched)
+                .boxed()
+                .flatMap(i -> getMethods(i, paramCount, serializableOnly));
+    }
+
+    private int[] matchNames(String regex) {
+        Predicate<String> pattern = Pattern.compile(regex).asPredicate();
+        return IntStream.range(0, names.length)
+                .filter(i -> pattern.test(names[i]))
+                .toArray();
+    }
+
+    private Stream<JMethod> getMethods(int nameIndex, int paramCount,
+                                       boolean serializableOnly) {
+        Map<Integer, Bucket> byCount = buckets[nameIndex];
+        if (paramCount >= 0) {
+            Bucket bucket = byCount.get(paramCount);
+            return bucket != null ? bucket.getMethods(serializableOnly) : Stream.of();
+        } else {
+            return byCount.values()
+                    .stream()
+                    .flatMap(bucket -> bucket.getMethods(serializableOnly));
+        }
+    }
+
+    /**
+     * Methods with the same name and number of parameters, separated
+     * by serializability of their declaring classes.
+     */
+    private static class Bucket {
+
+        private final List<JMethod> serializable = new ArrayList<>();
+
+        private final List<JMethod> others = new ArrayList<>();
+
+        private void add(JMethod method) {
+            if (method.getDeclaringClass().isSerializable()) {
+                serializable.add(method);
+            } else {
+                others.add(method);
+            }
+        }
+
+        private Stream<JMethod> getMethods(boolean serializableOnly) {
+            return serializableOnly ? serializable.stream()
+                    : Stream.concat(serializable.stream(), others.stream());
+        }
+    }
+}
@@ -63,6 +63,10 @@ public enum BaseType implements TypeGSignature {
         this.name = name;
     }
 
+    public char getDescriptor() {
+        return descriptor;
+    }
+
     /**
      * @return the primitive type specified by specific name.
      * @throws IllegalArgumentException if given name is irrelevant to any primitive type.
@@ -25,9 +25,12 @@ package pascal.taie.language.generics;
 
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.signature.SignatureReader;
+import org.objectweb.asm.signature.SignatureVisitor;
+import org.objectweb.asm.signature.SignatureWriter;
 import pascal.taie.util.Experimental;
 
 import javax.annotation.Nullable;
+import java.util.List;
 
 /**
  * Utility methods for converting signatures.
@@ -70,4 +73,89 @@ public final class GSignatures {
         return (T) gSig;
     }
 
+    /**
+     * @return the signature attribute of {@code gSig}, from which
+     * {@link #toClassSig(boolean, String)} rebuilds an equal signature.
+     */
+    public static String toSignature(ClassGSignature gSig) {
+        SignatureWriter writer = new SignatureWriter();
+        acceptTypeParams(writer, gSig.getTypeParams());
+        ClassTypeGSignature superClass = gSig.getSuperClass();
+        accept(writer.visitSuperclass(), superClass != null ?
+                superClass : ClassTypeGSignature.JAVA_LANG_OBJECT);
+        gSig.getSuperInterfaces().forEach(i -> accept(writer.visitInterface(), i));
+        return writer.toString();
+    }
+
+    /**
+     * @return the signature attribute of {@code gSig}, from which
+     * {@link #toMethodSig(String)} rebuilds an equal signature.
+     */
+    public static String toSignature(MethodGSignature gSig) {
+        SignatureWriter writer = new SignatureWriter();
+        acceptTypeParams(writer, gSig.getTypeParams());
+        gSig.getParameterSigs().forEach(p -> accept(writer.visitParameterType(), p));
+        accept(writer.visitReturnType(), gSig.getResultSignature());
+        gSig.getThrowsSigs().forEach(t -> accept(writer.visitExceptionType(), t));
+        return writer.toString();
+    }
+
+    /**
+     * @return the signature attribute of {@code gSig}, from which
+     * {@link #toTypeSig(String)} rebuilds an equal signature.
+     */
+    public static String toSignature(TypeGSignature gSig) {
+        SignatureWriter writer = new SignatureWriter();
+        accept(writer, gSig);
+        return writer.toString();
+    }
+
+    private static void acceptTypeParams(SignatureVisitor visitor,
+                                         List<TypeParameter> typeParams) {
+        for (TypeParameter typeParam : typeParams) {
+            visitor.visitFormalTypeParameter(typeParam.getTypeName());
+            if (typeParam.getClassBound() != null) {
+                accept(visitor.visitClassBound(), typeParam.getClassBound());
+            }
+            typeParam.getInterfaceBounds().forEach(bound ->
+                    accept(visitor.visitInterfaceBound(), bound));
+        }
+    }
+
+    private static void accept(SignatureVisitor visitor, TypeGSignature gSig) {
+        if (gSig instanceof BaseType baseType) {
+            visitor.visitBaseType(baseType.getDescriptor());
+        } else if (gSig instanceof VoidDescriptor) {
+            visitor.visitBaseType('V');
+        } else if (gSig instanceof TypeVariableGSignature typeVar) {
+            visitor.visitTypeVariable(typeVar.getTypeName());
+        } else if (gSig instanceof ArrayTypeGSignature arrayType) {
+            for (int i = 0; i < arrayType.getDimensions(); ++i) {
+                visitor = visitor.visitArrayType();
+            }
+            accept(visitor, arrayType.getBaseTypeGSignature());
+        } else if (gSig instanceof ClassTypeGSignature classType) {
+            List<ClassTypeGSignature.SimpleClassTypeGSignature> sigs = classType.getSignatures();
+            String packageName = classType.getPackageName();
+            for (int i = 0; i < sigs.size(); ++i) {
+                var sig = sigs.get(i);
+                if (i == 0) {
+                    visitor.visitClassType(packageName == null ? sig.className()
+                            : packageName.replace('.', '/') + '/' + sig.className());
+                } else {
+                    visitor.visitInnerClassType(sig.className());
+                }
+                for (TypeArgument typeArg : sig.typeArgs()) {
+                    if (typeArg.getKind() == TypeArgument.Kind.ALL) {
+                        visitor.visitTypeArgument();
+                    } else {
+                        accept(visitor.visitTypeArgument(typeArg.getKind().getSymbol()),
+                                typeArg.getGSignature());
+                    }
+                }
+            }
+            visitor.visitEnd();
+        }
+    }
+
 }
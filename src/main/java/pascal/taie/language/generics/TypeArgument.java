@@ -94,6 +94,10 @@ public final class TypeArgument implements Serializable {
             this.symbol = symbol;
         }
 
+        public char getSymbol() {
+            return symbol;
+        }
+
         public static Kind of(char symbol) {
             for (Kind indicator : Kind.values()) {
                 if (indicator.symbol == symbol) {
@@ -0,0 +1,702 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Map implementation based on hash array mapped trie (HAMT), whose copies
+ * share structure with each other.
+ * <p>
+ * {@link #copy()} takes O(1) time, and an update of one copy only copies
+ * the path from the root to the updated entry, so other copies are not
+ * affected. {@link #putAllFrom(PersistentHashMap)} skips the subtrees shared
+ * by the two maps, thus merging a map with a copy of it which is slightly
+ * changed only visits the changed paths.
+ * <p>
+ * Nodes created since the last copy are owned by this map and updated in
+ * place. Null keys cannot be put into this map, and looking them up finds
+ * nothing. The nodes are not serialized, and a deserialized map shares
+ * no structure with others. This class is not thread-safe.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+public class PersistentHashMap<K, V> extends AbstractMap<K, V>
+        implements Serializable {
+
+    private static final String NULL_KEY = "PersistentHashMap does not permit null keys";
+
+    private static final int BITS = 5;
+
+    private static final int MASK = (1 << BITS) - 1;
+
+    private transient Node root;
+
+    private transient int size;
+
+    /**
+     * Token of the nodes which can be updated in place by this map.
+     * It is renewed when the nodes are shared with other maps.
+     */
+    private transient Object owner;
+
+    /**
+     * The cache of {@link #entrySet()}.
+     */
+    private transient Set<Entry<K, V>> entrySet;
+
+    public PersistentHashMap() {
+        this(BitmapNode.EMPTY, 0);
+    }
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+        this.owner = new Object();
+    }
+
+    /**
+     * @return a copy of this map, which shares all nodes with this map.
+     */
+    public PersistentHashMap<K, V> copy() {
+        freeze();
+        return new PersistentHashMap<>(root, size);
+    }
+
+    /**
+     * Makes current nodes immutable for this map, so that they can be shared.
+     */
+    private void freeze() {
+        owner = new Object();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        Object v = root.find(0, hash(key), key, NOT_FOUND);
+        return v == NOT_FOUND ? null : (V) v;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && root.find(0, hash(key), key, NOT_FOUND) != NOT_FOUND;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        Objects.requireNonNull(key, NULL_KEY);
+        Result r = new Result();
+        root = root.put(owner, 0, hash(key), key, value, r);
+        if (r.added) {
+            ++size;
+        }
+        return (V) r.old;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (key == null) {
+            return null;
+        }
+        Result r = new Result();
+        Node newRoot = root.remove(owner, 0, hash(key), key, r);
+        root = newRoot == null ? BitmapNode.EMPTY : newRoot;
+        if (r.removed) {
+            --size;
+        }
+        return (V) r.old;
+    }
+
+    @Override
+    public void clear() {
+        root = BitmapNode.EMPTY;
+        size = 0;
+    }
+
+    /**
+     * Puts all mappings of given map into this map, i.e., this map becomes
+     * the union of the two maps, and the values of given map win.
+     * The subtrees shared by the two maps are skipped.
+     *
+     * @return true if the value of any key is changed (with respect to
+     * {@link Objects#equals(Object, Object)}) as a result of the call.
+     */
+    public boolean putAllFrom(PersistentHashMap<K, V> other) {
+        if (other == this) {
+            return false;
+        }
+        // nodes of other are shared with this map after the call
+        other.freeze();
+        Result r = new Result();
+        root = union(owner, root, other.root, 0, r);
+        size += r.addedCount;
+        return r.changed;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        root.forEach((BiConsumer<Object, Object>) action);
+    }
+
+    @Override
+    @Nonnull
+    public Set<Entry<K, V>> entrySet() {
+        Set<Entry<K, V>> set = entrySet;
+        if (set == null) {
+            set = new AbstractSet<>() {
+                @Override
+                @Nonnull
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator<>(PersistentHashMap.this);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+            entrySet = set;
+        }
+        return set;
+    }
+
+    @Serial
+    private void writeObject(ObjectOutputStream s) throws IOException {
+        s.defaultWriteObject();
+        s.writeInt(size);
+        for (Entry<K, V> e : entrySet()) {
+            s.writeObject(e.getKey());
+            s.writeObject(e.getValue());
+        }
+    }
+
+    @Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream s) throws IOException,
+            ClassNotFoundException {
+        s.defaultReadObject();
+        root = BitmapNode.EMPTY;
+        owner = new Object();
+        int n = s.readInt();
+        for (int i = 0; i < n; ++i) {
+            put((K) s.readObject(), (V) s.readObject());
+        }
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bitpos(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static final Object NOT_FOUND = new Object();
+
+    /**
+     * Holds the side results of an update.
+     */
+    private static class Result {
+
+        private boolean added;
+
+        private boolean removed;
+
+        private Object old;
+
+        /**
+         * Number of keys added by union.
+         */
+        private int addedCount;
+
+        /**
+         * Whether union changes any value.
+         */
+        private boolean changed;
+
+        private void reset() {
+            added = false;
+            removed = false;
+            old = null;
+        }
+    }
+
+    /**
+     * Updates node {@code a} with the mappings of node {@code b}.
+     */
+    private static Node union(Object owner, Node a, Node b, int shift, Result r) {
+        if (a == b) {
+            return a;
+        }
+        if (!(a instanceof BitmapNode x) || !(b instanceof BitmapNode y)) {
+            return putAll(owner, a, b, shift, r);
+        }
+        Node result = x;
+        for (int bits = y.bitmap; bits != 0; bits &= bits - 1) {
+            int bit = bits & -bits;
+            int yi = 2 * y.index(bit);
+            Object yk = y.array[yi];
+            Object yv = y.array[yi + 1];
+            BitmapNode current = (BitmapNode) result;
+            if ((current.bitmap & bit) == 0) {
+                // the slot only exists in b, share it
+                result = current.insert(owner, bit, yk, yv);
+                if (yk == null) {
+                    ((Node) yv).forEach((k, v) -> {
+                        ++r.addedCount;
+                        r.changed |= v != null;
+                    });
+                } else {
+                    ++r.addedCount;
+                    r.changed |= yv != null;
+                }
+                continue;
+            }
+            int xi = 2 * current.index(bit);
+            Object xk = current.array[xi];
+            Object xv = current.array[xi + 1];
+            if (xk == null && yk == null) {
+                Node sub = union(owner, (Node) xv, (Node) yv, shift + BITS, r);
+                if (sub != xv) {
+                    result = current.set(owner, xi + 1, sub);
+                }
+            } else if (yk == null) {
+                result = putAll(owner, current, (Node) yv, shift, r);
+            } else {
+                result = put(owner, current, shift, yk, yv, r);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Puts all mappings in node {@code b} into node {@code a} one by one.
+     */
+    private static Node putAll(Object owner, Node a, Node b, int shift, Result r) {
+        Node[] result = {a};
+        b.forEach((k, v) -> result[0] = put(owner, result[0], shift, k, v, r));
+        return result[0];
+    }
+
+    private static Node put(Object owner, Node node, int shift,
+                            Object key, Object value, Result r) {
+        r.reset();
+        Node result = node.put(owner, shift, hash(key), key, value, r);
+        if (r.added) {
+            ++r.addedCount;
+        }
+        r.changed |= !Objects.equals(r.old, value);
+        return result;
+    }
+
+    private abstract static class Node {
+
+        abstract Object find(int shift, int hash, Object key, Object notFound);
+
+        abstract Node put(Object owner, int shift, int hash,
+                          Object key, Object value, Result r);
+
+        /**
+         * @return the node after removal, or null if the node becomes empty.
+         */
+        abstract Node remove(Object owner, int shift, int hash, Object key, Result r);
+
+        abstract void forEach(BiConsumer<Object, Object> action);
+    }
+
+    /**
+     * Node of which each slot holds either an entry (key and value)
+     * or a child node (null and the node).
+     */
+    private static final class BitmapNode extends Node {
+
+        private static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+        private final Object owner;
+
+        private int bitmap;
+
+        private Object[] array;
+
+        private BitmapNode(Object owner, int bitmap, Object[] array) {
+            this.owner = owner;
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key, Object notFound) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return notFound;
+            }
+            int i = 2 * index(bit);
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                return ((Node) v).find(shift + BITS, hash, key, notFound);
+            }
+            return key.equals(k) ? v : notFound;
+        }
+
+        @Override
+        Node put(Object owner, int shift, int hash, Object key, Object value, Result r) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                r.added = true;
+                return insert(owner, bit, key, value);
+            }
+            int i = 2 * index(bit);
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                Node sub = ((Node) v).put(owner, shift + BITS, hash, key, value, r);
+                return sub == v ? this : set(owner, i + 1, sub);
+            }
+            if (key.equals(k)) {
+                r.old = v;
+                return v == value ? this : set(owner, i + 1, value);
+            }
+            r.added = true;
+            Node sub = createNode(owner, shift + BITS, k, v, hash, key, value);
+            BitmapNode node = set(owner, i, null);
+            return node.set(owner, i + 1, sub);
+        }
+
+        @Override
+        Node remove(Object owner, int shift, int hash, Object key, Result r) {
+            int bit = bitpos(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = 2 * index(bit);
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                Node sub = ((Node) v).remove(owner, shift + BITS, hash, key, r);
+                if (sub == v) {
+                    return this;
+                }
+                if (sub != null) {
+                    return set(owner, i + 1, sub);
+                }
+            } else if (key.equals(k)) {
+                r.removed = true;
+                r.old = v;
+            } else {
+                return this;
+            }
+            return bitmap == bit ? null : delete(owner, bit, i);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                Object k = array[i];
+                if (k == null) {
+                    ((Node) array[i + 1]).forEach(action);
+                } else {
+                    action.accept(k, array[i + 1]);
+                }
+            }
+        }
+
+        /**
+         * @return node of which the slot at given array index is set to given value.
+         */
+        private BitmapNode set(Object owner, int i, Object value) {
+            if (owner == this.owner) {
+                array[i] = value;
+                return this;
+            }
+            Object[] newArray = array.clone();
+            newArray[i] = value;
+            return new BitmapNode(owner, bitmap, newArray);
+        }
+
+        /**
+         * @return node with a new slot for the given bit.
+         */
+        private BitmapNode insert(Object owner, int bit, Object key, Object value) {
+            int i = 2 * index(bit);
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            newArray[i] = key;
+            newArray[i + 1] = value;
+            System.arraycopy(array, i, newArray, i + 2, array.length - i);
+            if (owner == this.owner) {
+                bitmap |= bit;
+                array = newArray;
+                return this;
+            }
+            return new BitmapNode(owner, bitmap | bit, newArray);
+        }
+
+        /**
+         * @return node without the slot for the given bit.
+         */
+        private BitmapNode delete(Object owner, int bit, int i) {
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, newArray.length - i);
+            if (owner == this.owner) {
+                bitmap ^= bit;
+                array = newArray;
+                return this;
+            }
+            return new BitmapNode(owner, bitmap ^ bit, newArray);
+        }
+
+        private static Node createNode(Object owner, int shift, Object k1, Object v1,
+                                       int h2, Object k2, Object v2) {
+            int h1 = hash(k1);
+            if (h1 == h2) {
+                return new CollisionNode(owner, h1, new Object[]{k1, v1, k2, v2});
+            }
+            Result r = new Result();
+            return new BitmapNode(owner, 0, new Object[0])
+                    .put(owner, shift, h1, k1, v1, r)
+                    .put(owner, shift, h2, k2, v2, r);
+        }
+    }
+
+    /**
+     * Node holding the entries whose keys have the same hash.
+     */
+    private static final class CollisionNode extends Node {
+
+        private final Object owner;
+
+        private final int hash;
+
+        private Object[] array;
+
+        private CollisionNode(Object owner, int hash, Object[] array) {
+            this.owner = owner;
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key, Object notFound) {
+            int i = indexOf(key);
+            return i < 0 ? notFound : array[i + 1];
+        }
+
+        @Override
+        Node put(Object owner, int shift, int hash, Object key, Object value, Result r) {
+            if (hash != this.hash) {
+                // nest this node into a bitmap node and put the entry there
+                return new BitmapNode(owner, bitpos(this.hash, shift), new Object[]{null, this})
+                        .put(owner, shift, hash, key, value, r);
+            }
+            int i = indexOf(key);
+            Object[] newArray;
+            if (i >= 0) {
+                r.old = array[i + 1];
+                if (r.old == value) {
+                    return this;
+                }
+                newArray = owner == this.owner ? array : array.clone();
+                newArray[i + 1] = value;
+            } else {
+                r.added = true;
+                newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, array.length);
+                newArray[array.length] = key;
+                newArray[array.length + 1] = value;
+            }
+            if (owner == this.owner) {
+                array = newArray;
+                return this;
+            }
+            return new CollisionNode(owner, hash, newArray);
+        }
+
+        @Override
+        Node remove(Object owner, int shift, int hash, Object key, Result r) {
+            int i = indexOf(key);
+            if (i < 0) {
+                return this;
+            }
+            r.removed = true;
+            r.old = array[i + 1];
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, newArray.length - i);
+            if (owner == this.owner) {
+                array = newArray;
+                return this;
+            }
+            return new CollisionNode(owner, hash, newArray);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept(array[i], array[i + 1]);
+            }
+        }
+    }
+
+    /**
+     * Iterates entries of a trie in depth-first order.
+     * <p>
+     * The iterator walks the nodes of the map when it is created. Before
+     * its first removal, the map is frozen, so that the removals copy the
+     * nodes being walked instead of updating them in place.
+     */
+    private static final class EntryIterator<K, V> implements Iterator<Entry<K, V>> {
+
+        private final PersistentHashMap<K, V> map;
+
+        /**
+         * Arrays of the nodes on the path, the maximum depth of a trie is
+         * 32 / {@link #BITS} bitmap nodes plus one collision node.
+         */
+        private final Object[][] arrays = new Object[32 / BITS + 2][];
+
+        private final int[] indexes = new int[32 / BITS + 2];
+
+        private int depth;
+
+        private Entry<K, V> next;
+
+        /**
+         * The entry last returned by {@link #next()}, or null if it is removed.
+         */
+        private Entry<K, V> last;
+
+        private boolean frozen;
+
+        private EntryIterator(PersistentHashMap<K, V> map) {
+            this.map = map;
+            arrays[0] = arrayOf(map.root);
+            advance();
+        }
+
+        private static Object[] arrayOf(Node node) {
+            return node instanceof BitmapNode b ? b.array : ((CollisionNode) node).array;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                int i = indexes[depth];
+                if (i >= array.length) {
+                    --depth;
+                    continue;
+                }
+                indexes[depth] = i + 2;
+                Object k = array[i];
+                if (k == null) {
+                    ++depth;
+                    arrays[depth] = arrayOf((Node) array[i + 1]);
+                    indexes[depth] = 0;
+                } else {
+                    next = new ImmutableMapEntry<>((K) k, (V) array[i + 1]);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> e = next;
+            last = e;
+            advance();
+            return e;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            if (!frozen) {
+                map.freeze();
+                frozen = true;
+            }
+            map.remove(last.getKey());
+            last = null;
+        }
+    }
+}
@@ -27,12 +27,18 @@ import org.junit.platform.suite.api.Suite;
 import pascal.taie.analysis.bugfinder.BugFinderTestSuite;
 import pascal.taie.analysis.dataflow.DataflowTestSuite;
 import pascal.taie.analysis.deadcode.DeadCodeTestFull;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.GadgetChainGraphTest;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.PointsToCacheTest;
+import pascal.taie.analysis.dataflow.analysis.methodsummary.SummaryEngineTest;
 import pascal.taie.analysis.defuse.DefUseTest;
 import pascal.taie.analysis.graph.callgraph.cha.CHATestFull;
 import pascal.taie.analysis.pta.PTATestSuite;
 import pascal.taie.analysis.sideeffect.SideEffectTest;
 import pascal.taie.config.OptionsTest;
+import pascal.taie.frontend.cache.ClassPathSegmentsTest;
 import pascal.taie.frontend.cache.SerializationTest;
+import pascal.taie.frontend.cache.WorldCacheTest;
+import pascal.taie.frontend.soot.ParallelWorldBuildTest;
 import pascal.taie.frontend.soot.SootFrontendTest;
 import pascal.taie.language.DefaultMethodTest;
 import pascal.taie.language.FieldTest;
@@ -46,12 +52,15 @@ import pascal.taie.util.UtilTestSuite;
 @SelectClasses({
         // world
         SootFrontendTest.class,
+        ParallelWorldBuildTest.class,
         TypeTest.class,
         GSignaturesTest.class,
         HierarchyTest.class,
         DefaultMethodTest.class,
         FieldTest.class,
         SerializationTest.class,
+        WorldCacheTest.class,
+        ClassPathSegmentsTest.class,
         // analysis
         BugFinderTestSuite.class,
         DataflowTestSuite.class,
@@ -60,6 +69,9 @@ import pascal.taie.util.UtilTestSuite;
         CHATestFull.class,
         PTATestSuite.class,
         SideEffectTest.class,
+        GadgetChainGraphTest.class,
+        SummaryEngineTest.class,
+        PointsToCacheTest.class,
         // util
         OptionsTest.class,
         UtilTestSuite.class,
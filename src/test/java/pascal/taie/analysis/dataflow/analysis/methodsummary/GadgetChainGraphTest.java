@@ -0,0 +1,162 @@
+package pascal.taie.analysis.dataflow.analysis.methodsummary;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import pascal.taie.World;
+import pascal.taie.config.Options;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the paths of {@link GadgetChainGraph}, which are memoized and
+ * pruned by the distances to sinks, with a plain depth-first search.
+ */
+public class GadgetChainGraphTest {
+
+    private static final int PATH_MAX_COUNT = 1000;
+
+    @BeforeAll
+    static void setUp() {
+        World world = new World();
+        world.setOptions(Options.parse(
+                "-ml", "8", "-pmc", Integer.toString(PATH_MAX_COUNT)));
+        World.set(world);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        World.reset();
+    }
+
+    @Test
+    void testSinkBecomesNonLeaf() {
+        GadgetChainGraph graph = new GadgetChainGraph();
+        graph.addPath(List.of("a", "b"));
+        assertEquals(Set.of(List.of("a", "b")), graph.collectPath("a"));
+        graph.addPath(List.of("b", "c"));
+        assertEquals(Set.of(List.of("a", "b", "c")), graph.collectPath("a"));
+        assertEquals(Set.of(List.of("b", "c")), graph.collectPath("b"));
+    }
+
+    @Test
+    void testCycle() {
+        GadgetChainGraph graph = new GadgetChainGraph();
+        graph.addPath(List.of("a", "b", "c", "a"));
+        assertEquals(Set.of(), graph.collectPath("a"));
+        graph.addPath(List.of("c", "d"));
+        assertEquals(Set.of(List.of("a", "b", "c", "d")), graph.collectPath("a"));
+        assertEquals(Set.of(List.of("b", "c", "d")), graph.collectPath("b"));
+    }
+
+    @Test
+    void testGeneratedDAGs() {
+        Random random = new Random(20231018L);
+        for (int i = 0; i < 50; ++i) {
+            testGeneratedGraph(random, 16, false);
+        }
+    }
+
+    @Test
+    void testGeneratedGraphsWithCycles() {
+        Random random = new Random(20231019L);
+        for (int i = 0; i < 50; ++i) {
+            testGeneratedGraph(random, 16, true);
+        }
+    }
+
+    /**
+     * Adds random paths to a graph, and checks the paths of all nodes
+     * after each addition, so that the memoized paths are checked after
+     * they are invalidated.
+     */
+    private static void testGeneratedGraph(Random random, int nNodes, boolean cyclic) {
+        GadgetChainGraph graph = new GadgetChainGraph();
+        Map<String, Set<String>> succs = new TreeMap<>();
+        for (int p = 0; p < 3 * nNodes; ++p) {
+            List<String> path = randomPath(random, nNodes, cyclic);
+            graph.addPath(path);
+            for (int i = 0; i < path.size(); ++i) {
+                succs.computeIfAbsent(path.get(i), k -> new LinkedHashSet<>());
+                if (i > 0) {
+                    succs.get(path.get(i - 1)).add(path.get(i));
+                }
+            }
+            for (String node : succs.keySet()) {
+                Set<List<String>> expected = collectPaths(succs, node);
+                assertEquals(expected, toSet(graph.iteratePaths(node)), node);
+                if (expected.size() <= PATH_MAX_COUNT) {
+                    assertEquals(expected, new HashSet<>(graph.collectPath(node)), node);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a path of 2 to 5 distinct nodes. The nodes of a path in
+     * a DAG are in ascending order, so the graph has no cycles.
+     */
+    private static List<String> randomPath(Random random, int nNodes, boolean cyclic) {
+        int length = 2 + random.nextInt(4);
+        List<Integer> ids = new ArrayList<>();
+        while (ids.size() < length) {
+            int id = random.nextInt(nNodes);
+            if (!ids.contains(id)) {
+                ids.add(id);
+            }
+        }
+        if (!cyclic) {
+            ids.sort(null);
+        }
+        return ids.stream().map(id -> "m" + id).toList();
+    }
+
+    /**
+     * Reference: simple paths from {@code from} to nodes without successors,
+     * with at most {@link StackManger#MAX_LEN} nodes.
+     */
+    private static Set<List<String>> collectPaths(Map<String, Set<String>> succs, String from) {
+        Set<List<String>> paths = new HashSet<>();
+        Deque<String> path = new ArrayDeque<>();
+        path.addLast(from);
+        dfs(succs, path, paths);
+        return paths;
+    }
+
+    private static void dfs(Map<String, Set<String>> succs, Deque<String> path,
+                            Set<List<String>> paths) {
+        Set<String> nexts = succs.get(path.getLast());
+        if (nexts.isEmpty()) {
+            paths.add(List.copyOf(path));
+            return;
+        }
+        if (path.size() == StackManger.MAX_LEN) {
+            return;
+        }
+        for (String next : nexts) {
+            if (!path.contains(next)) {
+                path.addLast(next);
+                dfs(succs, path, paths);
+                path.removeLast();
+            }
+        }
+    }
+
+    private static Set<List<String>> toSet(Iterator<List<String>> iter) {
+        Set<List<String>> set = new HashSet<>();
+        iter.forEachRemaining(set::add);
+        return set;
+    }
+}
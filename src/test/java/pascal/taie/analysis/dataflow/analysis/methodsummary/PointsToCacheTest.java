@@ -0,0 +1,143 @@
+package pascal.taie.analysis.dataflow.analysis.methodsummary;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelectorFactory;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.IntType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays the queries of {@link StmtProcessor} on the loads of a field
+ * within one method, i.e., {@code this.f = x; v1 = this.f; v2 = this.f;},
+ * and counts the hits of {@link PointsToCache}.
+ */
+public class PointsToCacheTest {
+
+    /**
+     * Stands for the field {@code f}, whose store edges are matched.
+     */
+    private static final Object FIELD_KEY = "f";
+
+    private final CSManager csManager = new MapBasedCSManager();
+
+    private final Context context = ContextSelectorFactory.makeCISelector().getEmptyContext();
+
+    private Pointer thisVar;
+
+    private Pointer x;
+
+    private ContrFact fact;
+
+    @BeforeEach
+    void setUp() {
+        thisVar = newVar("this");
+        x = newVar("x");
+        fact = new ContrFact();
+        Contr thisContr = Contr.newInstance(thisVar);
+        thisContr.setValue(ContrValue.THIS);
+        fact.update(thisVar, thisContr);
+    }
+
+    @Test
+    void testHitsOnRepeatedLoads() {
+        PointsToCache cache = new PointsToCache(100);
+        Pointer v1 = newVar("v1");
+        Pointer v2 = newVar("v2");
+        Pointer v3 = newVar("v3");
+        fact.update(v1, load(cache, v1));
+        // the query of x in the first load is reused
+        Contr contr = load(cache, v2);
+        assertEquals(1, cache.getHits());
+        // so is the answer of v2 before its fact is updated, e.g., by an alias query
+        assertTrue(cache.hasAnswer(v2, fact));
+        assertEquals(ContrValue.THIS.field("f"), cache.useAnswer(v2).getValue());
+        assertEquals(2, cache.getHits());
+        fact.update(v2, contr);
+        fact.update(v3, load(cache, v3));
+        assertEquals(3, cache.getHits());
+    }
+
+    @Test
+    void testFactChanged() {
+        PointsToCache cache = new PointsToCache(100);
+        Pointer v1 = newVar("v1");
+        load(cache, v1);
+        Contr thisContr = Contr.newInstance(thisVar);
+        thisContr.setValue(ContrValue.POLLUTED);
+        fact.update(thisVar, thisContr);
+        assertFalse(cache.hasAnswer(v1, fact));
+        // x reads no fact of this
+        assertTrue(cache.hasAnswer(x, fact));
+    }
+
+    @Test
+    void testInvalidate() {
+        PointsToCache cache = new PointsToCache(100);
+        Pointer v1 = newVar("v1");
+        load(cache, v1);
+        // a new store edge of the field
+        assertTrue(cache.invalidate(FIELD_KEY).contains(v1));
+        assertFalse(cache.hasAnswer(v1, fact));
+        assertTrue(cache.hasAnswer(x, fact));
+        // a new in-edge of x
+        load(cache, v1);
+        assertTrue(cache.invalidate(x).contains(v1));
+        assertFalse(cache.hasAnswer(v1, fact));
+        assertFalse(cache.hasAnswer(x, fact));
+    }
+
+    @Test
+    void testCapacity() {
+        PointsToCache cache = new PointsToCache(1);
+        Pointer v1 = newVar("v1");
+        load(cache, v1);
+        // x is the eldest, and v1 depending on it is dropped as well
+        assertFalse(cache.hasAnswer(v1, fact));
+        assertFalse(cache.hasAnswer(x, fact));
+        cache = new PointsToCache(0);
+        load(cache, v1);
+        load(cache, v1);
+        assertEquals(0, cache.getHits());
+    }
+
+    /**
+     * Queries the given variable loading {@code this.f}, as
+     * {@link StmtProcessor} does in {@code getContr}.
+     */
+    private Contr load(PointsToCache cache, Pointer v) {
+        if (cache.hasAnswer(v, fact)) return cache.useAnswer(v);
+        cache.startQuery();
+        cache.read(v, fact.get(v));
+        cache.read(FIELD_KEY);
+        // the alias x stored to this.f
+        Contr alias;
+        if (cache.hasAnswer(x, fact)) {
+            alias = cache.useAnswer(x);
+        } else {
+            cache.startQuery();
+            cache.read(x, fact.get(x));
+            alias = null; // x points to nothing
+            cache.finishQuery(x, alias);
+        }
+        Contr answer = Contr.newInstance(v);
+        if (alias == null) {
+            Contr base = fact.get(thisVar);
+            cache.read(thisVar, base);
+            answer.updateValue(base.getValue().field("f"));
+        }
+        cache.finishQuery(v, answer);
+        return answer;
+    }
+
+    private Pointer newVar(String name) {
+        return csManager.getCSVar(context, new Var(null, name, IntType.INT, 0));
+    }
+}
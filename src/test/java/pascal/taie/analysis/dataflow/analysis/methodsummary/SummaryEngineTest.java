@@ -0,0 +1,100 @@
+package pascal.taie.analysis.dataflow.analysis.methodsummary;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks that the explicit-stack engine, which suspends and replays the
+ * statements calling unanalyzed methods, and the sparse mode get the same
+ * summaries and gadget chains as the recursive engine in the dense mode.
+ */
+public class SummaryEngineTest {
+
+    private static final String CLASS_PATH = "src/test/resources/summary";
+
+    /**
+     * Output of the gadget chains, which is shared by all runs, as
+     * {@link StackManger} reads it once. So are the max length of chains
+     * and the max count of paths, which are the same as in
+     * {@link GadgetChainGraphTest}.
+     */
+    private static final Path GC_OUT = Path.of("output", "summary-engine-chains.txt");
+
+    @AfterEach
+    void tearDown() {
+        World.reset();
+    }
+
+    @Test
+    void testSameResults() throws IOException {
+        Results recursive = analyze("recursive", false);
+        Results explicitStack = analyze("explicit-stack", false);
+        assertFalse(recursive.chains().isEmpty());
+        assertEquals(recursive.summaries(), explicitStack.summaries());
+        assertEquals(recursive.chains(), explicitStack.chains());
+    }
+
+    @Test
+    void testSameResultsSparse() throws IOException {
+        Results recursive = analyze("recursive", true);
+        Results explicitStack = analyze("explicit-stack", true);
+        assertEquals(recursive.summaries(), explicitStack.summaries());
+        assertEquals(recursive.chains(), explicitStack.chains());
+    }
+
+    /**
+     * The sparse mode skips the statements which the dense mode ignores,
+     * so it must get the same summaries and chains.
+     */
+    @Test
+    void testSparseSameAsDense() throws IOException {
+        Results dense = analyze("recursive", false);
+        Results sparse = analyze("recursive", true);
+        assertFalse(dense.chains().isEmpty());
+        assertEquals(dense.summaries(), sparse.summaries());
+        assertEquals(dense.chains(), sparse.chains());
+    }
+
+    private static Results analyze(String engine, boolean sparse) throws IOException {
+        Files.createDirectories(GC_OUT.getParent());
+        Files.deleteIfExists(GC_OUT);
+        Main.main(
+                "-java", "8",
+                "-acp", CLASS_PATH,
+                "-s", "serializable",
+                "-go", GC_OUT.toString(),
+                "-ml", "8",
+                "-pmc", "1000",
+                "-a", "method-summary=engine:" + engine
+                        + ";sparse:" + sparse
+                        + ";priori-knowledge:" + CLASS_PATH + "/summary-config.yml"
+        );
+        Map<String, String> summaries = new TreeMap<>();
+        World.get().allMethods()
+                .filter(JMethod::hasSummary)
+                .forEach(m -> summaries.put(m.getSignature(),
+                        new TreeMap<>(m.getSummaryMap()).toString()));
+        List<String> chains = Files.readAllLines(GC_OUT)
+                .stream()
+                .sorted()
+                .toList();
+        World.reset();
+        return new Results(summaries, chains);
+    }
+
+    private record Results(Map<String, String> summaries, List<String> chains) {
+    }
+}
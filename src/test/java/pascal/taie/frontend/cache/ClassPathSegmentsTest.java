@@ -0,0 +1,105 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pascal.taie.config.Options;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Checks which segments of the world cache are reused when
+ * a class path entry changes.
+ */
+public class ClassPathSegmentsTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testUnchangedEntries() throws IOException {
+        Options options = writeProgram();
+        assertEquals(getKeys(options), getKeys(options));
+    }
+
+    @Test
+    void testChangedEntry() throws IOException {
+        Options options = writeProgram();
+        List<String> keys = getKeys(options);
+        Files.writeString(dir.resolve("lib").resolve("B.class"), "B2");
+        List<String> newKeys = getKeys(options);
+        // the classes of app may refer to the classes of lib
+        assertEquals(3, keys.size());
+        for (int i = 0; i < keys.size(); ++i) {
+            assertNotEquals(keys.get(i), newKeys.get(i), "segment " + i);
+        }
+    }
+
+    @Test
+    void testJDKEntries() throws IOException {
+        writeProgram();
+        Options options = Options.parse("-java", "8",
+                "-acp", dir.resolve("app").toString(),
+                "-cp", dir.resolve("lib").toString());
+        List<String> keys = getKeys(options);
+        Files.writeString(dir.resolve("lib").resolve("B.class"), "B2");
+        List<String> newKeys = getKeys(options);
+        // the JDK jars, followed by app, lib and the last segment
+        int nJDKEntries = keys.size() - 3;
+        for (int i = 0; i < keys.size(); ++i) {
+            if (i < nJDKEntries) {
+                assertEquals(keys.get(i), newKeys.get(i), "segment " + i);
+            } else {
+                assertNotEquals(keys.get(i), newKeys.get(i), "segment " + i);
+            }
+        }
+    }
+
+    private Options writeProgram() throws IOException {
+        Files.createDirectories(dir.resolve("app"));
+        Files.createDirectories(dir.resolve("lib"));
+        Files.writeString(dir.resolve("app").resolve("A.class"), "A1");
+        Files.writeString(dir.resolve("lib").resolve("B.class"), "B1");
+        return Options.parse("-pp",
+                "-cp", dir.resolve("app").toString(),
+                "-cp", dir.resolve("lib").toString());
+    }
+
+    private static List<String> getKeys(Options options) throws IOException {
+        List<String> keys = new ArrayList<>();
+        try (ClassPathSegments segments = new ClassPathSegments(options)) {
+            for (int i = 0; i < segments.size(); ++i) {
+                keys.add(segments.getKey(i, List.of()));
+            }
+        }
+        return keys;
+    }
+}
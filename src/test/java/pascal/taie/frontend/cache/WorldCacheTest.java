@@ -0,0 +1,241 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.config.Options;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InvokeDynamic;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Saves a world to the world cache, loads it back, and compares every
+ * class, member and IR of the loaded world with the built one.
+ */
+public class WorldCacheTest {
+
+    /**
+     * Two class path entries, so that the world is saved in several segments,
+     * and the classes of the running JVM go to the last segment.
+     */
+    private static final String[] ARGS = {
+            "-pp",
+            "-cp", "src/test/resources/world",
+            "-cp", "src/test/resources/pta/invokedynamic",
+            "--input-classes", "AllInOne,Switch,Function,Capture,MultiStatement",
+            "-wc",
+    };
+
+    private static World built;
+
+    private static World loaded;
+
+    /**
+     * Methods whose IRs are decoded by loading the world.
+     */
+    private static List<JMethod> decodedOnLoad;
+
+    @BeforeAll
+    public static void setUp() throws ReflectiveOperationException, IOException {
+        // the world is built and saved if the cache is missing,
+        // and loaded from the cache otherwise
+        File cacheFile = CachedWorldBuilder.getWorldCacheFile(Options.parse(ARGS));
+        Files.deleteIfExists(cacheFile.toPath());
+        Main.buildWorld(ARGS);
+        built = World.get();
+        World.reset();
+        assertTrue(cacheFile.exists());
+        Main.buildWorld(ARGS);
+        loaded = World.get();
+        World.reset();
+        // checks the IRs before any test requests them
+        Field ir = JMethod.class.getDeclaredField("ir");
+        ir.setAccessible(true);
+        decodedOnLoad = new ArrayList<>();
+        for (JMethod m : concreteMethods(loaded)) {
+            if (ir.get(m) != null) {
+                decodedOnLoad.add(m);
+            }
+        }
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        World.reset();
+    }
+
+    @Test
+    void testIRsAreDecodedOnDemand() {
+        List<JMethod> methods = concreteMethods(loaded);
+        assertFalse(methods.isEmpty());
+        assertEquals(List.of(), decodedOnLoad);
+        for (JMethod m : methods) {
+            assertTrue(m.getMethodSource() instanceof WorldCacheReader.IRSource,
+                    m.toString());
+        }
+    }
+
+    @Test
+    void testSameWorld() {
+        Map<String, String> expected = describe(built);
+        Map<String, String> actual = describe(loaded);
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((key, desc) -> assertEquals(desc, actual.get(key), key));
+    }
+
+    @Test
+    void testCoveredStmts() {
+        World.set(loaded);
+        JClass allInOne = loaded.getClassHierarchy().getClass("AllInOne");
+        assertTrue(allInOne.getDeclaredMethods().stream()
+                .anyMatch(m -> !m.getIR().getExceptionEntries().isEmpty()));
+        JClass switchClass = loaded.getClassHierarchy().getClass("Switch");
+        assertTrue(switchClass.getDeclaredMethod("switchStmt")
+                .getIR().stmts().anyMatch(s -> s instanceof SwitchStmt));
+        JClass function = loaded.getClassHierarchy().getClass("Function");
+        assertTrue(function.getDeclaredMethod("main")
+                .getIR().invokes(true).anyMatch(Invoke::isDynamic));
+    }
+
+    /**
+     * @return descriptions of the classes, fields and methods of
+     * {@code world}, and of the entries of the world, keyed by their names.
+     */
+    private static Map<String, String> describe(World world) {
+        // the IRs are built or decoded in the current world
+        World.set(world);
+        Map<String, String> desc = new TreeMap<>();
+        world.getClassHierarchy().allClasses().forEach(c -> {
+            desc.put(c.getName(), describe(c));
+            c.getDeclaredFields().forEach(f -> desc.put(f.getSignature(), describe(f)));
+            c.getDeclaredMethods().forEach(m -> desc.put(m.getSignature(), describe(m)));
+        });
+        desc.put("main method", String.valueOf(world.getMainMethod()));
+        desc.put("implicit entries", sorted(world.getImplicitEntries()));
+        desc.put("gadget chain entries", sorted(world.getGCEntries()));
+        desc.put("invocation handler methods", sorted(world.getInvocationHandlerMethod()));
+        World.reset();
+        return desc;
+    }
+
+    private static String describe(JClass c) {
+        List<String> lines = new ArrayList<>();
+        lines.add("module " + c.getModuleName());
+        lines.add("modifiers " + new TreeSet<>(c.getModifiers()));
+        lines.add("super " + name(c.getSuperClass()));
+        lines.add("interfaces " + sorted(c.getInterfaces().stream().map(JClass::getName).toList()));
+        lines.add("outer " + name(c.getOuterClass()));
+        lines.add("application " + c.isApplication());
+        lines.add("phantom " + c.isPhantom());
+        lines.add("serializable " + c.isSerializable());
+        lines.add("signature " + c.getGSignature());
+        lines.add("annotations " + sorted(c.getAnnotations()));
+        return String.join("\n", lines);
+    }
+
+    private static String describe(JField f) {
+        return String.join("\n",
+                "modifiers " + new TreeSet<>(f.getModifiers()),
+                "signature " + f.getGSignature(),
+                "annotations " + sorted(f.getAnnotations()));
+    }
+
+    private static String describe(JMethod m) {
+        List<String> lines = new ArrayList<>();
+        lines.add("modifiers " + new TreeSet<>(m.getModifiers()));
+        lines.add("exceptions " + m.getExceptions());
+        lines.add("signature " + m.getGSignature());
+        lines.add("annotations " + sorted(m.getAnnotations()));
+        for (int i = 0; i < m.getParamCount(); ++i) {
+            lines.add("param " + m.getParamName(i) + " " + sorted(m.getParamAnnotations(i)));
+        }
+        if (!m.isAbstract()) {
+            describe(m.getIR(), lines);
+        }
+        return String.join("\n", lines);
+    }
+
+    private static void describe(IR ir, List<String> lines) {
+        ir.getVars().forEach(v -> lines.add("var " + v + ": " + v.getType()));
+        lines.add("this " + ir.getThis());
+        lines.add("params " + ir.getParams());
+        lines.add("returns " + ir.getReturnVars());
+        for (Stmt s : ir) {
+            // the jump statements show the indexes of their targets
+            lines.add(s.getIndex() + "@" + s.getLineNumber() + ": " + s);
+            if (s instanceof Invoke invoke
+                    && invoke.getInvokeExp() instanceof InvokeDynamic indy) {
+                lines.add("  bootstrap " + indy.getBootstrapMethodRef()
+                        + " " + indy.getBootstrapArgs()
+                        + " " + indy.getMethodName()
+                        + " " + indy.getMethodType()
+                        + " " + indy.getType());
+            }
+        }
+        for (ExceptionEntry e : ir.getExceptionEntries()) {
+            lines.add(e.toString());
+        }
+    }
+
+    private static List<JMethod> concreteMethods(World world) {
+        return world.getClassHierarchy()
+                .allClasses()
+                .map(JClass::getDeclaredMethods)
+                .flatMap(Collection::stream)
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .toList();
+    }
+
+    private static String name(JClass c) {
+        return c != null ? c.getName() : null;
+    }
+
+    private static String sorted(Collection<?> elems) {
+        return elems.stream().map(String::valueOf).sorted().toList().toString();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.soot;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks that building the classes of the world in parallel gives
+ * the same class hierarchy and world entries as the serial build.
+ */
+public class ParallelWorldBuildTest {
+
+    @AfterEach
+    void tearDown() {
+        World.reset();
+    }
+
+    @Test
+    void testSameWorld() {
+        Map<String, List<String>> serial = build(1);
+        Map<String, List<String>> parallel = build(4);
+        assertFalse(serial.get("gadget chain entries").isEmpty());
+        assertFalse(serial.get("invocation handler methods").isEmpty());
+        assertEquals(serial.keySet(), parallel.keySet());
+        serial.forEach((key, expected) ->
+                assertEquals(expected, parallel.get(key), key));
+    }
+
+    /**
+     * Builds the world with {@code nThreads} threads.
+     *
+     * @return the classes in the order of the class hierarchy with their
+     * indexes, and the entries of the world.
+     */
+    private static Map<String, List<String>> build(int nThreads) {
+        Main.buildWorld("-pp",
+                "-cp", "src/test/resources/world",
+                // the JDK classes have readObject and an InvocationHandler
+                "--input-classes", "AllInOne,java.util.HashMap,"
+                        + "sun.reflect.annotation.AnnotationInvocationHandler",
+                "-s", "serializable",
+                "--world-build-threads", Integer.toString(nThreads));
+        World world = World.get();
+        Map<String, List<String>> result = new TreeMap<>();
+        result.put("classes", world.getClassHierarchy()
+                .allClasses()
+                .map(c -> c.getIndex() + " " + c.getName()
+                        + (c.isSerializable() ? " serializable" : ""))
+                .toList());
+        result.put("application classes", world.getClassHierarchy()
+                .applicationClasses()
+                .map(JClass::getName)
+                .toList());
+        result.put("gadget chain entries", world.getGCEntries()
+                .stream()
+                .map(m -> m + (m.isSource() ? " source" : ""))
+                .toList());
+        // the set of handlers is not ordered
+        result.put("invocation handler methods", world.getInvocationHandlerMethod()
+                .stream()
+                .map(JMethod::toString)
+                .sorted()
+                .toList());
+        World.reset();
+        return result;
+    }
+}
@@ -34,6 +34,7 @@ import org.junit.platform.suite.api.Suite;
         HybridHashSetTest.class,
         IndexMapTest.class,
         MultiMapTest.class,
+        PersistentHashMapTest.class,
         RegularBitSetTest.class,
         SetQueueTest.class,
         SparseBitSetTest.class,
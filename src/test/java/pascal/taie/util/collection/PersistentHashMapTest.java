@@ -0,0 +1,62 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class PersistentHashMapTest extends AbstractMapTest {
+
+    protected <K, V> Map<K, V> newMap() {
+        return new PersistentHashMap<>();
+    }
+
+    @Test
+    void testIteratorRemoveKeepsCopy() {
+        PersistentHashMap<Integer, String> map = new PersistentHashMap<>();
+        for (int i = 0; i < 1000; ++i) {
+            map.put(i, Integer.toString(i));
+        }
+        PersistentHashMap<Integer, String> copy = map.copy();
+        Iterator<Map.Entry<Integer, String>> it = map.entrySet().iterator();
+        int visited = 0;
+        while (it.hasNext()) {
+            Map.Entry<Integer, String> e = it.next();
+            ++visited;
+            if (e.getKey() % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertEquals(1000, visited);
+        assertEquals(500, map.size());
+        assertFalse(map.containsKey(0));
+        assertEquals("1", map.get(1));
+        assertEquals(1000, copy.size());
+        assertEquals("0", copy.get(0));
+    }
+}
@@ -0,0 +1,65 @@
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+
+public class Chains implements Serializable {
+
+    private Action action;
+
+    private String cmd;
+
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        // multiple targets, some of which need to be analyzed first
+        action.run(cmd);
+        Sink.exec(Helper.id(cmd));
+    }
+}
+
+interface Action {
+    void run(String arg);
+}
+
+class Echo implements Action, Serializable {
+
+    public void run(String arg) {
+        // loads a static field, whose class is initialized first
+        if (Helper.last != null) {
+            Helper.id(arg);
+        }
+    }
+}
+
+class Exec implements Action, Serializable {
+
+    public void run(String arg) {
+        Sink.exec(arg);
+    }
+}
+
+class Relay implements Action, Serializable {
+
+    private Action next;
+
+    public void run(String arg) {
+        // recursion via the interface
+        next.run(Helper.id(arg));
+    }
+}
+
+class Helper {
+
+    static Object last = new Object();
+
+    static String id(String s) {
+        last = s;
+        return s;
+    }
+}
+
+class Sink {
+
+    static void exec(String cmd) {
+    }
+}